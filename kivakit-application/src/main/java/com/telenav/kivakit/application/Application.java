@@ -46,8 +46,10 @@ import com.telenav.kivakit.core.messaging.messages.status.Glitch;
 import com.telenav.kivakit.core.messaging.repeaters.BaseRepeater;
 import com.telenav.kivakit.core.project.Build;
 import com.telenav.kivakit.core.project.Project;
+import com.telenav.kivakit.core.project.ProjectInitializer;
 import com.telenav.kivakit.core.project.StartUp;
 import com.telenav.kivakit.core.project.StartUp.Option;
+import com.telenav.kivakit.core.project.StartupTimeline;
 import com.telenav.kivakit.core.registry.Registry;
 import com.telenav.kivakit.core.registry.RegistryTrait;
 import com.telenav.kivakit.core.string.Align;
@@ -59,6 +61,7 @@ import com.telenav.kivakit.core.value.identifier.StringIdentifier;
 import com.telenav.kivakit.core.version.Version;
 import com.telenav.kivakit.core.vm.Properties;
 import com.telenav.kivakit.core.vm.ShutdownHook;
+import com.telenav.kivakit.filesystem.File;
 import com.telenav.kivakit.filesystem.Folder;
 import com.telenav.kivakit.interfaces.naming.Named;
 import com.telenav.kivakit.interfaces.naming.NamedObject;
@@ -81,6 +84,7 @@ import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static com.telenav.kivakit.application.Application.State.CONSTRUCTING;
 import static com.telenav.kivakit.application.Application.State.INITIALIZING;
@@ -151,6 +155,12 @@ import static com.telenav.kivakit.core.ensure.Ensure.ensureNotNull;
  * ensure that all of the application's transitively dependent project(s) are initialized. See {@link Project} for details.
  * </p>
  *
+ * <p>
+ * Projects are initialized one at a time, each after its dependencies. If {@link #initializeProjectsInParallel()} is
+ * overridden to return true, a {@link ProjectInitializer} initializes projects that don't depend on each other at the
+ * same time, and the chain of dependent projects that took longest to initialize (the critical path) is traced.
+ * </p>
+ *
  * <p><br/><hr/><br/></p>
  *
  * <p><b>Application Metadata</b></p>
@@ -203,6 +213,16 @@ import static com.telenav.kivakit.core.ensure.Ensure.ensureNotNull;
  *     <li>Exit</li>
  * </ol>
  *
+ * <p><i>Start-up Timeline</i></p>
+ *
+ * <p>
+ * The time taken by each start-up phase before {@link #onRun()}, and by the initialization of each project, is
+ * recorded in a {@link StartupTimeline}, along with the bytes allocated and classes loaded in each phase. The timeline
+ * is available from {@link #startupTimeline()}. If the KIVAKIT_STARTUP_TIMELINE property or environment variable names
+ * a file, the timeline is saved to that file as JSON, or in folded stack format for flame graph tools if the file name
+ * ends in ".folded".
+ * </p>
+ *
  * <p><i>Abnormal Termination</i></p>
  *
  * <p>
@@ -508,73 +528,15 @@ public abstract class Application extends BaseComponent implements
      */
     public final void run(String[] arguments)
     {
-        // Enable start-up options,
-        startupOptions().forEach(StartUp::enable);
-
-        // signal that we are initializing,
-        state.transitionTo(INITIALIZING);
-
-        // and we're running,
-        onRunning();
-
-        // set up temporary listener,
-        LOGGER.listenTo(this);
-
-        // initialize this application's project
-        onProjectsInitializing();
-        initializeProjects();
-        onProjectsInitialized();
-
-        // load deployments,
-        deployments = DeploymentSet.load(this, getClass());
-
-        // then through arguments
-        var argumentList = new StringList();
-        for (var argument : arguments)
-        {
-            // and if the argument is -switches=[resource]
-            if (argument.startsWith("-switches="))
-            {
-                // then load properties from the resource
-                var resourceIdentifier = Strip.leading(argument, "-switches=");
-                var resource = Resource.resolve(this, resourceIdentifier);
-                var properties = PropertyMap.load(resource);
-
-                // and add those properties to the argument list
-                for (var key : properties.keySet())
-                {
-                    var value = properties.get(key);
-                    argumentList.add(key + "=" + value);
-                }
-            }
-            else
-            {
-                // otherwise, add the argument
-                argumentList.add(argument);
-            }
-        }
-
-        // then parse the command line arguments.
-        commandLine = new CommandLineParser(this)
-                .addSwitchParsers(internalSwitchParsers())
-                .addArgumentParsers(argumentParsers())
-                .parse(argumentList.asStringArray());
-
-        // Remove temporary logger and allow subclass to configure output streams,
-        clearListeners();
-        onConfigureListeners();
-
-        // and if a deployment was specified,
-        if (deploymentSpecified())
+        var timeline = startupTimeline();
+        try (var ignored = timeline.span("startup"))
         {
-            // install it in the global settings registry.
-            registerSettingsIn(get(DEPLOYMENT));
+            startUp(timeline, arguments);
         }
 
-        if (!StartUp.isEnabled(Option.QUIET))
-        {
-            showStartupInformation();
-        }
+        // End the start-up timeline and save it if requested.
+        timeline.end();
+        saveStartupTimeline();
 
         try
         {
@@ -662,6 +624,15 @@ public abstract class Application extends BaseComponent implements
         return box.titledBox(title);
     }
 
+    /**
+     * @return The timeline of the start-up phases of this application, including the initialization of each project.
+     * The timeline is complete once {@link #onRun()} is called.
+     */
+    public StartupTimeline startupTimeline()
+    {
+        return StartupTimeline.startupTimeline();
+    }
+
     /**
      * @return The application version as specified in the resource "/project.properties"
      */
@@ -692,6 +663,14 @@ public abstract class Application extends BaseComponent implements
         return false;
     }
 
+    /**
+     * @return True to initialize independent projects in parallel with a {@link ProjectInitializer}
+     */
+    protected boolean initializeProjectsInParallel()
+    {
+        return false;
+    }
+
     /**
      * If a project is <i>not</i> passed to the constructor, then this method can be overridden to provide a {@link
      * Project} dynamically.
@@ -806,6 +785,21 @@ public abstract class Application extends BaseComponent implements
      */
     private void initializeProjects()
     {
+        // If projects should be initialized in parallel,
+        if (initializeProjectsInParallel())
+        {
+            // initialize them with a project initializer,
+            var initializer = new ProjectInitializer(this);
+            initializer.initialize(projects());
+
+            // and trace the critical path.
+            trace("Project initialization critical path: $", initializer.criticalPath()
+                    .stream()
+                    .map(project -> project.getClass().getSimpleName() + " (" + initializer.initializationTime(project) + ")")
+                    .collect(Collectors.joining(" -> ")));
+            return;
+        }
+
         // Start with all projects uninitialized,
         var uninitialized = new IdentitySet<Project>();
         uninitialized.addAll(projects());
@@ -842,6 +836,114 @@ public abstract class Application extends BaseComponent implements
         return parsers;
     }
 
+    /**
+     * Saves the start-up timeline to the file given by KIVAKIT_STARTUP_TIMELINE, if it is defined. The timeline is
+     * saved in folded stack format if the file name ends in ".folded", and as JSON otherwise.
+     */
+    private void saveStartupTimeline()
+    {
+        var path = systemProperty("KIVAKIT_STARTUP_TIMELINE");
+        if (path != null)
+        {
+            var timeline = startupTimeline();
+            File.parseFile(this, path).writer().save(path.endsWith(".folded")
+                    ? timeline.asFoldedStacks()
+                    : timeline.asJson());
+        }
+    }
+
+    /**
+     * Performs the start-up phases of {@link #run(String[])}, recording each in the given timeline
+     */
+    private void startUp(StartupTimeline timeline, String[] arguments)
+    {
+        // Enable start-up options,
+        startupOptions().forEach(StartUp::enable);
+
+        // signal that we are initializing,
+        state.transitionTo(INITIALIZING);
+
+        // and we're running,
+        onRunning();
+
+        // set up temporary listener,
+        LOGGER.listenTo(this);
+
+        // initialize this application's project
+        try (var ignored = timeline.span("initialize projects"))
+        {
+            onProjectsInitializing();
+            initializeProjects();
+            onProjectsInitialized();
+        }
+
+        // load deployments (their settings are read only when one is selected),
+        try (var ignored = timeline.span("load deployments"))
+        {
+            deployments = DeploymentSet.load(this, getClass());
+        }
+
+        try (var ignored = timeline.span("parse command line"))
+        {
+            // then through arguments
+            var argumentList = new StringList();
+            for (var argument : arguments)
+            {
+                // and if the argument is -switches=[resource]
+                if (argument.startsWith("-switches="))
+                {
+                    // then load properties from the resource
+                    var resourceIdentifier = Strip.leading(argument, "-switches=");
+                    try (var switches = timeline.span("load switches from " + resourceIdentifier))
+                    {
+                        var resource = Resource.resolve(this, resourceIdentifier);
+                        var properties = PropertyMap.load(resource);
+
+                        // and add those properties to the argument list
+                        for (var key : properties.keySet())
+                        {
+                            var value = properties.get(key);
+                            argumentList.add(key + "=" + value);
+                        }
+                    }
+                }
+                else
+                {
+                    // otherwise, add the argument
+                    argumentList.add(argument);
+                }
+            }
+
+            // then parse the command line arguments.
+            commandLine = new CommandLineParser(this)
+                    .addSwitchParsers(internalSwitchParsers())
+                    .addArgumentParsers(argumentParsers())
+                    .parse(argumentList.asStringArray());
+        }
+
+        // Remove temporary logger and allow subclass to configure output streams,
+        clearListeners();
+        onConfigureListeners();
+
+        // and if a deployment was specified,
+        if (deploymentSpecified())
+        {
+            // install it in the global settings registry.
+            try (var ignored = timeline.span("register deployment settings"))
+            {
+                registerSettingsIn(get(DEPLOYMENT));
+            }
+        }
+
+        if (!StartUp.isEnabled(Option.QUIET))
+        {
+            try (var ignored = timeline.span("show startup information"))
+            {
+                showStartupInformation();
+            }
+        }
+    }
+
     @UmlExcludeMember
     protected final SwitchParser<Boolean> QUIET =
             booleanSwitchParser(this, "quiet", "Minimize output")
@@ -0,0 +1,101 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.benchmarks.collections;
+
+import com.telenav.kivakit.core.collections.map.CacheMap;
+import com.telenav.kivakit.core.time.Duration;
+import com.telenav.kivakit.core.value.count.Maximum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.telenav.kivakit.core.value.count.Maximum.maximum;
+
+/**
+ * Measures {@link CacheMap#get(Object)} and {@link CacheMap#put(Object, Object)} on a cache with and without a maximum
+ * entry age. The key set is twice the size of the cache, so about half of the lookups miss and puts evict the eldest
+ * entries.
+ *
+ * @author jonathanl (shibo)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheMapBenchmark
+{
+    private static final int CACHE_SIZE = 1_024;
+
+    @Param({ "false", "true" })
+    public boolean expiring;
+
+    private CacheMap<String, Integer> cache;
+
+    private int index;
+
+    private String[] keys;
+
+    @Benchmark
+    public Integer get()
+    {
+        return cache.get(nextKey());
+    }
+
+    @Benchmark
+    public Integer put()
+    {
+        return cache.put(nextKey(), index);
+    }
+
+    @Setup
+    public void setup()
+    {
+        cache = expiring
+                ? new CacheMap<>(maximum(CACHE_SIZE), Duration.minutes(5))
+                : new CacheMap<>(maximum(CACHE_SIZE));
+
+        keys = new String[CACHE_SIZE * 2];
+        for (int i = 0; i < keys.length; i++)
+        {
+            keys[i] = "key-" + i;
+            if (i % 2 == 0)
+            {
+                cache.put(keys[i], i);
+            }
+        }
+    }
+
+    private String nextKey()
+    {
+        index = (index + 1) & (keys.length - 1);
+        return keys[index];
+    }
+}
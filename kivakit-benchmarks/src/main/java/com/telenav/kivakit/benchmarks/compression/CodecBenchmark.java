@@ -0,0 +1,146 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.benchmarks.compression;
+
+import com.telenav.kivakit.resource.compression.Codec;
+import com.telenav.kivakit.resource.compression.codecs.GzipCodec;
+import com.telenav.kivakit.resource.compression.codecs.Lz4Codec;
+import com.telenav.kivakit.resource.compression.codecs.SnappyCodec;
+import com.telenav.kivakit.resource.compression.codecs.ZstdCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures compressing and decompressing the same data with each {@link Codec}. The data is a few megabytes of
+ * CSV-like records with random values, which compresses about as well as typical data files. The compressed size and
+ * ratio of each codec are printed when it is set up, so throughput can be weighed against ratio.
+ *
+ * @author jonathanl (shibo)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark
+{
+    @Param({ "gzip", "lz4", "lz4-high", "zstd", "snappy" })
+    public String codecName;
+
+    @Param({ "4194304" })
+    public int size;
+
+    private Codec codec;
+
+    private byte[] compressed;
+
+    private byte[] data;
+
+    @Benchmark
+    public ByteArrayOutputStream compress() throws IOException
+    {
+        var bytes = new ByteArrayOutputStream(compressed == null ? size : compressed.length);
+        try (var out = codec.compressed(bytes))
+        {
+            out.write(data);
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public byte[] decompress() throws IOException
+    {
+        try (var in = codec.decompressed(new ByteArrayInputStream(compressed)))
+        {
+            return in.readAllBytes();
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException
+    {
+        switch (codecName)
+        {
+            case "gzip":
+                codec = new GzipCodec();
+                break;
+
+            case "lz4":
+                codec = new Lz4Codec();
+                break;
+
+            case "lz4-high":
+                codec = new Lz4Codec().withLevel(9);
+                break;
+
+            case "zstd":
+                codec = new ZstdCodec();
+                break;
+
+            case "snappy":
+                codec = new SnappyCodec();
+                break;
+
+            default:
+                throw new IllegalArgumentException(codecName);
+        }
+
+        data = data(size);
+        compressed = compress().toByteArray();
+        System.out.printf("%n%s: %,d bytes compressed to %,d bytes (ratio %.2f)%n",
+                codecName, data.length, compressed.length, (double) data.length / compressed.length);
+    }
+
+    /**
+     * @return Records of the given size in bytes, with random values from a fixed seed
+     */
+    private byte[] data(int size)
+    {
+        var random = new Random(42);
+        var builder = new StringBuilder(size + 128);
+        while (builder.length() < size)
+        {
+            builder.append(random.nextInt(1_000_000))
+                    .append(",way-").append(random.nextInt(50_000))
+                    .append(',').append(37 + random.nextDouble())
+                    .append(',').append(-122 - random.nextDouble())
+                    .append(',').append(random.nextBoolean() ? "primary" : "residential")
+                    .append('\n');
+        }
+        builder.setLength(size);
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
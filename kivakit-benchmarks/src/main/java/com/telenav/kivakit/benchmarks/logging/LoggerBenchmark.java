@@ -0,0 +1,142 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.benchmarks.logging;
+
+import com.telenav.kivakit.core.collections.set.ObjectSet;
+import com.telenav.kivakit.core.logging.Log;
+import com.telenav.kivakit.core.logging.LogEntry;
+import com.telenav.kivakit.core.logging.filters.LogEntriesWithSeverityGreaterThanOrEqualTo;
+import com.telenav.kivakit.core.logging.loggers.BaseLogger;
+import com.telenav.kivakit.core.logging.logs.BaseLog;
+import com.telenav.kivakit.core.messaging.messages.Severity;
+import com.telenav.kivakit.core.messaging.messages.status.Problem;
+import com.telenav.kivakit.core.messaging.messages.status.Trace;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.telenav.kivakit.core.collections.set.ObjectSet.objectSet;
+
+/**
+ * Measures {@link BaseLogger#log(com.telenav.kivakit.core.messaging.Message)} for a message that every log rejects and
+ * for a message that is accepted and written to a log that discards it. Logs are synchronous here, so the measurement
+ * covers building, filtering and dispatching the log entry, but not the cost of any particular output.
+ *
+ * @author jonathanl (shibo)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggerBenchmark
+{
+    /**
+     * A log that passes each entry to a {@link Blackhole}
+     */
+    private static class BlackholeLog extends BaseLog
+    {
+        private final Blackhole blackhole;
+
+        BlackholeLog(Blackhole blackhole)
+        {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public String name()
+        {
+            return "blackhole";
+        }
+
+        @Override
+        protected void onLog(LogEntry entry)
+        {
+            blackhole.consume(entry);
+        }
+    }
+
+    /**
+     * A logger that logs to a fixed set of logs
+     */
+    private static class BenchmarkLogger extends BaseLogger
+    {
+        private final ObjectSet<Log> logs;
+
+        BenchmarkLogger(Log log)
+        {
+            logs = objectSet(log);
+        }
+
+        @Override
+        protected ObjectSet<Log> logs()
+        {
+            return logs;
+        }
+    }
+
+    private BenchmarkLogger logger;
+
+    private Problem problem;
+
+    private Trace trace;
+
+    @Benchmark
+    public void accepted()
+    {
+        logger.log(problem);
+    }
+
+    @Benchmark
+    public void filtered()
+    {
+        logger.log(trace);
+    }
+
+    @Setup
+    public void setup(Blackhole blackhole)
+    {
+        BaseLog.asynchronous(false);
+
+        var log = new BlackholeLog(blackhole);
+        log.addFilter(new LogEntriesWithSeverityGreaterThanOrEqualTo(Severity.MEDIUM));
+        logger = new BenchmarkLogger(log);
+
+        problem = new Problem("Unable to read $ from $", "bay_area.osm.pbf", "/data/osm");
+        trace = new Trace("Read $ entries from $", 1_000_000, "bay_area.osm.pbf");
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        BaseLog.asynchronous(true);
+    }
+}
@@ -0,0 +1,62 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.benchmarks.messaging;
+
+import com.telenav.kivakit.core.messaging.Listener;
+import com.telenav.kivakit.core.thread.locks.ReadWriteLock;
+import com.telenav.kivakit.interfaces.messaging.Transmittable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Baseline for {@link MulticasterBenchmark} which transmits the way {@link
+ * com.telenav.kivakit.core.messaging.broadcasters.Multicaster} did before its audience was published as an immutable
+ * snapshot: by taking a fair read lock and walking an {@link ArrayList} of listeners.
+ *
+ * @author jonathanl (shibo)
+ */
+class LockingMulticaster
+{
+    private final List<Listener> audience = new ArrayList<>();
+
+    private final ReadWriteLock lock = new ReadWriteLock();
+
+    void addListener(Listener listener)
+    {
+        lock.write(() ->
+        {
+            if (!audience.contains(listener))
+            {
+                audience.add(listener);
+            }
+        });
+    }
+
+    <M extends Transmittable> M transmit(M message)
+    {
+        lock.read(() ->
+        {
+            for (var listener : audience)
+            {
+                listener.receive(message);
+            }
+        });
+        return message;
+    }
+}
@@ -0,0 +1,115 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.benchmarks.messaging;
+
+import com.telenav.kivakit.core.messaging.broadcasters.Multicaster;
+import com.telenav.kivakit.core.messaging.messages.status.Information;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link Multicaster#transmit(com.telenav.kivakit.interfaces.messaging.Transmittable)}, which reads an
+ * immutable audience snapshot, with the {@link LockingMulticaster} baseline, which takes a fair read lock, on 1, 8 and
+ * 64 threads.
+ *
+ * @author jonathanl (shibo)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MulticasterBenchmark
+{
+    @Param({ "1", "4" })
+    public int listeners;
+
+    private LockingMulticaster locking;
+
+    private final Information message = new Information("benchmark");
+
+    private Multicaster multicaster;
+
+    @Setup
+    public void setup(Blackhole blackhole)
+    {
+        multicaster = new Multicaster("benchmark", getClass());
+        locking = new LockingMulticaster();
+        for (int i = 0; i < listeners; i++)
+        {
+            multicaster.addListener(blackhole::consume);
+            locking.addListener(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object locking1()
+    {
+        return locking.transmit(message);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Object locking64()
+    {
+        return locking.transmit(message);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object locking8()
+    {
+        return locking.transmit(message);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object snapshot1()
+    {
+        return multicaster.transmit(message);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Object snapshot64()
+    {
+        return multicaster.transmit(message);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object snapshot8()
+    {
+        return multicaster.transmit(message);
+    }
+}
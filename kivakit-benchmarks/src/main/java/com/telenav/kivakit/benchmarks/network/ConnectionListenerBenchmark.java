@@ -0,0 +1,182 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.benchmarks.network;
+
+import com.telenav.kivakit.core.thread.Threads;
+import com.telenav.kivakit.core.time.Duration;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.network.socket.server.ConnectionListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes a {@link ConnectionListener} to serve many concurrent local clients, each of which sends a
+ * few requests over its connection, pausing before each one. With "fixed", connections are handled on a thread pool
+ * sized to the number of processors, as {@link ConnectionListener} used to do, so each slow client holds a thread and
+ * the connections of other clients wait in the executor queue. With "per-connection", the default thread per connection
+ * executor is used.
+ *
+ * @author jonathanl (shibo)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConnectionListenerBenchmark
+{
+    @Param({ "64" })
+    public int clients;
+
+    @Param({ "fixed", "per-connection" })
+    public String executor;
+
+    /** The time each client waits before sending each request */
+    @Param({ "5" })
+    public int clientDelayMilliseconds;
+
+    /** The number of requests each client sends */
+    @Param({ "4" })
+    public int requests;
+
+    private ExecutorService clientThreads;
+
+    private ConnectionListener listener;
+
+    private int port;
+
+    @Benchmark
+    public int roundTrips() throws Exception
+    {
+        var futures = new ArrayList<Future<String>>();
+        for (int i = 0; i < clients; i++)
+        {
+            futures.add(clientThreads.submit(this::roundTrip));
+        }
+        var completed = 0;
+        for (var future : futures)
+        {
+            if (future.get() != null)
+            {
+                completed++;
+            }
+        }
+        return completed;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException
+    {
+        try (var socket = new ServerSocket(0))
+        {
+            port = socket.getLocalPort();
+        }
+
+        listener = new ConnectionListener(port).backlog(Count.count(clients * 2));
+        if (executor.equals("fixed"))
+        {
+            listener.executor(Threads.threadPool("Listener"));
+        }
+        listener.serve(connection ->
+        {
+            try
+            {
+                var in = new BufferedReader(new InputStreamReader(connection.input(), StandardCharsets.UTF_8));
+                var out = new PrintWriter(connection.output(), true, StandardCharsets.UTF_8);
+                String line;
+                while ((line = in.readLine()) != null)
+                {
+                    out.println(line);
+                }
+            }
+            catch (IOException e)
+            {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Wait for the listener to start,
+        while (true)
+        {
+            try (var ignored = new Socket(InetAddress.getLoopbackAddress(), port))
+            {
+                break;
+            }
+            catch (IOException e)
+            {
+                Duration.milliseconds(10).sleep();
+            }
+        }
+
+        // then start a thread for each client.
+        clientThreads = Executors.newFixedThreadPool(clients);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        System.out.println();
+        System.out.println(listener.statistics());
+        listener.stop();
+        clientThreads.shutdownNow();
+    }
+
+    private String roundTrip() throws IOException
+    {
+        try (var socket = new Socket(InetAddress.getLoopbackAddress(), port))
+        {
+            var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            var out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            String reply = null;
+            for (int i = 0; i < requests; i++)
+            {
+                Duration.milliseconds(clientDelayMilliseconds).sleep();
+                out.println("ping");
+                reply = in.readLine();
+            }
+            return reply;
+        }
+    }
+}
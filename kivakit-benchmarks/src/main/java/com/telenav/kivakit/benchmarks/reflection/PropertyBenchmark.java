@@ -0,0 +1,175 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.benchmarks.reflection;
+
+import com.telenav.kivakit.core.collections.list.ObjectList;
+import com.telenav.kivakit.core.language.reflection.Type;
+import com.telenav.kivakit.core.language.reflection.filters.field.AllFields;
+import com.telenav.kivakit.core.language.reflection.property.Property;
+import com.telenav.kivakit.core.language.reflection.property.PropertyFilter;
+import com.telenav.kivakit.interfaces.value.Source;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.telenav.kivakit.core.language.reflection.property.PropertyNamingConvention.KIVAKIT;
+
+/**
+ * Measures {@link Type#properties(PropertyFilter)}, both with a filter that has been seen before and with an equal,
+ * but new filter object, and reading and writing values with {@link Property#get(Object)} and
+ * {@link Property#set(Object, Source)} through field and method accessors. The reflective benchmarks measure core
+ * reflection on the same members, for comparison.
+ *
+ * @author jonathanl (shibo)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyBenchmark
+{
+    /**
+     * An object with properties to reflect on
+     */
+    public static class Location
+    {
+        private String name = "Seattle";
+
+        private double latitude = 47.6062;
+
+        private double longitude = -122.3321;
+
+        private int population = 737_015;
+
+        public double latitude()
+        {
+            return latitude;
+        }
+
+        public double longitude()
+        {
+            return longitude;
+        }
+
+        public String name()
+        {
+            return name;
+        }
+
+        public int population()
+        {
+            return population;
+        }
+
+        public void population(int population)
+        {
+            this.population = population;
+        }
+    }
+
+    private PropertyFilter filter;
+
+    private Property field;
+
+    private Location location;
+
+    private Property method;
+
+    private Source<Integer> population;
+
+    private java.lang.reflect.Field reflectiveField;
+
+    private java.lang.reflect.Method reflectiveMethod;
+
+    private Type<Location> type;
+
+    @Benchmark
+    public Object fieldGet()
+    {
+        return field.get(location);
+    }
+
+    @Benchmark
+    public Object fieldSet()
+    {
+        return field.set(location, population);
+    }
+
+    @Benchmark
+    public Object methodGet()
+    {
+        return method.get(location);
+    }
+
+    @Benchmark
+    public Object methodSet()
+    {
+        return method.set(location, population);
+    }
+
+    @Benchmark
+    public ObjectList<Property> properties()
+    {
+        return type.properties(filter);
+    }
+
+    @Benchmark
+    public ObjectList<Property> propertiesNewFilter()
+    {
+        return type.properties(new AllFields(KIVAKIT));
+    }
+
+    @Benchmark
+    public Object reflectiveFieldGet() throws IllegalAccessException
+    {
+        return reflectiveField.get(location);
+    }
+
+    @Benchmark
+    public Object reflectiveMethodGet() throws ReflectiveOperationException
+    {
+        return reflectiveMethod.invoke(location);
+    }
+
+    @Setup
+    public void setup() throws ReflectiveOperationException
+    {
+        location = new Location();
+        type = Type.forClass(Location.class);
+        filter = new AllFields(KIVAKIT);
+        field = type.field("population");
+        method = type.property("population");
+        population = () -> 1_000_000;
+
+        reflectiveField = Location.class.getDeclaredField("population");
+        reflectiveField.setAccessible(true);
+        reflectiveMethod = Location.class.getMethod("population");
+    }
+}
@@ -0,0 +1,76 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.benchmarks.registry;
+
+import com.telenav.kivakit.core.thread.locks.ReadWriteLock;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Baseline for {@link RegistryBenchmark} which registers and looks up objects the way {@link
+ * com.telenav.kivakit.core.registry.Registry} did before it published immutable snapshots, but made safe for
+ * concurrent use with a fair read-write lock: by building a string key from the class and instance name for each
+ * lookup, and walking the class hierarchy for each registration.
+ *
+ * @author jonathanl (shibo)
+ */
+class LockingRegistry
+{
+    private final ReadWriteLock lock = new ReadWriteLock();
+
+    private final Map<String, Object> registered = new HashMap<>();
+
+    @SuppressWarnings("unchecked")
+    <T> T lookup(Class<T> type, String instance)
+    {
+        return lock.read(() -> (T) registered.get(type.getName() + ":" + instance));
+    }
+
+    <T> T register(T object, String instance)
+    {
+        lock.write(() ->
+        {
+            for (var at = object.getClass(); at != Object.class; at = at.getSuperclass())
+            {
+                registered.put(at.getName() + ":" + instance, object);
+                for (var next : at.getInterfaces())
+                {
+                    registered.put(next.getName() + ":" + instance, object);
+                }
+            }
+        });
+        return object;
+    }
+
+    void unregister(Object object, String instance)
+    {
+        lock.write(() ->
+        {
+            for (var at = object.getClass(); at != Object.class; at = at.getSuperclass())
+            {
+                registered.remove(at.getName() + ":" + instance, object);
+                for (var next : at.getInterfaces())
+                {
+                    registered.remove(next.getName() + ":" + instance, object);
+                }
+            }
+        });
+    }
+}
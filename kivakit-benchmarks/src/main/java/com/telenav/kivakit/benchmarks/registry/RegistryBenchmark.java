@@ -0,0 +1,169 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.benchmarks.registry;
+
+import com.telenav.kivakit.core.registry.InstanceIdentifier;
+import com.telenav.kivakit.core.registry.Registry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link Registry#lookup(Class, InstanceIdentifier)}, which reads an immutable snapshot, with the {@link
+ * LockingRegistry} baseline, which builds a string key and takes a fair read lock. Lookups are measured on 1, 8 and 64
+ * threads, and in groups of 7 threads looking up objects while 1 thread registers and unregisters another object.
+ *
+ * @author jonathanl (shibo)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistryBenchmark
+{
+    private static final InstanceIdentifier OTHER = InstanceIdentifier.of("other");
+
+    private static class BaseServer implements Serializable
+    {
+    }
+
+    private static class Server extends BaseServer implements Runnable
+    {
+        @Override
+        public void run()
+        {
+        }
+    }
+
+    private LockingRegistry locking;
+
+    private final Server other = new Server();
+
+    private Registry registry;
+
+    @Setup
+    public void setup()
+    {
+        registry = new Registry();
+        registry.register(new Server());
+        locking = new LockingRegistry();
+        locking.register(new Server(), InstanceIdentifier.SINGLETON.identifier());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object locking1()
+    {
+        return lockingLookup();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Object locking64()
+    {
+        return lockingLookup();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object locking8()
+    {
+        return lockingLookup();
+    }
+
+    @Benchmark
+    @Group("lockingContended")
+    @GroupThreads(7)
+    public Object lockingContendedLookup()
+    {
+        return lockingLookup();
+    }
+
+    @Benchmark
+    @Group("lockingContended")
+    @GroupThreads(1)
+    public void lockingContendedRegister()
+    {
+        locking.register(other, OTHER.identifier());
+        locking.unregister(other, OTHER.identifier());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object snapshot1()
+    {
+        return snapshotLookup();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Object snapshot64()
+    {
+        return snapshotLookup();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object snapshot8()
+    {
+        return snapshotLookup();
+    }
+
+    @Benchmark
+    @Group("snapshotContended")
+    @GroupThreads(7)
+    public Object snapshotContendedLookup()
+    {
+        return snapshotLookup();
+    }
+
+    @Benchmark
+    @Group("snapshotContended")
+    @GroupThreads(1)
+    public void snapshotContendedRegister()
+    {
+        registry.register(other, OTHER);
+        registry.unregister(other, OTHER);
+    }
+
+    private Object lockingLookup()
+    {
+        return locking.lookup(Runnable.class, InstanceIdentifier.SINGLETON.identifier());
+    }
+
+    private Object snapshotLookup()
+    {
+        return registry.lookup(Runnable.class);
+    }
+}
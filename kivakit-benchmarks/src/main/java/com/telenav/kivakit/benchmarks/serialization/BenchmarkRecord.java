@@ -0,0 +1,64 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.benchmarks.serialization;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A record with a mix of scalar and collection fields for {@link SerializationBenchmark}
+ *
+ * @author jonathanl (shibo)
+ */
+public class BenchmarkRecord
+{
+    private String name;
+
+    private long identifier;
+
+    private double latitude;
+
+    private double longitude;
+
+    private boolean active;
+
+    private List<String> tags = new ArrayList<>();
+
+    public BenchmarkRecord(int tags)
+    {
+        name = "bay_area.osm.pbf";
+        identifier = 1_234_567_890L;
+        latitude = 37.7749;
+        longitude = -122.4194;
+        active = true;
+        for (int i = 0; i < tags; i++)
+        {
+            this.tags.add("tag-" + i);
+        }
+    }
+
+    protected BenchmarkRecord()
+    {
+    }
+
+    public List<String> tags()
+    {
+        return tags;
+    }
+}
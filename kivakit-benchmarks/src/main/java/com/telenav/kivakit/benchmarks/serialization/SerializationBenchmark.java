@@ -0,0 +1,133 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.benchmarks.serialization;
+
+import com.telenav.kivakit.core.messaging.Listener;
+import com.telenav.kivakit.core.path.StringPath;
+import com.telenav.kivakit.core.registry.RegistryTrait;
+import com.telenav.kivakit.core.version.Version;
+import com.telenav.kivakit.resource.serialization.ObjectMetadata;
+import com.telenav.kivakit.resource.serialization.ObjectSerializer;
+import com.telenav.kivakit.resource.serialization.SerializableObject;
+import com.telenav.kivakit.serialization.gson.GsonObjectSerializer;
+import com.telenav.kivakit.serialization.gson.factory.CoreGsonFactory;
+import com.telenav.kivakit.serialization.kryo.KryoObjectSerializer;
+import com.telenav.kivakit.serialization.kryo.types.CoreKryoTypes;
+import com.telenav.kivakit.serialization.kryo.types.KryoTypes;
+import com.telenav.kivakit.serialization.kryo.types.ResourceKryoTypes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static com.telenav.kivakit.core.path.StringPath.stringPath;
+import static com.telenav.kivakit.core.version.Version.version;
+
+/**
+ * Measures writing and reading a {@link BenchmarkRecord} through the Kryo and Gson {@link ObjectSerializer}s.
+ *
+ * <p>
+ * {@link GsonObjectSerializer} writes the {@link SerializableObject} wrapper, but reads the bare object, as is found in
+ * settings files. The Gson input is therefore the bare JSON of the record, so that both halves of the round trip do
+ * the same amount of work as in practice.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark implements RegistryTrait
+{
+    @Param({ "kryo", "gson" })
+    public String format;
+
+    private byte[] input;
+
+    private ObjectMetadata[] metadata;
+
+    private StringPath path;
+
+    private SerializableObject<BenchmarkRecord> record;
+
+    private ObjectSerializer serializer;
+
+    @Benchmark
+    public BenchmarkRecord read()
+    {
+        return serializer.read(new ByteArrayInputStream(input), path, BenchmarkRecord.class, metadata).object();
+    }
+
+    @Setup
+    public void setup()
+    {
+        path = stringPath("benchmark");
+        record = new SerializableObject<>(new BenchmarkRecord(32), version("1.0"));
+
+        switch (format)
+        {
+            case "kryo":
+            {
+                var types = new KryoTypes();
+                types.group("benchmarks", () -> types.register(BenchmarkRecord.class));
+                serializer = new KryoObjectSerializer(new CoreKryoTypes()
+                        .mergedWith(new ResourceKryoTypes())
+                        .mergedWith(types));
+                metadata = new ObjectMetadata[] { ObjectMetadata.VERSION };
+                input = write().toByteArray();
+                break;
+            }
+
+            case "gson":
+            {
+                var factory = register(new CoreGsonFactory(Listener.none()));
+                serializer = new GsonObjectSerializer();
+                metadata = new ObjectMetadata[0];
+                input = factory.gson().toJson(record.object()).getBytes(StandardCharsets.UTF_8);
+                break;
+            }
+
+            default:
+                throw new IllegalArgumentException(format);
+        }
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream write()
+    {
+        var output = new ByteArrayOutputStream(input == null ? 4_096 : input.length);
+        serializer.write(output, path, record, metadata);
+        return output;
+    }
+}
@@ -0,0 +1,93 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.benchmarks.string;
+
+import com.telenav.kivakit.core.string.Formatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link Formatter#format(String, Object...)}, which interpolates arguments into cached templates, with the
+ * {@link ParsingFormatter} baseline, which parses the message on every call.
+ *
+ * @author jonathanl (shibo)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatterBenchmark
+{
+    @Param({ "short", "long", "commands" })
+    public String message;
+
+    private Object[] arguments;
+
+    private String template;
+
+    @Benchmark
+    public String parsing()
+    {
+        return ParsingFormatter.format(template, arguments);
+    }
+
+    @Setup
+    public void setup()
+    {
+        switch (message)
+        {
+            case "short":
+                template = "Read $ in $";
+                arguments = new Object[] { "bay_area.osm.pbf", 300 };
+                break;
+
+            case "long":
+                template = "The resource '$' was read from $ by thread $ and contained $ entries, "
+                        + "of which $ were rejected because they were $";
+                arguments = new Object[] { "bay_area.osm.pbf", "/data/osm", "reader-1", 1_000_000, 17, "invalid" };
+                break;
+
+            case "commands":
+                template = "${class} is ${flag} with ${hex} (${integer}) and ${double} percent $$";
+                arguments = new Object[] { FormatterBenchmark.class, true, 255L, 1024, 0.5 };
+                break;
+
+            default:
+                throw new IllegalArgumentException(message);
+        }
+    }
+
+    @Benchmark
+    public String templates()
+    {
+        return Formatter.format(template, arguments);
+    }
+}
@@ -0,0 +1,98 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.benchmarks.string;
+
+import com.telenav.kivakit.core.collections.list.StringList;
+import com.telenav.kivakit.core.string.Split;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures splitting delimited text with {@link Split} and {@link StringList}, and joining a {@link StringList} back
+ * together.
+ *
+ * @author jonathanl (shibo)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SplitBenchmark
+{
+    @Param({ "4", "64" })
+    public int fields;
+
+    private StringList list;
+
+    private String text;
+
+    @Benchmark
+    public String join()
+    {
+        return list.join(",");
+    }
+
+    @Setup
+    public void setup()
+    {
+        var builder = new StringBuilder();
+        for (int i = 0; i < fields; i++)
+        {
+            if (i > 0)
+            {
+                builder.append(',');
+            }
+            builder.append("field").append(i);
+        }
+        text = builder.toString();
+        list = StringList.split(text, ',');
+    }
+
+    @Benchmark
+    public List<String> split()
+    {
+        return Split.split(text, ",");
+    }
+
+    @Benchmark
+    public StringList stringListCharacter()
+    {
+        return StringList.split(text, ',');
+    }
+
+    @Benchmark
+    public StringList stringListString()
+    {
+        return StringList.split(text, ",");
+    }
+}
@@ -0,0 +1,96 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.benchmarks.thread;
+
+import com.telenav.kivakit.core.thread.Batcher;
+import com.telenav.kivakit.core.value.count.Count;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.telenav.kivakit.core.value.count.Count.count;
+
+/**
+ * Measures the throughput of a {@link Batcher}, from adding elements through processing them on worker threads. Each
+ * invocation starts a batcher in the given {@link Batcher.Mode}, adds {@link #ELEMENTS} elements and stops it, so
+ * results are reported per element.
+ *
+ * @author jonathanl (shibo)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatcherBenchmark
+{
+    private static final int ELEMENTS = 100_000;
+
+    @Param({ "256", "4096" })
+    public int batchSize;
+
+    @Param({ "QUEUED", "WORK_STEALING" })
+    public Batcher.Mode mode;
+
+    @Param({ "1", "4" })
+    public int workers;
+
+    @Benchmark
+    @OperationsPerInvocation(ELEMENTS)
+    public long throughput()
+    {
+        var processed = new LongAdder();
+        var batcher = Batcher.<Integer>create()
+                .withName("benchmark")
+                .withMode(mode)
+                .withBatchSize(count(batchSize))
+                .withQueueSize(Count._16)
+                .withConsumer(batch ->
+                {
+                    long sum = 0;
+                    for (var element : batch)
+                    {
+                        sum += element;
+                    }
+                    processed.add(sum);
+                });
+
+        batcher.start(count(workers));
+        var adder = batcher.adder();
+        for (int i = 0; i < ELEMENTS; i++)
+        {
+            adder.add(i);
+        }
+        batcher.stop();
+
+        return processed.sum();
+    }
+}
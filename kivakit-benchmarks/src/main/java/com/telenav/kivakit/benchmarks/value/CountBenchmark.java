@@ -0,0 +1,91 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.benchmarks.value;
+
+import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.core.value.count.Count;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.telenav.kivakit.core.value.count.Bytes.bytes;
+import static com.telenav.kivakit.core.value.count.Bytes.kilobytes;
+import static com.telenav.kivakit.core.value.count.Count.count;
+
+/**
+ * Measures creation of {@link Count} values, both inside and outside the range of cached counts, and arithmetic on
+ * {@link Bytes}.
+ *
+ * @author jonathanl (shibo)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CountBenchmark
+{
+    private long large;
+
+    private long small;
+
+    private Bytes size;
+
+    @Benchmark
+    public Bytes bytesArithmetic()
+    {
+        return size.plus(kilobytes(4)).times(3).minus(bytes(small));
+    }
+
+    @Benchmark
+    public String bytesToString()
+    {
+        return size.toString();
+    }
+
+    @Benchmark
+    public Count largeCount()
+    {
+        return count(large);
+    }
+
+    @Setup
+    public void setup()
+    {
+        small = 17;
+        large = 123_456_789;
+        size = bytes(1_536_000);
+    }
+
+    @Benchmark
+    public Count smallCount()
+    {
+        return count(small);
+    }
+}
@@ -20,34 +20,66 @@ package com.telenav.kivakit.core.collections.map;
 
 import com.telenav.kivakit.core.lexakai.DiagramCollections;
 import com.telenav.kivakit.core.time.Duration;
-import com.telenav.kivakit.core.time.Time;
+import com.telenav.kivakit.core.value.count.Bytes;
 import com.telenav.kivakit.core.value.count.Maximum;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
-import java.util.HashMap;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import static com.telenav.kivakit.core.ensure.Ensure.ensureNotNull;
 
 /**
- * A map that has a fixed size and that deletes the oldest entries when that size is exceeded. It also removes entries
- * that are older than the maximum age.
+ * A thread-safe map that has a fixed size (or weight) and that evicts the least recently used entries when that size
+ * is exceeded. It also removes entries that are older than the maximum age.
+ *
+ * <p><b>Bounds</b></p>
+ *
+ * <ul>
+ *     <li>{@link #CacheMap(Maximum)} - A cache holding at most the given number of entries</li>
+ *     <li>{@link #CacheMap(Maximum, Duration)} - A cache holding at most the given number of entries, each for no longer than the given age</li>
+ *     <li>{@link #CacheMap(Bytes, Weigher)} - A cache whose entries weigh no more than the given number of bytes in total</li>
+ *     <li>{@link #CacheMap(Bytes, Weigher, Duration)} - A cache bounded by weight, whose entries live no longer than the given age</li>
+ * </ul>
+ *
+ * <p><b>Expiration</b></p>
+ *
+ * <p>
+ * Expired entries are never returned. They are also swept from the cache in the background, so that the memory they
+ * hold is reclaimed even if they are never read again. An individual entry can be given its own lifetime with
+ * {@link #putExpiring(Object, Object, Duration)}.
+ * </p>
+ *
+ * <p><b>Concurrency</b></p>
+ *
+ * <p>
+ * Entries are divided among lock-striped segments, so threads using different keys rarely contend. Each segment
+ * evicts its own least recently used entries, which makes eviction approximately LRU for the cache as a whole.
+ * Iteration is over a snapshot of the cache, and {@link #statistics()} reports hits, misses, evictions and
+ * expirations.
+ * </p>
  *
  * @param <Key> The Key
  * @param <Value> The Value
  * @author jonathanl (shibo)
  */
 @UmlClassDiagram(diagram = DiagramCollections.class)
-public class CacheMap<Key, Value> extends BaseMap<Key, Value>
+public class CacheMap<Key, Value> extends ConcurrentObjectMap<Key, Value>
 {
-    /** The time that each entry was added or updated */
-    private final Map<Key, Time> age = new HashMap<>();
-
-    /** The maximum allowed age of an entry */
-    private final Duration maximumEntryAge;
-
-    /** True if this map should expire old entries */
-    private final boolean expireOldEntries;
+    /**
+     * Computes the weight of cache entries for caches that are bounded by weight
+     *
+     * @author jonathanl (shibo)
+     */
+    @FunctionalInterface
+    public interface Weigher<Key, Value>
+    {
+        /**
+         * @return The weight of the given entry
+         */
+        Bytes weight(Key key, Value value);
+    }
 
+    /**
+     * @param cacheSize The maximum number of entries
+     */
     public CacheMap(Maximum cacheSize)
     {
         this(cacheSize, Duration.MAXIMUM);
@@ -56,56 +88,61 @@ public class CacheMap<Key, Value> extends BaseMap<Key, Value>
     /**
      * Constructor
      *
-     * @param cacheSize The size after which the eldest entry will be deleted to leave room for new entries.
+     * @param cacheSize The size after which least recently used entries will be deleted to make room for new ones
      * @param maximumEntryAge The maximum age of an entry before it is expired
      */
     public CacheMap(Maximum cacheSize, Duration maximumEntryAge)
     {
-        super(Maximum.MAXIMUM, new LinkedHashMap<>()
-        {
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<Key, Value> eldest)
-            {
-                return size() >= cacheSize.asInt();
-            }
-        });
+        super(new SegmentedCache<>(cacheSize.asLong(), Long.MAX_VALUE, null, maximumEntryAge));
+    }
+
+    /**
+     * @param maximumWeight The maximum total weight of all entries
+     * @param weigher Computes the weight of each entry
+     */
+    public CacheMap(Bytes maximumWeight, Weigher<Key, Value> weigher)
+    {
+        this(maximumWeight, weigher, Duration.MAXIMUM);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param maximumWeight The weight after which least recently used entries will be deleted to make room for new ones
+     * @param weigher Computes the weight of each entry
+     * @param maximumEntryAge The maximum age of an entry before it is expired
+     */
+    public CacheMap(Bytes maximumWeight, Weigher<Key, Value> weigher, Duration maximumEntryAge)
+    {
+        super(new SegmentedCache<>(Long.MAX_VALUE, maximumWeight.asBytes(), ensureNotNull(weigher), maximumEntryAge));
+    }
 
-        this.maximumEntryAge = maximumEntryAge;
-        this.expireOldEntries = !maximumEntryAge.isMaximum();
+    /**
+     * Removes all expired entries now, rather than waiting for them to be swept in the background
+     */
+    public void expire()
+    {
+        cache().expire();
     }
 
-    @Override
-    public Value get(final Object key)
+    /**
+     * Adds the given entry, which expires after the given time to live instead of the maximum entry age of this cache
+     */
+    public Value putExpiring(Key key, Value value, Duration timeToLive)
     {
-        if (expireOldEntries)
-        {
-            var age = this.age.get(key);
-            if (age != null && age.isGreaterThan(maximumEntryAge))
-            {
-                remove(key);
-                return null;
-            }
-        }
-        return super.get(key);
+        return cache().putExpiring(key, value, timeToLive);
     }
 
-    @Override
-    public Value put(final Key key, final Value value)
+    /**
+     * @return A snapshot of the hit, miss, eviction and expiration statistics of this cache
+     */
+    public CacheStatistics statistics()
     {
-        if (expireOldEntries)
-        {
-            age.put(key, Time.now());
-        }
-        return super.put(key, value);
+        return cache().statistics();
     }
 
-    @Override
-    public Value remove(final Object key)
+    private SegmentedCache<Key, Value> cache()
     {
-        if (expireOldEntries)
-        {
-            age.remove(key);
-        }
-        return super.remove(key);
+        return (SegmentedCache<Key, Value>) map();
     }
 }
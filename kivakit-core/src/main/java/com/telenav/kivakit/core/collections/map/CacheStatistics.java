@@ -0,0 +1,94 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.core.collections.map;
+
+import com.telenav.kivakit.core.lexakai.DiagramCollections;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.core.value.level.Percent;
+import com.telenav.lexakai.annotations.LexakaiJavadoc;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import static com.telenav.kivakit.core.string.Formatter.format;
+
+/**
+ * A snapshot of the statistics of a {@link CacheMap}:
+ *
+ * <ul>
+ *     <li>{@link #hits()} - The number of lookups that found a value</li>
+ *     <li>{@link #misses()} - The number of lookups that found no value, or only an expired one</li>
+ *     <li>{@link #hitRate()} - The percentage of lookups that found a value</li>
+ *     <li>{@link #evictions()} - The number of entries removed to keep the cache within its maximum size or weight</li>
+ *     <li>{@link #expirations()} - The number of entries removed because they were older than their lifetime</li>
+ * </ul>
+ *
+ * @author jonathanl (shibo)
+ */
+@UmlClassDiagram(diagram = DiagramCollections.class)
+@LexakaiJavadoc(complete = true)
+public class CacheStatistics
+{
+    private final long hits;
+
+    private final long misses;
+
+    private final long evictions;
+
+    private final long expirations;
+
+    CacheStatistics(long hits, long misses, long evictions, long expirations)
+    {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+    }
+
+    public Count evictions()
+    {
+        return Count.count(evictions);
+    }
+
+    public Count expirations()
+    {
+        return Count.count(expirations);
+    }
+
+    public Percent hitRate()
+    {
+        var lookups = hits + misses;
+        return Percent.of(lookups == 0 ? 0 : hits * 100.0 / lookups);
+    }
+
+    public Count hits()
+    {
+        return Count.count(hits);
+    }
+
+    public Count misses()
+    {
+        return Count.count(misses);
+    }
+
+    @Override
+    public String toString()
+    {
+        return format("hits = $, misses = $, hit rate = $, evictions = $, expirations = $",
+                hits, misses, hitRate(), evictions, expirations);
+    }
+}
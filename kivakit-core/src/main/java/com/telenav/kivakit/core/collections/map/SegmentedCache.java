@@ -0,0 +1,749 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.core.collections.map;
+
+import com.telenav.kivakit.core.lexakai.DiagramCollections;
+import com.telenav.kivakit.core.time.Duration;
+import com.telenav.lexakai.annotations.LexakaiJavadoc;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensureNotNull;
+
+/**
+ * The concurrent store behind {@link CacheMap}.
+ *
+ * <p><b>Segments</b></p>
+ *
+ * <p>
+ * Keys are spread over a power-of-two number of segments, each guarded by its own lock, so threads working on
+ * different keys rarely contend. Each segment bounds its share of the maximum size (or weight) and keeps its entries
+ * in a doubly-linked list from least to most recently used. When a segment is over its bound, it evicts from the least
+ * recently used end, which makes eviction approximately LRU across the cache as a whole.
+ * </p>
+ *
+ * <p><b>Expiration</b></p>
+ *
+ * <p>
+ * Each entry has its own expiration time, measured with {@link System#nanoTime()}. Expired entries are never returned,
+ * and a shared daemon thread periodically sweeps each cache that has entries with a limited lifetime, so that memory
+ * held by stale entries is reclaimed even if they are never read again. The sweeper only weakly references each
+ * cache, and stops sweeping a cache once it has been garbage collected.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+@UmlClassDiagram(diagram = DiagramCollections.class)
+@LexakaiJavadoc(complete = true)
+class SegmentedCache<Key, Value> extends AbstractMap<Key, Value> implements ConcurrentMap<Key, Value>
+{
+    /** Expiration time of entries that never expire */
+    private static final long NEVER = Long.MAX_VALUE;
+
+    /** The largest number of segments a cache will have */
+    private static final int MAXIMUM_SEGMENTS = 64;
+
+    /** The smallest size (or weight) a segment should hold, so that eviction stays close to true LRU */
+    private static final int MINIMUM_SEGMENT_SIZE = 16;
+
+    /** The shortest and longest intervals between sweeps of expired entries */
+    private static final long MINIMUM_SWEEP_INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final long MAXIMUM_SWEEP_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+
+    /** Daemon thread that sweeps expired entries from caches */
+    private static volatile ScheduledExecutorService sweeper;
+
+    /**
+     * A cache entry, which is linked into its segment's list in order of use
+     */
+    private static class Node<Key, Value>
+    {
+        final Key key;
+
+        Value value;
+
+        long weight;
+
+        long expiresAt;
+
+        Node<Key, Value> previous;
+
+        Node<Key, Value> next;
+
+        Node(Key key)
+        {
+            this.key = key;
+        }
+
+        boolean isExpired(long now)
+        {
+            return expiresAt != NEVER && now - expiresAt >= 0;
+        }
+    }
+
+    /**
+     * A lock-guarded portion of the cache
+     */
+    private class Segment extends ReentrantLock
+    {
+        /** The nodes in this segment by key */
+        private final Map<Key, Node<Key, Value>> nodes = new HashMap<>();
+
+        /** The least recently used node */
+        private Node<Key, Value> head;
+
+        /** The most recently used node */
+        private Node<Key, Value> tail;
+
+        /** The number of nodes, readable without locking */
+        private volatile int size;
+
+        /** The total weight of all nodes */
+        private long weight;
+
+        void clear()
+        {
+            lock();
+            try
+            {
+                nodes.clear();
+                head = tail = null;
+                weight = 0;
+                size = 0;
+            }
+            finally
+            {
+                unlock();
+            }
+        }
+
+        void expire(long now)
+        {
+            lock();
+            try
+            {
+                for (var at = head; at != null; )
+                {
+                    var next = at.next;
+                    if (at.isExpired(now))
+                    {
+                        unlink(at);
+                        expirations.increment();
+                    }
+                    at = next;
+                }
+            }
+            finally
+            {
+                unlock();
+            }
+        }
+
+        Value get(Object key, long now, boolean record)
+        {
+            lock();
+            try
+            {
+                var node = nodes.get(key);
+                if (node != null)
+                {
+                    if (node.isExpired(now))
+                    {
+                        unlink(node);
+                        expirations.increment();
+                    }
+                    else
+                    {
+                        if (record)
+                        {
+                            moveToTail(node);
+                            hits.increment();
+                        }
+                        return node.value;
+                    }
+                }
+                if (record)
+                {
+                    misses.increment();
+                }
+                return null;
+            }
+            finally
+            {
+                unlock();
+            }
+        }
+
+        Value put(Key key, Value value, long expiresAt, boolean onlyIfAbsent)
+        {
+            var weight = weigh(key, value);
+            var now = now();
+
+            lock();
+            try
+            {
+                Value previous = null;
+                var node = nodes.get(key);
+                if (node != null && node.isExpired(now))
+                {
+                    unlink(node);
+                    expirations.increment();
+                    node = null;
+                }
+
+                if (node == null)
+                {
+                    node = new Node<>(key);
+                    nodes.put(key, node);
+                    size = nodes.size();
+                    append(node);
+                }
+                else
+                {
+                    previous = node.value;
+                    if (onlyIfAbsent)
+                    {
+                        return previous;
+                    }
+                    moveToTail(node);
+                    this.weight -= node.weight;
+                }
+
+                node.value = value;
+                node.weight = weight;
+                node.expiresAt = expiresAt;
+                this.weight += weight;
+
+                evict();
+                return previous;
+            }
+            finally
+            {
+                unlock();
+            }
+        }
+
+        Value remove(Object key, Object value)
+        {
+            lock();
+            try
+            {
+                var node = nodes.get(key);
+                if (node != null && (value == null || value.equals(node.value)))
+                {
+                    unlink(node);
+                    return node.isExpired(now()) ? null : node.value;
+                }
+                return null;
+            }
+            finally
+            {
+                unlock();
+            }
+        }
+
+        Value replace(Key key, Object expected, Value value)
+        {
+            var weight = weigh(key, value);
+
+            lock();
+            try
+            {
+                var node = nodes.get(key);
+                if (node == null || node.isExpired(now())
+                        || (expected != null && !expected.equals(node.value)))
+                {
+                    return null;
+                }
+                var previous = node.value;
+                node.value = value;
+                this.weight += weight - node.weight;
+                node.weight = weight;
+                moveToTail(node);
+                evict();
+                return previous;
+            }
+            finally
+            {
+                unlock();
+            }
+        }
+
+        int size()
+        {
+            return size;
+        }
+
+        void snapshot(List<Map.Entry<Key, Value>> entries, long now)
+        {
+            lock();
+            try
+            {
+                for (var at = head; at != null; at = at.next)
+                {
+                    if (!at.isExpired(now))
+                    {
+                        entries.add(new SimpleImmutableEntry<>(at.key, at.value));
+                    }
+                }
+            }
+            finally
+            {
+                unlock();
+            }
+        }
+
+        private void append(Node<Key, Value> node)
+        {
+            node.previous = tail;
+            node.next = null;
+            if (tail == null)
+            {
+                head = node;
+            }
+            else
+            {
+                tail.next = node;
+            }
+            tail = node;
+        }
+
+        /**
+         * Evicts least recently used nodes until this segment is within its bounds
+         */
+        private void evict()
+        {
+            while (head != null && (size > maximumSegmentSize || weight > maximumSegmentWeight))
+            {
+                unlink(head);
+                evictions.increment();
+            }
+        }
+
+        private void moveToTail(Node<Key, Value> node)
+        {
+            if (node != tail)
+            {
+                detach(node);
+                append(node);
+            }
+        }
+
+        private void detach(Node<Key, Value> node)
+        {
+            if (node.previous == null)
+            {
+                head = node.next;
+            }
+            else
+            {
+                node.previous.next = node.next;
+            }
+            if (node.next == null)
+            {
+                tail = node.previous;
+            }
+            else
+            {
+                node.next.previous = node.previous;
+            }
+            node.previous = node.next = null;
+        }
+
+        private void unlink(Node<Key, Value> node)
+        {
+            detach(node);
+            nodes.remove(node.key);
+            size = nodes.size();
+            weight -= node.weight;
+        }
+    }
+
+    /**
+     * Sweeps expired entries from a cache for as long as the cache is reachable
+     */
+    private static class Sweep implements Runnable
+    {
+        private final WeakReference<SegmentedCache<?, ?>> cache;
+
+        private volatile ScheduledFuture<?> future;
+
+        Sweep(SegmentedCache<?, ?> cache)
+        {
+            this.cache = new WeakReference<>(cache);
+        }
+
+        @Override
+        public void run()
+        {
+            var cache = this.cache.get();
+            if (cache == null)
+            {
+                if (future != null)
+                {
+                    future.cancel(false);
+                }
+            }
+            else
+            {
+                cache.expire();
+            }
+        }
+    }
+
+    private final Segment[] segments;
+
+    /** The number of bits to shift a spread hash code right to get a segment index */
+    private final int segmentShift;
+
+    private final long maximumSegmentSize;
+
+    private final long maximumSegmentWeight;
+
+    private final CacheMap.Weigher<Key, Value> weigher;
+
+    /** The default lifetime of entries in nanoseconds, or {@link #NEVER} */
+    private final long timeToLive;
+
+    /** True once this cache may hold entries that expire, and the sweeper has been asked to sweep it */
+    private volatile boolean sweeping;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * @param maximumSize The maximum number of entries
+     * @param maximumWeight The maximum total weight of all entries
+     * @param weigher Computes the weight of an entry, or null if entries have no weight
+     * @param maximumEntryAge The default lifetime of an entry
+     */
+    @SuppressWarnings("unchecked")
+    SegmentedCache(long maximumSize, long maximumWeight, CacheMap.Weigher<Key, Value> weigher, Duration maximumEntryAge)
+    {
+        var segments = segments(weigher == null ? maximumSize : maximumWeight);
+
+        this.segments = new SegmentedCache.Segment[segments];
+        for (int i = 0; i < segments; i++)
+        {
+            this.segments[i] = new Segment();
+        }
+        segmentShift = 32 - Integer.numberOfTrailingZeros(segments);
+        maximumSegmentSize = share(maximumSize, segments);
+        maximumSegmentWeight = weigher == null ? Long.MAX_VALUE : share(maximumWeight, segments);
+        this.weigher = weigher;
+        timeToLive = nanoseconds(maximumEntryAge);
+
+        if (timeToLive != NEVER)
+        {
+            sweep(timeToLive);
+        }
+    }
+
+    @Override
+    public void clear()
+    {
+        for (var segment : segments)
+        {
+            segment.clear();
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return key != null && segment(key).get(key, now(), false) != null;
+    }
+
+    @Override
+    public Set<Map.Entry<Key, Value>> entrySet()
+    {
+        return new AbstractSet<>()
+        {
+            @Override
+            public Iterator<Map.Entry<Key, Value>> iterator()
+            {
+                var iterator = snapshot().iterator();
+                return new Iterator<>()
+                {
+                    private Map.Entry<Key, Value> current;
+
+                    @Override
+                    public boolean hasNext()
+                    {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<Key, Value> next()
+                    {
+                        return current = iterator.next();
+                    }
+
+                    @Override
+                    public void remove()
+                    {
+                        SegmentedCache.this.remove(current.getKey(), current.getValue());
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return SegmentedCache.this.size();
+            }
+        };
+    }
+
+    /**
+     * Removes all expired entries
+     */
+    public void expire()
+    {
+        var now = now();
+        for (var segment : segments)
+        {
+            segment.expire(now);
+        }
+    }
+
+    @Override
+    public Value get(Object key)
+    {
+        return key == null ? null : segment(key).get(key, now(), true);
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    @Override
+    public Value put(Key key, Value value)
+    {
+        return put(key, value, timeToLive, false);
+    }
+
+    /**
+     * Adds the given entry, which expires after the given time to live, rather than the default entry lifetime
+     */
+    public Value putExpiring(Key key, Value value, Duration timeToLive)
+    {
+        var nanoseconds = nanoseconds(timeToLive);
+        if (nanoseconds != NEVER)
+        {
+            sweep(nanoseconds);
+        }
+        return put(key, value, nanoseconds, false);
+    }
+
+    @Override
+    public Value putIfAbsent(Key key, Value value)
+    {
+        return put(key, value, timeToLive, true);
+    }
+
+    @Override
+    public Value remove(Object key)
+    {
+        return key == null ? null : segment(key).remove(key, null);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value)
+    {
+        return key != null && value != null && segment(key).remove(key, value) != null;
+    }
+
+    @Override
+    public boolean replace(Key key, Value oldValue, Value newValue)
+    {
+        ensureNotNull(oldValue);
+        ensureNotNull(newValue);
+        return segment(ensureNotNull(key)).replace(key, oldValue, newValue) != null;
+    }
+
+    @Override
+    public Value replace(Key key, Value value)
+    {
+        ensureNotNull(value);
+        return segment(ensureNotNull(key)).replace(key, null, value);
+    }
+
+    /**
+     * The number of entries in this cache, which may include expired entries that have not been swept yet
+     */
+    @Override
+    public int size()
+    {
+        long size = 0;
+        for (var segment : segments)
+        {
+            size += segment.size();
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return A snapshot of the statistics for this cache
+     */
+    public CacheStatistics statistics()
+    {
+        return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), expirations.sum());
+    }
+
+    private static long nanoseconds(Duration duration)
+    {
+        if (duration == null || duration.isMaximum())
+        {
+            return NEVER;
+        }
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(1, duration.milliseconds()));
+    }
+
+    /**
+     * @return The number of segments to use for a cache with the given maximum size or weight
+     */
+    private static int segments(long maximumSize)
+    {
+        // Start with the smallest power of two giving at least four segments per processor,
+        var processors = Runtime.getRuntime().availableProcessors();
+        var segments = Math.min(MAXIMUM_SEGMENTS, Integer.highestOneBit(processors * 4 - 1) << 1);
+
+        // then halve the number of segments until each is large enough to evict sensibly.
+        while (segments > 1 && maximumSize / segments < MINIMUM_SEGMENT_SIZE)
+        {
+            segments >>>= 1;
+        }
+        return segments;
+    }
+
+    /**
+     * @return The share of the given maximum for one of the given number of segments
+     */
+    private static long share(long maximum, int segments)
+    {
+        return maximum == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(1, (maximum + segments - 1) / segments);
+    }
+
+    /**
+     * @return The current time for expiration purposes, which is only read from the system clock if entries may expire
+     */
+    private long now()
+    {
+        return sweeping ? System.nanoTime() : 0;
+    }
+
+    private Value put(Key key, Value value, long timeToLive, boolean onlyIfAbsent)
+    {
+        ensureNotNull(key);
+        ensureNotNull(value);
+        var expiresAt = timeToLive == NEVER ? NEVER : System.nanoTime() + timeToLive;
+        return segment(key).put(key, value, expiresAt, onlyIfAbsent);
+    }
+
+    private Segment segment(Object key)
+    {
+        // Spread the hash code with Fibonacci hashing and use the high bits, since each segment's
+        // hash map indexes its buckets with the low bits
+        var hash = key.hashCode() * 0x9E3779B9;
+        return segments.length == 1 ? segments[0] : segments[hash >>> segmentShift];
+    }
+
+    private List<Map.Entry<Key, Value>> snapshot()
+    {
+        var entries = new ArrayList<Map.Entry<Key, Value>>(size());
+        var now = now();
+        for (var segment : segments)
+        {
+            segment.snapshot(entries, now);
+        }
+        return entries;
+    }
+
+    /**
+     * Starts sweeping this cache for expired entries, at an interval based on the given entry lifetime. Only the first
+     * lifetime determines the interval, but expired entries are never returned whether they have been swept or not.
+     */
+    private void sweep(long timeToLive)
+    {
+        if (!sweeping)
+        {
+            synchronized (this)
+            {
+                if (!sweeping)
+                {
+                    var interval = Math.min(MAXIMUM_SWEEP_INTERVAL, Math.max(MINIMUM_SWEEP_INTERVAL, timeToLive / 2));
+                    var sweep = new Sweep(this);
+                    sweep.future = sweeper().scheduleWithFixedDelay(sweep, interval, interval, TimeUnit.NANOSECONDS);
+                    sweeping = true;
+                }
+            }
+        }
+    }
+
+    private static ScheduledExecutorService sweeper()
+    {
+        if (sweeper == null)
+        {
+            synchronized (SegmentedCache.class)
+            {
+                if (sweeper == null)
+                {
+                    sweeper = Executors.newSingleThreadScheduledExecutor(runnable ->
+                    {
+                        var thread = new Thread(runnable, "KivaKit-CacheSweeper");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return sweeper;
+    }
+
+    private long weigh(Key key, Value value)
+    {
+        return weigher == null ? 1 : Math.max(0, weigher.weight(key, value).asBytes());
+    }
+}
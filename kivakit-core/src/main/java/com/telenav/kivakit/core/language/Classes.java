@@ -36,6 +36,20 @@ import static com.telenav.kivakit.core.ensure.Ensure.ensure;
 @SuppressWarnings("unchecked")
 public class Classes
 {
+    /** Cache of simple class names, which are requested for every log entry */
+    private static final ClassValue<String> simpleNames = new ClassValue<>()
+    {
+        @Override
+        protected String computeValue(Class<?> type)
+        {
+            if (type.isArray() || type.isPrimitive())
+            {
+                return type.getSimpleName();
+            }
+            return Paths.optionalSuffix(type.getName(), '.').replace('$', '.');
+        }
+    };
+
     public static <T> Constructor<T> constructor(Class<T> type, Class<?>... arguments)
     {
         try
@@ -176,11 +190,7 @@ public class Classes
     {
         if (type != null)
         {
-            if (type.isArray() || type.isPrimitive())
-            {
-                return type.getSimpleName();
-            }
-            return Paths.optionalSuffix(type.getName(), '.').replace('$', '.');
+            return simpleNames.get(type);
         }
         return "Unknown";
     }
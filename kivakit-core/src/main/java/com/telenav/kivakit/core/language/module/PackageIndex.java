@@ -0,0 +1,283 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.core.language.module;
+
+import com.telenav.kivakit.core.lexakai.DiagramModule;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import static com.telenav.kivakit.core.ensure.Ensure.warning;
+
+/**
+ * An index of the packages and resources in a jar on the classpath. Each jar is indexed once per process, so finding
+ * the resources or sub-packages of a package is a map lookup rather than a scan of every entry in the jar.
+ *
+ * <p><b>Indexing</b></p>
+ *
+ * <p>
+ * {@link #packageIndex(URL)} returns the index for the jar at the given location, building it the first time. Jar files
+ * are indexed from their central directory with {@link ZipFile}, which does not read the compressed data in the jar.
+ * Jars at other kinds of URLs (for example, a jar nested in another jar) are indexed by reading them as a stream.
+ * </p>
+ *
+ * <p><b>Persistence</b></p>
+ *
+ * <p>
+ * If {@link #cacheFolder(Path)} is called, indexes of jar files are saved in that folder, and later processes load
+ * them from there rather than reading the jar. A saved index is used only if the jar has the same size and last
+ * modified time as when it was indexed.
+ * </p>
+ *
+ * <p><b>Queries</b></p>
+ *
+ * <p>
+ * Packages are given as paths separated by "/", like "com/telenav/kivakit".
+ * </p>
+ *
+ * <ul>
+ *     <li>{@link #resources(String)} - The names of the resources directly in a package</li>
+ *     <li>{@link #subPackages(String)} - The names of the packages directly under a package</li>
+ * </ul>
+ *
+ * @author jonathanl (shibo)
+ * @see PackageReference
+ */
+@UmlClassDiagram(diagram = DiagramModule.class)
+public class PackageIndex
+{
+    /** The version of the format of saved indexes */
+    private static final String FORMAT = "kivakit-package-index-1";
+
+    /** Folder where indexes are saved, or null if they are not saved */
+    private static volatile Path cacheFolder;
+
+    /** Indexes by jar location */
+    private static final Map<String, PackageIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * Saves indexes of jar files in the given folder, so that later processes can load them without reading the jar
+     */
+    public static void cacheFolder(Path folder)
+    {
+        cacheFolder = folder;
+    }
+
+    /**
+     * @return The index of the jar at the given location, or null if the jar can't be read
+     */
+    public static PackageIndex packageIndex(URL location)
+    {
+        return indexes.computeIfAbsent(location.toString(), ignored -> build(location));
+    }
+
+    /** Resource names by package path */
+    private final Map<String, List<String>> resources = new HashMap<>();
+
+    /** Sub-package names by package path */
+    private final Map<String, Set<String>> subPackages = new HashMap<>();
+
+    private PackageIndex()
+    {
+    }
+
+    /**
+     * @return The names of the resources directly in the given package
+     */
+    public List<String> resources(String packagePath)
+    {
+        return resources.getOrDefault(packagePath, Collections.emptyList());
+    }
+
+    /**
+     * @return The names of the packages directly under the given package
+     */
+    public Set<String> subPackages(String packagePath)
+    {
+        return subPackages.getOrDefault(packagePath, Collections.emptySet());
+    }
+
+    /**
+     * @return The index of the jar at the given location, or null if it can't be read
+     */
+    private static PackageIndex build(URL location)
+    {
+        try
+        {
+            // If the location is a jar file,
+            Path jar = "file".equals(location.getProtocol()) ? Path.of(location.toURI()) : null;
+            if (jar != null && Files.isRegularFile(jar))
+            {
+                // load any saved index that is up-to-date,
+                var stamp = Files.size(jar) + " " + Files.getLastModifiedTime(jar).toMillis();
+                var saved = savedIndex(jar);
+                if (saved != null && Files.isRegularFile(saved))
+                {
+                    var index = load(saved, stamp);
+                    if (index != null)
+                    {
+                        return index;
+                    }
+                }
+
+                // or index the jar's central directory,
+                var names = new ArrayList<String>();
+                try (var zip = new ZipFile(jar.toFile()))
+                {
+                    zip.stream().forEach(entry -> names.add(entry.getName()));
+                }
+
+                // and save the index for next time.
+                if (saved != null)
+                {
+                    save(saved, stamp, names);
+                }
+                return index(names);
+            }
+
+            // Otherwise, read the jar as a stream.
+            var names = new ArrayList<String>();
+            try (var zip = new ZipInputStream(location.openStream()))
+            {
+                for (var entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry())
+                {
+                    names.add(entry.getName());
+                }
+            }
+            return index(names);
+        }
+        catch (Exception e)
+        {
+            warning(e, "Unable to index jar $", location);
+            return null;
+        }
+    }
+
+    /**
+     * @return An index of the given jar entry names
+     */
+    private static PackageIndex index(List<String> names)
+    {
+        var index = new PackageIndex();
+        for (var name : names)
+        {
+            // Add each folder in the entry's path as a sub-package of its parent,
+            var folders = name.split("/");
+            var leaf = name.endsWith("/") ? folders.length : folders.length - 1;
+            var path = "";
+            for (var i = 0; i < leaf; i++)
+            {
+                if (!folders[i].isEmpty())
+                {
+                    index.subPackages.computeIfAbsent(path, ignored -> new TreeSet<>()).add(folders[i]);
+                    path = path.isEmpty() ? folders[i] : path + "/" + folders[i];
+                }
+            }
+
+            // and if the entry is a file, add it as a resource of its package.
+            if (!name.endsWith("/"))
+            {
+                index.resources.computeIfAbsent(path, ignored -> new ArrayList<>()).add(folders[folders.length - 1]);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @return The index saved in the given file, or null if it is not for the jar with the given stamp
+     */
+    private static PackageIndex load(Path saved, String stamp)
+    {
+        try (var in = Files.newBufferedReader(saved, StandardCharsets.UTF_8))
+        {
+            if (FORMAT.equals(in.readLine()) && stamp.equals(in.readLine()))
+            {
+                var names = new ArrayList<String>();
+                for (var line = in.readLine(); line != null; line = in.readLine())
+                {
+                    names.add(line);
+                }
+                return index(names);
+            }
+        }
+        catch (IOException ignored)
+        {
+        }
+        return null;
+    }
+
+    /**
+     * Saves the given jar entry names to the given file
+     */
+    private static void save(Path saved, String stamp, List<String> names)
+    {
+        try
+        {
+            // Write to a temporary file and move it into place, so other processes never see part of an index
+            Files.createDirectories(saved.getParent());
+            var temporary = Files.createTempFile(saved.getParent(), "package-index", ".tmp");
+            try (var out = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8))
+            {
+                out.write(FORMAT);
+                out.newLine();
+                out.write(stamp);
+                out.newLine();
+                for (var name : names)
+                {
+                    out.write(name);
+                    out.newLine();
+                }
+            }
+            Files.move(temporary, saved, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e)
+        {
+            warning(e, "Unable to save package index $", saved);
+        }
+    }
+
+    /**
+     * @return The file where the index of the given jar is saved, or null if indexes are not saved
+     */
+    private static Path savedIndex(Path jar)
+    {
+        var folder = cacheFolder;
+        if (folder == null)
+        {
+            return null;
+        }
+        var absolute = jar.toAbsolutePath().toString();
+        return folder.resolve(jar.getFileName() + "-" + Integer.toHexString(absolute.hashCode()) + ".index");
+    }
+}
@@ -24,7 +24,6 @@ import com.telenav.kivakit.core.lexakai.DiagramPath;
 import com.telenav.kivakit.core.messaging.Listener;
 import com.telenav.kivakit.core.path.Path;
 import com.telenav.kivakit.core.path.StringPath;
-import com.telenav.kivakit.core.string.Strip;
 import com.telenav.kivakit.interfaces.comparison.Matcher;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 import org.jetbrains.annotations.NotNull;
@@ -37,8 +36,6 @@ import java.util.List;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 
 /**
  * Represents the path to a Java package. The PackagePath object in kivakit-resource differs from this class.
@@ -229,6 +226,7 @@ public final class PackageReference extends StringPath
 
     /**
      * @return A list of sub packages under this package from the jars in classpath
+     * @see PackageIndex
      */
     public Set<PackageReference> jarSubPackages()
     {
@@ -237,55 +235,20 @@ public final class PackageReference extends StringPath
         var source = hasPackageType() ? packageType().getProtectionDomain().getCodeSource() : null;
         if (source != null)
         {
-            try
+            // and if the location URL ends in ".jar",
+            URL location = source.getLocation();
+            if (location != null && location.toString().endsWith(".jar"))
             {
-                // and if the location URL ends in ".jar",
-                URL location = source.getLocation();
-                if (location != null && location.toString().endsWith(".jar"))
+                // then look up the sub-packages in the jar's index.
+                var index = PackageIndex.packageIndex(location);
+                if (index != null)
                 {
-                    // then open the jar as a zip input stream,
-                    var urlConnection = location.openConnection();
-                    ZipInputStream zip = new ZipInputStream(urlConnection.getInputStream());
-
-                    // form a file path from the package path,
-                    var filepath = join("/") + "/";
-
-                    // and loop,
-                    while (true)
+                    for (var name : index.subPackages(join("/")))
                     {
-                        // reading the next entry,
-                        ZipEntry e = zip.getNextEntry();
-
-                        // until we are out.
-                        if (e == null)
-                        {
-                            break;
-                        }
-
-                        // Get the entry's name
-                        String name = e.getName();
-
-                        // and if it is a folder, and it starts with the file path for the package,
-                        if (name.endsWith("/") && name.startsWith(filepath))
-                        {
-                            // then strip off the leading filepath,
-                            var suffix = Strip.leading(name, filepath);
-                            suffix = Strip.ending(suffix, "/");
-
-                            // and if we have only a folder name left,
-                            if (!suffix.contains("/") && !suffix.isEmpty())
-                            {
-                                // then the entry is in the package, so add it to the resources list
-                                packages.add(withChild(suffix));
-                            }
-                        }
+                        packages.add(withChild(name));
                     }
                 }
             }
-            catch (Exception ignored)
-            {
-                Ensure.warning("Exception thrown while searching jar sub packages from $", this);
-            }
         }
         return packages;
     }
@@ -0,0 +1,180 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.core.language.reflection;
+
+import com.telenav.kivakit.core.lexakai.DiagramReflection;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.Supplier;
+
+/**
+ * Creates {@link MethodHandle}s that read and write properties at close to the speed of a direct call. Handles are
+ * created once by each {@link FieldGetter}, {@link FieldSetter}, {@link MethodGetter} and {@link MethodSetter}, and so
+ * are cached along with the properties of each {@link Type}.
+ *
+ * <p>
+ * Every handle is adapted to a uniform type, either (Object)Object for getters or (Object, Object)void for setters, so
+ * it can be called with {@link MethodHandle#invokeExact(Object...)} without further conversion. Primitive values are
+ * boxed and unboxed by the handle itself. If a member cannot be made accessible to this module, {@link #UNAVAILABLE} is
+ * returned, and the caller falls back to core reflection.
+ * </p>
+ *
+ * <p>
+ * Errors thrown through a handle, such as {@link OutOfMemoryError} or {@link StackOverflowError}, are rethrown by the
+ * caller rather than being reported as a {@link ReflectionProblem}.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+@UmlClassDiagram(diagram = DiagramReflection.class)
+final class Accessors
+{
+    /** Returned when a member can only be accessed reflectively */
+    static final MethodHandle UNAVAILABLE = MethodHandles.constant(Object.class, null);
+
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     * A handle for fast access to a member, created on first use, or {@link #UNAVAILABLE} to use reflection
+     */
+    static final class LazyHandle
+    {
+        private final Supplier<MethodHandle> factory;
+
+        private volatile MethodHandle handle;
+
+        LazyHandle(Supplier<MethodHandle> factory)
+        {
+            this.factory = factory;
+        }
+
+        MethodHandle get()
+        {
+            var handle = this.handle;
+            if (handle == null)
+            {
+                this.handle = handle = factory.get();
+            }
+            return handle;
+        }
+    }
+
+    /**
+     * @return A handle of type (Object)Object that gets the value of the given field
+     */
+    static MethodHandle getter(java.lang.reflect.Field field)
+    {
+        try
+        {
+            if (accessible(field))
+            {
+                var handle = MethodHandles.lookup().unreflectGetter(field);
+                if (Modifier.isStatic(field.getModifiers()))
+                {
+                    handle = MethodHandles.dropArguments(handle, 0, Object.class);
+                }
+                return handle.asType(GETTER);
+            }
+        }
+        catch (Exception ignored)
+        {
+        }
+        return UNAVAILABLE;
+    }
+
+    /**
+     * @return A handle of type (Object)Object that calls the given getter method
+     */
+    static MethodHandle getter(Method method)
+    {
+        try
+        {
+            if (accessible(method) && !Modifier.isStatic(method.getModifiers()))
+            {
+                return MethodHandles.lookup().unreflect(method).asType(GETTER);
+            }
+        }
+        catch (Exception ignored)
+        {
+        }
+        return UNAVAILABLE;
+    }
+
+    /**
+     * @return A handle of type (Object, Object)void that sets the value of the given field
+     */
+    static MethodHandle setter(java.lang.reflect.Field field)
+    {
+        try
+        {
+            if (accessible(field))
+            {
+                var handle = MethodHandles.lookup().unreflectSetter(field);
+                if (Modifier.isStatic(field.getModifiers()))
+                {
+                    handle = MethodHandles.dropArguments(handle, 0, Object.class);
+                }
+                return handle.asType(SETTER);
+            }
+        }
+        catch (Exception ignored)
+        {
+        }
+        return UNAVAILABLE;
+    }
+
+    /**
+     * @return A handle of type (Object, Object)void that calls the given setter method, discarding any return value
+     */
+    static MethodHandle setter(Method method)
+    {
+        try
+        {
+            if (accessible(method) && !Modifier.isStatic(method.getModifiers()))
+            {
+                return MethodHandles.lookup().unreflect(method).asType(SETTER);
+            }
+        }
+        catch (Exception ignored)
+        {
+        }
+        return UNAVAILABLE;
+    }
+
+    private static boolean accessible(AccessibleObject member)
+    {
+        try
+        {
+            member.setAccessible(true);
+            return true;
+        }
+        catch (Exception e)
+        {
+            return false;
+        }
+    }
+}
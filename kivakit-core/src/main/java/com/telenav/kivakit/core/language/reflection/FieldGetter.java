@@ -28,9 +28,13 @@ public class FieldGetter implements Getter
 {
     private final transient java.lang.reflect.Field field;
 
+    /** Handle for fast access */
+    private final transient Accessors.LazyHandle handle;
+
     public FieldGetter(java.lang.reflect.Field field)
     {
         this.field = field;
+        this.handle = new Accessors.LazyHandle(() -> Accessors.getter(field));
     }
 
     @Override
@@ -47,6 +51,23 @@ public class FieldGetter implements Getter
     @Override
     public Object get(Object object)
     {
+        var handle = this.handle.get();
+        if (handle != Accessors.UNAVAILABLE)
+        {
+            try
+            {
+                return (Object) handle.invokeExact(object);
+            }
+            catch (Error e)
+            {
+                throw e;
+            }
+            catch (Throwable e)
+            {
+                return new ReflectionProblem(e, "Cannot get: " + this);
+            }
+        }
+
         try
         {
             if (Field.accessible(field))
@@ -28,9 +28,13 @@ public class FieldSetter implements Setter
 {
     private final transient java.lang.reflect.Field field;
 
+    /** Handle for fast access */
+    private final transient Accessors.LazyHandle handle;
+
     public FieldSetter(java.lang.reflect.Field field)
     {
         this.field = field;
+        this.handle = new Accessors.LazyHandle(() -> Accessors.setter(field));
     }
 
     @Override
@@ -48,6 +52,24 @@ public class FieldSetter implements Setter
     @Override
     public ReflectionProblem set(Object object, Object value)
     {
+        var handle = this.handle.get();
+        if (handle != Accessors.UNAVAILABLE)
+        {
+            try
+            {
+                handle.invokeExact(object, value);
+                return null;
+            }
+            catch (Error e)
+            {
+                throw e;
+            }
+            catch (Throwable e)
+            {
+                return new ReflectionProblem(e, "Cannot set: " + this);
+            }
+        }
+
         try
         {
             if (Field.accessible(field))
@@ -29,9 +29,13 @@ public class MethodGetter implements Getter
 {
     private final transient Method method;
 
+    /** Handle for fast access */
+    private final transient Accessors.LazyHandle handle;
+
     public MethodGetter(Method method)
     {
         this.method = method;
+        this.handle = new Accessors.LazyHandle(() -> Accessors.getter(method));
     }
 
     @Override
@@ -43,6 +47,23 @@ public class MethodGetter implements Getter
     @Override
     public Object get(Object object)
     {
+        var handle = this.handle.get();
+        if (handle != Accessors.UNAVAILABLE)
+        {
+            try
+            {
+                return (Object) handle.invokeExact(object);
+            }
+            catch (Error e)
+            {
+                throw e;
+            }
+            catch (Throwable e)
+            {
+                return new ReflectionProblem(e, "Cannot get: " + this);
+            }
+        }
+
         try
         {
             method.setAccessible(true);
@@ -29,9 +29,13 @@ public class MethodSetter implements Setter
 {
     private final transient Method method;
 
+    /** Handle for fast access */
+    private final transient Accessors.LazyHandle handle;
+
     public MethodSetter(Method method)
     {
         this.method = method;
+        this.handle = new Accessors.LazyHandle(() -> Accessors.setter(method));
     }
 
     @Override
@@ -49,6 +53,24 @@ public class MethodSetter implements Setter
     @Override
     public ReflectionProblem set(Object object, Object value)
     {
+        var handle = this.handle.get();
+        if (handle != Accessors.UNAVAILABLE)
+        {
+            try
+            {
+                handle.invokeExact(object, value);
+                return null;
+            }
+            catch (Error e)
+            {
+                throw e;
+            }
+            catch (Throwable e)
+            {
+                return new ReflectionProblem(e, "Cannot set: " + this);
+            }
+        }
+
         try
         {
             method.invoke(object, value);
@@ -11,7 +11,7 @@ public class ReflectionProblem extends Problem
         this.error = error;
     }
 
-    public ReflectionProblem(Exception cause, String message)
+    public ReflectionProblem(Throwable cause, String message)
     {
         super(cause, message);
         this.error = message + "\n" + cause;
@@ -19,6 +19,7 @@
 package com.telenav.kivakit.core.language.reflection;
 
 import com.telenav.kivakit.core.collections.list.ObjectList;
+import com.telenav.kivakit.core.collections.map.CacheMap;
 import com.telenav.kivakit.core.collections.map.ClassMap;
 import com.telenav.kivakit.core.collections.map.NameMap;
 import com.telenav.kivakit.core.collections.map.VariableMap;
@@ -26,13 +27,14 @@ import com.telenav.kivakit.core.collections.set.ObjectSet;
 import com.telenav.kivakit.core.ensure.Ensure;
 import com.telenav.kivakit.core.language.Classes;
 import com.telenav.kivakit.core.language.reflection.filters.field.NamedField;
-import com.telenav.kivakit.core.language.reflection.filters.method.NamedMethod;
+import com.telenav.kivakit.core.language.reflection.filters.method.AllMethods;
 import com.telenav.kivakit.core.language.reflection.property.Property;
 import com.telenav.kivakit.core.language.reflection.property.PropertyFilter;
 import com.telenav.kivakit.core.language.reflection.property.PropertyNamingConvention;
 import com.telenav.kivakit.core.language.module.PackageReference;
 import com.telenav.kivakit.core.lexakai.DiagramReflection;
 import com.telenav.kivakit.core.string.Strings;
+import com.telenav.kivakit.core.value.count.Maximum;
 import com.telenav.kivakit.interfaces.comparison.Filter;
 import com.telenav.kivakit.interfaces.naming.Named;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
@@ -44,10 +46,8 @@ import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
-import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
@@ -101,10 +101,34 @@ public class Type<T> implements Named
         return (Type<T>) forClass(object.getClass());
     }
 
+    /**
+     * The properties of a type under one filter, both in sorted order and by name
+     */
+    private static class PropertyIndex
+    {
+        /** Properties by name */
+        final NameMap<Property> byName;
+
+        /** Properties sorted by name */
+        final List<Property> sorted;
+
+        PropertyIndex(NameMap<Property> byName)
+        {
+            this.byName = byName;
+            this.sorted = List.copyOf(ObjectList.objectList(byName.values()).sorted());
+        }
+    }
+
+    /** The maximum number of distinct filters for which the properties of a type are cached */
+    private static final Maximum MAXIMUM_CACHED_FILTERS = Maximum.maximum(64);
+
+    /** The filter for properties looked up by name alone, shared so that all names use one cached index */
+    private static final PropertyFilter KIVAKIT_METHODS = new AllMethods(PropertyNamingConvention.KIVAKIT);
+
     private Boolean hasToString;
 
-    /** Properties stored by name */
-    private final Map<PropertyFilter, NameMap<Property>> propertiesForFilter = new IdentityHashMap<>();
+    /** Properties for each filter. Filters are compared by value, so equal filters share an index. */
+    private final CacheMap<PropertyFilter, PropertyIndex> propertiesForFilter = new CacheMap<>(MAXIMUM_CACHED_FILTERS);
 
     private final Class<T> type;
 
@@ -339,71 +363,23 @@ public class Type<T> implements Named
      */
     public ObjectList<Property> properties(PropertyFilter filter)
     {
-        // If we haven't reflected on the properties yet
-        var properties = propertiesForFilter.get(filter);
-        if (properties == null)
-        {
-            // create a new set of properties
-            properties = new NameMap<>(new TreeMap<>());
-
-            // and add a property getter/setter for each declared field in this type and all super classes
-            for (var field : allFields())
-            {
-                if (filter.includeField(field))
-                {
-                    properties.add(new Property(filter.nameForField(field), new FieldGetter(field), new FieldSetter(field)));
-                }
-            }
-
-            // then add setter properties, overriding any fields
-            for (var method : type.getMethods())
-            {
-                // this is necessary because the Java compiler creates duplicate method objects for
-                // methods inheriting from a generic interface, and the extra synthetic method will
-                // not carry any annotation information even when the source code contains a correct
-                // @ExcludeProperty
-                if (method.isSynthetic())
-                {
-                    continue;
-                }
-
-                if (filter.includeAsGetter(method))
-                {
-                    var name = filter.nameForMethod(method);
-                    var property = properties.get(name);
-                    if (property == null)
-                    {
-                        properties.add(new Property(name, new MethodGetter(method), null));
-                    }
-                    else
-                    {
-                        property.getter(new MethodGetter(method));
-                    }
-                }
-
-                if (filter.includeAsSetter(method))
-                {
-                    var name = filter.nameForMethod(method);
-                    var property = properties.get(name);
-                    if (property == null)
-                    {
-                        properties.add(new Property(name, null, new MethodSetter(method)));
-                    }
-                    else
-                    {
-                        property.setter(new MethodSetter(method));
-                    }
-                }
-            }
+        return ObjectList.objectList(propertyIndex(filter).sorted);
+    }
 
-            propertiesForFilter.put(filter, properties);
-        }
-        return ObjectList.objectList(properties.values()).sorted();
+    /**
+     * @return The property with the given name under the given filter, or null if there is no such property
+     */
+    public Property property(PropertyFilter filter, String name)
+    {
+        return propertyIndex(filter).byName.get(name);
     }
 
+    /**
+     * @return The KivaKit-style method property with the given name, or null if there is no such property
+     */
     public Property property(String name)
     {
-        return properties(new NamedMethod(PropertyNamingConvention.KIVAKIT, name)).first();
+        return property(KIVAKIT_METHODS, name);
     }
 
     public List<Field> reachableFields(Object root, Filter<java.lang.reflect.Field> filter)
@@ -554,6 +530,79 @@ public class Type<T> implements Named
         return variables;
     }
 
+    /**
+     * @return The properties of this type under the given filter, reflecting on them if they aren't in the cache yet
+     */
+    private PropertyIndex propertyIndex(PropertyFilter filter)
+    {
+        // If we haven't reflected on the properties yet
+        var index = propertiesForFilter.get(filter);
+        if (index == null)
+        {
+            // create a new set of properties
+            var properties = new NameMap<Property>(new TreeMap<>());
+
+            // and add a property getter/setter for each declared field in this type and all super classes
+            for (var field : allFields())
+            {
+                if (filter.includeField(field))
+                {
+                    properties.add(new Property(filter.nameForField(field), new FieldGetter(field), new FieldSetter(field)));
+                }
+            }
+
+            // then add setter properties, overriding any fields
+            for (var method : type.getMethods())
+            {
+                // this is necessary because the Java compiler creates duplicate method objects for
+                // methods inheriting from a generic interface, and the extra synthetic method will
+                // not carry any annotation information even when the source code contains a correct
+                // @ExcludeProperty
+                if (method.isSynthetic())
+                {
+                    continue;
+                }
+
+                if (filter.includeAsGetter(method))
+                {
+                    var name = filter.nameForMethod(method);
+                    var property = properties.get(name);
+                    if (property == null)
+                    {
+                        properties.add(new Property(name, new MethodGetter(method), null));
+                    }
+                    else
+                    {
+                        property.getter(new MethodGetter(method));
+                    }
+                }
+
+                if (filter.includeAsSetter(method))
+                {
+                    var name = filter.nameForMethod(method);
+                    var property = properties.get(name);
+                    if (property == null)
+                    {
+                        properties.add(new Property(name, null, new MethodSetter(method)));
+                    }
+                    else
+                    {
+                        property.setter(new MethodSetter(method));
+                    }
+                }
+            }
+
+            // and index them. If another thread got here first, its index is used and this one is discarded.
+            index = new PropertyIndex(properties);
+            var existing = propertiesForFilter.putIfAbsent(filter, index);
+            if (existing != null)
+            {
+                index = existing;
+            }
+        }
+        return index;
+    }
+
     private List<Field> reachableFields(Object root, Filter<java.lang.reflect.Field> filter,
                                         Set<Field> visited)
     {
@@ -45,7 +45,7 @@ public class NamedField extends AllFields
         if (object instanceof NamedField)
         {
             var that = (NamedField) object;
-            return name.equals(that.name);
+            return super.equals(that) && name.equals(that.name);
         }
         return false;
     }
@@ -53,7 +53,7 @@ public class NamedField extends AllFields
     @Override
     public int hashCode()
     {
-        return Hash.many(name);
+        return Hash.many(super.hashCode(), name);
     }
 
     @Override
@@ -41,13 +41,13 @@ public class AllMethods extends PropertyFilterSet
     @Override
     public boolean includeAsGetter(Method method)
     {
-        return method.getParameterTypes().length == 0 && method.getReturnType() != Void.class;
+        return method.getParameterTypes().length == 0 && method.getReturnType() != void.class;
     }
 
     @Override
     public boolean includeAsSetter(Method method)
     {
-        return method.getReturnType() == Void.class && method.getParameterTypes().length == 1;
+        return method.getReturnType() == void.class && method.getParameterTypes().length == 1;
     }
 
     @Override
@@ -45,7 +45,7 @@ public class NamedMethod extends AllMethods
         if (object instanceof NamedMethod)
         {
             var that = (NamedMethod) object;
-            return name.equals(that.name);
+            return super.equals(that) && name.equals(that.name);
         }
         return false;
     }
@@ -53,7 +53,7 @@ public class NamedMethod extends AllMethods
     @Override
     public int hashCode()
     {
-        return Hash.many(name);
+        return Hash.many(super.hashCode(), name);
     }
 
     @Override
@@ -61,4 +61,10 @@ public class NamedMethod extends AllMethods
     {
         return super.includeAsGetter(method) && method.getName().equals(name);
     }
+
+    @Override
+    public boolean includeAsSetter(Method method)
+    {
+        return super.includeAsSetter(method) && method.getName().equals(name);
+    }
 }
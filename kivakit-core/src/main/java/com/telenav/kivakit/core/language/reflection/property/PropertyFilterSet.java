@@ -18,6 +18,7 @@
 
 package com.telenav.kivakit.core.language.reflection.property;
 
+import com.telenav.kivakit.core.language.Hash;
 import com.telenav.kivakit.core.lexakai.DiagramReflection;
 import com.telenav.kivakit.core.string.CaseFormat;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
@@ -35,6 +36,10 @@ import java.util.Set;
  * included. Any field or method tagged with {@link KivaKitExcludeProperty} will be excluded regardless of the
  * inclusions specified.
  * <p>
+ * Filters are equal if they are of the same class and have the same naming convention and inclusions, so a filter
+ * created for each call still finds the properties that {@link com.telenav.kivakit.core.language.reflection.Type}
+ * has cached for an equal filter.
+ * <p>
  * Subclasses can utilize the following tests to implement filters that don't follow the pattern implemented by this
  * base class.
  * <p>
@@ -85,7 +90,9 @@ public class PropertyFilterSet implements PropertyFilter
         if (object instanceof PropertyFilterSet)
         {
             var that = (PropertyFilterSet) object;
-            return getClass().equals(that.getClass());
+            return getClass().equals(that.getClass())
+                    && convention == that.convention
+                    && included.equals(that.included);
         }
         return false;
     }
@@ -93,7 +100,7 @@ public class PropertyFilterSet implements PropertyFilter
     @Override
     public int hashCode()
     {
-        return getClass().hashCode();
+        return Hash.many(getClass(), convention, included);
     }
 
     /**
@@ -22,12 +22,11 @@ import com.telenav.kivakit.core.collections.list.StringList;
 import com.telenav.kivakit.core.language.Classes;
 import com.telenav.kivakit.core.messaging.Message;
 import com.telenav.kivakit.core.logging.LogEntry;
-import com.telenav.kivakit.interfaces.comparison.Filter;
 
 import java.util.ArrayList;
 import java.util.List;
 
-public class LogEntriesOfType implements Filter<LogEntry>
+public class LogEntriesOfType implements LogEntryPrefilter
 {
     private final Class<? extends Message>[] types;
 
@@ -49,9 +48,15 @@ public class LogEntriesOfType implements Filter<LogEntry>
                 return false;
             }
         }
+        return mayAccept(value.message());
+    }
+
+    @Override
+    public boolean mayAccept(Message message)
+    {
         for (var type : types)
         {
-            if (type.equals(value.message().getClass()))
+            if (type.equals(message.getClass()))
             {
                 return true;
             }
@@ -22,9 +22,8 @@ import com.telenav.kivakit.core.collections.list.StringList;
 import com.telenav.kivakit.core.language.Classes;
 import com.telenav.kivakit.core.logging.LogEntry;
 import com.telenav.kivakit.core.messaging.Message;
-import com.telenav.kivakit.interfaces.comparison.Filter;
 
-public class LogEntriesSubclassing implements Filter<LogEntry>
+public class LogEntriesSubclassing implements LogEntryPrefilter
 {
     private final Class<? extends Message>[] types;
 
@@ -36,10 +35,16 @@ public class LogEntriesSubclassing implements Filter<LogEntry>
 
     @Override
     public boolean accepts(LogEntry value)
+    {
+        return mayAccept(value.message());
+    }
+
+    @Override
+    public boolean mayAccept(Message message)
     {
         for (var type : types)
         {
-            if (type.isAssignableFrom(value.message().getClass()))
+            if (type.isAssignableFrom(message.getClass()))
             {
                 return true;
             }
@@ -18,11 +18,11 @@
 
 package com.telenav.kivakit.core.logging.filters;
 
-import com.telenav.kivakit.interfaces.comparison.Filter;
 import com.telenav.kivakit.core.logging.LogEntry;
+import com.telenav.kivakit.core.messaging.Message;
 import com.telenav.kivakit.core.messaging.messages.Severity;
 
-public class LogEntriesWithSeverityGreaterThanOrEqualTo implements Filter<LogEntry>
+public class LogEntriesWithSeverityGreaterThanOrEqualTo implements LogEntryPrefilter
 {
     private final Severity severity;
 
@@ -35,7 +35,13 @@ public class LogEntriesWithSeverityGreaterThanOrEqualTo implements Filter<LogEnt
     @Override
     public boolean accepts(LogEntry entry)
     {
-        return entry.message().severity().isGreaterThanOrEqualTo(severity);
+        return mayAccept(entry.message());
+    }
+
+    @Override
+    public boolean mayAccept(Message message)
+    {
+        return message.severity().isGreaterThanOrEqualTo(severity);
     }
 
     @Override
@@ -18,11 +18,11 @@
 
 package com.telenav.kivakit.core.logging.filters;
 
-import com.telenav.kivakit.interfaces.comparison.Filter;
 import com.telenav.kivakit.core.logging.LogEntry;
+import com.telenav.kivakit.core.messaging.Message;
 import com.telenav.kivakit.core.messaging.messages.Severity;
 
-public class LogEntriesWithSeverityLessThanOrEqualTo implements Filter<LogEntry>
+public class LogEntriesWithSeverityLessThanOrEqualTo implements LogEntryPrefilter
 {
     private final Severity severity;
 
@@ -34,7 +34,13 @@ public class LogEntriesWithSeverityLessThanOrEqualTo implements Filter<LogEntry>
     @Override
     public boolean accepts(LogEntry entry)
     {
-        return entry.message().severity().isLessThanOrEqualTo(severity);
+        return mayAccept(entry.message());
+    }
+
+    @Override
+    public boolean mayAccept(Message message)
+    {
+        return message.severity().isLessThanOrEqualTo(severity);
     }
 
     @Override
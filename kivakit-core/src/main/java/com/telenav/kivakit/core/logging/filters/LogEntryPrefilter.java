@@ -0,0 +1,38 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.core.logging.filters;
+
+import com.telenav.kivakit.core.logging.LogEntry;
+import com.telenav.kivakit.core.messaging.Message;
+import com.telenav.kivakit.interfaces.comparison.Filter;
+
+/**
+ * A {@link LogEntry} filter that can also examine a {@link Message} before any {@link LogEntry} has been created for
+ * it. Loggers use {@link #mayAccept(Message)} to discard messages that would be rejected anyway without paying for
+ * the construction of a log entry.
+ *
+ * @author jonathanl (shibo)
+ */
+public interface LogEntryPrefilter extends Filter<LogEntry>
+{
+    /**
+     * @return False if every log entry for the given message would be rejected by this filter, true if a log entry
+     * might be accepted
+     */
+    boolean mayAccept(Message message);
+}
@@ -24,6 +24,7 @@ import com.telenav.kivakit.core.ensure.Ensure;
 import com.telenav.kivakit.core.logging.Log;
 import com.telenav.kivakit.core.logging.LoggerCodeContext;
 import com.telenav.kivakit.core.logging.filters.LogEntriesWithSeverityGreaterThanOrEqualTo;
+import com.telenav.kivakit.core.logging.filters.LogEntryPrefilter;
 import com.telenav.kivakit.core.messaging.Listener;
 import com.telenav.kivakit.core.messaging.Message;
 import com.telenav.kivakit.core.logging.LogEntry;
@@ -41,6 +42,16 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Base class for loggers. Log entries are sent to each {@link Log} returned by {@link #logs()} if they are accepted by
+ * the filters of this logger.
+ * <p>
+ * Since most debug and trace messages are filtered out, {@link #log(LoggerCodeContext, Thread, Message)} first checks
+ * the message against any {@link LogEntryPrefilter}s of this logger and of its logs. A {@link LogEntry}, which captures
+ * the time, the thread name and other information, is only created if some log might accept it.
+ *
+ * @author jonathanl (shibo)
+ */
 @UmlClassDiagram(diagram = DiagramLogging.class)
 public abstract class BaseLogger implements Logger
 {
@@ -105,7 +116,7 @@ public abstract class BaseLogger implements Logger
     @UmlExcludeMember
     public void log(LoggerCodeContext context, Thread thread, Message message)
     {
-        if (isTimeToLog(message))
+        if (mayLog(message) && isTimeToLog(message))
         {
             var entry = logEntry(context, thread, message);
             if (accept(entry))
@@ -182,6 +193,45 @@ public abstract class BaseLogger implements Logger
     @UmlExcludeMember
     protected abstract ObjectSet<Log> logs();
 
+    /**
+     * @return False if the given message would certainly be rejected by this logger or by every one of its logs
+     */
+    @UmlExcludeMember
+    protected boolean mayLog(Message message)
+    {
+        // If this logger's filters would reject the message,
+        if (!mayAccept(filters, message))
+        {
+            // there's no need to go any further.
+            return false;
+        }
+
+        // If any log might accept the message,
+        for (var log : logs())
+        {
+            if (mayAccept(log.filters(), message))
+            {
+                // then we need to create a log entry.
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean mayAccept(List<Filter<LogEntry>> filters, Message message)
+    {
+        for (int i = 0, size = filters.size(); i < size; i++)
+        {
+            var filter = filters.get(i);
+            if (filter instanceof LogEntryPrefilter && !((LogEntryPrefilter) filter).mayAccept(message))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static Severity level()
     {
         if (level == null)
@@ -36,12 +36,12 @@ import static com.telenav.kivakit.core.collections.set.ObjectSet.objectSet;
 @UmlClassDiagram(diagram = DiagramLogging.class)
 public class ConsoleLogger extends BaseLogger
 {
-    private final Log log = new ConsoleLog();
+    private final ObjectSet<Log> logs = objectSet(new ConsoleLog());
 
     @Override
     @UmlExcludeMember
     protected ObjectSet<Log> logs()
     {
-        return objectSet(log);
+        return logs;
     }
 }
@@ -57,9 +57,12 @@ public class LogServiceLogger extends BaseLogger
 {
     /** List of logs to log to, initially just a console log, unless logs are specified with KIVAKIT_LOG */
     @UmlAggregation(label = "logs to")
-    private static ObjectSet<Log> logs = objectSet(new ConsoleLog());
+    private static volatile ObjectSet<Log> logs = objectSet(new ConsoleLog());
 
-    private static boolean loaded;
+    private static volatile boolean loaded;
+
+    /** True while log services are being loaded, guarded by the class lock */
+    private static boolean loading;
 
     @UmlExcludeMember
     public LogServiceLogger()
@@ -75,43 +78,61 @@ public class LogServiceLogger extends BaseLogger
 
     @Override
     @UmlExcludeMember
-    public synchronized ObjectSet<Log> logs()
+    public ObjectSet<Log> logs()
     {
         // If we haven't loaded log services yet,
         if (!loaded)
         {
-            // then we're loading them,
-            loaded = true;
+            load();
+        }
+
+        return logs;
+    }
 
-            // so get log service descriptors
-            var descriptors = Properties.property("KIVAKIT_LOG");
-            if (descriptors != null)
+    private static synchronized void load()
+    {
+        // If log services still have not been loaded now that we hold the lock, and this thread is not already
+        // loading them (a log being loaded may itself log),
+        if (!loaded && !loading)
+        {
+            // then we're loading them,
+            loading = true;
+            try
             {
-                // and for each descriptor,
-                ObjectSet<Log> loadedLogs = new ObjectSet<>();
-                for (var descriptor : descriptors.split(","))
+                // so get log service descriptors
+                var descriptors = Properties.property("KIVAKIT_LOG");
+                if (descriptors != null)
                 {
-                    // load and configure the log
-                    var log = log(descriptor);
-                    if (log != null)
-                    {
-                        // and add it to the list
-                        loadedLogs.add(log);
-                    }
-                    else
+                    // and for each descriptor,
+                    ObjectSet<Log> loadedLogs = new ObjectSet<>();
+                    for (var descriptor : descriptors.split(","))
                     {
-                        throw new IllegalStateException("KIVAKIT_LOG=" + descriptor + " is invalid. "
-                                + "For details on this system property, see: https://tinyurl.com/zctf9bss");
+                        // load and configure the log
+                        var log = log(descriptor);
+                        if (log != null)
+                        {
+                            // and add it to the list
+                            loadedLogs.add(log);
+                        }
+                        else
+                        {
+                            throw new IllegalStateException("KIVAKIT_LOG=" + descriptor + " is invalid. "
+                                    + "For details on this system property, see: https://tinyurl.com/zctf9bss");
+                        }
                     }
-                }
 
-                // and finally replace the initial list containing only a console log with the logs
-                // we loaded from the KIVAKIT_LOG environment variable
-                logs = loadedLogs;
+                    // and finally replace the initial list containing only a console log with the logs
+                    // we loaded from the KIVAKIT_LOG environment variable.
+                    logs = loadedLogs;
+                }
+            }
+            finally
+            {
+                // Only once the logs are in place can other threads see them as loaded.
+                loaded = true;
+                loading = false;
             }
         }
-
-        return logs;
     }
 
     private static Log log(String descriptor)
@@ -19,6 +19,7 @@
 package com.telenav.kivakit.core.logging.logs;
 
 import com.telenav.kivakit.core.collections.map.CountMap;
+import com.telenav.kivakit.core.collections.map.VariableMap;
 import com.telenav.kivakit.core.language.Classes;
 import com.telenav.kivakit.core.language.object.ObjectFormatter;
 import com.telenav.kivakit.core.language.reflection.property.KivaKitIncludeProperty;
@@ -34,6 +35,7 @@ import com.telenav.kivakit.core.string.Plural;
 import com.telenav.kivakit.core.thread.RepeatingThread;
 import com.telenav.kivakit.core.thread.StateWatcher;
 import com.telenav.kivakit.core.time.Duration;
+import com.telenav.kivakit.core.value.count.Count;
 import com.telenav.kivakit.core.vm.JavaVirtualMachine;
 import com.telenav.kivakit.core.vm.Properties;
 import com.telenav.kivakit.core.vm.ShutdownHook;
@@ -41,12 +43,15 @@ import com.telenav.kivakit.interfaces.comparison.Filter;
 import com.telenav.kivakit.interfaces.lifecycle.Startable;
 import com.telenav.kivakit.interfaces.lifecycle.Stoppable;
 import com.telenav.kivakit.interfaces.time.LengthOfTime;
+import com.telenav.lexakai.annotations.LexakaiJavadoc;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
+import org.jetbrains.annotations.MustBeInvokedByOverriders;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 import static com.telenav.kivakit.core.thread.KivaKitThread.State.STOP_REQUESTED;
 import static com.telenav.kivakit.core.time.Frequency.CONTINUOUSLY;
@@ -54,6 +59,14 @@ import static com.telenav.kivakit.core.vm.ShutdownHook.Order.LAST;
 
 /**
  * Base class for log implementations. Handles background queueing of log entries.
+ * <p>
+ * When logging is asynchronous (the default, unless KIVAKIT_LOG_SYNCHRONOUS is true), entries are added to a bounded,
+ * lock-free ring buffer of {@link #queueSize()} entries. A single background thread removes up to {@link #batchSize()}
+ * entries at a time and passes them to {@link #onLog(List)}, which subclasses can override to write and flush once per
+ * batch. What happens when the ring buffer is full is determined by the {@link OverflowPolicy}, which can be set with
+ * {@link #overflowPolicy(OverflowPolicy)} or with the "overflow" configuration property (for example,
+ * -DKIVAKIT_LOG="console overflow=sample"). The number of entries waiting to be written is available from {@link
+ * #queuedEntries()}, and the number of entries discarded on overflow from {@link #droppedEntries()}.
  *
  * @author jonathanl (shibo)
  */
@@ -61,6 +74,25 @@ import static com.telenav.kivakit.core.vm.ShutdownHook.Order.LAST;
 @UmlClassDiagram(diagram = DiagramLogs.class)
 public abstract class BaseLog implements Startable, Stoppable, Log
 {
+    /**
+     * What to do with a new entry when the asynchronous queue is full
+     */
+    @LexakaiJavadoc(complete = true)
+    public enum OverflowPolicy
+    {
+        /** Wait until there is room for the entry */
+        BLOCK,
+
+        /** Discard entries that are not severe, and wait for room for severe entries */
+        DROP_LOWEST_SEVERITY,
+
+        /** Keep one of every {@link BaseLog#overflowSamplingInterval()} entries, and all severe entries, discarding the rest */
+        SAMPLE
+    }
+
+    /** The overflow policy used unless another is configured */
+    private static final OverflowPolicy DEFAULT_OVERFLOW_POLICY = OverflowPolicy.BLOCK;
+
     private static volatile boolean isAsynchronous;
 
     private static final List<BaseLog> logs = new ArrayList<>();
@@ -91,12 +123,24 @@ public abstract class BaseLog implements Startable, Stoppable, Log
 
     private final CountMap<String> messageCounts = new CountMap<>();
 
-    private final ArrayBlockingQueue<LogEntry> queue = new ArrayBlockingQueue<>(queueSize());
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final AtomicLong overflowed = new AtomicLong();
+
+    private volatile OverflowPolicy overflowPolicy = DEFAULT_OVERFLOW_POLICY;
+
+    private final LogEntryRingBuffer queue = new LogEntryRingBuffer(queueSize());
+
+    /** Monitor the log thread waits on when the queue is empty */
+    private final Object queueNotEmpty = new Object();
 
     private final AtomicBoolean started = new AtomicBoolean();
 
     private RepeatingThread thread;
 
+    /** True while the log thread is waiting for entries */
+    private volatile boolean waiting;
+
     final StateWatcher<Boolean> queueEmpty = new StateWatcher<>(true);
 
     protected BaseLog()
@@ -137,6 +181,33 @@ public abstract class BaseLog implements Startable, Stoppable, Log
     {
     }
 
+    @Override
+    @MustBeInvokedByOverriders
+    public void configure(VariableMap<String> properties)
+    {
+        var overflow = properties.get("overflow");
+        if (overflow != null)
+        {
+            try
+            {
+                overflowPolicy(OverflowPolicy.valueOf(overflow.toUpperCase().replace('-', '_')));
+            }
+            catch (IllegalArgumentException e)
+            {
+                System.err.println(new Problem("Unrecognized overflow policy '$', using $", overflow, DEFAULT_OVERFLOW_POLICY).asString());
+                overflowPolicy(DEFAULT_OVERFLOW_POLICY);
+            }
+        }
+    }
+
+    /**
+     * @return The number of entries that have been discarded because the queue was full
+     */
+    public Count droppedEntries()
+    {
+        return Count.count(dropped.get());
+    }
+
     @Override
     public boolean equals(Object object)
     {
@@ -160,6 +231,7 @@ public abstract class BaseLog implements Startable, Stoppable, Log
         if (thread != null)
         {
             asynchronous(false);
+            queueEmpty.signal(queue.isEmpty());
             thread.interrupt();
             queueEmpty.waitFor(true, maximumWaitTime);
         }
@@ -205,13 +277,11 @@ public abstract class BaseLog implements Startable, Stoppable, Log
                 {
                     start();
                 }
-                try
-                {
-                    queue.put(entry);
-                }
-                catch (InterruptedException ignored)
+                if (!queue.offer(entry))
                 {
+                    overflow(entry);
                 }
+                wakeLogThread();
             }
             else
             {
@@ -240,39 +310,67 @@ public abstract class BaseLog implements Startable, Stoppable, Log
         return Classes.simpleName(getClass());
     }
 
+    /**
+     * Sets the policy for handling entries when the asynchronous queue is full
+     */
+    public void overflowPolicy(OverflowPolicy policy)
+    {
+        overflowPolicy = policy;
+    }
+
+    /**
+     * @return The number of entries waiting to be written by the log thread
+     */
+    public Count queuedEntries()
+    {
+        return Count.count(queue.size());
+    }
+
     @Override
     public final boolean start()
     {
         thread = new RepeatingThread(Listener.none(), name() + "-Log", CONTINUOUSLY)
         {
+            /** The batch of entries being written, which is reused on each run */
+            private final List<LogEntry> batch = new ArrayList<>();
+
             @Override
             protected void onRun()
             {
                 if (!is(STOP_REQUESTED))
                 {
-                    try
+                    // If there are entries in the queue,
+                    if (queue.drainTo(batch, batchSize()) > 0)
                     {
-                        var entry = queue.take();
-                        if (!dispatch(entry))
+                        // write them as a batch,
+                        if (!dispatch(batch))
                         {
-                            retry(entry);
+                            retry(batch);
                         }
-                        checkForEmptyQueue();
+                        batch.clear();
                     }
-                    catch (InterruptedException ignored)
+                    else
                     {
-                        checkForEmptyQueue();
+                        // otherwise, wait for more entries.
+                        try
+                        {
+                            awaitEntries();
+                        }
+                        catch (InterruptedException ignored)
+                        {
+                        }
                     }
+                    checkForEmptyQueue();
                 }
             }
 
-            private void retry(LogEntry entry)
+            private void retry(List<LogEntry> entries)
             {
-                // Try a few times to write the failed log entry
+                // Try a few times to write the failed log entries
                 var success = false;
                 for (var i = 0; i < retries(); i++)
                 {
-                    if (dispatch(entry))
+                    if (dispatch(entries))
                     {
                         success = true;
                         break;
@@ -282,13 +380,16 @@ public abstract class BaseLog implements Startable, Stoppable, Log
                 // If we are unable to write in several tries,
                 if (!success)
                 {
-                    // log the entry as a failure
-                    onLogFailure(entry);
+                    // log the entries as failures
+                    for (var entry : entries)
+                    {
+                        onLogFailure(entry);
+                    }
 
                     // and then drain the rest of the queue as failures to
                     // prevent the queue from blocking
                     List<LogEntry> failures = new ArrayList<>();
-                    queue.drainTo(failures);
+                    queue.drainTo(failures, Integer.MAX_VALUE);
                     checkForEmptyQueue();
                     for (var failure : failures)
                     {
@@ -333,13 +434,51 @@ public abstract class BaseLog implements Startable, Stoppable, Log
         return true;
     }
 
+    /**
+     * @return The maximum number of entries the log thread passes to {@link #onLog(List)} at once
+     */
+    @SuppressWarnings("SameReturnValue")
+    @KivaKitIncludeProperty
+    protected int batchSize()
+    {
+        return 1_024;
+    }
+
     protected abstract void onLog(LogEntry entry);
 
+    /**
+     * Writes a batch of entries removed from the asynchronous queue. By default, each entry is passed to {@link
+     * #onLog(LogEntry)}, but subclasses can override this method to write (and flush) the entries all at once.
+     */
+    protected void onLog(List<LogEntry> entries)
+    {
+        for (var entry : entries)
+        {
+            onLog(entry);
+        }
+    }
+
     protected void onLogFailure(LogEntry entry)
     {
         System.out.println("Failed to log: " + entry);
     }
 
+    /**
+     * @return Under {@link OverflowPolicy#SAMPLE}, one of every this many overflowing entries is kept
+     */
+    @SuppressWarnings("SameReturnValue")
+    @KivaKitIncludeProperty
+    protected int overflowSamplingInterval()
+    {
+        return 100;
+    }
+
+    @KivaKitIncludeProperty
+    protected OverflowPolicy overflowPolicy()
+    {
+        return overflowPolicy;
+    }
+
     @SuppressWarnings("SameReturnValue")
     @KivaKitIncludeProperty
     protected int queueSize()
@@ -354,6 +493,45 @@ public abstract class BaseLog implements Startable, Stoppable, Log
         return 3;
     }
 
+    /**
+     * Waits on the log thread until a producer signals that an entry has been added, or a short time has elapsed
+     */
+    private void awaitEntries() throws InterruptedException
+    {
+        synchronized (queueNotEmpty)
+        {
+            waiting = true;
+            try
+            {
+                if (queue.isEmpty())
+                {
+                    queueNotEmpty.wait(100);
+                }
+            }
+            finally
+            {
+                waiting = false;
+            }
+        }
+    }
+
+    /**
+     * Waits until there is room in the queue for the given entry, or the log is closed
+     */
+    private void block(LogEntry entry)
+    {
+        while (!queue.offer(entry))
+        {
+            if (closed)
+            {
+                dropped.incrementAndGet();
+                return;
+            }
+            wakeLogThread();
+            LockSupport.parkNanos(50_000);
+        }
+    }
+
     private void checkForEmptyQueue()
     {
         if (queue.isEmpty())
@@ -362,6 +540,31 @@ public abstract class BaseLog implements Startable, Stoppable, Log
         }
     }
 
+    private boolean dispatch(List<LogEntry> entries)
+    {
+        synchronized (messageCounts)
+        {
+            for (var entry : entries)
+            {
+                if (entry.severity().isGreaterThan(Severity.NONE))
+                {
+                    messageCounts.increment(Plural.pluralize(entry.messageType()));
+                }
+            }
+        }
+        var success = true;
+        try
+        {
+            onLog(entries);
+        }
+        catch (Exception e)
+        {
+            System.err.println(new Problem(e, "Failed to write log entries").asString());
+            success = false;
+        }
+        return success;
+    }
+
     private boolean dispatch(LogEntry entry)
     {
         if (entry.severity().isGreaterThan(Severity.NONE))
@@ -383,4 +586,54 @@ public abstract class BaseLog implements Startable, Stoppable, Log
         }
         return success;
     }
+
+    /**
+     * Handles an entry that could not be added to the queue because it was full, according to the overflow policy
+     */
+    private void overflow(LogEntry entry)
+    {
+        switch (overflowPolicy)
+        {
+            case DROP_LOWEST_SEVERITY:
+                if (entry.isSevere())
+                {
+                    block(entry);
+                }
+                else
+                {
+                    dropped.incrementAndGet();
+                }
+                break;
+
+            case SAMPLE:
+                if (entry.isSevere() || overflowed.incrementAndGet() % overflowSamplingInterval() == 0)
+                {
+                    block(entry);
+                }
+                else
+                {
+                    dropped.incrementAndGet();
+                }
+                break;
+
+            case BLOCK:
+            default:
+                block(entry);
+                break;
+        }
+    }
+
+    /**
+     * Notifies the log thread if it is waiting for entries
+     */
+    private void wakeLogThread()
+    {
+        if (waiting)
+        {
+            synchronized (queueNotEmpty)
+            {
+                queueNotEmpty.notifyAll();
+            }
+        }
+    }
 }
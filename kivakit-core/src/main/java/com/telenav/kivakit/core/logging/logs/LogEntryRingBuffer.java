@@ -0,0 +1,154 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.core.logging.logs;
+
+import com.telenav.kivakit.core.lexakai.DiagramLogs;
+import com.telenav.kivakit.core.logging.LogEntry;
+import com.telenav.lexakai.annotations.LexakaiJavadoc;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded, lock-free ring buffer of {@link LogEntry}s with many producers and a single consumer. Each slot has a
+ * sequence number which tells producers when the slot is free and tells the consumer when the slot has been published.
+ * Producers claim slots with a compare-and-set on the tail position, so {@link #offer(LogEntry)} never blocks, and the
+ * consumer removes entries in batches with {@link #drainTo(List, int)}.
+ *
+ * @author jonathanl (shibo)
+ */
+@UmlClassDiagram(diagram = DiagramLogs.class)
+@LexakaiJavadoc(complete = true)
+class LogEntryRingBuffer
+{
+    /** The number of slots, which is a power of two */
+    private final int capacity;
+
+    /** The entries in each slot */
+    private final LogEntry[] entries;
+
+    /** The position of the next entry to remove, written only by the consumer */
+    private volatile long head;
+
+    /** Mask to turn a position into a slot index */
+    private final int mask;
+
+    /** The sequence number of each slot */
+    private final AtomicLongArray sequences;
+
+    /** The position of the next slot to claim */
+    private final AtomicLong tail = new AtomicLong();
+
+    LogEntryRingBuffer(int minimumCapacity)
+    {
+        capacity = Integer.highestOneBit(Math.max(2, minimumCapacity - 1)) << 1;
+        mask = capacity - 1;
+        entries = new LogEntry[capacity];
+        sequences = new AtomicLongArray(capacity);
+        for (int index = 0; index < capacity; index++)
+        {
+            sequences.set(index, index);
+        }
+    }
+
+    /**
+     * @return The number of entries this buffer can hold
+     */
+    int capacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Removes up to the given maximum number of entries, adding them to the given list. This method must only be called
+     * by the single consumer thread.
+     *
+     * @return The number of entries removed
+     */
+    int drainTo(List<LogEntry> batch, int maximum)
+    {
+        var position = head;
+        var drained = 0;
+        while (drained < maximum)
+        {
+            var index = (int) (position & mask);
+            if (sequences.get(index) != position + 1)
+            {
+                break;
+            }
+            batch.add(entries[index]);
+            entries[index] = null;
+            sequences.lazySet(index, position + capacity);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    /**
+     * @return True if no entry has been claimed and not yet removed
+     */
+    boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    /**
+     * Adds the given entry to this buffer if there is space for it
+     *
+     * @return True if the entry was added, false if the buffer is full
+     */
+    boolean offer(LogEntry entry)
+    {
+        while (true)
+        {
+            var position = tail.get();
+            var index = (int) (position & mask);
+            var difference = sequences.get(index) - position;
+
+            // If the slot is free,
+            if (difference == 0)
+            {
+                // try to claim it,
+                if (tail.compareAndSet(position, position + 1))
+                {
+                    // then store the entry and publish it to the consumer.
+                    entries[index] = entry;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            }
+            else if (difference < 0)
+            {
+                // The slot has not yet been consumed, so the buffer is full.
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return The number of entries in this buffer
+     */
+    int size()
+    {
+        return (int) Math.max(0, tail.get() - head);
+    }
+}
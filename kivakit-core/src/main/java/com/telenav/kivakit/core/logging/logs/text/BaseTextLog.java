@@ -55,6 +55,8 @@ public abstract class BaseTextLog extends BaseLog
     @MustBeInvokedByOverriders
     public void configure(VariableMap<String> properties)
     {
+        super.configure(properties);
+
         var formatter = properties.get("formatter");
         if (formatter != null)
         {
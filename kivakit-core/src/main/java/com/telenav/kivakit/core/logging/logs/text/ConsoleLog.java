@@ -27,6 +27,8 @@ import com.telenav.lexakai.annotations.LexakaiJavadoc;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 import com.telenav.lexakai.annotations.visibility.UmlExcludeMember;
 
+import java.util.List;
+
 import static com.telenav.kivakit.core.os.Console.OutputType.ERROR;
 import static com.telenav.kivakit.core.os.Console.OutputType.NORMAL;
 
@@ -66,4 +68,31 @@ public class ConsoleLog extends BaseTextLog
     {
         console.println(entry.isSevere() ? ERROR : NORMAL, formatted(entry));
     }
+
+    /**
+     * Writes each run of entries with the same output type in a single call to the console
+     */
+    @Override
+    @UmlExcludeMember
+    @SuppressWarnings("AccessStaticViaInstance")
+    protected synchronized void onLog(List<LogEntry> entries)
+    {
+        var text = new StringBuilder();
+        Console.OutputType output = null;
+        for (var entry : entries)
+        {
+            var entryOutput = entry.isSevere() ? ERROR : NORMAL;
+            if (output != null && output != entryOutput)
+            {
+                console.print(output, "$", text);
+                text.setLength(0);
+            }
+            output = entryOutput;
+            text.append(formatted(entry)).append(System.lineSeparator());
+        }
+        if (output != null)
+        {
+            console.print(output, "$", text);
+        }
+    }
 }
@@ -0,0 +1,147 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.core.messaging.broadcasters;
+
+import com.telenav.kivakit.core.lexakai.DiagramRepeater;
+import com.telenav.lexakai.annotations.LexakaiJavadoc;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+import com.telenav.lexakai.annotations.associations.UmlAggregation;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The audience of a {@link Multicaster}, published as an immutable array snapshot. Adding or removing a member copies
+ * the current array and atomically swaps in the new one, so the transmit path of {@link Multicaster} can iterate over
+ * {@link #members()} without taking a lock or allocating. Since listeners are added and removed rarely, but messages
+ * are transmitted constantly, the cost of copying on write is easily repaid.
+ *
+ * @author jonathanl (shibo)
+ */
+@UmlClassDiagram(diagram = DiagramRepeater.class)
+@LexakaiJavadoc(complete = true)
+class Audience
+{
+    private static final AudienceMember[] EMPTY = new AudienceMember[0];
+
+    /** The current snapshot of audience members, which is never modified once published */
+    @UmlAggregation
+    private final AtomicReference<AudienceMember[]> members = new AtomicReference<>(EMPTY);
+
+    Audience()
+    {
+    }
+
+    Audience(Audience that)
+    {
+        members.set(that.members());
+    }
+
+    /**
+     * Adds the given member to this audience if it is not already present
+     *
+     * @return True if the member was added
+     */
+    boolean add(AudienceMember member)
+    {
+        while (true)
+        {
+            var current = members.get();
+            if (indexOf(current, member) >= 0)
+            {
+                return false;
+            }
+            var updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = member;
+            if (members.compareAndSet(current, updated))
+            {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes all members from this audience
+     */
+    void clear()
+    {
+        members.set(EMPTY);
+    }
+
+    /**
+     * @return True if this audience has no members
+     */
+    boolean isEmpty()
+    {
+        return members.get().length == 0;
+    }
+
+    /**
+     * @return The current snapshot of members. This array must not be modified by the caller.
+     */
+    AudienceMember[] members()
+    {
+        return members.get();
+    }
+
+    /**
+     * Removes the given member from this audience
+     *
+     * @return True if the member was removed
+     */
+    boolean remove(AudienceMember member)
+    {
+        while (true)
+        {
+            var current = members.get();
+            var index = indexOf(current, member);
+            if (index < 0)
+            {
+                return false;
+            }
+            var updated = current.length == 1 ? EMPTY : new AudienceMember[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+            if (members.compareAndSet(current, updated))
+            {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return The number of members in this audience
+     */
+    int size()
+    {
+        return members.get().length;
+    }
+
+    private static int indexOf(AudienceMember[] members, AudienceMember member)
+    {
+        for (int i = 0; i < members.length; i++)
+        {
+            if (members[i].equals(member))
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
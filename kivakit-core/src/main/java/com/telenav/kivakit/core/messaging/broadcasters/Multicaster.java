@@ -29,7 +29,6 @@ import com.telenav.kivakit.core.messaging.context.CodeContext;
 import com.telenav.kivakit.core.messaging.messages.OperationMessage;
 import com.telenav.kivakit.core.string.IndentingStringBuilder;
 import com.telenav.kivakit.core.string.IndentingStringBuilder.Indentation;
-import com.telenav.kivakit.core.thread.locks.ReadWriteLock;
 import com.telenav.kivakit.core.vm.Properties;
 import com.telenav.kivakit.interfaces.code.Code;
 import com.telenav.kivakit.interfaces.comparison.Filter;
@@ -42,7 +41,6 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static com.telenav.kivakit.core.ensure.Ensure.ensure;
 import static com.telenav.kivakit.core.ensure.Ensure.ensureNotNull;
@@ -94,14 +92,12 @@ public class Multicaster implements Broadcaster
 
     /** This multi-caster audience */
     @UmlAggregation
-    private final transient List<AudienceMember> audience = new ArrayList<>();
+    private final transient Audience audience;
 
     private final transient Class<?> debugClassContext;
 
     private transient CodeContext debugCodeContext;
 
-    private transient ReadWriteLock lock;
-
     private final transient String objectName;
 
     private transient Broadcaster source;
@@ -112,6 +108,7 @@ public class Multicaster implements Broadcaster
     {
         this.objectName = objectName;
         this.debugClassContext = debugClassContext;
+        audience = new Audience();
         debugCodeContext(new CodeContext(debugClassContext));
     }
 
@@ -119,6 +116,7 @@ public class Multicaster implements Broadcaster
     {
         objectName = NamedObject.syntheticName(this);
         this.debugClassContext = debugClassContext;
+        audience = new Audience();
         debugCodeContext(new CodeContext(debugClassContext));
     }
 
@@ -126,6 +124,7 @@ public class Multicaster implements Broadcaster
     {
         this.objectName = objectName;
         debugClassContext = getClass();
+        audience = new Audience();
         debugCodeContext(new CodeContext(getClass()));
     }
 
@@ -133,6 +132,7 @@ public class Multicaster implements Broadcaster
     {
         objectName = NamedObject.syntheticName(this);
         debugClassContext = getClass();
+        audience = new Audience();
         debugCodeContext(new CodeContext(getClass()));
     }
 
@@ -142,10 +142,8 @@ public class Multicaster implements Broadcaster
         source = that.source;
         debugCodeContext = that.debugCodeContext;
         debugClassContext = that.debugClassContext;
-        lock = that.lock;
         transmitting = that.transmitting;
-
-        audience.addAll(that.audience);
+        audience = new Audience(that.audience);
 
         assert debugCodeContext != null;
         assert debugCodeContext.typeName() != null;
@@ -168,14 +166,7 @@ public class Multicaster implements Broadcaster
         }
 
         ensureNotNull(listener);
-        lock().write(() ->
-        {
-            var receiver = new AudienceMember(listener, filter);
-            if (!audience.contains(receiver))
-            {
-                audience.add(receiver);
-            }
-        });
+        audience.add(new AudienceMember(listener, filter));
     }
 
     /**
@@ -184,7 +175,7 @@ public class Multicaster implements Broadcaster
     @Override
     public void clearListeners()
     {
-        lock().write(audience::clear);
+        audience.clear();
     }
 
     @Override
@@ -211,7 +202,7 @@ public class Multicaster implements Broadcaster
     @Override
     public boolean hasListeners()
     {
-        return lock().read(() -> !audience.isEmpty());
+        return !audience.isEmpty();
     }
 
     /**
@@ -219,17 +210,14 @@ public class Multicaster implements Broadcaster
      */
     public boolean isDeaf()
     {
-        return lock().read(() ->
+        for (var receiver : audience.members())
         {
-            for (var receiver : audience)
+            if (!receiver.listener().isDeaf())
             {
-                if (!receiver.listener().isDeaf())
-                {
-                    return false;
-                }
+                return false;
             }
-            return true;
-        });
+        }
+        return true;
     }
 
     @Override
@@ -273,10 +261,12 @@ public class Multicaster implements Broadcaster
     @Override
     public List<Listener> listeners()
     {
-        return lock().read(() -> audience
-                .stream()
-                .map(AudienceMember::listener)
-                .collect(Collectors.toList()));
+        var listeners = new ArrayList<Listener>();
+        for (var member : audience.members())
+        {
+            listeners.add(member.listener());
+        }
+        return listeners;
     }
 
     @Override
@@ -303,10 +293,7 @@ public class Multicaster implements Broadcaster
     @Override
     public void removeListener(Listener listener)
     {
-        lock().write(() ->
-        {
-            audience.remove(new AudienceMember(listener, null));
-        });
+        audience.remove(new AudienceMember(listener, null));
     }
 
     /**
@@ -315,50 +302,49 @@ public class Multicaster implements Broadcaster
     @Override
     public <M extends Transmittable> M transmit(M message)
     {
-        lock().read(() ->
+        // Take a snapshot of the audience, which cannot change while we are transmitting to it,
+        var members = audience.members();
+        if (members.length > 0)
         {
-            if (!audience.isEmpty())
+            // Add this broadcaster's context to the message
+            if (message instanceof Message)
+            {
+                ((OperationMessage) message).context(debugCodeContext);
+            }
+
+            // then send to members of the audience
+            for (var member : members)
             {
-                // Add this broadcaster's context to the message
-                if (message instanceof Message)
+                try
                 {
-                    ((OperationMessage) message).context(debugCodeContext);
+                    member.receive(message);
                 }
-
-                // then send to members of the audience
-                for (var member : audience)
+                catch (Exception e)
                 {
-                    try
-                    {
-                        member.receive(message);
-                    }
-                    catch (Exception e)
-                    {
-                        LOGGER.problem(e, "Listener threw exception");
-                    }
+                    LOGGER.problem(e, "Listener threw exception");
                 }
             }
-            else
+        }
+        else
+        {
+            // If there is no receiver for this message, and it can be logged,
+            if (message instanceof Message)
             {
-                // If there is no receiver for this message, and it can be logged,
-                if (message instanceof Message)
-                {
-                    // then log it.
-                    LOGGER.log((Message) message);
-                }
+                // then log it.
+                LOGGER.log((Message) message);
+            }
 
-                // Notify that there was nowhere to send the message.
-                if (Properties.isPropertyFalse("KIVAKIT_IGNORE_MISSING_LISTENERS"))
+            // Notify that there was nowhere to send the message.
+            if (Properties.isPropertyFalse("KIVAKIT_IGNORE_MISSING_LISTENERS"))
+            {
+                var text = new IndentingStringBuilder();
+                for (var at : listenerChain())
                 {
-                    var text = new IndentingStringBuilder();
-                    for (var at : listenerChain())
-                    {
-                        text.appendLine(at);
-                    }
-                    LOGGER.warning("Broken listener chain:\n$", text.numbered().toString());
+                    text.appendLine(at);
                 }
+                LOGGER.warning("Broken listener chain:\n$", text.numbered().toString());
             }
-        });
+        }
 
         return message;
     }
@@ -379,31 +365,19 @@ public class Multicaster implements Broadcaster
 
     private void listenerTree(IndentingStringBuilder builder)
     {
-        lock().read(() ->
+        builder.appendLine(objectName());
+        builder.indent();
+        for (var receiver : audience.members())
         {
-            builder.appendLine(objectName());
-            builder.indent();
-            for (var receiver : audience)
+            if (receiver.listener() instanceof Multicaster)
             {
-                if (receiver.listener() instanceof Multicaster)
-                {
-                    ((Multicaster) receiver.listener()).listenerTree(builder);
-                }
-                else
-                {
-                    builder.appendLine(receiver.listener().objectName());
-                }
+                ((Multicaster) receiver.listener()).listenerTree(builder);
+            }
+            else
+            {
+                builder.appendLine(receiver.listener().objectName());
             }
-            builder.unindent();
-        });
-    }
-
-    private ReadWriteLock lock()
-    {
-        if (lock == null)
-        {
-            lock = new ReadWriteLock();
         }
-        return lock;
+        builder.unindent();
     }
 }
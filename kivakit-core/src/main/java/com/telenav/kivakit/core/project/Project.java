@@ -183,7 +183,7 @@ public abstract class Project extends BaseRepeater implements
      * called before using any classes or methods in the project.
      */
     @Override
-    public final void initialize()
+    public final synchronized void initialize()
     {
         // If we haven't already initialized,
         if (!initialized)
@@ -199,7 +199,10 @@ public abstract class Project extends BaseRepeater implements
                         Align.right(getClass().getSimpleName(), 40, '.'),
                         Align.left(projectVersion().toString(), 20, '.'), build());
             }
-            onInitialize();
+            try (var ignored = StartupTimeline.startupTimeline().span(getClass().getSimpleName() + ".onInitialize()"))
+            {
+                onInitialize();
+            }
 
             // and signal that we are done initializing.
             onInitialized();
@@ -0,0 +1,243 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.core.project;
+
+import com.telenav.kivakit.core.lexakai.DiagramProject;
+import com.telenav.kivakit.core.messaging.Listener;
+import com.telenav.kivakit.core.thread.Threads;
+import com.telenav.kivakit.core.time.Duration;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.core.vm.JavaVirtualMachine;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+import com.telenav.lexakai.annotations.associations.UmlRelation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static com.telenav.kivakit.core.ensure.Ensure.fail;
+
+/**
+ * Initializes {@link Project}s and their dependencies in parallel. Projects that don't depend on each other are
+ * initialized at the same time on a fork-join pool, while each project is initialized only after all of its
+ * dependencies have finished initializing.
+ *
+ * <p><b>Initializing</b></p>
+ *
+ * <p>
+ * {@link #initialize(Collection)} builds the graph of the given projects and their transitive {@link
+ * Project#dependencies()}, fails if the graph has a cycle, and then initializes each project, waiting until all are
+ * initialized. The number of threads is set with {@link #threads(Count)} and defaults to the number of processors.
+ * </p>
+ *
+ * <p><b>Critical Path</b></p>
+ *
+ * <p>
+ * Parallel initialization can finish no sooner than the chain of dependent projects that takes longest to initialize.
+ * After initialization, {@link #criticalPath()} returns that chain, and {@link #initializationTime(Project)} gives the
+ * time each project took, so the slow initializers that bound start-up time can be found.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ * @see Project
+ */
+@UmlClassDiagram(diagram = DiagramProject.class)
+@UmlRelation(label = "initializes", referent = Project.class)
+public class ProjectInitializer
+{
+    /** The listener to add to each project */
+    private final Listener listener;
+
+    /** The number of threads to initialize projects with */
+    private Count threads = JavaVirtualMachine.local().processors();
+
+    /** The dependencies of each project, in the order projects were found */
+    private final Map<Project, List<Project>> dependencies = new LinkedHashMap<>();
+
+    /** The time each project took to initialize, in nanoseconds */
+    private final Map<Project, Long> nanoseconds = Collections.synchronizedMap(new HashMap<>());
+
+    /**
+     * @param listener The listener to add to each project before it is initialized
+     */
+    public ProjectInitializer(Listener listener)
+    {
+        this.listener = listener;
+    }
+
+    /**
+     * @return The chain of dependent projects that took the longest total time to initialize, starting with the
+     * project that has no dependencies, or an empty list if nothing has been initialized
+     */
+    public List<Project> criticalPath()
+    {
+        // Go through the projects with dependencies before dependents,
+        var total = new HashMap<Project, Long>();
+        var previous = new HashMap<Project, Project>();
+        Project last = null;
+        for (var project : topologicalOrder())
+        {
+            // find the dependency whose path took longest,
+            Project slowest = null;
+            for (var dependency : dependencies.get(project))
+            {
+                if (slowest == null || total.get(dependency) > total.get(slowest))
+                {
+                    slowest = dependency;
+                }
+            }
+
+            // and extend its path with this project.
+            previous.put(project, slowest);
+            total.put(project, nanoseconds.getOrDefault(project, 0L) + (slowest == null ? 0 : total.get(slowest)));
+            if (last == null || total.get(project) > total.get(last))
+            {
+                last = project;
+            }
+        }
+
+        // Walk back from the end of the longest path to its start.
+        var path = new ArrayList<Project>();
+        for (var at = last; at != null; at = previous.get(at))
+        {
+            path.add(0, at);
+        }
+        return path;
+    }
+
+    /**
+     * Initializes the given projects and all the projects they depend on, waiting until they are initialized
+     */
+    public void initialize(Collection<? extends Project> projects)
+    {
+        // Build the dependency graph,
+        for (var project : projects)
+        {
+            add(project, new LinkedHashSet<>());
+        }
+
+        // then start a task for each project that runs when its dependencies are done,
+        var timeline = StartupTimeline.startupTimeline();
+        var parent = timeline.openSpan();
+        var pool = Threads.workStealingPool("ProjectInitializer", threads);
+        var tasks = new HashMap<Project, CompletableFuture<Void>>();
+        try
+        {
+            for (var project : topologicalOrder())
+            {
+                var prerequisites = dependencies.get(project)
+                        .stream()
+                        .map(tasks::get)
+                        .toArray(CompletableFuture[]::new);
+
+                tasks.put(project, CompletableFuture.allOf(prerequisites).thenRunAsync(() ->
+                        timeline.within(parent, () -> initialize(project)), pool));
+            }
+
+            // and wait for all of them to finish.
+            CompletableFuture.allOf(tasks.values().toArray(CompletableFuture[]::new)).join();
+        }
+        catch (CompletionException e)
+        {
+            throw new IllegalStateException("Unable to initialize projects", e.getCause());
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @return The time the given project took to initialize, or null if it was not initialized by this initializer
+     */
+    public Duration initializationTime(Project project)
+    {
+        var time = nanoseconds.get(project);
+        return time == null ? null : Duration.nanoseconds(time);
+    }
+
+    /**
+     * @param threads The number of threads to initialize projects with
+     */
+    public ProjectInitializer threads(Count threads)
+    {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Adds the given project and its dependencies to the graph
+     *
+     * @param visiting The projects on the path to this one, in order, to detect and report cycles
+     */
+    private void add(Project project, LinkedHashSet<Project> visiting)
+    {
+        if (!visiting.add(project))
+        {
+            // The cycle is the part of the path from the first visit to this project, back to it again
+            var cycle = new ArrayList<String>();
+            var inCycle = false;
+            for (var at : visiting)
+            {
+                inCycle = inCycle || at == project;
+                if (inCycle)
+                {
+                    cycle.add(at.getClass().getSimpleName());
+                }
+            }
+            cycle.add(project.getClass().getSimpleName());
+            fail("Projects depend on each other in a cycle: $", String.join(" -> ", cycle));
+        }
+        if (!dependencies.containsKey(project))
+        {
+            var list = new ArrayList<Project>();
+            for (var type : project.dependencies())
+            {
+                var dependency = Project.resolveProject(type);
+                add(dependency, visiting);
+                list.add(dependency);
+            }
+            dependencies.put(project, list);
+        }
+        visiting.remove(project);
+    }
+
+    private void initialize(Project project)
+    {
+        var start = System.nanoTime();
+        listener.listenTo(project).initialize();
+        nanoseconds.put(project, System.nanoTime() - start);
+    }
+
+    /**
+     * @return The projects in the graph with each project after all of its dependencies
+     */
+    private List<Project> topologicalOrder()
+    {
+        // (projects are added to the graph after their dependencies)
+        return new ArrayList<>(dependencies.keySet());
+    }
+}
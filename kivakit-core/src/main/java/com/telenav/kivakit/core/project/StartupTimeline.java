@@ -0,0 +1,399 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.core.project;
+
+import com.telenav.kivakit.core.lexakai.DiagramProject;
+import com.telenav.kivakit.core.time.Duration;
+import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * A timeline of the phases of application start-up, recorded as nested, timed spans. Each span records how long it
+ * took, how many bytes were allocated by its thread and how many classes were loaded while it was open.
+ *
+ * <p><b>Recording</b></p>
+ *
+ * <p>
+ * {@link #span(String)} opens a span, which is closed by closing the returned {@link Span}, usually with
+ * try-with-resources. Spans opened on a thread while another span is open on that thread are nested under it. Work
+ * handed to another thread can record its spans under a span of the handing thread by running in {@link
+ * #within(Span, Runnable)}. Once {@link #end()} is called, no more spans are recorded.
+ * </p>
+ *
+ * <pre>
+ * try (var ignored = startupTimeline().span("load deployments"))
+ * {
+ *     [...]
+ * }</pre>
+ *
+ * <p><b>Reporting</b></p>
+ *
+ * <ul>
+ *     <li>{@link #spans()} - The top-level spans, each with its nested spans</li>
+ *     <li>{@link #asJson()} - The timeline as JSON</li>
+ *     <li>{@link #asFoldedStacks()} - The timeline in the folded stack format read by flame graph tools</li>
+ *     <li>{@link #toString()} - The timeline as an indented text tree</li>
+ * </ul>
+ *
+ * @author jonathanl (shibo)
+ * @see Project
+ */
+@UmlClassDiagram(diagram = DiagramProject.class)
+public class StartupTimeline
+{
+    /** The timeline for this process */
+    private static final StartupTimeline timeline = new StartupTimeline();
+
+    /**
+     * @return The start-up timeline for this process
+     */
+    public static StartupTimeline startupTimeline()
+    {
+        return timeline;
+    }
+
+    /**
+     * A timed phase of start-up
+     */
+    public class Span implements AutoCloseable
+    {
+        private final long allocatedAtStart = allocatedBytes();
+
+        private long allocated;
+
+        private final List<Span> children = new ArrayList<>();
+
+        private final long classesAtStart = classLoading.getTotalLoadedClassCount();
+
+        private long classesLoaded;
+
+        private final String name;
+
+        private long nanoseconds;
+
+        private final long startedAt = System.nanoTime();
+
+        private Span(String name)
+        {
+            this.name = name;
+        }
+
+        /**
+         * @return The number of bytes allocated by the thread that opened this span, while it was open
+         */
+        public Bytes allocated()
+        {
+            return Bytes.bytes(allocated);
+        }
+
+        /**
+         * @return The spans nested in this one
+         */
+        public List<Span> children()
+        {
+            synchronized (StartupTimeline.this)
+            {
+                return new ArrayList<>(children);
+            }
+        }
+
+        /**
+         * @return The number of classes loaded while this span was open
+         */
+        public Count classesLoaded()
+        {
+            return Count.count(classesLoaded);
+        }
+
+        /**
+         * Ends this span
+         */
+        @Override
+        public void close()
+        {
+            nanoseconds = System.nanoTime() - startedAt;
+            allocated = Math.max(0, allocatedBytes() - allocatedAtStart);
+            classesLoaded = Math.max(0, classLoading.getTotalLoadedClassCount() - classesAtStart);
+            open.get().remove(this);
+        }
+
+        /**
+         * @return The time this span was open
+         */
+        public Duration duration()
+        {
+            return Duration.nanoseconds(nanoseconds);
+        }
+
+        /**
+         * @return The name of this span
+         */
+        public String name()
+        {
+            return name;
+        }
+
+        /**
+         * @return The time from the start of the Java virtual machine to the start of this span
+         */
+        public Duration start()
+        {
+            return Duration.nanoseconds(startedAt - jvmStartedAt);
+        }
+
+        @Override
+        public String toString()
+        {
+            return name + " (" + duration() + ", " + allocated() + " allocated, " + classesLoaded() + " classes loaded)";
+        }
+    }
+
+    /** Management bean for class loading counts */
+    private final ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+
+    /** True once start-up has ended */
+    private volatile boolean ended;
+
+    /** The value of System.nanoTime() when the Java virtual machine started */
+    private final long jvmStartedAt = System.nanoTime() - ManagementFactory.getRuntimeMXBean().getUptime() * 1_000_000;
+
+    /** The spans open on each thread, innermost last */
+    private final ThreadLocal<Deque<Span>> open = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /** The top-level spans */
+    private final List<Span> spans = new ArrayList<>();
+
+    /**
+     * Management bean for allocation counts, if supported by the virtual machine. This is a
+     * {@link com.sun.management.ThreadMXBean}, but it is not declared as one because the jdk.management module is
+     * optional.
+     */
+    private final ThreadMXBean threads = threadBean();
+
+    private StartupTimeline()
+    {
+    }
+
+    /**
+     * @return This timeline in the folded stack format used by flame graph tools, with one line for each span giving the
+     * path to the span and the time in microseconds spent in the span but not in its children
+     */
+    public String asFoldedStacks()
+    {
+        var builder = new StringBuilder();
+        for (var span : spans())
+        {
+            fold(builder, "", span);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return This timeline as a JSON array of spans, with times in milliseconds
+     */
+    public String asJson()
+    {
+        var builder = new StringBuilder();
+        json(builder, spans(), 0);
+        return builder.append("\n").toString();
+    }
+
+    /**
+     * Ends start-up, after which spans are no longer recorded
+     */
+    public void end()
+    {
+        ended = true;
+    }
+
+    /**
+     * @return True if start-up has ended
+     */
+    public boolean isEnded()
+    {
+        return ended;
+    }
+
+    /**
+     * @return The innermost span open on this thread, or null if there is none
+     */
+    public Span openSpan()
+    {
+        return open.get().peekLast();
+    }
+
+    /**
+     * Opens a span with the given name, nested under any span that is open on this thread
+     *
+     * @return The span, which must be closed when the phase it records is complete
+     */
+    public Span span(String name)
+    {
+        var span = new Span(name);
+        if (!ended)
+        {
+            synchronized (this)
+            {
+                var parent = open.get().peekLast();
+                (parent == null ? spans : parent.children).add(span);
+            }
+            open.get().addLast(span);
+        }
+        return span;
+    }
+
+    /**
+     * @return The top-level spans in this timeline
+     */
+    public synchronized List<Span> spans()
+    {
+        return new ArrayList<>(spans);
+    }
+
+    /**
+     * @return This timeline as an indented tree of spans
+     */
+    @Override
+    public String toString()
+    {
+        var builder = new StringBuilder();
+        for (var span : spans())
+        {
+            text(builder, span, 0);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Runs the given code on this thread with spans it opens nested under the given span, which may have been opened on
+     * another thread
+     */
+    public void within(Span parent, Runnable code)
+    {
+        if (parent == null)
+        {
+            code.run();
+            return;
+        }
+        open.get().addLast(parent);
+        try
+        {
+            code.run();
+        }
+        finally
+        {
+            open.get().removeLastOccurrence(parent);
+        }
+    }
+
+    private long allocatedBytes()
+    {
+        return threads == null ? 0 : ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private void fold(StringBuilder builder, String path, Span span)
+    {
+        var stack = path.isEmpty() ? frame(span.name) : path + ";" + frame(span.name);
+        var self = span.nanoseconds;
+        for (var child : span.children())
+        {
+            self -= child.nanoseconds;
+            fold(builder, stack, child);
+        }
+        builder.append(stack).append(' ').append(Math.max(0, self / 1_000)).append('\n');
+    }
+
+    /**
+     * @return The given span name with characters that have meaning in folded stacks replaced
+     */
+    private String frame(String name)
+    {
+        return name.replace(';', ':').replace(' ', '_');
+    }
+
+    private void json(StringBuilder builder, List<Span> spans, int indent)
+    {
+        var padding = " ".repeat(indent);
+        builder.append("[");
+        var first = true;
+        for (var span : spans)
+        {
+            builder.append(first ? "\n" : ",\n");
+            first = false;
+            builder.append(padding).append("  {\n")
+                    .append(padding).append("    \"name\": \"").append(quoted(span.name)).append("\",\n")
+                    .append(padding).append("    \"start\": ").append(span.start().milliseconds()).append(",\n")
+                    .append(padding).append("    \"duration\": ").append(span.duration().milliseconds()).append(",\n")
+                    .append(padding).append("    \"allocated\": ").append(span.allocated).append(",\n")
+                    .append(padding).append("    \"classesLoaded\": ").append(span.classesLoaded).append(",\n")
+                    .append(padding).append("    \"children\": ");
+            json(builder, span.children(), indent + 4);
+            builder.append("\n").append(padding).append("  }");
+        }
+        builder.append(first ? "]" : "\n" + padding + "]");
+    }
+
+    private String quoted(String text)
+    {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private void text(StringBuilder builder, Span span, int level)
+    {
+        builder.append("  ".repeat(level)).append(span).append('\n');
+        for (var child : span.children())
+        {
+            text(builder, child, level + 1);
+        }
+    }
+
+    /**
+     * @return The thread management bean, if it can count allocated bytes, or null if it cannot, or if the
+     * jdk.management module is not present
+     */
+    private static ThreadMXBean threadBean()
+    {
+        try
+        {
+            var bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean)
+            {
+                var threads = (com.sun.management.ThreadMXBean) bean;
+                if (threads.isThreadAllocatedMemorySupported())
+                {
+                    threads.setThreadAllocatedMemoryEnabled(true);
+                    return threads;
+                }
+            }
+        }
+        catch (LinkageError ignored)
+        {
+        }
+        return null;
+    }
+}
@@ -58,9 +58,4 @@ public class InstanceIdentifier extends StringIdentifier
     {
         super(ensureNotNull(string, "Instance identifier cannot be null"));
     }
-
-    RegistryKey key(Class<?> at)
-    {
-        return new RegistryKey(at.getName() + ":" + identifier());
-    }
 }
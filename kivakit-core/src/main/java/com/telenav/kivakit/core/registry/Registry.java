@@ -22,8 +22,11 @@ import com.telenav.kivakit.core.lexakai.DiagramRegistry;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 import com.telenav.lexakai.annotations.associations.UmlRelation;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 import static com.telenav.kivakit.core.ensure.Ensure.ensureNotNull;
 
@@ -35,6 +38,24 @@ import static com.telenav.kivakit.core.ensure.Ensure.ensureNotNull;
  * #require(Class, Enum)} are used to find an object that has been registered.
  * </p>
  *
+ * <p><b>Types</b></p>
+ *
+ * <p>
+ * An object is registered under its class, each of its superclasses (except {@link Object}) and every interface they
+ * implement, directly or through other interfaces. The set of types for each class is computed only once. When an
+ * object is unregistered, it is removed from all of these types, unless another object has since been registered in
+ * its place.
+ * </p>
+ *
+ * <p><b>Concurrency</b></p>
+ *
+ * <p>
+ * A registry is safe to use from multiple threads. Registered objects are published as an immutable snapshot, mapping
+ * each type to its instances. Registering or unregistering an object copies the snapshot and swaps in the new one, so
+ * lookups never take a lock or allocate. Since objects are registered rarely, but looked up constantly, the cost of
+ * copying on write is easily repaid.
+ * </p>
+ *
  * <p><b>RegistryTrait</b></p>
  *
  * <p>
@@ -96,8 +117,38 @@ public class Registry implements RegistryTrait
         return global();
     }
 
-    /** Map from class and instance to type for multi-instance objects */
-    private final Map<RegistryKey, Object> registered = new HashMap<>();
+    /** The types that each class of object is registered under */
+    private static final ClassValue<Class<?>[]> types = new ClassValue<>()
+    {
+        @Override
+        protected Class<?>[] computeValue(Class<?> type)
+        {
+            var types = new LinkedHashSet<Class<?>>();
+            for (var at = type; at != null && at != Object.class; at = at.getSuperclass())
+            {
+                types.add(at);
+                addInterfaces(types, at);
+            }
+            return types.toArray(new Class<?>[0]);
+        }
+    };
+
+    /**
+     * Adds the interfaces of the given type, and the interfaces they extend, to the given set
+     */
+    private static void addInterfaces(Set<Class<?>> types, Class<?> type)
+    {
+        for (var next : type.getInterfaces())
+        {
+            if (types.add(next))
+            {
+                addInterfaces(types, next);
+            }
+        }
+    }
+
+    /** The current snapshot from type to instance to object, which is never modified once published */
+    private volatile Map<Class<?>, Map<InstanceIdentifier, Object>> registered = Collections.emptyMap();
 
     /**
      * @return Any registered object of the given type with the given instance identifier
@@ -106,26 +157,31 @@ public class Registry implements RegistryTrait
     @SuppressWarnings({ "unchecked" })
     public <T> T lookup(Class<T> type, InstanceIdentifier instance)
     {
-        return (T) registered.get(instance.key(type));
+        var instances = registered.get(type);
+        return instances == null ? null : (T) instances.get(instance);
     }
 
     /**
      * Registers the specified instance of the given object's type in the lookup
      */
     @Override
-    public <T> T register(T object, InstanceIdentifier instance)
+    public synchronized <T> T register(T object, InstanceIdentifier instance)
     {
         ensureNotNull(object);
 
-        for (var at = object.getClass(); at != Object.class; at = at.getSuperclass())
+        // Copy the current snapshot,
+        var updated = new HashMap<>(registered);
+
+        // add the object under each of its types,
+        for (var type : types.get(object.getClass()))
         {
-            registered.put(instance.key(at), object);
-            for (var next : at.getInterfaces())
-            {
-                registered.put(instance.key(next), object);
-            }
+            var instances = new HashMap<>(updated.getOrDefault(type, Collections.emptyMap()));
+            instances.put(instance, object);
+            updated.put(type, instances);
         }
 
+        // and publish the new snapshot.
+        registered = updated;
         return object;
     }
 
@@ -142,14 +198,37 @@ public class Registry implements RegistryTrait
      * {@inheritDoc}
      */
     @Override
-    public void unregister(Object object, InstanceIdentifier instance)
+    public synchronized void unregister(Object object, InstanceIdentifier instance)
     {
-        registered.remove(instance.key(object.getClass()));
+        // Copy the current snapshot,
+        var updated = new HashMap<>(registered);
+
+        // remove the object from each type it is still registered under,
+        for (var type : types.get(object.getClass()))
+        {
+            var instances = updated.get(type);
+            if (instances != null && instances.get(instance) == object)
+            {
+                if (instances.size() == 1)
+                {
+                    updated.remove(type);
+                }
+                else
+                {
+                    var remaining = new HashMap<>(instances);
+                    remaining.remove(instance);
+                    updated.put(type, remaining);
+                }
+            }
+        }
+
+        // and publish the new snapshot.
+        registered = updated;
     }
 
     @Override
-    public void unregisterAll()
+    public synchronized void unregisterAll()
     {
-        registered.clear();
+        registered = Collections.emptyMap();
     }
 }
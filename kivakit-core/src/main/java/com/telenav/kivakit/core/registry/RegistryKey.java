@@ -1,13 +0,0 @@
-package com.telenav.kivakit.core.registry;
-
-import com.telenav.kivakit.core.value.identifier.StringIdentifier;
-import com.telenav.lexakai.annotations.visibility.UmlExcludeType;
-
-@UmlExcludeType
-class RegistryKey extends StringIdentifier
-{
-    RegistryKey(String identifier)
-    {
-        super(identifier);
-    }
-}
@@ -78,12 +78,7 @@ public interface RegistryTrait
      */
     default <T> T register(T object)
     {
-        for (var at = object.getClass(); at != Object.class; at = at.getSuperclass())
-        {
-            register(object, SINGLETON);
-        }
-
-        return object;
+        return register(object, SINGLETON);
     }
 
     /**
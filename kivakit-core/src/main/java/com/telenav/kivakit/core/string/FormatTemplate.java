@@ -0,0 +1,500 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.core.string;
+
+import com.telenav.kivakit.core.collections.map.VariableMap;
+import com.telenav.kivakit.core.language.Classes;
+import com.telenav.kivakit.core.language.object.ObjectFormatter;
+import com.telenav.kivakit.core.language.primitive.Doubles;
+import com.telenav.kivakit.core.lexakai.DiagramString;
+import com.telenav.kivakit.interfaces.naming.Named;
+import com.telenav.lexakai.annotations.LexakaiJavadoc;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A message format string which has been parsed into a sequence of literal text and interpolation segments. Templates
+ * are cached by {@link #template(String)}, so the same message is only parsed once, and formatting a message with
+ * {@link #format(Object[])} is then a single pass over the segments into a builder which is reused by each thread.
+ * The cache is bounded at {@link #MAXIMUM_CACHED_TEMPLATES} templates, and it is cleared when it fills up, so
+ * applications which format many distinct messages will not exhaust memory.
+ *
+ * @author jonathanl (shibo)
+ * @see Formatter
+ */
+@UmlClassDiagram(diagram = DiagramString.class)
+@LexakaiJavadoc(complete = true)
+final class FormatTemplate
+{
+    /** The maximum number of templates to cache */
+    static final int MAXIMUM_CACHED_TEMPLATES = 4_096;
+
+    /** The largest builder that will be retained for reuse by a thread */
+    private static final int MAXIMUM_REUSED_BUILDER_CAPACITY = 16_384;
+
+    /** Builders for each thread, along with a flag to detect re-entrant use while formatting arguments */
+    private static final ThreadLocal<ReusableBuilder> builders = ThreadLocal.withInitial(ReusableBuilder::new);
+
+    /** Cache of parsed templates */
+    private static final Map<String, FormatTemplate> templates = new ConcurrentHashMap<>();
+
+    /**
+     * The interpretation of an interpolation
+     */
+    @LexakaiJavadoc(complete = true)
+    private enum Command
+    {
+        BINARY,
+        CLASS,
+        DEBUG,
+        DOUBLE,
+        FLAG,
+        FLOAT,
+        HEX,
+        LEFT,
+        LONG,
+        LOWER,
+        NAME,
+        NOWRAP,
+        OBJECT,
+        POSITION,
+        RIGHT,
+        STRING,
+        UNRECOGNIZED,
+        UPPER;
+
+        static Command parse(String command)
+        {
+            switch (command)
+            {
+                case "object":
+                    return OBJECT;
+
+                case "string":
+                    return STRING;
+
+                case "lower":
+                    return LOWER;
+
+                case "upper":
+                    return UPPER;
+
+                case "integer":
+                case "long":
+                    return LONG;
+
+                case "float":
+                    return FLOAT;
+
+                case "double":
+                    return DOUBLE;
+
+                case "right":
+                    return RIGHT;
+
+                case "left":
+                    return LEFT;
+
+                case "hex":
+                    return HEX;
+
+                case "binary":
+                    return BINARY;
+
+                case "debug":
+                    return DEBUG;
+
+                case "class":
+                    return CLASS;
+
+                case "flag":
+                    return FLAG;
+
+                case "name":
+                    return NAME;
+
+                case "nowrap":
+                    return NOWRAP;
+
+                default:
+                    try
+                    {
+                        Integer.parseInt(command);
+                        return POSITION;
+                    }
+                    catch (NumberFormatException e)
+                    {
+                        return UNRECOGNIZED;
+                    }
+            }
+        }
+    }
+
+    /**
+     * A thread's reusable builder
+     */
+    private static class ReusableBuilder
+    {
+        StringBuilder builder = new StringBuilder(256);
+
+        boolean inUse;
+    }
+
+    /**
+     * A literal segment of text, an interpolation or a parsing error
+     */
+    private static class Segment
+    {
+        /** The text of a literal segment, the command text of an interpolation, or an error message */
+        final String text;
+
+        /** The command of an interpolation, or null for a literal segment or an error */
+        final Command command;
+
+        /** The argument index of a {@link Command#POSITION} interpolation */
+        final int position;
+
+        /** True if this segment is an error message */
+        final boolean error;
+
+        Segment(String text, Command command, int position, boolean error)
+        {
+            this.text = text;
+            this.command = command;
+            this.position = position;
+            this.error = error;
+        }
+    }
+
+    /**
+     * @return The parsed template for the given message
+     */
+    static FormatTemplate template(String message)
+    {
+        var template = templates.get(message);
+        if (template == null)
+        {
+            template = new FormatTemplate(message);
+            if (templates.size() >= MAXIMUM_CACHED_TEMPLATES)
+            {
+                templates.clear();
+            }
+            templates.put(message, template);
+        }
+        return template;
+    }
+
+    @SuppressWarnings({ "unchecked" })
+    private static <T> T cast(Object object, Class<T> type)
+    {
+        if (type.isAssignableFrom(object.getClass()))
+        {
+            return (T) object;
+        }
+        return null;
+    }
+
+    /** The message this template was parsed from */
+    private final String message;
+
+    /** The segments of the message */
+    private final Segment[] segments;
+
+    private FormatTemplate(String message)
+    {
+        this.message = message;
+
+        var segments = new ArrayList<Segment>();
+        var current = 0;
+        while (true)
+        {
+            // Find next interpolation
+            var start = message.indexOf('$', current);
+            if (start < 0)
+            {
+                break;
+            }
+
+            // add any text before it,
+            if (start > current)
+            {
+                segments.add(literal(message.substring(current, start)));
+            }
+
+            // and get the next character, if we can
+            var next = start + 1 < message.length() ? message.charAt(start + 1) : Character.MIN_VALUE;
+
+            // If the next character is also a '$',
+            if (next == '$')
+            {
+                // it is a literal '$'
+                segments.add(literal("$"));
+                current = start + 2;
+                continue;
+            }
+
+            int close;
+            String command;
+            if (next == '{')
+            {
+                //  format (hopefully)
+                close = message.indexOf('}', start);
+                if (close < 0)
+                {
+                    segments.add(error("Unclosed interpolation expression. Maybe add a '}' somewhere: " + message));
+                    current = message.length();
+                    break;
+                }
+                command = message.substring(start + 2, close);
+            }
+            else
+            {
+                // $ shorthand
+                close = start;
+                command = "string";
+            }
+
+            var parsed = Command.parse(command);
+            segments.add(new Segment(command, parsed, parsed == Command.POSITION ? Integer.parseInt(command) : -1, false));
+
+            // Move past the close marker if any
+            current = close + 1;
+        }
+
+        // Add the tail end
+        if (current < message.length())
+        {
+            segments.add(literal(message.substring(current)));
+        }
+
+        this.segments = segments.toArray(new Segment[0]);
+    }
+
+    /**
+     * Formats the given arguments into this template
+     *
+     * @param arguments The arguments to interpolate
+     * @return The formatted message, or a description of the problem if the arguments cannot be formatted
+     */
+    String format(Object[] arguments)
+    {
+        // Get a builder, which may be reused, unless we are formatting within an argument's toString() method
+        var reusable = builders.get();
+        var reusing = !reusable.inUse;
+        var builder = reusing ? reusable.builder : new StringBuilder(message.length() + 32);
+        reusable.inUse = true;
+        try
+        {
+            return format(builder, arguments);
+        }
+        finally
+        {
+            if (reusing)
+            {
+                reusable.inUse = false;
+                if (builder.capacity() > MAXIMUM_REUSED_BUILDER_CAPACITY)
+                {
+                    reusable.builder = new StringBuilder(256);
+                }
+                else
+                {
+                    builder.setLength(0);
+                }
+            }
+        }
+    }
+
+    private String format(StringBuilder builder, Object[] arguments)
+    {
+        VariableMap<?> map = null;
+        if (arguments.length >= 1)
+        {
+            if (arguments[0] instanceof VariableMap<?>)
+            {
+                if (arguments.length > 1)
+                {
+                    return "If first argument to '" + message + "' is a VariableMap, there can be no other arguments";
+                }
+                map = (VariableMap<?>) arguments[0];
+            }
+        }
+
+        var argumentIndex = 0;
+        for (var segment : segments)
+        {
+            // If the segment is literal text,
+            if (segment.command == null)
+            {
+                // return any error or append the text.
+                if (segment.error)
+                {
+                    return segment.text;
+                }
+                builder.append(segment.text);
+                continue;
+            }
+
+            // Ensure argument index
+            if (argumentIndex >= arguments.length)
+            {
+                return "Out of arguments: " + message;
+            }
+
+            // If we've got a string value map,
+            if (map != null)
+            {
+                // add the value from the map
+                var value = map.get(segment.text);
+                if (value == null)
+                {
+                    return "No key '" + segment.text + "' in: " + message;
+                }
+                builder.append(StringTo.string(value));
+                continue;
+            }
+
+            // Interpret the command
+            switch (segment.command)
+            {
+                case OBJECT:
+                    builder.append(new ObjectFormatter(arguments[argumentIndex++]));
+                    break;
+
+                case STRING:
+                    builder.append(StringTo.string(arguments[argumentIndex++]));
+                    break;
+
+                case LOWER:
+                    builder.append(StringTo.string(arguments[argumentIndex++]).toLowerCase());
+                    break;
+
+                case UPPER:
+                    builder.append(StringTo.string(arguments[argumentIndex++]).toUpperCase());
+                    break;
+
+                case LONG:
+                    builder.append(arguments[argumentIndex++]);
+                    break;
+
+                case FLOAT:
+                    builder.append(Doubles.format((float) arguments[argumentIndex++], 1));
+                    break;
+
+                case DOUBLE:
+                    builder.append(Doubles.format((double) arguments[argumentIndex++], 1));
+                    break;
+
+                case RIGHT:
+                    builder.append(Align.right(arguments[argumentIndex++].toString(), 16, ' '));
+                    break;
+
+                case LEFT:
+                    builder.append(Align.left(arguments[argumentIndex++].toString(), 16, ' '));
+                    break;
+
+                case HEX:
+                    builder.append(Long.toHexString(Long.parseLong(arguments[argumentIndex++].toString())));
+                    break;
+
+                case BINARY:
+                    builder.append(Long.toBinaryString(Long.parseLong(arguments[argumentIndex++].toString())));
+                    break;
+
+                case DEBUG:
+                    builder.append(StringTo.debug(arguments[argumentIndex++]));
+                    break;
+
+                case CLASS:
+                {
+                    var cast = cast(arguments[argumentIndex++], Class.class);
+                    if (cast == null)
+                    {
+                        return "Expected parameter of type '" + Class.class + "' for 'class'";
+                    }
+                    builder.append(Classes.simpleName(cast));
+                    break;
+                }
+
+                case FLAG:
+                {
+                    var cast = cast(arguments[argumentIndex++], Boolean.class);
+                    if (cast == null)
+                    {
+                        return "Expected parameter of type '" + Boolean.class + "' for 'flag'";
+                    }
+                    builder.append(cast ? "enabled" : "disabled");
+                    break;
+                }
+
+                case NAME:
+                {
+                    var named = cast(arguments[argumentIndex++], Named.class);
+                    if (named == null)
+                    {
+                        return "Expected parameter of type '" + Named.class + "' for 'name'";
+                    }
+                    builder.append("'");
+                    builder.append(named.name());
+                    builder.append("'");
+                    break;
+                }
+
+                case NOWRAP:
+                    builder.append("${nowrap}");
+                    break;
+
+                case POSITION:
+                    if (segment.position >= 0 && segment.position <= arguments.length - 1)
+                    {
+                        builder.append(StringTo.string(arguments[segment.position]));
+                    }
+                    else
+                    {
+                        return "Cannot interpolate argument " + segment.position + " into: " + message;
+                    }
+                    break;
+
+                case UNRECOGNIZED:
+                default:
+                    return "Unrecognized interpolation '" + segment.text + "' in: " + message;
+            }
+        }
+
+        // We must consume all arguments if the format is positional
+        if (map == null && argumentIndex != arguments.length)
+        {
+            return "Extraneous arguments. " + arguments.length + " arguments provided to: " + message;
+        }
+
+        // Return the final, interpolated string
+        return builder.toString();
+    }
+
+    private static Segment error(String message)
+    {
+        return new Segment(message, null, -1, true);
+    }
+
+    private static Segment literal(String text)
+    {
+        return new Segment(text, null, -1, false);
+    }
+}
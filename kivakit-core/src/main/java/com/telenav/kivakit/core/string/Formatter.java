@@ -18,10 +18,6 @@
 
 package com.telenav.kivakit.core.string;
 
-import com.telenav.kivakit.core.collections.map.VariableMap;
-import com.telenav.kivakit.core.language.Classes;
-import com.telenav.kivakit.core.language.object.ObjectFormatter;
-import com.telenav.kivakit.core.language.primitive.Doubles;
 import com.telenav.kivakit.core.lexakai.DiagramString;
 import com.telenav.kivakit.interfaces.naming.Named;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
@@ -71,6 +67,13 @@ import com.telenav.lexakai.annotations.UmlClassDiagram;
  * The resource 'bay_area.osm.pbf' was read in 0.3 seconds
  * </pre>
  *
+ * <p><b>Performance</b></p>
+ *
+ * <p>
+ * Each distinct message is parsed only once into a {@link FormatTemplate}, which is cached, so formatting a message
+ * that has been seen before is a single pass over its literal text and interpolations.
+ * </p>
+ *
  * @author jonathanl (shibo)
  * @see Named
  */
@@ -99,18 +102,8 @@ public class Formatter
         WITH_EXCEPTION
     }
 
-    @SuppressWarnings({ "unchecked" })
-    private static <T> T cast(Object object, Class<T> type)
-    {
-        if (type.isAssignableFrom(object.getClass()))
-        {
-            return (T) object;
-        }
-        return null;
-    }
-
     /**
-     * Formats the given message by interpolating the given arguments.
+     * Formats the given message by interpolating the given arguments into its cached {@link FormatTemplate}
      *
      * @param message The message to format
      * @param arguments The arguments to use in formatting
@@ -120,218 +113,7 @@ public class Formatter
     {
         try
         {
-            VariableMap<?> map = null;
-            if (arguments.length >= 1)
-            {
-                if (arguments[0] instanceof VariableMap<?>)
-                {
-                    if (arguments.length > 1)
-                    {
-                        return "If first argument to '" + message + "' is a VariableMap, there can be no other arguments";
-                    }
-                    map = (VariableMap<?>) arguments[0];
-                }
-            }
-            var builder = new StringBuilder();
-            var current = 0;
-            var argumentIndex = 0;
-            int start;
-            do
-            {
-                // Find next interpolation
-                start = message.indexOf("$", current);
-
-                // If we found it, and we can look at the next character,
-                if (start >= 0)
-                {
-                    // get the next character, if we can
-                    char next;
-                    if (start + 1 < message.length())
-                    {
-                        next = message.charAt(start + 1);
-                    }
-                    else
-                    {
-                        next = Character.MIN_VALUE;
-                    }
-
-                    if (next == '$')
-                    {
-                        builder.append('$');
-                        current = start + 2;
-                        continue;
-                    }
-
-                    int close;
-                    String command;
-                    if (next == '{')
-                    {
-                        // ${x} format (hopefully)
-                        close = message.indexOf('}', start);
-                        if (close < 0)
-                        {
-                            return "Unclosed interpolation expression. Maybe add a '}' somewhere: " + message;
-                        }
-                        command = message.substring(start + 2, close);
-                    }
-                    else
-                    {
-                        // $ shorthand
-                        close = start;
-                        command = "string";
-                    }
-
-                    // then add the text from current to interpolation start
-                    builder.append(message, current, start);
-
-                    // Ensure argument index
-                    if (argumentIndex >= arguments.length)
-                    {
-                        return "Out of arguments: " + message;
-                    }
-
-                    // If we've got a string value map,
-                    if (map != null)
-                    {
-                        // add the value from the map
-                        var value = map.get(command);
-                        if (value == null)
-                        {
-                            return "No key '" + command + "' in: " + message;
-                        }
-                        builder.append(StringTo.string(value));
-                    }
-                    else
-                    {
-                        // Interpret the command
-                        switch (command)
-                        {
-                            case "object":
-                                builder.append(new ObjectFormatter(arguments[argumentIndex++]));
-                                break;
-
-                            case "string":
-                                builder.append(StringTo.string(arguments[argumentIndex++]));
-                                break;
-
-                            case "lower":
-                                builder.append(StringTo.string(arguments[argumentIndex++]).toLowerCase());
-                                break;
-
-                            case "upper":
-                                builder.append(StringTo.string(arguments[argumentIndex++]).toUpperCase());
-                                break;
-
-                            case "integer":
-                            case "long":
-                                builder.append(arguments[argumentIndex++]);
-                                break;
-
-                            case "float":
-                                builder.append(Doubles.format((float) arguments[argumentIndex++], 1));
-                                break;
-
-                            case "double":
-                                builder.append(Doubles.format((double) arguments[argumentIndex++], 1));
-                                break;
-
-                            case "right":
-                                builder.append(Align.right(arguments[argumentIndex++].toString(), 16, ' '));
-                                break;
-
-                            case "left":
-                                builder.append(Align.left(arguments[argumentIndex++].toString(), 16, ' '));
-                                break;
-
-                            case "hex":
-                                builder.append(Long.toHexString(Long.parseLong(arguments[argumentIndex++].toString())));
-                                break;
-
-                            case "binary":
-                                builder.append(Long.toBinaryString(Long.parseLong(arguments[argumentIndex++].toString())));
-                                break;
-
-                            case "debug":
-                                builder.append(StringTo.debug(arguments[argumentIndex++]));
-                                break;
-
-                            case "class":
-                            {
-                                var cast = cast(arguments[argumentIndex++], Class.class);
-                                if (cast == null)
-                                {
-                                    return "Expected parameter of type '" + Class.class + "' for 'class'";
-                                }
-                                builder.append(Classes.simpleName(cast));
-                                break;
-                            }
-
-                            case "flag":
-                            {
-                                var cast = cast(arguments[argumentIndex++], Boolean.class);
-                                if (cast == null)
-                                {
-                                    return "Expected parameter of type '" + Boolean.class + "' for 'flag'";
-                                }
-                                builder.append(cast ? "enabled" : "disabled");
-                                break;
-                            }
-
-                            case "name":
-                            {
-                                var named = cast(arguments[argumentIndex++], Named.class);
-                                if (named == null)
-                                {
-                                    return "Expected parameter of type '" + Named.class + "' for 'name'";
-                                }
-                                builder.append("'");
-                                builder.append(named.name());
-                                builder.append("'");
-                                break;
-                            }
-
-                            case "nowrap":
-                                builder.append("${nowrap}");
-                                break;
-
-                            default:
-                                try
-                                {
-                                    var position = Integer.parseInt(command);
-                                    if (position >= 0 && position <= arguments.length - 1)
-                                    {
-                                        builder.append(StringTo.string(arguments[position]));
-                                    }
-                                    else
-                                    {
-                                        return "Cannot interpolate argument " + position + " into: " + message;
-                                    }
-                                }
-                                catch (NumberFormatException e)
-                                {
-                                    return "Unrecognized interpolation '" + command + "' in: " + message;
-                                }
-                                break;
-                        }
-                    }
-
-                    // Move past the close marker if any
-                    current = close + 1;
-                }
-            }
-            while (start >= 0);
-
-            // We must consume all arguments if the format is positional
-            if (map == null && argumentIndex != arguments.length)
-            {
-                return "Extraneous arguments. " + arguments.length + " arguments provided to: " + message;
-            }
-
-            // Add the tail end
-            builder.append(message.substring(current));
-
-            // Return the final, interpolated string
-            return builder.toString();
+            return FormatTemplate.template(message).format(arguments);
         }
         catch (Throwable e)
         {
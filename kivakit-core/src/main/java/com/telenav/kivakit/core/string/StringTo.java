@@ -23,7 +23,11 @@ import com.telenav.kivakit.interfaces.value.Source;
 import com.telenav.kivakit.core.lexakai.DiagramString;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.Locale;
 
 import static com.telenav.kivakit.core.string.Join.join;
 
@@ -33,6 +37,34 @@ import static com.telenav.kivakit.core.string.Join.join;
 @UmlClassDiagram(diagram = DiagramString.class)
 public class StringTo
 {
+    /**
+     * How integers are grouped in a given locale
+     */
+    private static class Grouping
+    {
+        /** The locale */
+        final Locale locale;
+
+        /** The grouping separator, or zero if {@link String#format(String, Object...)} must be used */
+        final char separator;
+
+        Grouping(Locale locale)
+        {
+            this.locale = locale;
+
+            // Integers can be grouped quickly if the locale uses ASCII digits in groups of three
+            var symbols = DecimalFormatSymbols.getInstance(locale);
+            var format = NumberFormat.getNumberInstance(locale);
+            var groupsOfThree = format instanceof DecimalFormat
+                    && format.isGroupingUsed()
+                    && ((DecimalFormat) format).getGroupingSize() == 3;
+            separator = groupsOfThree && symbols.getZeroDigit() == '0' ? symbols.getGroupingSeparator() : 0;
+        }
+    }
+
+    /** The grouping for the most recently used default locale */
+    private static volatile Grouping grouping;
+
     /**
      * @return The lowest bits of the given value as a binary string
      */
@@ -110,13 +142,11 @@ public class StringTo
         }
         if (object instanceof Long)
         {
-            var value = (long) object;
-            return String.format("%,d", value);
+            return grouped((long) object);
         }
         if (object instanceof Integer)
         {
-            var value = (int) object;
-            return String.format("%,d", value);
+            return grouped((int) object);
         }
         return object.toString();
     }
@@ -128,4 +158,44 @@ public class StringTo
     {
         return string(object, "null");
     }
+
+    /**
+     * @return The given value with its digits grouped as they would be by String.format("%,d", value), but without
+     * parsing a format string on every call
+     */
+    private static String grouped(long value)
+    {
+        // Get the grouping for the current locale
+        var locale = Locale.getDefault(Locale.Category.FORMAT);
+        var grouping = StringTo.grouping;
+        if (grouping == null || !grouping.locale.equals(locale))
+        {
+            StringTo.grouping = grouping = new Grouping(locale);
+        }
+
+        // and if we can't group digits ourselves, let String.format() do it
+        if (grouping.separator == 0)
+        {
+            return String.format("%,d", value);
+        }
+
+        // otherwise, insert a separator between every three digits
+        var digits = Long.toString(value);
+        var start = value < 0 ? 1 : 0;
+        var length = digits.length() - start;
+        if (length <= 3)
+        {
+            return digits;
+        }
+        var builder = new StringBuilder(digits.length() + (length - 1) / 3);
+        builder.append(digits, 0, start);
+        var firstGroup = length % 3 == 0 ? 3 : length % 3;
+        builder.append(digits, start, start + firstGroup);
+        for (var at = start + firstGroup; at < digits.length(); at += 3)
+        {
+            builder.append(grouping.separator);
+            builder.append(digits, at, at + 3);
+        }
+        return builder.toString();
+    }
 }
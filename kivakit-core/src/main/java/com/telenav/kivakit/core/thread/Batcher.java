@@ -21,7 +21,7 @@ package com.telenav.kivakit.core.thread;
 import com.telenav.kivakit.core.code.UncheckedCode;
 import com.telenav.kivakit.core.lexakai.DiagramThread;
 import com.telenav.kivakit.core.messaging.repeaters.BaseRepeater;
-import com.telenav.kivakit.core.time.Time;
+import com.telenav.kivakit.core.time.Duration;
 import com.telenav.kivakit.core.value.count.BaseCount;
 import com.telenav.kivakit.core.value.count.Count;
 import com.telenav.kivakit.interfaces.collection.Addable;
@@ -29,10 +29,16 @@ import com.telenav.lexakai.annotations.LexakaiJavadoc;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -60,6 +66,30 @@ import static com.telenav.kivakit.core.ensure.Ensure.ensure;
  * batches is complete.
  * </p>
  *
+ * <p><b>Modes</b></p>
+ *
+ * <p>
+ * By default, a batcher is in {@link Mode#QUEUED} mode, where a fixed pool of workers take batches from a fair queue.
+ * In {@link Mode#WORK_STEALING} mode, selected with {@link #withMode(Mode)}, each batch is instead a task for a
+ * work-stealing pool, and batches are recycled by the adder that filled them, so that bulk loads scale with the number
+ * of cores and allocate little. In either mode, an adder blocks when {@link #withQueueSize(BaseCount)} batches are
+ * already waiting for a worker.
+ * </p>
+ *
+ * <p><b>Latency</b></p>
+ *
+ * <p>
+ * If a maximum latency is given with {@link #withMaximumLatency(Duration)}, a background thread enqueues any partial
+ * batch whose first element was added longer ago than that, so elements never wait for a batch to fill for long.
+ * </p>
+ *
+ * <p><b>Statistics</b></p>
+ *
+ * <p>
+ * {@link #statistics()} reports the number of batches and elements processed, how full batches were, the depth of the
+ * queue, and how long adders and workers were stalled waiting for each other.
+ * </p>
+ *
  * <p><b>Example</b></p>
  *
  * <pre>
@@ -103,6 +133,25 @@ public class Batcher<Element> extends BaseRepeater
         return new Batcher<>();
     }
 
+    /**
+     * How batches are handed to workers
+     */
+    public enum Mode
+    {
+        /**
+         * Batches are put in a fair, bounded queue which is drained by a fixed pool of worker threads. Each batch is a
+         * new list, so consumers can keep the batches they are given.
+         */
+        QUEUED,
+
+        /**
+         * Each batch is run as its own task on a work-stealing pool, so idle workers take batches from busy ones.
+         * Processed batches are cleared and given back to the adder that filled them, so consumers must not keep a
+         * reference to a batch after {@link Batcher#onBatch(Batch)} returns.
+         */
+        WORK_STEALING
+    }
+
     /** The execution state of this batcher */
     private enum State
     {
@@ -118,6 +167,20 @@ public class Batcher<Element> extends BaseRepeater
     @LexakaiJavadoc(complete = true)
     public class Batch extends ArrayList<Element>
     {
+        /** The adder that this batch is given back to once it has been processed, or null if it isn't recycled */
+        private final BatchAdder owner;
+
+        Batch()
+        {
+            owner = null;
+        }
+
+        Batch(BatchAdder owner)
+        {
+            super(batchSize);
+            this.owner = owner;
+        }
+
         boolean isFull()
         {
             return size() >= batchSize || batchFullPredicate.test(this);
@@ -131,17 +194,33 @@ public class Batcher<Element> extends BaseRepeater
             var outer = Batcher.this;
             if (!isEmpty())
             {
+                var start = System.nanoTime();
                 try
                 {
-                    var start = Time.now();
-                    trace("$: Processing $ element batch ${hex}", outer.name, size(), hashCode());
+                    trace("$: Processing $ element batch ${hex}", outer.name, size(), System.identityHashCode(this));
                     onBatch(this);
-                    trace("$: Processed $ items in $", outer.name, size(), start.elapsedSince());
                 }
                 catch (Exception e)
                 {
                     problem(e, "$: Unable to process batch", outer.name);
                 }
+                var elapsed = System.nanoTime() - start;
+                trace("$: Processed $ items in $", outer.name, size(), Duration.nanoseconds(elapsed));
+
+                batches.increment();
+                elements.add(size());
+                busyNanoseconds.add(elapsed);
+            }
+        }
+
+        /**
+         * Gives this batch back to the adder that filled it, if it is recycled
+         */
+        void recycle()
+        {
+            if (owner != null)
+            {
+                owner.recycle(this);
             }
         }
     }
@@ -154,8 +233,20 @@ public class Batcher<Element> extends BaseRepeater
      */
     public class BatchAdder implements Addable<Element>
     {
+        /** Processed batches that can be filled again, or null if batches aren't recycled */
+        private final ArrayBlockingQueue<Batch> recycled;
+
         /** The batch to fill with elements */
-        private Batch batch = new Batch();
+        private Batch batch;
+
+        /** The time in nanoseconds when the first element was added to the batch, if there is a maximum latency */
+        private long batchStarted;
+
+        BatchAdder()
+        {
+            recycled = mode == Mode.WORK_STEALING ? new ArrayBlockingQueue<>(queueSize) : null;
+            batch = newBatch();
+        }
 
         /**
          * Adds the given item to a batch and enqueues the batch if it is full
@@ -168,18 +259,37 @@ public class Batcher<Element> extends BaseRepeater
             assert !outer.state.is(State.STOPPING);
             assert !outer.state.is(State.STOPPED);
 
-            // add the item to the batch
-            batch.add(item);
-
-            // and if the batch is full,
-            if (batch.isFull())
+            if (outer.maximumLatency == null)
             {
-                // add the batch to the queue
-                enqueue();
+                addToBatch(item);
+            }
+            else
+            {
+                // The flusher thread can take the batch at any time, so it must be locked
+                synchronized (this)
+                {
+                    if (batch.isEmpty())
+                    {
+                        batchStarted = System.nanoTime();
+                    }
+                    addToBatch(item);
+                }
             }
             return true;
         }
 
+        /**
+         * Removes the current batch, starting a new one
+         *
+         * @return The batch that was being filled
+         */
+        synchronized Batch detach()
+        {
+            var detached = batch;
+            batch = newBatch();
+            return detached;
+        }
+
         /**
          * Enqueues the current batch and starts a new one
          */
@@ -188,25 +298,89 @@ public class Batcher<Element> extends BaseRepeater
             // If we have a non-empty batch,
             if (batch != null && !batch.isEmpty())
             {
-                // put it in the queue
-                var outer = Batcher.this;
+                // hand it to the workers
                 trace("$: Enqueueing batch of $ items", name, batch.size());
-                try
-                {
-                    outer.queue.put(batch);
-                }
-                catch (InterruptedException ignored)
-                {
-                }
+                Batcher.this.enqueue(batch);
 
                 // and start a new batch
-                batch = new Batch();
+                batch = newBatch();
+            }
+        }
+
+        /**
+         * Enqueues the current batch if its first element was added at least the given latency before the given time
+         */
+        synchronized void flushIfOlderThan(long now, long latency)
+        {
+            if (!batch.isEmpty() && now - batchStarted >= latency)
+            {
+                timedFlushes.increment();
+                enqueue();
             }
         }
+
+        /**
+         * Adds the given item to the batch, enqueueing the batch if it is full
+         */
+        private void addToBatch(Element item)
+        {
+            // add the item to the batch
+            batch.add(item);
+
+            // and if the batch is full,
+            if (batch.isFull())
+            {
+                // add the batch to the queue
+                enqueue();
+            }
+        }
+
+        /**
+         * @return A recycled batch if there is one, otherwise a new batch
+         */
+        private Batch newBatch()
+        {
+            if (recycled == null)
+            {
+                return new Batch();
+            }
+            var next = recycled.poll();
+            return next != null ? next : new Batch(this);
+        }
+
+        /**
+         * Clears the given batch and keeps it for re-use, unless enough batches are already being kept
+         */
+        private void recycle(Batch batch)
+        {
+            batch.clear();
+            recycled.offer(batch);
+        }
     }
 
-    /** Set of batch adders for clients */
-    private final Set<BatchAdder> adders = new HashSet<>();
+    /** Set of batch adders for clients (copied on write, so the flusher thread can iterate it) */
+    private final List<BatchAdder> adders = new CopyOnWriteArrayList<>();
+
+    /** The number of batches processed */
+    private final LongAdder batches = new LongAdder();
+
+    /** The total time in nanoseconds spent processing batches */
+    private final LongAdder busyNanoseconds = new LongAdder();
+
+    /** The number of elements in processed batches */
+    private final LongAdder elements = new LongAdder();
+
+    /** The largest number of batches that have waited for a worker at once */
+    private final AtomicInteger peakQueueDepth = new AtomicInteger();
+
+    /** The total time in nanoseconds that adders have been blocked by a full queue */
+    private final LongAdder producerStallNanoseconds = new LongAdder();
+
+    /** The number of partial batches enqueued because they reached the maximum latency */
+    private final LongAdder timedFlushes = new LongAdder();
+
+    /** The number of batches submitted to the work-stealing pool that haven't started processing */
+    private final AtomicInteger waiting = new AtomicInteger();
 
     /** Predicate to determine if a batch is full (in addition to the batch size) */
     private Predicate<Batch> batchFullPredicate = batch -> false;
@@ -220,6 +394,15 @@ public class Batcher<Element> extends BaseRepeater
     /** The worker threads to process batches */
     private ExecutorService executor;
 
+    /** The thread that enqueues partial batches that have reached the maximum latency */
+    private ScheduledExecutorService flusher;
+
+    /** The maximum time an element can wait in a partial batch, or null if there is no maximum */
+    private Duration maximumLatency;
+
+    /** How batches are handed to workers */
+    private Mode mode = Mode.QUEUED;
+
     /** Name of this batcher */
     private String name = "Batcher";
 
@@ -229,9 +412,21 @@ public class Batcher<Element> extends BaseRepeater
     /** Size of batch queue */
     private int queueSize = 8;
 
+    /** Permits for batches waiting for or being processed by the work-stealing pool */
+    private Semaphore slots;
+
+    /** The time in nanoseconds when this batcher started, or zero if it hasn't started */
+    private volatile long started;
+
     /** State machine to track the execution phases of this batcher */
     private StateMachine<State> state = new StateMachine<>(State.READY);
 
+    /** The time in nanoseconds when this batcher stopped, or zero if it hasn't stopped */
+    private volatile long stopped;
+
+    /** The number of workers */
+    private int workers;
+
     protected Batcher()
     {
     }
@@ -246,6 +441,8 @@ public class Batcher<Element> extends BaseRepeater
         executor = that.executor;
         state = that.state;
         batchFullPredicate = that.batchFullPredicate;
+        mode = that.mode;
+        maximumLatency = that.maximumLatency;
     }
 
     /**
@@ -268,28 +465,81 @@ public class Batcher<Element> extends BaseRepeater
         // If we aren't already running
         if (state.transition(State.READY, State.RUNNING))
         {
-            // create a blocking queue,
-            queue = new ArrayBlockingQueue<>(queueSize, true);
+            this.workers = workers.asInt();
+            started = System.nanoTime();
+
+            if (mode == Mode.QUEUED)
+            {
+                // create a blocking queue,
+                queue = new ArrayBlockingQueue<>(queueSize, true);
+
+                // then create an executor,
+                executor = Threads.threadPool(name + "-Batcher", workers);
+
+                // start a job for each worker,
+                var outer = this;
+                workers.loop(() -> executor.submit(() ->
+                {
+                    // and loop until we are asked to stop,
+                    trace("$: Processing batches", outer.name);
+                    while (!state.is(State.STOPPING))
+                    {
+                        // processing batches.
+                        nextBatch().process();
+                    }
+                    trace("$: Processor is done", outer.name);
+                }));
+            }
+            else
+            {
+                // allow queue size batches to wait while each worker processes one,
+                slots = new Semaphore(queueSize + workers.asInt());
 
-            // then create an executor,
-            executor = Threads.threadPool(name + "-Batcher", workers);
+                // and create a work-stealing pool to run them.
+                executor = Threads.workStealingPool(name + "-Batcher", workers);
+            }
 
-            // start a job for each worker,
-            var outer = this;
-            workers.loop(() -> executor.submit(() ->
+            // If there is a maximum latency,
+            if (maximumLatency != null)
             {
-                // and loop until we are asked to stop,
-                trace("$: Processing batches", outer.name);
-                while (!state.is(State.STOPPING))
+                // check for stale partial batches twice in each period of that length.
+                var latency = TimeUnit.MILLISECONDS.toNanos(maximumLatency.milliseconds());
+                var period = Math.max(1, maximumLatency.milliseconds() / 2);
+                flusher = Executors.newSingleThreadScheduledExecutor(runnable ->
                 {
-                    // processing batches.
-                    nextBatch().process();
-                }
-                trace("$: Processor is done", outer.name);
-            }));
+                    var thread = new Thread(runnable, "KivaKit-" + name + "-Flusher");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                flusher.scheduleAtFixedRate(() -> flush(latency), period, period, TimeUnit.MILLISECONDS);
+            }
         }
     }
 
+    /**
+     * @return A snapshot of the statistics of this batcher
+     */
+    public BatcherStatistics statistics()
+    {
+        var queue = this.queue;
+        var depth = mode == Mode.QUEUED
+                ? (queue == null ? 0 : queue.size())
+                : waiting.get();
+
+        // Workers are stalled whenever they are not processing a batch
+        long consumerStall = 0;
+        var started = this.started;
+        if (started != 0)
+        {
+            var stopped = this.stopped;
+            var end = stopped != 0 ? stopped : System.nanoTime();
+            consumerStall = Math.max(0, workers * (end - started) - busyNanoseconds.sum());
+        }
+
+        return new BatcherStatistics(batches.sum(), elements.sum(), batchSize, depth, peakQueueDepth.get(),
+                timedFlushes.sum(), producerStallNanoseconds.sum(), consumerStall);
+    }
+
     /**
      * Stops background thread once current batch is finished processing, but without flushing the queue.
      */
@@ -298,38 +548,57 @@ public class Batcher<Element> extends BaseRepeater
         // If we are running, and we aren't already trying to stop
         if (state.transition(State.RUNNING, State.STOPPING))
         {
-            // shut down the executor, interrupting waiting threads and waiting for them to exit,
             trace("$: Stopping", name);
-            var pending = executor.shutdownNow();
-            Threads.await(executor);
-            trace("$: Stopped", name);
 
-            // then run any tasks that never started executing,
-            for (var task : pending)
+            // stop flushing partial batches,
+            if (flusher != null)
             {
-                task.run();
+                flusher.shutdownNow();
+                Threads.await(flusher);
             }
 
-            // add any remaining items to the queue,
-            for (var adder : adders)
+            var remaining = new ArrayList<Batch>();
+            if (mode == Mode.QUEUED)
             {
-                adder.enqueue();
-            }
+                // shut down the executor, interrupting waiting threads and waiting for them to exit,
+                var pending = executor.shutdownNow();
+                Threads.await(executor);
 
-            // and process any remaining batches
-            var remaining = new ArrayList<Batch>();
-            queue.drainTo(remaining);
-            assert queue.isEmpty();
+                // then run any tasks that never started executing,
+                for (var task : pending)
+                {
+                    task.run();
+                }
+
+                // and collect any batches remaining in the queue
+                // (setting the queue to null to catch any mistaken attempts to add after threads have stopped).
+                queue.drainTo(remaining);
+                assert queue.isEmpty();
+                queue = null;
+            }
+            else
+            {
+                // let the pool finish the batches that have been submitted to it.
+                executor.shutdown();
+                Threads.await(executor);
+            }
+            trace("$: Stopped", name);
 
-            // (set the queue to null to catch any mistaken attempts to add after threads have stopped)
-            queue = null;
+            // Collect the partially filled batches of each adder (which must not be enqueued,
+            // because the queue may be full and no workers are left to empty it),
+            for (var adder : adders)
+            {
+                remaining.add(adder.detach());
+            }
 
+            // and process them.
             trace("$: Processing $ remaining batches", name, remaining.size());
             for (var batch : remaining)
             {
                 batch.process();
             }
 
+            stopped = System.nanoTime();
             state.transitionTo(State.STOPPED);
         }
     }
@@ -355,6 +624,27 @@ public class Batcher<Element> extends BaseRepeater
         return copy;
     }
 
+    /**
+     * @return A copy of this batcher that enqueues partial batches once their first element has waited for the given
+     * time
+     */
+    public Batcher<Element> withMaximumLatency(Duration maximumLatency)
+    {
+        var copy = copy();
+        copy.maximumLatency = maximumLatency;
+        return copy;
+    }
+
+    /**
+     * @return A copy of this batcher that hands batches to workers in the given mode
+     */
+    public Batcher<Element> withMode(Mode mode)
+    {
+        var copy = copy();
+        copy.mode = mode;
+        return copy;
+    }
+
     public Batcher<Element> withName(String name)
     {
         var copy = copy();
@@ -382,6 +672,71 @@ public class Batcher<Element> extends BaseRepeater
         consumer.accept(batch);
     }
 
+    /**
+     * Hands the given batch to the workers, blocking while queue size batches are already waiting
+     */
+    private void enqueue(Batch batch)
+    {
+        if (mode == Mode.QUEUED)
+        {
+            if (!queue.offer(batch))
+            {
+                var start = System.nanoTime();
+                try
+                {
+                    queue.put(batch);
+                }
+                catch (InterruptedException ignored)
+                {
+                }
+                producerStallNanoseconds.add(System.nanoTime() - start);
+            }
+            peakQueueDepth.accumulateAndGet(queue.size(), Math::max);
+        }
+        else
+        {
+            if (!slots.tryAcquire())
+            {
+                var start = System.nanoTime();
+                slots.acquireUninterruptibly();
+                producerStallNanoseconds.add(System.nanoTime() - start);
+            }
+            peakQueueDepth.accumulateAndGet(waiting.incrementAndGet(), Math::max);
+            executor.execute(() ->
+            {
+                waiting.decrementAndGet();
+                try
+                {
+                    batch.process();
+                }
+                finally
+                {
+                    batch.recycle();
+                    slots.release();
+                }
+            });
+        }
+    }
+
+    /**
+     * Enqueues the partial batch of each adder whose first element was added at least the given latency ago
+     */
+    private void flush(long latency)
+    {
+        try
+        {
+            var now = System.nanoTime();
+            for (var adder : adders)
+            {
+                adder.flushIfOlderThan(now, latency);
+            }
+        }
+        catch (Exception e)
+        {
+            problem(e, "$: Unable to flush partial batches", name);
+        }
+    }
+
     /**
      * @return The next batch from the queue, or an empty batch if interrupted
      */
@@ -0,0 +1,131 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.core.thread;
+
+import com.telenav.kivakit.core.lexakai.DiagramThread;
+import com.telenav.kivakit.core.time.Duration;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.core.value.level.Percent;
+import com.telenav.lexakai.annotations.LexakaiJavadoc;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import static com.telenav.kivakit.core.string.Formatter.format;
+
+/**
+ * A snapshot of the statistics of a {@link Batcher}:
+ *
+ * <ul>
+ *     <li>{@link #batches()} - The number of batches processed</li>
+ *     <li>{@link #elements()} - The number of elements in those batches</li>
+ *     <li>{@link #fillRatio()} - How full processed batches were, on average, relative to the batch size</li>
+ *     <li>{@link #queueDepth()} - The number of batches waiting for a consumer</li>
+ *     <li>{@link #peakQueueDepth()} - The largest number of batches that have waited for a consumer at once</li>
+ *     <li>{@link #timedFlushes()} - The number of partial batches enqueued because they reached the maximum latency</li>
+ *     <li>{@link #producerStall()} - The total time that adders were blocked because the queue was full</li>
+ *     <li>{@link #consumerStall()} - The total time that consumers were idle, waiting for batches</li>
+ * </ul>
+ *
+ * @author jonathanl (shibo)
+ */
+@UmlClassDiagram(diagram = DiagramThread.class)
+@LexakaiJavadoc(complete = true)
+public class BatcherStatistics
+{
+    private final long batches;
+
+    private final long elements;
+
+    private final int batchSize;
+
+    private final int queueDepth;
+
+    private final int peakQueueDepth;
+
+    private final long timedFlushes;
+
+    private final long producerStallNanoseconds;
+
+    private final long consumerStallNanoseconds;
+
+    BatcherStatistics(long batches,
+                      long elements,
+                      int batchSize,
+                      int queueDepth,
+                      int peakQueueDepth,
+                      long timedFlushes,
+                      long producerStallNanoseconds,
+                      long consumerStallNanoseconds)
+    {
+        this.batches = batches;
+        this.elements = elements;
+        this.batchSize = batchSize;
+        this.queueDepth = queueDepth;
+        this.peakQueueDepth = peakQueueDepth;
+        this.timedFlushes = timedFlushes;
+        this.producerStallNanoseconds = producerStallNanoseconds;
+        this.consumerStallNanoseconds = consumerStallNanoseconds;
+    }
+
+    public Count batches()
+    {
+        return Count.count(batches);
+    }
+
+    public Duration consumerStall()
+    {
+        return Duration.nanoseconds(consumerStallNanoseconds);
+    }
+
+    public Count elements()
+    {
+        return Count.count(elements);
+    }
+
+    public Percent fillRatio()
+    {
+        return Percent.of(batches == 0 ? 0 : elements * 100.0 / ((double) batches * batchSize));
+    }
+
+    public Count peakQueueDepth()
+    {
+        return Count.count(peakQueueDepth);
+    }
+
+    public Duration producerStall()
+    {
+        return Duration.nanoseconds(producerStallNanoseconds);
+    }
+
+    public Count queueDepth()
+    {
+        return Count.count(queueDepth);
+    }
+
+    public Count timedFlushes()
+    {
+        return Count.count(timedFlushes);
+    }
+
+    @Override
+    public String toString()
+    {
+        return format("batches = $, elements = $, fill ratio = $, queue depth = $, peak queue depth = $, timed flushes = $, producer stall = $, consumer stall = $",
+                batches, elements, fillRatio(), queueDepth, peakQueueDepth, timedFlushes, producerStall(), consumerStall());
+    }
+}
@@ -30,6 +30,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
@@ -89,6 +91,26 @@ public class Threads
         }
     }
 
+    /**
+     * @return An executor that runs each task on its own thread. Virtual threads are used when the Java runtime
+     * supports them (Java 21 and later), and otherwise new platform threads are started as needed, with idle threads
+     * being reused.
+     */
+    public static ExecutorService threadPerTask(String name)
+    {
+        try
+        {
+            var method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        }
+        catch (Exception e)
+        {
+            var identifier = new AtomicInteger(1);
+            return Executors.newCachedThreadPool(runnable ->
+                    new Thread(runnable, "KivaKit-" + name + "-" + identifier.getAndIncrement()));
+        }
+    }
+
     public static ExecutorService threadPool(String name, Count threads)
     {
         var identifier = new MutableCount(1);
@@ -100,4 +122,20 @@ public class Threads
     {
         return threadPool(name, JavaVirtualMachine.local().processors());
     }
+
+    /**
+     * @return A work-stealing pool with the given parallelism, running tasks submitted from outside the pool in FIFO
+     * order
+     */
+    public static ForkJoinPool workStealingPool(String name, Count threads)
+    {
+        // (worker threads are started by other worker threads, so the identifier must be atomic)
+        var identifier = new AtomicInteger(1);
+        return new ForkJoinPool(threads.asInt(), pool ->
+        {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("KivaKit-" + name + "-" + identifier.getAndIncrement());
+            return thread;
+        }, null, true);
+    }
 }
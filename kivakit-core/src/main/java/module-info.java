@@ -16,6 +16,7 @@ open module kivakit.core
     requires java.instrument;
     requires jdk.attach;
     requires java.management;
+    requires static jdk.management;
 
     // Test
     requires transitive junit;
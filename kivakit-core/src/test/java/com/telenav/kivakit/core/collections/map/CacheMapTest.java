@@ -0,0 +1,146 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.core.collections.map;
+
+import com.telenav.kivakit.core.test.CoreUnitTest;
+import com.telenav.kivakit.core.time.Duration;
+import com.telenav.kivakit.core.value.count.Maximum;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static com.telenav.kivakit.core.value.count.Bytes.bytes;
+
+public class CacheMapTest extends CoreUnitTest
+{
+    @Test
+    public void testConcurrentAccess() throws InterruptedException
+    {
+        var cache = new CacheMap<Integer, Integer>(Maximum.maximum(1_000));
+        var threads = new ArrayList<Thread>();
+        for (var thread = 0; thread < 8; thread++)
+        {
+            var offset = thread * 10_000;
+            threads.add(new Thread(() ->
+            {
+                for (var i = 0; i < 10_000; i++)
+                {
+                    cache.put(offset + i, i);
+                    cache.get(offset + i / 2);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (var thread : threads)
+        {
+            thread.join();
+        }
+
+        ensure(cache.size() <= 1_000 + 64);
+        ensureEqual(8L * 10_000, cache.statistics().hits().asLong() + cache.statistics().misses().asLong());
+        ensure(cache.statistics().evictions().asLong() >= 8L * 10_000 - cache.size());
+    }
+
+    @Test
+    public void testExpiration()
+    {
+        var cache = new CacheMap<String, String>(Maximum.maximum(100), Duration.milliseconds(50));
+        cache.put("a", "alpha");
+        cache.putExpiring("b", "beta", Duration.MAXIMUM);
+        ensureEqual("alpha", cache.get("a"));
+
+        Duration.milliseconds(100).sleep();
+        ensure(cache.get("a") == null);
+        ensure(!cache.containsKey("a"));
+        ensureEqual("beta", cache.get("b"));
+        ensureEqual(1L, cache.statistics().expirations().asLong());
+    }
+
+    @Test
+    public void testLeastRecentlyUsed()
+    {
+        var cache = new CacheMap<String, Integer>(Maximum.maximum(4));
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        cache.put("d", 4);
+
+        // Using "a" makes "b" the least recently used entry, so it is evicted first
+        ensureEqual(1, cache.get("a"));
+        cache.put("e", 5);
+        ensureEqual(4, cache.size());
+        ensure(cache.get("b") == null);
+        ensureEqual(1, cache.get("a"));
+        ensureEqual(1L, cache.statistics().evictions().asLong());
+    }
+
+    @Test
+    public void testStatistics()
+    {
+        var cache = new CacheMap<String, Integer>(Maximum.maximum(16));
+        cache.put("a", 1);
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+
+        var statistics = cache.statistics();
+        ensureEqual(2L, statistics.hits().asLong());
+        ensureEqual(1L, statistics.misses().asLong());
+        ensureEqual(0L, statistics.evictions().asLong());
+        ensureEqual(66, (int) statistics.hitRate().value());
+    }
+
+    @Test
+    public void testSweep()
+    {
+        // Entries live for a second, well beyond any scheduling delay before the first check,
+        var cache = new CacheMap<String, String>(Maximum.maximum(100), Duration.seconds(1));
+        for (var i = 0; i < 10; i++)
+        {
+            cache.put("key" + i, "value" + i);
+        }
+        ensureEqual(10, cache.size());
+
+        // and once expired they are eventually reclaimed without being read.
+        for (var i = 0; i < 300 && !cache.isEmpty(); i++)
+        {
+            Duration.milliseconds(100).sleep();
+        }
+        ensureEqual(0, cache.size());
+    }
+
+    @Test
+    public void testWeight()
+    {
+        var cache = new CacheMap<String, String>(bytes(10), (key, value) -> bytes(value.length()));
+        cache.put("a", "1234");
+        cache.put("b", "1234");
+        ensureEqual(2, cache.size());
+
+        // Adding a third value would weigh 12 bytes, so the least recently used value is evicted
+        cache.put("c", "1234");
+        ensureEqual(2, cache.size());
+        ensure(cache.get("a") == null);
+
+        // and the weight of a replaced value is updated
+        cache.put("b", "12345678");
+        ensureEqual(1, cache.size());
+        ensureEqual("12345678", cache.get("b"));
+    }
+}
@@ -0,0 +1,112 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.core.language.module;
+
+import com.telenav.kivakit.core.test.CoreUnitTest;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * @author jonathanl (shibo)
+ */
+public class PackageIndexTest extends CoreUnitTest
+{
+    @Test
+    public void testIndex() throws IOException
+    {
+        var jar = jar("a/b/c.txt", "a/b/d.txt", "a/e/", "a/f/g/h.txt", "i.txt");
+        var index = PackageIndex.packageIndex(jar.toUri().toURL());
+
+        ensureEqual(index.resources("a/b"), List.of("c.txt", "d.txt"));
+        ensureEqual(index.resources(""), List.of("i.txt"));
+        ensure(index.resources("a").isEmpty());
+        ensureEqual(index.subPackages(""), Set.of("a"));
+        ensureEqual(index.subPackages("a"), Set.of("b", "e", "f"));
+        ensureEqual(index.subPackages("a/f"), Set.of("g"));
+        ensure(index.subPackages("a/b").isEmpty());
+
+        // Indexes are built once per jar
+        ensure(PackageIndex.packageIndex(jar.toUri().toURL()) == index);
+    }
+
+    @Test
+    public void testSavedIndex() throws IOException
+    {
+        var cache = Files.createTempDirectory("package-index");
+        PackageIndex.cacheFolder(cache);
+        try
+        {
+            // Index a jar, which saves the index,
+            var jar = jar("a/b.txt");
+            ensureEqual(PackageIndex.packageIndex(jar.toUri().toURL()).resources("a"), List.of("b.txt"));
+            try (var saved = Files.list(cache))
+            {
+                ensureEqual(saved.count(), 1L);
+            }
+
+            // then change the jar's contents without changing its size or time,
+            var size = Files.size(jar);
+            var time = Files.getLastModifiedTime(jar);
+            jar(jar, "a/c.txt");
+            Files.setLastModifiedTime(jar, time);
+            ensureEqual(Files.size(jar), size);
+
+            // and the saved index is used for another location of the same jar.
+            var location = new URL("file://" + jar.toAbsolutePath());
+            ensureEqual(PackageIndex.packageIndex(location).resources("a"), List.of("b.txt"));
+        }
+        finally
+        {
+            PackageIndex.cacheFolder(null);
+        }
+    }
+
+    private Path jar(String... entries) throws IOException
+    {
+        var jar = Files.createTempFile("package-index", ".jar");
+        jar.toFile().deleteOnExit();
+        return jar(jar, entries);
+    }
+
+    private Path jar(Path jar, String... entries) throws IOException
+    {
+        try (var out = new ZipOutputStream(Files.newOutputStream(jar)))
+        {
+            for (var entry : entries)
+            {
+                out.putNextEntry(new ZipEntry(entry));
+                if (!entry.endsWith("/"))
+                {
+                    out.write(entry.getBytes(StandardCharsets.UTF_8));
+                }
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
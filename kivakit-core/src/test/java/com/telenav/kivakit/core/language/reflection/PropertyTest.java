@@ -0,0 +1,160 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.core.language.reflection;
+
+import com.telenav.kivakit.core.language.reflection.filters.field.AllFields;
+import com.telenav.kivakit.core.language.reflection.filters.field.NamedField;
+import com.telenav.kivakit.core.test.CoreUnitTest;
+import org.junit.Test;
+
+import static com.telenav.kivakit.core.language.reflection.property.PropertyFilter.kivakitProperties;
+import static com.telenav.kivakit.core.language.reflection.property.PropertyMembers.INCLUDED_FIELDS;
+import static com.telenav.kivakit.core.language.reflection.property.PropertyMembers.PUBLIC_METHODS;
+import static com.telenav.kivakit.core.language.reflection.property.PropertyNamingConvention.JAVA_BEANS;
+import static com.telenav.kivakit.core.language.reflection.property.PropertyNamingConvention.KIVAKIT;
+
+public class PropertyTest extends CoreUnitTest
+{
+    @SuppressWarnings({ "unused", "FieldMayBeFinal" })
+    private static class City
+    {
+        private String name = "Seattle";
+
+        private int population = 737_015;
+
+        private double area;
+
+        public String name()
+        {
+            return name;
+        }
+
+        public void name(String name)
+        {
+            this.name = "City of " + name;
+        }
+
+        public int population()
+        {
+            return population;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class Failing
+    {
+        public int error()
+        {
+            throw new StackOverflowError();
+        }
+
+        public int exception()
+        {
+            throw new IllegalStateException();
+        }
+    }
+
+    @Test
+    public void testErrors() throws NoSuchMethodException
+    {
+        // Exceptions thrown by a property are problems,
+        var exception = new MethodGetter(Failing.class.getMethod("exception"));
+        ensure(exception.get(new Failing()) instanceof ReflectionProblem);
+
+        // but errors are rethrown.
+        var error = new MethodGetter(Failing.class.getMethod("error"));
+        try
+        {
+            error.get(new Failing());
+            fail("Error was not rethrown");
+        }
+        catch (StackOverflowError ignored)
+        {
+        }
+    }
+
+    @Test
+    public void testFieldAccess()
+    {
+        var city = new City();
+        var population = Type.forClass(City.class).field("population");
+        ensureEqual(737_015, population.get(city));
+        ensure(population.set(city, () -> 750_000) == null);
+        ensureEqual(750_000, city.population);
+
+        // Setting a primitive to a value of the wrong type is a problem
+        ensure(population.set(city, () -> "many") != null);
+        ensureEqual(750_000, city.population);
+    }
+
+    @Test
+    public void testMethodAccess()
+    {
+        var city = new City();
+        var name = Type.forClass(City.class).property("name");
+        ensureEqual("name", name.name());
+        ensureEqual("Seattle", name.get(city));
+        ensure(name.set(city, () -> "Portland") == null);
+        ensureEqual("City of Portland", city.name);
+
+        var population = Type.forClass(City.class).property("population");
+        ensureEqual(737_015, population.get(city));
+
+        // Properties looked up by name share one cached index
+        ensure(population == Type.forClass(City.class).property("population"));
+        ensure(Type.forClass(City.class).property("missing") == null);
+    }
+
+    @Test
+    public void testPropertyCache()
+    {
+        var type = Type.forClass(City.class);
+
+        // Equal filters find the same cached properties
+        var properties = type.properties(new AllFields(KIVAKIT));
+        ensure(properties.get(0) == type.properties(new AllFields(KIVAKIT)).get(0));
+        ensure(type.field("name") == type.field("name"));
+
+        // but filters with different inclusions do not
+        ensure(!new AllFields(KIVAKIT).equals(new AllFields(JAVA_BEANS)));
+        ensure(!kivakitProperties(PUBLIC_METHODS).equals(kivakitProperties(INCLUDED_FIELDS)));
+        ensure(!new NamedField(KIVAKIT, "name").equals(new NamedField(KIVAKIT, "area")));
+
+        // and properties can be looked up by name
+        ensureEqual("population", type.property(new AllFields(KIVAKIT), "population").name());
+        ensure(type.property(new AllFields(KIVAKIT), "missing") == null);
+
+        // The list returned is a copy
+        properties.clear();
+        ensureEqual(3, type.properties(new AllFields(KIVAKIT)).size());
+    }
+
+    @Test
+    public void testProperties()
+    {
+        var city = new City();
+        var properties = Type.forClass(City.class).properties(new AllFields(KIVAKIT));
+        ensureEqual(3, properties.size());
+        for (var property : properties)
+        {
+            ensure(property.set(city, () -> property.get(new City())) == null);
+        }
+        ensureEqual("Seattle", city.name);
+    }
+}
@@ -0,0 +1,128 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.core.logging.loggers;
+
+import com.telenav.kivakit.core.collections.set.ObjectSet;
+import com.telenav.kivakit.core.logging.Log;
+import com.telenav.kivakit.core.logging.LogEntry;
+import com.telenav.kivakit.core.logging.LoggerCodeContext;
+import com.telenav.kivakit.core.logging.filters.LogEntriesWithSeverityGreaterThanOrEqualTo;
+import com.telenav.kivakit.core.logging.logs.BaseLog;
+import com.telenav.kivakit.core.messaging.Message;
+import com.telenav.kivakit.core.messaging.messages.Severity;
+import com.telenav.kivakit.core.messaging.messages.status.Problem;
+import com.telenav.kivakit.core.messaging.messages.status.Trace;
+import com.telenav.kivakit.core.messaging.messages.status.Warning;
+import com.telenav.kivakit.core.test.CoreUnitTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.telenav.kivakit.core.collections.set.ObjectSet.objectSet;
+
+public class BaseLoggerTest extends CoreUnitTest
+{
+    private static class TestLog extends BaseLog
+    {
+        final List<LogEntry> entries = new ArrayList<>();
+
+        private final String name;
+
+        TestLog(String name)
+        {
+            this.name = name;
+        }
+
+        @Override
+        public String name()
+        {
+            return name;
+        }
+
+        @Override
+        protected void onLog(LogEntry entry)
+        {
+            entries.add(entry);
+        }
+    }
+
+    private static class TestLogger extends BaseLogger
+    {
+        int created;
+
+        final ObjectSet<Log> logs;
+
+        TestLogger(Log... logs)
+        {
+            this.logs = objectSet(logs);
+        }
+
+        @Override
+        protected LogEntry logEntry(LoggerCodeContext context, Thread thread, Message message)
+        {
+            created++;
+            return super.logEntry(context, thread, message);
+        }
+
+        @Override
+        protected ObjectSet<Log> logs()
+        {
+            return logs;
+        }
+    }
+
+    @Test
+    public void testPrefiltering()
+    {
+        BaseLog.asynchronous(false);
+        try
+        {
+            var problems = new TestLog("problems");
+            problems.addFilter(new LogEntriesWithSeverityGreaterThanOrEqualTo(Severity.MEDIUM));
+            var warnings = new TestLog("warnings");
+            warnings.addFilter(new LogEntriesWithSeverityGreaterThanOrEqualTo(Severity.LOW));
+
+            // Trace messages are rejected by both logs, so no entry should be created
+            var logger = new TestLogger(problems, warnings);
+            logger.log(new Trace("trace"));
+            ensureEqual(0, logger.created);
+
+            // Warnings are accepted by only one log
+            logger.log(new Warning("warning"));
+            ensureEqual(1, logger.created);
+            ensureEqual(0, problems.entries.size());
+            ensureEqual(1, warnings.entries.size());
+
+            // Problems are accepted by both logs
+            logger.log(new Problem("problem"));
+            ensureEqual(2, logger.created);
+            ensureEqual(1, problems.entries.size());
+            ensureEqual(2, warnings.entries.size());
+
+            // and the logger's own filters apply to every log
+            logger.addFilter(new LogEntriesWithSeverityGreaterThanOrEqualTo(Severity.HIGH));
+            logger.log(new Problem("problem"));
+            ensureEqual(2, logger.created);
+        }
+        finally
+        {
+            BaseLog.asynchronous(true);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.core.logging.logs;
+
+import com.telenav.kivakit.core.collections.map.VariableMap;
+import com.telenav.kivakit.core.logging.LogEntry;
+import com.telenav.kivakit.core.logging.LoggerCodeContext;
+import com.telenav.kivakit.core.logging.loggers.ConsoleLogger;
+import com.telenav.kivakit.core.messaging.Message;
+import com.telenav.kivakit.core.messaging.messages.status.Information;
+import com.telenav.kivakit.core.messaging.messages.status.Problem;
+import com.telenav.kivakit.core.test.CoreUnitTest;
+import com.telenav.kivakit.core.time.Duration;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BaseLogTest extends CoreUnitTest
+{
+    private static class TestLog extends BaseLog
+    {
+        final AtomicInteger batches = new AtomicInteger();
+
+        final AtomicInteger entries = new AtomicInteger();
+
+        final AtomicInteger largestBatch = new AtomicInteger();
+
+        final CountDownLatch release;
+
+        TestLog(CountDownLatch release)
+        {
+            this.release = release;
+        }
+
+        @Override
+        protected void onLog(LogEntry entry)
+        {
+            entries.incrementAndGet();
+        }
+
+        @Override
+        protected void onLog(List<LogEntry> entries)
+        {
+            try
+            {
+                release.await();
+            }
+            catch (InterruptedException ignored)
+            {
+            }
+            batches.incrementAndGet();
+            largestBatch.accumulateAndGet(entries.size(), Math::max);
+            super.onLog(entries);
+        }
+
+        @Override
+        protected int queueSize()
+        {
+            return 8;
+        }
+    }
+
+    @After
+    public void cleanup()
+    {
+        BaseLog.asynchronous(true);
+    }
+
+    @Test
+    public void testBatching()
+    {
+        BaseLog.asynchronous(true);
+
+        // Hold the first batch until the queue has filled up behind it,
+        var release = new CountDownLatch(1);
+        var log = new TestLog(release);
+        var releaser = new Thread(() ->
+        {
+            while (log.queuedEntries().asInt() < log.queueSize())
+            {
+                Duration.milliseconds(1).sleep();
+            }
+            release.countDown();
+        });
+        releaser.start();
+
+        // log more entries than the queue holds,
+        for (var i = 0; i < 1_000; i++)
+        {
+            log.log(entry(new Information("test")));
+        }
+        log.stop(Duration.ONE_MINUTE);
+
+        // and every entry is written, with the queued entries written together.
+        ensureEqual(1_000, log.entries.get());
+        ensureEqual(0L, log.droppedEntries().asLong());
+        ensureEqual(0L, log.queuedEntries().asLong());
+        ensure(log.largestBatch.get() > 1);
+        ensure(log.batches.get() < 1_000);
+    }
+
+    @Test
+    public void testConfigureOverflow()
+    {
+        // The overflow policy can be configured by name,
+        var log = new TestLog(new CountDownLatch(0));
+        log.configure(new VariableMap<String>().add("overflow", "drop-lowest-severity"));
+        ensureEqual(BaseLog.OverflowPolicy.DROP_LOWEST_SEVERITY, log.overflowPolicy());
+
+        // and an unrecognized policy falls back to the default.
+        log.configure(new VariableMap<String>().add("overflow", "discard-everything"));
+        ensureEqual(BaseLog.OverflowPolicy.BLOCK, log.overflowPolicy());
+        log.stop(Duration.ONE_MINUTE);
+    }
+
+    @Test
+    public void testDropLowestSeverity()
+    {
+        BaseLog.asynchronous(true);
+        var release = new CountDownLatch(1);
+        var log = new TestLog(release);
+        log.overflowPolicy(BaseLog.OverflowPolicy.DROP_LOWEST_SEVERITY);
+        for (var i = 0; i < 100; i++)
+        {
+            log.log(entry(new Information("test")));
+        }
+        ensure(log.droppedEntries().asLong() > 0);
+        release.countDown();
+        log.log(entry(new Problem("severe")));
+        log.stop(Duration.ONE_MINUTE);
+        ensureEqual(101L, log.entries.get() + log.droppedEntries().asLong());
+    }
+
+    @Test
+    public void testRingBuffer()
+    {
+        var buffer = new LogEntryRingBuffer(5);
+        ensureEqual(8, buffer.capacity());
+        var entries = new ArrayList<LogEntry>();
+        for (var i = 0; i < buffer.capacity(); i++)
+        {
+            var entry = entry(new Information("test"));
+            entries.add(entry);
+            ensure(buffer.offer(entry));
+        }
+        ensure(!buffer.offer(entry(new Information("overflow"))));
+        ensureEqual(8, buffer.size());
+
+        var batch = new ArrayList<LogEntry>();
+        ensureEqual(3, buffer.drainTo(batch, 3));
+        ensureEqual(entries.subList(0, 3), batch);
+        ensure(buffer.offer(entry(new Information("test"))));
+        ensureEqual(6, buffer.drainTo(batch, Integer.MAX_VALUE));
+        ensureEqual(entries, batch.subList(0, 8));
+        ensure(buffer.isEmpty());
+    }
+
+    private LogEntry entry(Message message)
+    {
+        return new LogEntry(new ConsoleLogger(), new LoggerCodeContext("test"), Thread.currentThread(), message);
+    }
+}
@@ -39,4 +39,25 @@ public class BroadcasterTest extends CoreUnitTest
         broadcaster.information("Test");
         ensureEqual(2L, count.asLong());
     }
+
+    @Test
+    public void testListeners()
+    {
+        var broadcaster = new Multicaster("test", getClass());
+        var count = new MutableCount();
+        Listener listener = message -> count.increment();
+        broadcaster.addListener(listener);
+        broadcaster.addListener(listener);
+        ensureEqual(1, broadcaster.listeners().size());
+        broadcaster.information("Test");
+        ensureEqual(1L, count.asLong());
+        broadcaster.removeListener(listener);
+        ensureEqual(false, broadcaster.hasListeners());
+        broadcaster.addListener(listener);
+        broadcaster.addListener(message -> count.increment());
+        broadcaster.information("Test");
+        ensureEqual(3L, count.asLong());
+        broadcaster.clearListeners();
+        ensureEqual(0, broadcaster.listeners().size());
+    }
 }
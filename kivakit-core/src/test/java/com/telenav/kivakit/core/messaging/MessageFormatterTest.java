@@ -58,4 +58,36 @@ public class MessageFormatterTest extends CoreUnitTest
                 format("${object}", new Bean()).replaceAll("≡\\d+ ", ""));
         Assert.assertEquals("*5*", format("${debug}", new Bean()));
     }
+
+    @Test
+    public void testErrors()
+    {
+        Assert.assertEquals("Out of arguments: x = $", format("x = $"));
+        Assert.assertEquals("Extraneous arguments. 2 arguments provided to: x = $", format("x = $", 1, 2));
+        Assert.assertEquals("Unrecognized interpolation 'bogus' in: ${bogus}", format("${bogus}", 1));
+        Assert.assertEquals("Unclosed interpolation expression. Maybe add a '}' somewhere: $ ${debug", format("$ ${debug", 1, 2));
+        Assert.assertEquals("No key 'c' in: ${c}", format("${c}", new VariableMap<>().add("a", 5)));
+    }
+
+    @Test
+    public void testTemplates()
+    {
+        Assert.assertEquals("costs $5", format("costs $$$", 5));
+        Assert.assertEquals("a$b", format("a$$b"));
+        for (var i = 0; i < 3; i++)
+        {
+            Assert.assertEquals("x = " + i + ", y = " + (i + 1), format("x = $, y = $", i, i + 1));
+        }
+
+        // Arguments that format messages while they are being formatted
+        var nested = new Object()
+        {
+            @Override
+            public String toString()
+            {
+                return format("<$>", "inner");
+            }
+        };
+        Assert.assertEquals("outer <inner> outer", format("$ $ $", "outer", nested, "outer"));
+    }
 }
@@ -0,0 +1,133 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.core.project;
+
+import com.telenav.kivakit.core.collections.set.ObjectSet;
+import com.telenav.kivakit.core.test.CoreUnitTest;
+import com.telenav.kivakit.core.time.Duration;
+import com.telenav.kivakit.core.value.count.Count;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author jonathanl (shibo)
+ */
+public class ProjectInitializerTest extends CoreUnitTest
+{
+    /** The time each test project started initializing, in nanoseconds */
+    private static final Map<Class<?>, Long> started = new ConcurrentHashMap<>();
+
+    /** The time each test project finished initializing, in nanoseconds */
+    private static final Map<Class<?>, Long> finished = new ConcurrentHashMap<>();
+
+    public static class A extends SlowProject
+    {
+    }
+
+    public static class B extends SlowProject
+    {
+    }
+
+    public static class C extends SlowProject
+    {
+        @Override
+        public ObjectSet<Class<? extends Project>> dependencies()
+        {
+            return ObjectSet.objectSet(A.class, B.class);
+        }
+    }
+
+    public static class Cycle1 extends SlowProject
+    {
+        @Override
+        public ObjectSet<Class<? extends Project>> dependencies()
+        {
+            return ObjectSet.objectSet(Cycle2.class);
+        }
+    }
+
+    public static class Cycle2 extends SlowProject
+    {
+        @Override
+        public ObjectSet<Class<? extends Project>> dependencies()
+        {
+            return ObjectSet.objectSet(Cycle1.class);
+        }
+    }
+
+    public abstract static class SlowProject extends Project
+    {
+        @Override
+        public void onInitialize()
+        {
+            started.put(getClass(), System.nanoTime());
+            try
+            {
+                Thread.sleep(200);
+            }
+            catch (InterruptedException ignored)
+            {
+            }
+            finished.put(getClass(), System.nanoTime());
+        }
+    }
+
+    @Test
+    public void testCycle()
+    {
+        StartUp.enable(StartUp.Option.QUIET);
+        String message = null;
+        try
+        {
+            new ProjectInitializer(this).initialize(List.of(Project.resolveProject(Cycle1.class)));
+        }
+        catch (Throwable e)
+        {
+            message = e.getMessage();
+        }
+
+        // The cycle is reported as the path around it
+        ensure(message != null && message.contains("Cycle1 -> Cycle2 -> Cycle1"), "Unexpected message: $", message);
+    }
+
+    @Test
+    public void testInitialize()
+    {
+        StartUp.enable(StartUp.Option.QUIET);
+        var initializer = new ProjectInitializer(this).threads(Count._4);
+        initializer.initialize(List.of(Project.resolveProject(C.class)));
+
+        // Independent projects are initialized at the same time,
+        ensure(started.get(A.class) < finished.get(B.class));
+        ensure(started.get(B.class) < finished.get(A.class));
+
+        // a project is initialized only after its dependencies,
+        ensure(started.get(C.class) >= finished.get(A.class));
+        ensure(started.get(C.class) >= finished.get(B.class));
+
+        // and the critical path goes through one dependency to the dependent project.
+        var path = initializer.criticalPath();
+        ensureEqual(path.size(), 2);
+        ensure(path.get(1) == Project.resolveProject(C.class));
+        ensure(!initializer.initializationTime(path.get(1)).isLessThan(Duration.milliseconds(150)));
+    }
+}
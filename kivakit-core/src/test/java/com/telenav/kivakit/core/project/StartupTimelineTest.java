@@ -0,0 +1,63 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.core.project;
+
+import com.telenav.kivakit.core.test.CoreUnitTest;
+import org.junit.Test;
+
+import static com.telenav.kivakit.core.project.StartupTimeline.startupTimeline;
+
+/**
+ * @author jonathanl (shibo)
+ */
+public class StartupTimelineTest extends CoreUnitTest
+{
+    @Test
+    public void testSpans()
+    {
+        var timeline = startupTimeline();
+        StartupTimeline.Span outer;
+        StartupTimeline.Span inner;
+        try (var span = timeline.span("outer test span"))
+        {
+            outer = span;
+            try (var nested = timeline.span("inner;test"))
+            {
+                inner = nested;
+                var array = new long[100_000];
+                ensure(array.length > 0);
+            }
+        }
+
+        // The inner span is nested under the outer one,
+        ensure(timeline.spans().contains(outer));
+        ensure(!timeline.spans().contains(inner));
+        ensureEqual(outer.children().size(), 1);
+        ensure(outer.children().get(0) == inner);
+
+        // the outer span lasts at least as long as the inner one,
+        ensure(!outer.duration().isLessThan(inner.duration()));
+        ensure(!inner.start().isLessThan(outer.start()));
+
+        // and it is reported in each format.
+        ensure(timeline.toString().contains("outer test span"));
+        ensure(timeline.asJson().contains("\"name\": \"inner;test\""));
+        ensure(timeline.asFoldedStacks().contains("outer_test_span;inner:test "));
+    }
+}
@@ -0,0 +1,118 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.core.registry;
+
+import com.telenav.kivakit.core.test.CoreUnitTest;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author jonathanl (shibo)
+ */
+public class RegistryTest extends CoreUnitTest
+{
+    interface Named
+    {
+    }
+
+    interface Service extends Named
+    {
+    }
+
+    static class BaseServer implements Service
+    {
+    }
+
+    static class Server extends BaseServer
+    {
+    }
+
+    @Test
+    public void testConcurrentLookup() throws InterruptedException
+    {
+        var registry = new Registry();
+        var server = registry.register(new Server());
+        var missing = new AtomicInteger();
+        var done = new AtomicBoolean();
+
+        // Look up the server on another thread,
+        var reader = new Thread(() ->
+        {
+            while (!done.get())
+            {
+                if (registry.lookup(Server.class) != server)
+                {
+                    missing.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+
+        // while other objects are registered and unregistered,
+        for (int i = 0; i < 1_000; i++)
+        {
+            var other = registry.register(new BaseServer(), "other");
+            registry.unregister(other, "other");
+        }
+        done.set(true);
+        reader.join();
+
+        // and the server is always found.
+        ensureEqual(missing.get(), 0);
+    }
+
+    @Test
+    public void testRegister()
+    {
+        var registry = new Registry();
+        var server = registry.register(new Server());
+
+        // The server is registered under its class, superclass and all of their interfaces,
+        ensure(registry.lookup(Server.class) == server);
+        ensure(registry.lookup(BaseServer.class) == server);
+        ensure(registry.lookup(Service.class) == server);
+        ensure(registry.lookup(Named.class) == server);
+        ensure(registry.lookup(Object.class) == null);
+
+        // but not under other instance identifiers.
+        ensure(registry.lookup(Server.class, "web") == null);
+    }
+
+    @Test
+    public void testUnregister()
+    {
+        var registry = new Registry();
+        var first = registry.register(new Server());
+        var second = registry.register(new BaseServer());
+
+        // Unregistering the first server removes it from the types the second server didn't replace,
+        registry.unregister(first);
+        ensure(registry.lookup(Server.class) == null);
+        ensure(registry.lookup(BaseServer.class) == second);
+        ensure(registry.lookup(Named.class) == second);
+
+        // and unregistering the second server removes it from all of its types.
+        registry.unregister(second);
+        ensure(registry.lookup(BaseServer.class) == null);
+        ensure(registry.lookup(Service.class) == null);
+        ensure(registry.lookup(Named.class) == null);
+    }
+}
@@ -22,6 +22,8 @@ import com.telenav.kivakit.core.collections.iteration.Iterables;
 import com.telenav.kivakit.core.collections.list.StringList;import com.telenav.kivakit.core.test.CoreUnitTest;
 import org.junit.Test;
 
+import java.util.Locale;
+
 @SuppressWarnings("SpellCheckingInspection")
 public class StringsTest extends CoreUnitTest
 {
@@ -43,6 +45,28 @@ public class StringsTest extends CoreUnitTest
         ensureEqual("AutoMobile", CaseFormat.capitalize("autoMobile"));
     }
 
+    @Test
+    public void testCommaSeparated()
+    {
+        var locale = Locale.getDefault(Locale.Category.FORMAT);
+        try
+        {
+            for (var testLocale : new Locale[] { Locale.US, Locale.GERMANY, Locale.FRANCE, new Locale("hi", "IN") })
+            {
+                Locale.setDefault(Locale.Category.FORMAT, testLocale);
+                for (var value : new long[] { 0, 7, -7, 999, 1_000, -1_000, 12_345, 123_456, 1_234_567, Long.MAX_VALUE, Long.MIN_VALUE })
+                {
+                    ensureEqual(String.format("%,d", value), StringTo.string(value));
+                }
+                ensureEqual(String.format("%,d", Integer.MIN_VALUE), StringTo.string(Integer.MIN_VALUE));
+            }
+        }
+        finally
+        {
+            Locale.setDefault(Locale.Category.FORMAT, locale);
+        }
+    }
+
     @Test
     public void testContainsIgnoreCase()
     {
@@ -18,10 +18,14 @@
 
 package com.telenav.kivakit.core.thread;
 import com.telenav.kivakit.core.test.CoreUnitTest;
+import com.telenav.kivakit.core.time.Duration;
 import com.telenav.kivakit.core.value.count.Count;
 import org.jetbrains.annotations.NotNull;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @SuppressWarnings("SpellCheckingInspection")
 public class BatcherTest extends CoreUnitTest
 {
@@ -82,6 +86,109 @@ public class BatcherTest extends CoreUnitTest
         ensureEqual(Count._1_000, batcher.total());
     }
 
+    @Test(timeout = 5_000)
+    public void testStopWithFullQueue()
+    {
+        var total = new AtomicInteger();
+        var batcher = Batcher.<Integer>create()
+                .withName("TestBatcher-" + number++)
+                .withBatchSize(Count._2)
+                .withQueueSize(Count._1)
+                .withConsumer(batch ->
+                {
+                    total.addAndGet(batch.size());
+                    Duration.milliseconds(250).sleep();
+                });
+
+        // While the worker is busy with the first batch, fill the queue with the second
+        // batch and leave a partial batch in the adder, then stop
+        batcher.start(Count._1);
+        var adder = batcher.adder();
+        for (var i = 0; i < 5; i++)
+        {
+            adder.add(i);
+        }
+        batcher.stop();
+        ensureEqual(5, total.get());
+    }
+
+    @Test(timeout = 5_000)
+    public void testMaximumLatency()
+    {
+        var total = new AtomicInteger();
+        var batcher = Batcher.<Integer>create()
+                .withName("TestBatcher-" + number++)
+                .withBatchSize(Count._1_000)
+                .withMaximumLatency(Duration.milliseconds(10))
+                .withConsumer(batch -> total.addAndGet(batch.size()));
+
+        // A partial batch is processed without waiting for more elements or for the batcher to stop
+        batcher.start(Count._1);
+        var adder = batcher.adder();
+        for (var i = 0; i < 5; i++)
+        {
+            adder.add(i);
+        }
+        while (total.get() < 5)
+        {
+            Duration.milliseconds(5).sleep();
+        }
+        ensure(batcher.statistics().timedFlushes().isGreaterThan(Count._0));
+        batcher.stop();
+        ensureEqual(5, total.get());
+    }
+
+    @Test
+    public void testStatistics()
+    {
+        var batcher = Batcher.<Integer>create()
+                .withName("TestBatcher-" + number++)
+                .withBatchSize(Count._100)
+                .withConsumer(batch -> {});
+
+        batcher.start(Count._2);
+        var adder = batcher.adder();
+        for (var i = 0; i < 250; i++)
+        {
+            adder.add(i);
+        }
+        batcher.stop();
+
+        var statistics = batcher.statistics();
+        ensureEqual(Count._3, statistics.batches());
+        ensureEqual(Count.count(250), statistics.elements());
+        ensureClose(83.3, statistics.fillRatio().asZeroToOne() * 100, 1);
+        ensureEqual(Count._0, statistics.queueDepth());
+    }
+
+    @Test
+    public void testWorkStealing()
+    {
+        var total = new AtomicInteger();
+        var batcher = Batcher.<Integer>create()
+                .withName("TestBatcher-" + number++)
+                .withMode(Batcher.Mode.WORK_STEALING)
+                .withBatchSize(Count._16)
+                .withQueueSize(Count._2)
+                .withConsumer(batch -> total.addAndGet(batch.stream().mapToInt(Integer::intValue).sum()));
+
+        batcher.start(Count._4);
+        var adders = new ArrayList<Batcher<Integer>.BatchAdder>();
+        for (var i = 0; i < 4; i++)
+        {
+            adders.add(batcher.adder());
+        }
+        var expected = 0;
+        for (var i = 0; i < 10_000; i++)
+        {
+            adders.get(i % 4).add(i);
+            expected += i;
+        }
+        batcher.stop();
+        ensureEqual(expected, total.get());
+        ensureEqual(Count.count(10_000), batcher.statistics().elements());
+    }
+
     @NotNull
     private BatcherTest.TestBatcher batcher()
     {
@@ -0,0 +1,119 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.network.core.test;
+
+import com.telenav.kivakit.core.messaging.messages.status.Problem;
+import com.telenav.kivakit.network.core.lexakai.DiagramPort;
+import com.telenav.lexakai.annotations.LexakaiJavadoc;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * A server on an ephemeral port of the loopback interface, for testing network clients without any external service.
+ * Each connection that is accepted is given to the handler passed to the constructor on a thread of its own. The server
+ * listens until it is closed:
+ *
+ * <pre>
+ * var server = new LocalServer(socket -&gt; respond(socket));
+ *
+ *     [...]
+ *
+ * var location = parseNetworkLocation(this, "http://localhost:" + server.port() + "/data");
+ *
+ *     [...]
+ *
+ * server.close();
+ * </pre>
+ *
+ * @author jonathanl (shibo)
+ */
+@UmlClassDiagram(diagram = DiagramPort.class)
+@LexakaiJavadoc(complete = true)
+public class LocalServer implements Closeable
+{
+    /** Runs the accept loop and each connection */
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    /** The server socket */
+    private final ServerSocket server;
+
+    /**
+     * Starts a server that gives each accepted connection to the given handler
+     *
+     * @param handler Handles a connection, and is responsible for closing its socket
+     */
+    public LocalServer(Consumer<Socket> handler)
+    {
+        try
+        {
+            server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        }
+        catch (IOException e)
+        {
+            throw new Problem(e, "Unable to start local server").asException();
+        }
+
+        executor.execute(() ->
+        {
+            while (!server.isClosed())
+            {
+                try
+                {
+                    var socket = server.accept();
+                    executor.execute(() -> handler.accept(socket));
+                }
+                catch (IOException ignored)
+                {
+                }
+            }
+        });
+    }
+
+    /**
+     * Stops accepting connections and interrupts the handlers of any open connections
+     */
+    @Override
+    public void close()
+    {
+        try
+        {
+            server.close();
+        }
+        catch (IOException ignored)
+        {
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return The port this server is listening on
+     */
+    public int port()
+    {
+        return server.getLocalPort();
+    }
+}
@@ -10,4 +10,5 @@ open module kivakit.network.core
     exports com.telenav.kivakit.network.core.lexakai;
     exports com.telenav.kivakit.network.core.authentication;
     exports com.telenav.kivakit.network.core.authentication.passwords;
+    exports com.telenav.kivakit.network.core.test;
 }
@@ -156,6 +156,15 @@ public class Email implements Validatable
         tries++;
     }
 
+    /**
+     * Records a failed attempt to send this email
+     */
+    void attempted()
+    {
+        lastRetry = Time.now();
+        tries++;
+    }
+
     void composeMessage(MimeMessage message) throws Exception
     {
 
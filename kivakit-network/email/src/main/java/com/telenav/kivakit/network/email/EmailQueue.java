@@ -29,7 +29,8 @@ import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 /**
- * A simple email queue implemented with {@link ArrayBlockingQueue}, with no persistent backing.
+ * A simple email queue implemented with {@link ArrayBlockingQueue}, with no persistent backing. Once the queue is
+ * closed, new emails are refused, but emails being retried can still be added with {@link #retry(Email, Duration)}.
  *
  * @author jonathanl (shibo)
  */
@@ -62,17 +63,20 @@ class EmailQueue implements Closeable
 
     public boolean offer(Email email, Duration maximumWait)
     {
-        if (!closed)
-        {
-            try
-            {
-                return queue.offer(email, maximumWait.milliseconds(), TimeUnit.MILLISECONDS);
-            }
-            catch (InterruptedException ignored)
-            {
-            }
-        }
-        return false;
+        return !closed && add(email, maximumWait);
+    }
+
+    /**
+     * Adds an email that is being retried, even if the queue is closed
+     */
+    public boolean retry(Email email, Duration maximumWait)
+    {
+        return add(email, maximumWait);
+    }
+
+    public int size()
+    {
+        return queue.size();
     }
 
     public void sent(Email email)
@@ -91,4 +95,16 @@ class EmailQueue implements Closeable
             return null;
         }
     }
+
+    private boolean add(Email email, Duration maximumWait)
+    {
+        try
+        {
+            return queue.offer(email, maximumWait.milliseconds(), TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException ignored)
+        {
+            return false;
+        }
+    }
 }
@@ -18,14 +18,11 @@
 
 package com.telenav.kivakit.network.email;
 
-import com.telenav.kivakit.core.language.Classes;
 import com.telenav.kivakit.core.messaging.repeaters.BaseRepeater;
-import com.telenav.kivakit.core.thread.RepeatingThread;
-import com.telenav.kivakit.core.thread.latches.CompletionLatch;
+import com.telenav.kivakit.core.thread.Threads;
 import com.telenav.kivakit.core.time.Duration;
-import com.telenav.kivakit.core.time.Frequency;
 import com.telenav.kivakit.core.time.Rate;
-import com.telenav.kivakit.core.time.RateCalculator;
+import com.telenav.kivakit.core.value.count.Count;
 import com.telenav.kivakit.core.value.count.Maximum;
 import com.telenav.kivakit.interfaces.io.Closeable;
 import com.telenav.kivakit.interfaces.io.Flushable;
@@ -41,9 +38,17 @@ import com.telenav.lexakai.annotations.associations.UmlRelation;
 
 import javax.mail.Authenticator;
 import javax.mail.Message;
+import javax.mail.MessagingException;
 import javax.mail.Session;
+import javax.mail.Transport;
 import javax.mail.internet.MimeMessage;
 import java.util.Properties;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * An email sender. Emails can be added with {@link #enqueue(Email)} and they will be sent as soon as possible. Emails
@@ -55,6 +60,28 @@ import java.util.Properties;
  * SMTP is currently the only protocol supported. In the future, IMAP may be added when the need arises.
  * </p>
  *
+ * <p><b>Sending</b></p>
+ *
+ * <p>
+ * Emails are sent by {@link #workers(Count)} worker threads, each of which keeps its {@link Transport} connected
+ * between emails, so a connection to the server is not opened for each email. The rate at which emails are sent is
+ * limited to {@link Configuration#maximumSendRate()} by a token bucket, which workers wait on before sending.
+ * </p>
+ *
+ * <p><b>Retries</b></p>
+ *
+ * <p>
+ * An email that can't be sent is held in a delay queue for the {@link #retryPeriod(Duration)}, and then returned to the
+ * queue for another attempt, so a failing email doesn't hold up the emails behind it. An email is given up on after
+ * {@link #maximumRetries(Maximum)} attempts.
+ * </p>
+ *
+ * <p><b>Statistics</b></p>
+ *
+ * <ul>
+ *     <li>{@link #statistics()} - Queue depth, emails sent, retried and failed, and send latency</li>
+ * </ul>
+ *
  * @author jonathanl (shibo)
  * @see SmtpEmailSender
  */
@@ -80,65 +107,192 @@ public abstract class EmailSender extends BaseRepeater implements Startable, Sto
             return maximumSendRate;
         }
 
+        /**
+         * @param maximumSendRate The largest rate at which emails are sent, which must be positive, or null for no
+         * limit
+         */
         public void maximumSendRate(Rate maximumSendRate)
         {
             this.maximumSendRate = maximumSendRate;
         }
     }
 
-    private volatile boolean closed;
-
-    private final Configuration configuration;
+    /**
+     * An email waiting in the delay queue to be retried
+     */
+    private static class Retry implements Delayed
+    {
+        final Email email;
 
-    private Maximum maximumRetries = Maximum.maximum(16);
+        final long at;
 
-    @UmlAggregation
-    private final EmailQueue queue = new EmailQueue();
-
-    private final CompletionLatch queueEmpty = new CompletionLatch();
+        Retry(Email email, Duration delay)
+        {
+            this.email = email;
+            at = System.nanoTime() + (long) (delay.asMilliseconds() * 1_000_000);
+        }
 
-    private final RateCalculator rate = new RateCalculator(Duration.ONE_MINUTE);
+        @Override
+        public int compareTo(Delayed that)
+        {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), that.getDelay(TimeUnit.NANOSECONDS));
+        }
 
-    private Duration retryPeriod = Duration.seconds(30);
+        @Override
+        public long getDelay(TimeUnit unit)
+        {
+            return unit.convert(at - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+    }
 
-    private volatile boolean running;
+    /**
+     * A worker that sends emails from the queue over its own connection to the server
+     */
+    private class Worker implements Runnable
+    {
+        private Session session;
 
-    private boolean sendingOn = true;
+        private Transport transport;
 
-    private final RepeatingThread thread = new RepeatingThread(this, Classes.simpleName(EmailSender.class), Frequency.CONTINUOUSLY)
-    {
         @Override
-        protected void onRun()
+        public void run()
         {
-            var email = queue().take();
-            if (email != null)
+            try
             {
-                email.waitForRetry(retryPeriod);
-                if (!send(email))
+                Email email;
+                while ((email = queue().take()) != null)
                 {
-                    if (email.tries().isLessThan(maximumRetries))
+                    if (send(email))
                     {
-                        if (!queue().offer(email, Duration.seconds(5)))
-                        {
-                            warning("Unable to re-queue email");
-                        }
+                        sent(email);
+                    }
+                    else
+                    {
+                        failed(email);
                     }
                 }
-                else
-                {
-                    queue().sent(email);
-                }
             }
-            if (queue().isEmpty())
+            finally
+            {
+                disconnect();
+            }
+        }
+
+        private void disconnect()
+        {
+            if (transport != null)
             {
-                queueEmpty.completed();
+                try
+                {
+                    transport.close();
+                }
+                catch (MessagingException ignored)
+                {
+                }
+                transport = null;
             }
         }
 
+        private boolean send(Email email)
         {
-            addListener(this);
+            try
+            {
+                // Wait until sending is within the maximum rate,
+                if (limiter != null)
+                {
+                    rateLimitedNanoseconds.add(limiter.take());
+                }
+
+                trace("Sending email $", email);
+                if (sendingOn)
+                {
+                    // connect to the server if this worker isn't already connected,
+                    if (session == null)
+                    {
+                        session = Session.getInstance(getMailSessionProperties(), authenticator());
+                        session.setDebug(debug().isDebugOn());
+                    }
+                    if (transport == null || !transport.isConnected())
+                    {
+                        disconnect();
+                        transport = session.getTransport();
+                        transport.connect();
+                    }
+
+                    // and send the message.
+                    var message = new MimeMessage(session);
+                    email.composeMessage(message);
+                    var start = System.nanoTime();
+                    transport.sendMessage(message, message.getRecipients(Message.RecipientType.TO));
+                    latency(System.nanoTime() - start);
+                }
+                return true;
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            catch (Exception e)
+            {
+                // The connection may be unusable after a failure, so the next email will open a new one.
+                disconnect();
+                problem(e, "Cannot send email");
+                return false;
+            }
         }
-    };
+    }
+
+    private volatile boolean closed;
+
+    private final Configuration configuration;
+
+    /** The number of emails given up on */
+    private final LongAdder failed = new LongAdder();
+
+    /** Limits the rate at which emails are sent, or null if there is no limit */
+    private TokenBucket limiter;
+
+    private Maximum maximumRetries = Maximum.maximum(16);
+
+    /** The longest time taken to send an email */
+    private final AtomicLong maximumSendNanoseconds = new AtomicLong();
+
+    /** The number of emails that have been enqueued but are not yet sent or given up on */
+    private final AtomicLong pending = new AtomicLong();
+
+    @UmlAggregation
+    private final EmailQueue queue = new EmailQueue();
+
+    /** The total time workers waited to stay within the maximum send rate */
+    private final LongAdder rateLimitedNanoseconds = new LongAdder();
+
+    /** The number of failed attempts that were scheduled to be retried */
+    private final LongAdder retried = new LongAdder();
+
+    /** Thread that moves emails from the retry queue back to the email queue when they are due */
+    private ExecutorService retrier;
+
+    /** Emails waiting to be retried */
+    private final DelayQueue<Retry> retries = new DelayQueue<>();
+
+    private Duration retryPeriod = Duration.seconds(30);
+
+    private volatile boolean running;
+
+    /** The total time taken to send emails */
+    private final LongAdder sendNanoseconds = new LongAdder();
+
+    /** The number of emails sent */
+    private final LongAdder sent = new LongAdder();
+
+    private boolean sendingOn = true;
+
+    /** The threads sending emails */
+    private ExecutorService workers;
+
+    /** The number of worker threads */
+    private Count workerCount = Count._4;
 
     protected EmailSender(Configuration configuration)
     {
@@ -164,8 +318,10 @@ public abstract class EmailSender extends BaseRepeater implements Startable, Sto
     {
         if (!closed)
         {
+            pending.incrementAndGet();
             if (!queue().offer(email, Duration.seconds(5)))
             {
+                finished();
                 if (!queue().isClosed())
                 {
                     warning("Unable to add email to queue");
@@ -178,11 +334,36 @@ public abstract class EmailSender extends BaseRepeater implements Startable, Sto
         }
     }
 
+    /**
+     * Waits until every enqueued email has been sent or given up on, or until the given time has elapsed
+     */
     @Override
     public void flush(LengthOfTime maximumWaitTime)
     {
         trace("Flushing queue within ${debug}", maximumWaitTime);
-        queueEmpty.waitForCompletion();
+        var deadline = System.currentTimeMillis() + Math.min(maximumWaitTime.milliseconds(),
+                Long.MAX_VALUE - System.currentTimeMillis());
+        synchronized (pending)
+        {
+            while (pending.get() > 0)
+            {
+                var remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0)
+                {
+                    warning("Flush timed out with $ emails unsent", pending.get());
+                    return;
+                }
+                try
+                {
+                    pending.wait(remaining);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
         trace("Flushed");
     }
 
@@ -217,18 +398,36 @@ public abstract class EmailSender extends BaseRepeater implements Startable, Sto
 
     @Override
     @SuppressWarnings("UnusedReturnValue")
-    public boolean start()
+    public synchronized boolean start()
     {
         if (!isRunning())
         {
+            var maximumSendRate = configuration.maximumSendRate();
+            limiter = maximumSendRate == null ? null : new TokenBucket(maximumSendRate);
             running = true;
-            return thread.start();
+
+            workers = Threads.threadPool("EmailSender", workerCount);
+            for (var i = 0; i < workerCount.asInt(); i++)
+            {
+                workers.execute(new Worker());
+            }
+            retrier = Threads.threadPool("EmailRetrier", Count._1);
+            retrier.execute(this::retryDueEmails);
         }
         return true;
     }
 
+    /**
+     * @return A snapshot of the statistics of this sender
+     */
+    public EmailSenderStatistics statistics()
+    {
+        return new EmailSenderStatistics(queue().size(), retries.size(), sent.sum(), retried.sum(), failed.sum(),
+                sendNanoseconds.sum(), maximumSendNanoseconds.get(), rateLimitedNanoseconds.sum());
+    }
+
     @Override
-    public void stop(LengthOfTime maximumWaitTime)
+    public synchronized void stop(LengthOfTime maximumWaitTime)
     {
         // Don't accept any more entries
         close();
@@ -239,49 +438,97 @@ public abstract class EmailSender extends BaseRepeater implements Startable, Sto
         // Flush any remaining e-mails
         flush(maximumWaitTime);
 
-        // Stop this thread
-        thread.stop(maximumWaitTime);
+        // Stop the worker and retry threads
+        if (isRunning())
+        {
+            workers.shutdownNow();
+            retrier.shutdownNow();
+            running = false;
+        }
+    }
+
+    /**
+     * @param workers The number of threads sending emails concurrently. This must be set before the sender is
+     * started.
+     */
+    public EmailSender workers(Count workers)
+    {
+        workerCount = workers;
+        return this;
     }
 
     protected abstract Properties getMailSessionProperties();
 
-    private EmailQueue queue()
+    /**
+     * Schedules a failed email to be retried, or gives up on it if it has reached the maximum number of retries
+     */
+    private void failed(Email email)
     {
-        return queue;
+        email.attempted();
+        if (email.tries().isLessThan(maximumRetries) && !Thread.currentThread().isInterrupted())
+        {
+            retried.increment();
+            retries.add(new Retry(email, retryPeriod));
+        }
+        else
+        {
+            failed.increment();
+            problem("Giving up on email $ after $ tries", email, email.tries());
+            finished();
+        }
     }
 
-    private boolean send(Email email)
+    /**
+     * Called when an email is sent or given up on
+     */
+    private void finished()
     {
-        rate.increment();
-        if (rate.rate().isFasterThan(configuration.maximumSendRate()))
+        if (pending.decrementAndGet() == 0)
         {
-            warning("Emails are being sent at a rate greater than ${debug}. Discarding email ${debug}",
-                    configuration.maximumSendRate(), email);
-            return true;
+            synchronized (pending)
+            {
+                pending.notifyAll();
+            }
         }
-        else
+    }
+
+    private void latency(long nanoseconds)
+    {
+        sendNanoseconds.add(nanoseconds);
+        maximumSendNanoseconds.accumulateAndGet(nanoseconds, Math::max);
+    }
+
+    private EmailQueue queue()
+    {
+        return queue;
+    }
+
+    /**
+     * Moves emails from the retry queue back to the email queue when they are due to be retried
+     */
+    private void retryDueEmails()
+    {
+        try
         {
-            try
+            while (true)
             {
-                trace("Sending email $", email);
-                if (sendingOn)
+                var retry = retries.take();
+                if (!queue().retry(retry.email, Duration.seconds(5)))
                 {
-                    var session = Session.getDefaultInstance(getMailSessionProperties(), authenticator());
-                    session.setDebug(debug().isDebugOn());
-                    var transport = session.getTransport();
-                    var message = new MimeMessage(session);
-                    email.composeMessage(message);
-                    transport.connect();
-                    transport.sendMessage(message, message.getRecipients(Message.RecipientType.TO));
-                    transport.close();
+                    warning("Unable to re-queue email");
+                    retries.add(new Retry(retry.email, retryPeriod));
                 }
-                return true;
-            }
-            catch (Exception e)
-            {
-                problem(e, "Cannot send email");
-                return false;
             }
         }
+        catch (InterruptedException ignored)
+        {
+        }
+    }
+
+    private void sent(Email email)
+    {
+        queue().sent(email);
+        sent.increment();
+        finished();
     }
 }
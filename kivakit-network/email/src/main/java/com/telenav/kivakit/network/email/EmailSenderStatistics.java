@@ -0,0 +1,130 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.network.email;
+
+import com.telenav.kivakit.core.time.Duration;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.network.email.lexakai.DiagramEmail;
+import com.telenav.lexakai.annotations.LexakaiJavadoc;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import static com.telenav.kivakit.core.string.Formatter.format;
+
+/**
+ * A snapshot of the statistics of an {@link EmailSender}:
+ *
+ * <ul>
+ *     <li>{@link #queued()} - The number of emails waiting for a worker</li>
+ *     <li>{@link #retrying()} - The number of failed emails waiting for their next attempt</li>
+ *     <li>{@link #sent()} - The number of emails sent</li>
+ *     <li>{@link #retries()} - The number of failed attempts that were scheduled to be retried</li>
+ *     <li>{@link #failed()} - The number of emails that were given up on after the maximum number of retries</li>
+ *     <li>{@link #averageSendLatency()} - The average time it took to send an email to the server</li>
+ *     <li>{@link #maximumSendLatency()} - The longest time it took to send an email to the server</li>
+ *     <li>{@link #rateLimited()} - The total time workers waited to stay within the maximum send rate</li>
+ * </ul>
+ *
+ * @author jonathanl (shibo)
+ */
+@UmlClassDiagram(diagram = DiagramEmail.class)
+@LexakaiJavadoc(complete = true)
+public class EmailSenderStatistics
+{
+    private final int queued;
+
+    private final int retrying;
+
+    private final long sent;
+
+    private final long retries;
+
+    private final long failed;
+
+    private final long sendNanoseconds;
+
+    private final long maximumSendNanoseconds;
+
+    private final long rateLimitedNanoseconds;
+
+    EmailSenderStatistics(int queued,
+                          int retrying,
+                          long sent,
+                          long retries,
+                          long failed,
+                          long sendNanoseconds,
+                          long maximumSendNanoseconds,
+                          long rateLimitedNanoseconds)
+    {
+        this.queued = queued;
+        this.retrying = retrying;
+        this.sent = sent;
+        this.retries = retries;
+        this.failed = failed;
+        this.sendNanoseconds = sendNanoseconds;
+        this.maximumSendNanoseconds = maximumSendNanoseconds;
+        this.rateLimitedNanoseconds = rateLimitedNanoseconds;
+    }
+
+    public Duration averageSendLatency()
+    {
+        return Duration.nanoseconds(sent == 0 ? 0 : sendNanoseconds / sent);
+    }
+
+    public Count failed()
+    {
+        return Count.count(failed);
+    }
+
+    public Duration maximumSendLatency()
+    {
+        return Duration.nanoseconds(maximumSendNanoseconds);
+    }
+
+    public Count queued()
+    {
+        return Count.count(queued);
+    }
+
+    public Duration rateLimited()
+    {
+        return Duration.nanoseconds(rateLimitedNanoseconds);
+    }
+
+    public Count retries()
+    {
+        return Count.count(retries);
+    }
+
+    public Count retrying()
+    {
+        return Count.count(retrying);
+    }
+
+    public Count sent()
+    {
+        return Count.count(sent);
+    }
+
+    @Override
+    public String toString()
+    {
+        return format("queued = $, retrying = $, sent = $, retries = $, failed = $, average send latency = $, maximum send latency = $, rate limited = $",
+                queued, retrying, sent, retries, failed, averageSendLatency(), maximumSendLatency(), rateLimited());
+    }
+}
@@ -0,0 +1,99 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.network.email;
+
+import com.telenav.kivakit.core.time.Rate;
+import com.telenav.kivakit.network.email.lexakai.DiagramEmail;
+import com.telenav.lexakai.annotations.LexakaiJavadoc;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+
+/**
+ * A token bucket that limits the rate at which emails are sent. The bucket holds up to one second's worth of tokens
+ * (and at least one), and is refilled continuously at the given rate. {@link #take()} takes a token, waiting until one
+ * is available, so bursts up to the capacity of the bucket are sent immediately and longer runs are spread out at the
+ * given rate.
+ *
+ * @author jonathanl (shibo)
+ */
+@UmlClassDiagram(diagram = DiagramEmail.class)
+@LexakaiJavadoc(complete = true)
+class TokenBucket
+{
+    /** The maximum number of tokens */
+    private final double capacity;
+
+    /** The last time tokens were added */
+    private long refilledAt = System.nanoTime();
+
+    /** The number of tokens available */
+    private double tokens;
+
+    /** The number of tokens added each nanosecond */
+    private final double tokensPerNanosecond;
+
+    /**
+     * @param rate The rate at which tokens are added, which must be positive
+     */
+    TokenBucket(Rate rate)
+    {
+        var perSecond = rate.perSecond().count();
+        ensure(perSecond > 0, "Maximum send rate must be positive, not $", rate);
+
+        capacity = Math.max(1.0, perSecond);
+        tokens = capacity;
+        tokensPerNanosecond = perSecond / 1E9;
+    }
+
+    /**
+     * Takes a token, waiting until one is available
+     *
+     * @return The number of nanoseconds spent waiting
+     */
+    long take() throws InterruptedException
+    {
+        var waited = 0L;
+        while (true)
+        {
+            long wait;
+            synchronized (this)
+            {
+                // Add the tokens that have accrued since the last refill,
+                var now = System.nanoTime();
+                tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNanosecond);
+                refilledAt = now;
+
+                // and take one if there is one,
+                if (tokens >= 1.0)
+                {
+                    tokens -= 1.0;
+                    return waited;
+                }
+
+                // or wait until there will be one.
+                wait = Math.max(1, (long) Math.ceil((1.0 - tokens) / tokensPerNanosecond));
+            }
+            TimeUnit.NANOSECONDS.sleep(wait);
+            waited += wait;
+        }
+    }
+}
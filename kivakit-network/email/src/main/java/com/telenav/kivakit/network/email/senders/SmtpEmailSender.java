@@ -19,6 +19,7 @@
 package com.telenav.kivakit.network.email.senders;
 
 import com.telenav.kivakit.conversion.core.language.object.KivaKitConverted;
+import com.telenav.kivakit.conversion.core.language.primitive.IntegerConverter;
 import com.telenav.kivakit.network.core.Host;
 import com.telenav.kivakit.network.core.authentication.Password;
 import com.telenav.kivakit.network.core.authentication.UserName;
@@ -53,6 +54,8 @@ public class SmtpEmailSender extends EmailSender
 
         private Password password;
 
+        private int port;
+
         public Host host()
         {
             return host;
@@ -77,6 +80,21 @@ public class SmtpEmailSender extends EmailSender
             return this;
         }
 
+        /**
+         * @return The SMTP port, or zero to use the default port
+         */
+        public int port()
+        {
+            return port;
+        }
+
+        @KivaKitConverted(IntegerConverter.class)
+        public Configuration port(int port)
+        {
+            this.port = port;
+            return this;
+        }
+
         public UserName username()
         {
             return username;
@@ -104,6 +122,10 @@ public class SmtpEmailSender extends EmailSender
         var properties = new Properties();
         properties.setProperty("mail.transport.protocol", "smtp");
         properties.setProperty("mail.host", configuration.host().name());
+        if (configuration.port() > 0)
+        {
+            properties.setProperty("mail.smtp.port", Integer.toString(configuration.port()));
+        }
         var username = configuration.username();
         if (username != null)
         {
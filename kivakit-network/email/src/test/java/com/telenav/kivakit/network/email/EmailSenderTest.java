@@ -0,0 +1,224 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.network.email;
+
+import com.telenav.kivakit.core.time.Duration;
+import com.telenav.kivakit.core.time.Rate;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.network.core.EmailAddress;
+import com.telenav.kivakit.network.core.Host;
+import com.telenav.kivakit.network.core.test.LocalServer;
+import com.telenav.kivakit.network.email.senders.SmtpEmailSender;
+import com.telenav.kivakit.test.UnitTest;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests {@link EmailSender} against a minimal SMTP server
+ */
+public class EmailSenderTest extends UnitTest
+{
+    private static final AtomicInteger connections = new AtomicInteger();
+
+    private static final List<String> delivered = new CopyOnWriteArrayList<>();
+
+    /** The number of times the server will reject an email with the subject "retry" */
+    private static final AtomicInteger rejections = new AtomicInteger();
+
+    private static LocalServer server;
+
+    @BeforeClass
+    public static void start()
+    {
+        server = new LocalServer(socket ->
+        {
+            connections.incrementAndGet();
+            converse(socket);
+        });
+    }
+
+    @AfterClass
+    public static void stop()
+    {
+        server.close();
+    }
+
+    @Before
+    public void reset()
+    {
+        connections.set(0);
+        delivered.clear();
+        rejections.set(0);
+    }
+
+    @Test
+    public void testConcurrentSendingReusesConnections()
+    {
+        var sender = sender(null).workers(Count._2);
+        sender.start();
+        for (var i = 0; i < 20; i++)
+        {
+            sender.enqueue(email("email " + i));
+        }
+        sender.stop(Duration.seconds(30));
+
+        ensureEqual(delivered.size(), 20);
+        ensure(connections.get() <= 2);
+        ensureEqual(sender.statistics().sent(), Count.count(20));
+        ensureEqual(sender.statistics().queued(), Count._0);
+    }
+
+    @Test
+    public void testRateLimit()
+    {
+        var sender = sender(Rate.perSecond(10)).workers(Count._2);
+        sender.start();
+        var start = System.currentTimeMillis();
+        for (var i = 0; i < 15; i++)
+        {
+            sender.enqueue(email("email " + i));
+        }
+        sender.flush(Duration.seconds(30));
+        var elapsed = System.currentTimeMillis() - start;
+        sender.stop(Duration.seconds(30));
+
+        // Ten emails fill the bucket, and the remaining five are sent at ten per second
+        ensureEqual(delivered.size(), 15);
+        ensure(elapsed >= 400, "Sent 15 emails in " + elapsed + " milliseconds");
+        ensure(sender.statistics().rateLimited().isGreaterThan(Duration.NONE));
+    }
+
+    @Test
+    public void testRateMustBePositive()
+    {
+        var sender = sender(Rate.perSecond(0));
+        ensureThrows(sender::start);
+        ensure(!sender.isRunning());
+    }
+
+    @Test
+    public void testRetryDoesNotBlockQueue()
+    {
+        rejections.set(2);
+        var sender = sender(null).workers(Count._1);
+        sender.retryPeriod(Duration.milliseconds(250));
+        sender.start();
+        sender.enqueue(email("retry"));
+        for (var i = 0; i < 5; i++)
+        {
+            sender.enqueue(email("email " + i));
+        }
+        sender.stop(Duration.seconds(30));
+
+        // The rejected email is sent after the emails behind it
+        ensureEqual(delivered.size(), 6);
+        ensureEqual(delivered.get(5), "retry");
+        ensureEqual(sender.statistics().retries(), Count._2);
+        ensureEqual(sender.statistics().failed(), Count._0);
+    }
+
+    /**
+     * Holds a minimal SMTP conversation, accepting each message unless it is to be rejected
+     */
+    private static void converse(Socket socket)
+    {
+        try (socket;
+             var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             var out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII))
+        {
+            reply(out, "220 localhost");
+            String line;
+            while ((line = in.readLine()) != null)
+            {
+                var command = line.length() < 4 ? line.toUpperCase() : line.substring(0, 4).toUpperCase();
+                switch (command)
+                {
+                    case "DATA":
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        String subject = null;
+                        while (!(line = in.readLine()).equals("."))
+                        {
+                            if (line.startsWith("Subject: "))
+                            {
+                                subject = line.substring("Subject: ".length());
+                            }
+                        }
+                        if ("retry".equals(subject) && rejections.getAndDecrement() > 0)
+                        {
+                            reply(out, "451 Try again later");
+                        }
+                        else
+                        {
+                            delivered.add(subject);
+                            reply(out, "250 OK");
+                        }
+                        break;
+
+                    case "QUIT":
+                        reply(out, "221 Bye");
+                        return;
+
+                    default:
+                        reply(out, "250 OK");
+                        break;
+                }
+            }
+        }
+        catch (IOException ignored)
+        {
+        }
+    }
+
+    private static void reply(PrintWriter out, String line)
+    {
+        out.print(line + "\r\n");
+        out.flush();
+    }
+
+    private Email email(String subject)
+    {
+        var address = EmailAddress.parseEmail(this, "test@example.com");
+        return new Email()
+                .from(address)
+                .subject(subject)
+                .addTo(address)
+                .body(new EmailBody("this is a test"));
+    }
+
+    private EmailSender sender(Rate maximumSendRate)
+    {
+        var configuration = new SmtpEmailSender.Configuration()
+                .host(Host.loopback())
+                .port(server.port());
+        configuration.maximumSendRate(maximumSendRate);
+        return listenTo(new SmtpEmailSender(configuration));
+    }
+}
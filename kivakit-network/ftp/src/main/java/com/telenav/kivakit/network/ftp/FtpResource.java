@@ -21,8 +21,12 @@ package com.telenav.kivakit.network.ftp;
 import com.telenav.kivakit.core.collections.list.ObjectList;
 import com.telenav.kivakit.core.io.IO;
 import com.telenav.kivakit.core.progress.ProgressReporter;
+import com.telenav.kivakit.core.thread.Threads;
 import com.telenav.kivakit.core.value.count.Bytes;
 import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.filesystem.File;
+import com.telenav.kivakit.filesystem.FileList;
+import com.telenav.kivakit.filesystem.Folder;
 import com.telenav.kivakit.network.core.BaseNetworkResource;
 import com.telenav.kivakit.network.core.NetworkAccessConstraints;
 import com.telenav.kivakit.network.core.NetworkLocation;
@@ -44,10 +48,19 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
- * Simple FTP downloader. Note that this is made to download a single FTP file and then close the connection. At this
- * point full support of navigating around the FTP file system and examining files is not supported.
+ * Simple FTP downloader. Files can be listed with {@link #listFiles(NetworkPath)} or {@link #files()} and downloaded
+ * one at a time, or all at once in parallel with {@link #copyFilesTo(Folder, Count)}. At this point full support of
+ * navigating around the FTP file system and examining files is not supported.
+ *
+ * <p>
+ * FTP connections are leased from the {@link #sessionPool()} shared by all FTP resources, and returned to it when an
+ * operation completes or a stream is closed, so downloading many files from one server doesn't require a connection
+ * and login for each file.
+ * </p>
  *
  * @author ericg
  */
@@ -56,12 +69,13 @@ import java.util.List;
 public class FtpResource extends BaseNetworkResource
 {
     /**
-     * Simple input stream wrapper that will close the FTP connection when reading of the stream is complete.
+     * Simple input stream wrapper that will return the FTP connection to the pool when reading of the stream is
+     * complete.
      *
      * @author ericg
      */
     @LexakaiJavadoc(complete = true)
-    private static class FtpInput extends InputStream
+    private class FtpInput extends InputStream
     {
         private final FTPClient client;
 
@@ -78,14 +92,25 @@ public class FtpResource extends BaseNetworkResource
         {
             super.close();
 
-            // Close the wrapped input stream.
+            // Close the wrapped input stream,
             IO.close(in);
 
-            // Logout of the FTP site.
-            if (client.isConnected())
+            // finish the transfer, and return the connection to the pool.
+            try
             {
-                client.logout();
-                client.disconnect();
+                if (client.completePendingCommand())
+                {
+                    disconnect();
+                }
+                else
+                {
+                    discard();
+                }
+            }
+            catch (IOException e)
+            {
+                discard();
+                throw e;
             }
         }
 
@@ -96,11 +121,92 @@ public class FtpResource extends BaseNetworkResource
         }
     }
 
+    /** FTP connections shared by all FTP resources */
+    private static final SessionPool<FTPClient> pool = new SessionPool<>(new SessionPool.SessionFactory<>()
+    {
+        @Override
+        public void close(FTPClient client)
+        {
+            try
+            {
+                if (client.isConnected())
+                {
+                    client.logout();
+                    client.disconnect();
+                }
+            }
+            catch (IOException ignored)
+            {
+            }
+        }
+
+        @Override
+        public boolean isHealthy(FTPClient client)
+        {
+            try
+            {
+                return client.isConnected() && client.sendNoOp();
+            }
+            catch (IOException e)
+            {
+                return false;
+            }
+        }
+
+        @Override
+        public FTPClient open(NetworkLocation location) throws IOException
+        {
+            var client = new FTPClient();
+            var constraints = location.constraints();
+            if (constraints != null && constraints.timeout() != null)
+            {
+                var timeoutInMilliseconds = (int) constraints.timeout().asMilliseconds();
+                client.setConnectTimeout(timeoutInMilliseconds);
+                client.setDefaultTimeout(timeoutInMilliseconds);
+            }
+
+            // Connect to the server,
+            client.connect(location.host().address());
+            if (!FTPReply.isPositiveCompletion(client.getReplyCode()))
+            {
+                client.disconnect();
+                throw new IOException("Unable to connect: " + client.getReplyString());
+            }
+            if (constraints != null && constraints.timeout() != null)
+            {
+                client.setSoTimeout((int) constraints.timeout().asMilliseconds());
+            }
+
+            // and login.
+            if (constraints != null && constraints.userName() != null && constraints.password() != null)
+            {
+                if (!client.login(constraints.userName().toString(), constraints.password().toString()))
+                {
+                    client.disconnect();
+                    throw new IOException("Unable to login: " + client.getReplyString());
+                }
+            }
+            return client;
+        }
+    });
+
+    /**
+     * @return The pool of FTP connections shared by all FTP resources
+     */
+    public static SessionPool<?> sessionPool()
+    {
+        return pool;
+    }
+
     private final NetworkAccessConstraints constraints;
 
     private final NetworkLocation networkLocation;
 
-    private final FTPClient client = new FTPClient();
+    /** The leased connection, while connected */
+    private SessionPool<FTPClient>.Lease lease;
+
+    /** The leased FTP client, while connected */
+    private FTPClient client;
 
     public FtpResource(NetworkLocation location, NetworkAccessConstraints constraints)
     {
@@ -124,10 +230,9 @@ public class FtpResource extends BaseNetworkResource
     @Override
     public void copyTo(WritableResource destination, CopyMode mode, ProgressReporter reporter)
     {
-        try
+        try (var in = new BufferedInputStream(openBinaryFileForReading());
+             var out = new BufferedOutputStream(destination.openForWriting()))
         {
-            var in = new BufferedInputStream(openBinaryFileForReading());
-            var out = new BufferedOutputStream(destination.openForWriting());
             var buffer = new byte[1024];
             int readCount;
             reporter.start("Copying " + resource());
@@ -137,9 +242,6 @@ public class FtpResource extends BaseNetworkResource
                 reporter.next(Count.count(readCount));
             }
             reporter.end("Copied");
-            out.flush();
-            out.close();
-            in.close();
         }
         catch (IOException e)
         {
@@ -148,21 +250,53 @@ public class FtpResource extends BaseNetworkResource
     }
 
     /**
-     * Disconnect the underlying FTP connection
+     * Downloads the files in this folder to the given folder, using up to the given number of threads. Each thread
+     * leases a connection from the {@link #sessionPool()}, so no more threads than the maximum number of sessions per
+     * host download at once.
+     *
+     * @return The files that were downloaded
      */
-    public void disconnect()
+    public FileList copyFilesTo(Folder destination, Count threads)
     {
-        try
+        destination.ensureExists();
+        var executor = Threads.threadPool("FtpDownloader", threads);
+        var downloads = new ArrayList<Future<File>>();
+        for (var resource : files())
         {
-            if (isConnected())
+            downloads.add(executor.submit(() ->
             {
-                client.logout();
-                client.disconnect();
+                var file = destination.file(resource.fileName());
+                resource.copyTo(file, CopyMode.OVERWRITE, ProgressReporter.none());
+                return file;
+            }));
+        }
+        executor.shutdown();
+
+        var files = new FileList();
+        for (var download : downloads)
+        {
+            try
+            {
+                files.add(download.get());
+            }
+            catch (InterruptedException | ExecutionException e)
+            {
+                problem(e, "Unable to download file from $", this);
             }
         }
-        catch (IOException e)
+        return files;
+    }
+
+    /**
+     * Return the underlying FTP connection to the pool
+     */
+    public void disconnect()
+    {
+        if (lease != null)
         {
-            problem(e, "Unable to close the FTP connection.");
+            lease.close();
+            lease = null;
+            client = null;
         }
     }
 
@@ -179,7 +313,7 @@ public class FtpResource extends BaseNetworkResource
                 location.mode(((FtpNetworkLocation) networkLocation).mode());
             }
 
-            resources.add(new FtpResource(location, NetworkAccessConstraints.DEFAULT));
+            resources.add(new FtpResource(location, constraints));
         }
         return resources;
     }
@@ -204,8 +338,13 @@ public class FtpResource extends BaseNetworkResource
         }
         catch (Exception e)
         {
+            discard();
             return fatal(e, "Unable to list files at $", path);
         }
+        finally
+        {
+            disconnect();
+        }
     }
 
     @Override
@@ -225,10 +364,11 @@ public class FtpResource extends BaseNetworkResource
             client.setFileType(FTP.ASCII_FILE_TYPE);
 
             // Retrieve the file in question.
-            return new FtpInput(client, client.retrieveFileStream(networkLocation.networkPath().join()));
+            return retrieve();
         }
         catch (IOException e)
         {
+            discard();
             return fatal(e, "Unable to transfer files");
         }
     }
@@ -246,10 +386,11 @@ public class FtpResource extends BaseNetworkResource
             client.setFileType(FTP.BINARY_FILE_TYPE);
 
             // Retrieve the file in question.
-            return new FtpInput(client, client.retrieveFileStream(networkLocation.networkPath().join()));
+            return retrieve();
         }
         catch (IOException e)
         {
+            discard();
             return fatal(e, "Unable to transfer files");
         }
     }
@@ -261,39 +402,51 @@ public class FtpResource extends BaseNetworkResource
     }
 
     /**
-     * Connect to the FTP server and login
+     * Lease a connection to the FTP server from the pool
      */
-    private void connect() throws IOException
+    private void connect()
     {
-        // Connect to the server.
-        client.connect(networkLocation.host().address());
-        var timeoutInMilliseconds = (int) constraints.timeout().asMilliseconds();
-        client.setConnectTimeout(timeoutInMilliseconds);
-        client.setSoTimeout(timeoutInMilliseconds);
-        client.setDefaultTimeout(timeoutInMilliseconds);
-
-        if (networkLocation instanceof FtpNetworkLocation)
+        if (lease == null)
         {
-            var mode = ((FtpNetworkLocation) networkLocation).mode();
-            if (FtpNetworkLocation.Mode.Passive.equals(mode))
-            {
-                client.enterLocalPassiveMode();
-            }
+            lease = pool.acquire(networkLocation);
+            client = lease.session();
+        }
+
+        // The transfer mode belongs to the location, so it is set each time a connection is leased.
+        if (networkLocation instanceof FtpNetworkLocation
+                && FtpNetworkLocation.Mode.Passive.equals(((FtpNetworkLocation) networkLocation).mode()))
+        {
+            client.enterLocalPassiveMode();
+        }
+        else
+        {
+            client.enterLocalActiveMode();
         }
+    }
 
-        if (!FTPReply.isPositiveCompletion(client.getReplyCode()))
+    /**
+     * Close the underlying FTP connection instead of returning it to the pool, since it may be unusable
+     */
+    private void discard()
+    {
+        if (lease != null)
         {
-            fatal("Unable to connect: " + client.getReplyString());
+            lease.discard();
+            lease = null;
+            client = null;
         }
+    }
 
-        // Login
-        if (networkLocation.constraints().userName() != null && networkLocation.constraints().password() != null)
+    /**
+     * @return A stream for the file at this resource's location
+     */
+    private InputStream retrieve() throws IOException
+    {
+        var in = client.retrieveFileStream(networkLocation.networkPath().join());
+        if (in == null)
         {
-            if (!client.login(networkLocation.constraints().userName().toString(),
-                    networkLocation.constraints().password().toString()))
-            {
-                fatal("Unable to connect: " + client.getReplyString());
-            }
+            throw new IOException("Unable to retrieve file: " + client.getReplyString());
         }
+        return new FtpInput(client, in);
     }
 }
@@ -0,0 +1,424 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.network.ftp;
+
+import com.telenav.kivakit.core.messaging.repeaters.BaseRepeater;
+import com.telenav.kivakit.core.thread.KivaKitThread;
+import com.telenav.kivakit.core.time.Duration;
+import com.telenav.kivakit.core.value.count.Maximum;
+import com.telenav.kivakit.network.core.NetworkLocation;
+import com.telenav.kivakit.network.ftp.lexakai.DiagramFtp;
+import com.telenav.lexakai.annotations.LexakaiJavadoc;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of sessions to FTP or SFTP servers, keyed by protocol, user, host and port. Reusing a session saves the
+ * connection, login and (for SFTP) SSH handshake that opening a new session would take for every file.
+ *
+ * <p><b>Sessions</b></p>
+ *
+ * <p>
+ * Sessions are opened, checked and closed by the {@link SessionFactory} given to the constructor.
+ * {@link #acquire(NetworkLocation)} leases a session to the location's server, reusing an idle session if there is
+ * one, and opening a new one if not. Closing the {@link Lease} returns the session to the pool, and
+ * {@link Lease#discard()} closes it instead, for example after an error that may have left the session unusable.
+ * </p>
+ *
+ * <p><b>Configuration</b></p>
+ *
+ * <ul>
+ *     <li>{@link #maximumSessionsPerHost(Maximum)} - The maximum number of sessions leased to a server at once. Callers
+ *     wait up to the timeout of the location's constraints for a session.</li>
+ *     <li>{@link #idleExpiry(Duration)} - How long a session can be idle before it is closed in the background</li>
+ *     <li>{@link #healthCheckAfter(Duration)} - How long a session can be idle before it is checked with
+ *     {@link SessionFactory#isHealthy(Object)} when it is leased</li>
+ * </ul>
+ *
+ * <p><b>Statistics</b></p>
+ *
+ * <ul>
+ *     <li>{@link #statistics()} - The number of sessions opened, reused and discarded, and the number idle</li>
+ * </ul>
+ *
+ * @param <Session> The type of session
+ * @author jonathanl (shibo)
+ */
+@UmlClassDiagram(diagram = DiagramFtp.class)
+@LexakaiJavadoc(complete = true)
+public class SessionPool<Session> extends BaseRepeater
+{
+    /**
+     * Opens, checks and closes sessions for a {@link SessionPool}
+     *
+     * @param <Session> The type of session
+     */
+    public interface SessionFactory<Session>
+    {
+        /**
+         * Closes the given session, ignoring any errors
+         */
+        void close(Session session);
+
+        /**
+         * @return True if the given session is still connected and responding
+         */
+        boolean isHealthy(Session session);
+
+        /**
+         * @return A new session to the server of the given location
+         */
+        Session open(NetworkLocation location) throws Exception;
+    }
+
+    /**
+     * A session leased from the pool. Closing the lease returns the session to the pool.
+     */
+    public class Lease implements AutoCloseable
+    {
+        private final Server server;
+
+        private final Session session;
+
+        private final AtomicBoolean returned = new AtomicBoolean();
+
+        private Lease(Server server, Session session)
+        {
+            this.server = server;
+            this.session = session;
+        }
+
+        /**
+         * Returns the session to the pool
+         */
+        @Override
+        public void close()
+        {
+            if (returned.compareAndSet(false, true))
+            {
+                release(server, session, true);
+            }
+        }
+
+        /**
+         * Closes the session instead of returning it to the pool
+         */
+        public void discard()
+        {
+            if (returned.compareAndSet(false, true))
+            {
+                release(server, session, false);
+            }
+        }
+
+        /**
+         * @return The leased session
+         */
+        public Session session()
+        {
+            return session;
+        }
+    }
+
+    /**
+     * An idle session and the time it became idle
+     */
+    private class Idle
+    {
+        final Session session;
+
+        final long since = System.nanoTime();
+
+        Idle(Session session)
+        {
+            this.session = session;
+        }
+
+        long idleNanoseconds()
+        {
+            return System.nanoTime() - since;
+        }
+    }
+
+    /**
+     * The idle sessions to a server and the permits for sessions to it
+     */
+    private class Server
+    {
+        final ArrayDeque<Idle> idle = new ArrayDeque<>();
+
+        final Semaphore permits = new Semaphore(maximumSessionsPerHost.asInt());
+    }
+
+    /** The number of sessions discarded because they expired, were unhealthy or failed */
+    private final LongAdder discarded = new LongAdder();
+
+    /** The factory for sessions */
+    private final SessionFactory<Session> factory;
+
+    /** The time after which an idle session is checked before it is leased */
+    private Duration healthCheckAfter = Duration.seconds(5);
+
+    /** The time after which an idle session is closed */
+    private Duration idleExpiry = Duration.minutes(1);
+
+    /** The maximum number of sessions leased to a server at once */
+    private Maximum maximumSessionsPerHost = Maximum.maximum(4);
+
+    /** The number of sessions opened */
+    private final LongAdder opened = new LongAdder();
+
+    /** The number of times an idle session was leased */
+    private final LongAdder reused = new LongAdder();
+
+    /** Sessions to each server */
+    private final Map<String, Server> servers = new ConcurrentHashMap<>();
+
+    /** Thread that closes expired sessions, once started */
+    private KivaKitThread sweeper;
+
+    public SessionPool(SessionFactory<Session> factory)
+    {
+        this.factory = factory;
+    }
+
+    /**
+     * Leases a session to the server of the given location, waiting up to the timeout of the location's constraints if
+     * the maximum number of sessions are already leased
+     *
+     * @return The lease, which must be closed to return the session to the pool
+     */
+    public Lease acquire(NetworkLocation location)
+    {
+        startSweeper();
+
+        // Wait for a permit to use a session to the server,
+        var server = servers.computeIfAbsent(key(location), ignored -> new Server());
+        var constraints = location.constraints();
+        var timeout = constraints == null ? null : constraints.timeout();
+        try
+        {
+            if (timeout == null)
+            {
+                server.permits.acquire();
+            }
+            else if (!server.permits.tryAcquire((long) timeout.asMilliseconds(), TimeUnit.MILLISECONDS))
+            {
+                throw new IllegalStateException("Timed out waiting for a session to " + key(location));
+            }
+        }
+        catch (InterruptedException e)
+        {
+            throw new IllegalStateException("Interrupted waiting for a session to " + key(location), e);
+        }
+
+        try
+        {
+            // then lease the most recently used idle session that is still good,
+            Idle idle;
+            while ((idle = poll(server)) != null)
+            {
+                if (isExpired(idle) || (idle.idleNanoseconds() > nanoseconds(healthCheckAfter)
+                        && !factory.isHealthy(idle.session)))
+                {
+                    discard(idle.session);
+                    continue;
+                }
+                reused.increment();
+                return new Lease(server, idle.session);
+            }
+
+            // or open a new session.
+            var session = factory.open(location);
+            opened.increment();
+            trace("Opened session to $", key(location));
+            return new Lease(server, session);
+        }
+        catch (Exception e)
+        {
+            server.permits.release();
+            throw new IllegalStateException("Unable to open session to " + key(location), e);
+        }
+    }
+
+    /**
+     * Closes all idle sessions. Leased sessions are closed when they are returned.
+     */
+    public void close()
+    {
+        for (var server : servers.values())
+        {
+            Idle idle;
+            while ((idle = poll(server)) != null)
+            {
+                discard(idle.session);
+            }
+        }
+    }
+
+    /**
+     * @param healthCheckAfter The time a session can be idle before it is checked when it is leased
+     */
+    public SessionPool<Session> healthCheckAfter(Duration healthCheckAfter)
+    {
+        this.healthCheckAfter = healthCheckAfter;
+        return this;
+    }
+
+    /**
+     * @param idleExpiry The time a session can be idle before it is closed
+     */
+    public SessionPool<Session> idleExpiry(Duration idleExpiry)
+    {
+        this.idleExpiry = idleExpiry;
+        return this;
+    }
+
+    /**
+     * @param maximum The maximum number of sessions leased to any one server at once. This must be set before the
+     * pool is first used.
+     */
+    public SessionPool<Session> maximumSessionsPerHost(Maximum maximum)
+    {
+        this.maximumSessionsPerHost = maximum;
+        return this;
+    }
+
+    /**
+     * @return A snapshot of the statistics of this pool
+     */
+    public SessionPoolStatistics statistics()
+    {
+        var idle = 0;
+        for (var server : servers.values())
+        {
+            synchronized (server)
+            {
+                idle += server.idle.size();
+            }
+        }
+        return new SessionPoolStatistics(opened.sum(), reused.sum(), discarded.sum(), idle);
+    }
+
+    /**
+     * Closes idle sessions that have expired
+     */
+    private void closeExpired()
+    {
+        for (var server : servers.values())
+        {
+            while (true)
+            {
+                Idle expired = null;
+                synchronized (server)
+                {
+                    // (the least recently used session is at the end of the deque)
+                    var oldest = server.idle.peekLast();
+                    if (oldest != null && isExpired(oldest))
+                    {
+                        expired = server.idle.pollLast();
+                    }
+                }
+                if (expired == null)
+                {
+                    break;
+                }
+                discard(expired.session);
+            }
+        }
+    }
+
+    private void discard(Session session)
+    {
+        discarded.increment();
+        factory.close(session);
+    }
+
+    private boolean isExpired(Idle idle)
+    {
+        return idle.idleNanoseconds() > nanoseconds(idleExpiry);
+    }
+
+    /**
+     * @return The key for the server of the given location
+     */
+    private String key(NetworkLocation location)
+    {
+        var constraints = location.constraints();
+        var userName = constraints == null ? null : constraints.userName();
+        var port = location.port();
+        return location.protocol() + "://" + (userName == null ? "" : userName + "@")
+                + location.host() + (port == null ? "" : ":" + port.number());
+    }
+
+    private long nanoseconds(Duration duration)
+    {
+        return (long) (duration.asMilliseconds() * 1_000_000);
+    }
+
+    /**
+     * @return The most recently used idle session to the given server, or null if there is none
+     */
+    private Idle poll(Server server)
+    {
+        synchronized (server)
+        {
+            return server.idle.pollFirst();
+        }
+    }
+
+    private void release(Server server, Session session, boolean reusable)
+    {
+        if (reusable)
+        {
+            synchronized (server)
+            {
+                server.idle.addFirst(new Idle(session));
+            }
+        }
+        else
+        {
+            discard(session);
+        }
+        server.permits.release();
+    }
+
+    private synchronized void startSweeper()
+    {
+        if (sweeper == null)
+        {
+            sweeper = KivaKitThread.run(this, "SessionPoolSweeper", () ->
+            {
+                //noinspection InfiniteLoopStatement
+                while (true)
+                {
+                    idleExpiry.times(0.5).sleep();
+                    closeExpired();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,94 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.network.ftp;
+
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.core.value.level.Percent;
+import com.telenav.kivakit.network.ftp.lexakai.DiagramFtp;
+import com.telenav.lexakai.annotations.LexakaiJavadoc;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import static com.telenav.kivakit.core.string.Formatter.format;
+
+/**
+ * A snapshot of the statistics of a {@link SessionPool}:
+ *
+ * <ul>
+ *     <li>{@link #opened()} - The number of sessions opened</li>
+ *     <li>{@link #reused()} - The number of times an idle session was leased instead of opening a new one</li>
+ *     <li>{@link #reuseRate()} - The percentage of leases that reused an idle session</li>
+ *     <li>{@link #discarded()} - The number of sessions closed because they expired, were unhealthy or failed</li>
+ *     <li>{@link #idle()} - The number of idle sessions in the pool</li>
+ * </ul>
+ *
+ * @author jonathanl (shibo)
+ */
+@UmlClassDiagram(diagram = DiagramFtp.class)
+@LexakaiJavadoc(complete = true)
+public class SessionPoolStatistics
+{
+    private final long opened;
+
+    private final long reused;
+
+    private final long discarded;
+
+    private final int idle;
+
+    SessionPoolStatistics(long opened, long reused, long discarded, int idle)
+    {
+        this.opened = opened;
+        this.reused = reused;
+        this.discarded = discarded;
+        this.idle = idle;
+    }
+
+    public Count discarded()
+    {
+        return Count.count(discarded);
+    }
+
+    public Count idle()
+    {
+        return Count.count(idle);
+    }
+
+    public Count opened()
+    {
+        return Count.count(opened);
+    }
+
+    public Percent reuseRate()
+    {
+        var leases = opened + reused;
+        return Percent.of(leases == 0 ? 0 : reused * 100.0 / leases);
+    }
+
+    public Count reused()
+    {
+        return Count.count(reused);
+    }
+
+    @Override
+    public String toString()
+    {
+        return format("opened = $, reused = $, reuse rate = $, discarded = $, idle = $",
+                opened, reused, reuseRate(), discarded, idle);
+    }
+}
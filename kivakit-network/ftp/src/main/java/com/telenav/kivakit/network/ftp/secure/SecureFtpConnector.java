@@ -27,18 +27,22 @@ import com.jcraft.jsch.SftpException;
 import com.telenav.kivakit.core.collections.list.ObjectList;
 import com.telenav.kivakit.network.core.NetworkAccessConstraints;
 import com.telenav.kivakit.network.core.NetworkLocation;
+import com.telenav.kivakit.network.ftp.SessionPool;
 import com.telenav.kivakit.network.ftp.lexakai.DiagramSecureFtp;
 import com.telenav.kivakit.resource.writing.WritableResource;
 import com.telenav.lexakai.annotations.LexakaiJavadoc;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
+import java.io.IOException;
 import java.io.InputStream;
 
 /**
  * <b>Not public API</b>
  *
  * <p>
- * Connects to servers via the SFTP protocol.
+ * Connects to servers via the SFTP protocol. Connecting leases an SSH session and SFTP channel from the shared
+ * {@link #pool()}, and disconnecting returns them to the pool, so that a session can be reused by later operations on
+ * the same server.
  * </p>
  *
  * @author jonathanl (shibo)
@@ -47,52 +51,103 @@ import java.io.InputStream;
 @LexakaiJavadoc(complete = true)
 class SecureFtpConnector
 {
-    private Session session;
+    /**
+     * An SSH session and its SFTP channel
+     */
+    static final class SftpSession
+    {
+        private final ChannelSftp channel;
 
-    private ChannelSftp channel;
+        private final Session session;
 
-    public SecureFtpConnector(NetworkAccessConstraints ignored)
-    {
+        private SftpSession(Session session, ChannelSftp channel)
+        {
+            this.session = session;
+            this.channel = channel;
+        }
     }
 
-    public void connect(NetworkLocation location)
+    /** Pool of sessions shared by all connectors */
+    private static final SessionPool<SftpSession> pool = new SessionPool<>(new SessionPool.SessionFactory<>()
     {
-        if (!isConnected())
+        @Override
+        public void close(SftpSession session)
+        {
+            session.channel.exit();
+            session.session.disconnect();
+        }
+
+        @Override
+        public boolean isHealthy(SftpSession session)
+        {
+            try
+            {
+                // Make a round trip to the server
+                session.channel.realpath(".");
+                return session.session.isConnected() && session.channel.isConnected();
+            }
+            catch (Exception e)
+            {
+                return false;
+            }
+        }
+
+        @Override
+        public SftpSession open(NetworkLocation location) throws JSchException
         {
-            var jsch = new JSch();
+            var session = new JSch().getSession(location.constraints().userName().toString(),
+                    location.host().address().getHostName(), location.port().number());
             try
             {
-                session = jsch.getSession(location.constraints().userName().toString(),
-                        location.host().address().getHostName(), location.port().number());
                 session.setConfig("StrictHostKeyChecking", "no");
                 session.setPassword(location.constraints().password().toString());
                 session.connect();
 
-                channel = (ChannelSftp) session.openChannel("sftp");
+                var channel = (ChannelSftp) session.openChannel("sftp");
                 channel.connect();
+                return new SftpSession(session, channel);
             }
             catch (JSchException e)
             {
-                safeDisconnect();
-                throw new IllegalStateException("Unable to connect", e);
+                session.disconnect();
+                throw e;
             }
         }
+    });
+
+    /**
+     * @return The pool of SFTP sessions shared by all connectors
+     */
+    static SessionPool<SftpSession> pool()
+    {
+        return pool;
     }
 
-    public void disconnect()
+    /** The leased session, while connected */
+    private SessionPool<SftpSession>.Lease lease;
+
+    public SecureFtpConnector(NetworkAccessConstraints ignored)
     {
-        if (channel != null)
+    }
+
+    public void connect(NetworkLocation location)
+    {
+        if (!isConnected())
         {
-            channel.exit();
+            lease = pool.acquire(location);
         }
+    }
 
-        if (session != null)
+    /**
+     * Returns the session to the pool
+     */
+    public void disconnect()
+    {
+        if (lease != null)
         {
-            session.disconnect();
+            lease.close();
+            lease = null;
         }
-
-        channel = null;
-        session = null;
     }
 
     public InputStream get(NetworkLocation location)
@@ -102,11 +157,11 @@ class SecureFtpConnector
 
         try
         {
-            return channel.get(location.networkPath().join());
+            return channel().get(location.networkPath().join());
         }
         catch (SftpException e)
         {
-            throw new IllegalStateException("Unable to retrieve file: " + location.networkPath().join(), e);
+            throw failed(e, "Unable to retrieve file: " + location.networkPath().join());
         }
     }
 
@@ -119,19 +174,23 @@ class SecureFtpConnector
         connect(location);
 
         var sourcePath = location.networkPath().join();
-        try
+        try (var out = destination.openForWriting())
         {
-            channel.get(sourcePath, destination.openForWriting());
+            channel().get(sourcePath, out);
         }
         catch (SftpException e)
         {
-            throw new IllegalStateException("Unable to retrieve file: " + sourcePath, e);
+            throw failed(e, "Unable to retrieve file: " + sourcePath);
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException("Unable to write file: " + destination, e);
         }
     }
 
     public boolean isConnected()
     {
-        return !(session == null && channel == null);
+        return lease != null;
     }
 
     @SuppressWarnings({ "unchecked" })
@@ -142,12 +201,11 @@ class SecureFtpConnector
 
         try
         {
-            return new ObjectList<LsEntry>().appendAll(channel.ls(location.networkPath().join()));
+            return new ObjectList<LsEntry>().appendAll(channel().ls(location.networkPath().join()));
         }
         catch (SftpException e)
         {
-            throw new IllegalStateException("Unable to list directory contents: " + location.networkPath().join(),
-                    e);
+            throw failed(e, "Unable to list directory contents: " + location.networkPath().join());
         }
     }
 
@@ -155,4 +213,22 @@ class SecureFtpConnector
     {
         disconnect();
     }
+
+    private ChannelSftp channel()
+    {
+        return lease.session().channel;
+    }
+
+    /**
+     * @return An exception for the given failure, discarding the session if the connection was lost
+     */
+    private IllegalStateException failed(SftpException e, String message)
+    {
+        if (e.id == ChannelSftp.SSH_FX_CONNECTION_LOST || e.id == ChannelSftp.SSH_FX_NO_CONNECTION)
+        {
+            lease.discard();
+            lease = null;
+        }
+        return new IllegalStateException(message, e);
+    }
 }
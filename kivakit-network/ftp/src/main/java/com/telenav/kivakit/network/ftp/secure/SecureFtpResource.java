@@ -21,12 +21,19 @@ package com.telenav.kivakit.network.ftp.secure;
 import com.jcraft.jsch.ChannelSftp.LsEntry;
 import com.telenav.kivakit.core.collections.list.ObjectList;
 import com.telenav.kivakit.core.progress.ProgressReporter;
+import com.telenav.kivakit.core.thread.Threads;
 import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.filesystem.File;
+import com.telenav.kivakit.filesystem.FileList;
+import com.telenav.kivakit.filesystem.Folder;
 import com.telenav.kivakit.network.core.BaseNetworkResource;
 import com.telenav.kivakit.network.core.NetworkAccessConstraints;
 import com.telenav.kivakit.network.core.NetworkLocation;
+import com.telenav.kivakit.network.ftp.SessionPool;
 import com.telenav.kivakit.network.ftp.lexakai.DiagramSecureFtp;
 import com.telenav.kivakit.resource.CopyMode;
+import com.telenav.kivakit.resource.FileName;
 import com.telenav.kivakit.resource.writing.WritableResource;
 import com.telenav.kivakit.resource.compression.codecs.GzipCodec;
 import com.telenav.lexakai.annotations.LexakaiJavadoc;
@@ -35,9 +42,19 @@ import com.telenav.lexakai.annotations.associations.UmlAggregation;
 import com.telenav.lexakai.annotations.associations.UmlRelation;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
- * A resource accessed by SFTP. A list of files can be retrieved with {@link #listFiles()}.
+ * A resource accessed by SFTP. A list of files can be retrieved with {@link #listFiles()}, and the files in a folder
+ * can be downloaded in parallel with {@link #copyFilesTo(Folder, Count)}.
+ *
+ * <p>
+ * SSH sessions are leased from the {@link #sessionPool()} shared by all SFTP resources, and returned to it when an
+ * operation completes or a stream is closed, so accessing many files on one server doesn't require an SSH handshake
+ * for each file.
+ * </p>
  *
  * @author jonathanl (shibo)
  */
@@ -45,6 +62,16 @@ import java.io.InputStream;
 @LexakaiJavadoc(complete = true)
 public class SecureFtpResource extends BaseNetworkResource
 {
+    /**
+     * @return The pool of SFTP sessions shared by all SFTP resources and {@link SftpFolderWatcher}s
+     */
+    public static SessionPool<?> sessionPool()
+    {
+        return SecureFtpConnector.pool();
+    }
+
+    private final NetworkAccessConstraints constraints;
+
     private final SecureFtpConnector connector;
 
     @UmlAggregation(label = "accesses")
@@ -58,6 +85,7 @@ public class SecureFtpResource extends BaseNetworkResource
             illegalArgument("SFTP request must use an sftp network location:  " + location);
         }
         connector = new SecureFtpConnector(constraints);
+        this.constraints = constraints;
         this.location = location;
 
         if (location.networkPath().fileName().endsWith(".gz"))
@@ -66,6 +94,51 @@ public class SecureFtpResource extends BaseNetworkResource
         }
     }
 
+    /**
+     * Downloads the files in this folder to the given folder, using up to the given number of threads. Each thread
+     * leases a session from the {@link #sessionPool()}, so no more threads than the maximum number of sessions per host
+     * download at once.
+     *
+     * @return The files that were downloaded
+     */
+    public FileList copyFilesTo(Folder destination, Count threads)
+    {
+        destination.ensureExists();
+        var executor = Threads.threadPool("SftpDownloader", threads);
+        var downloads = new ArrayList<Future<File>>();
+        for (var entry : listFiles())
+        {
+            if (!entry.getAttrs().isDir())
+            {
+                var name = entry.getFilename();
+                downloads.add(executor.submit(() ->
+                {
+                    var file = destination.file(FileName.parseFileName(this, name));
+                    var path = location.networkPath().withChild(name);
+                    var child = new SecureFtpNetworkLocation(path);
+                    child.constraints(location.constraints());
+                    child.resource(constraints).copyTo(file, CopyMode.OVERWRITE, ProgressReporter.none());
+                    return file;
+                }));
+            }
+        }
+        executor.shutdown();
+
+        var files = new FileList();
+        for (var download : downloads)
+        {
+            try
+            {
+                files.add(download.get());
+            }
+            catch (InterruptedException | ExecutionException e)
+            {
+                problem(e, "Unable to download file from $", this);
+            }
+        }
+        return files;
+    }
+
     /**
      * Copy this resource to the disk
      */
@@ -95,8 +168,15 @@ public class SecureFtpResource extends BaseNetworkResource
      */
     public ObjectList<LsEntry> listFiles()
     {
-        connector.connect(location);
-        return connector.listFiles(location);
+        try
+        {
+            connector.connect(location);
+            return connector.listFiles(location);
+        }
+        finally
+        {
+            disconnect();
+        }
     }
 
     @Override
@@ -36,7 +36,8 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * A change watcher for an SFTP folder.
+ * A change watcher for an SFTP folder. Each check leases a session from the {@link SecureFtpResource#sessionPool()}, so
+ * checks reuse an open session rather than connecting to the server each time.
  *
  * @author matthieun
  * @author jonathanl (shibo)
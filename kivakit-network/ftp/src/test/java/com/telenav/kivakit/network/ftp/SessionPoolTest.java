@@ -0,0 +1,216 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.network.ftp;
+
+import com.telenav.kivakit.core.time.Duration;
+import com.telenav.kivakit.core.value.count.Maximum;
+import com.telenav.kivakit.network.core.NetworkAccessConstraints;
+import com.telenav.kivakit.network.core.NetworkLocation;
+import com.telenav.kivakit.test.UnitTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests {@link SessionPool} with sessions from a fake {@link SessionPool.SessionFactory}
+ */
+public class SessionPoolTest extends UnitTest
+{
+    /**
+     * A factory that numbers the sessions it opens, and records the sessions it closes
+     */
+    private static class Factory implements SessionPool.SessionFactory<Integer>
+    {
+        final List<Integer> closed = new CopyOnWriteArrayList<>();
+
+        volatile boolean healthy = true;
+
+        final AtomicInteger opened = new AtomicInteger();
+
+        @Override
+        public void close(Integer session)
+        {
+            closed.add(session);
+        }
+
+        @Override
+        public boolean isHealthy(Integer session)
+        {
+            return healthy;
+        }
+
+        @Override
+        public Integer open(NetworkLocation location)
+        {
+            return opened.incrementAndGet();
+        }
+    }
+
+    private Factory factory;
+
+    private SessionPool<Integer> pool;
+
+    @Before
+    public void setup()
+    {
+        factory = new Factory();
+        pool = listenTo(new SessionPool<>(factory));
+    }
+
+    @After
+    public void teardown()
+    {
+        pool.close();
+    }
+
+    @Test
+    public void testAcquireTimeout()
+    {
+        pool.maximumSessionsPerHost(Maximum.maximum(1));
+        var location = location(2121);
+        location.constraints(new NetworkAccessConstraints().timeout(Duration.milliseconds(100)));
+
+        // A caller waiting for a session to a busy server times out,
+        var lease = pool.acquire(location);
+        ensureThrows(() -> pool.acquire(location));
+
+        // and once the session is returned, it can be leased again.
+        lease.close();
+        try (var next = pool.acquire(location))
+        {
+            ensureEqual(next.session(), 1);
+        }
+    }
+
+    @Test
+    public void testDiscard()
+    {
+        // A discarded session is closed instead of being returned to the pool,
+        var lease = pool.acquire(location(2121));
+        lease.discard();
+        ensureEqual(factory.closed, List.of(1));
+
+        // closing the lease afterwards has no effect,
+        lease.close();
+        ensureEqual(pool.statistics().idle().asInt(), 0);
+
+        // and the next lease opens a new session.
+        try (var next = pool.acquire(location(2121)))
+        {
+            ensureEqual(next.session(), 2);
+        }
+        ensureEqual(pool.statistics().discarded().asInt(), 1);
+    }
+
+    @Test
+    public void testExpiry()
+    {
+        pool.idleExpiry(Duration.milliseconds(200));
+
+        // An idle session is closed in the background once it expires.
+        pool.acquire(location(2121)).close();
+        for (var i = 0; i < 100 && factory.closed.isEmpty(); i++)
+        {
+            Duration.milliseconds(50).sleep();
+        }
+        ensureEqual(factory.closed, List.of(1));
+        ensureEqual(pool.statistics().idle().asInt(), 0);
+        ensureEqual(pool.statistics().discarded().asInt(), 1);
+    }
+
+    @Test
+    public void testHealthCheck()
+    {
+        pool.healthCheckAfter(Duration.NONE);
+
+        // An idle session that fails its health check is closed,
+        pool.acquire(location(2121)).close();
+        factory.healthy = false;
+
+        // and a new session is opened in its place.
+        try (var lease = pool.acquire(location(2121)))
+        {
+            ensureEqual(lease.session(), 2);
+        }
+        ensureEqual(factory.closed, List.of(1));
+    }
+
+    @Test
+    public void testMaximumSessionsPerHost()
+    {
+        pool.maximumSessionsPerHost(Maximum.maximum(2));
+        var location = location(2121);
+        location.constraints(new NetworkAccessConstraints().timeout(Duration.milliseconds(100)));
+
+        // No more than the maximum number of sessions are leased to one server,
+        var first = pool.acquire(location);
+        var second = pool.acquire(location);
+        ensureThrows(() -> pool.acquire(location));
+
+        // but sessions to another server are leased separately.
+        try (var other = pool.acquire(location(2122)))
+        {
+            ensureEqual(other.session(), 3);
+        }
+
+        first.close();
+        second.close();
+        ensureEqual(factory.opened.get(), 3);
+    }
+
+    @Test
+    public void testReuse()
+    {
+        // A returned session is reused by the next lease to the same server,
+        pool.acquire(location(2121)).close();
+        try (var lease = pool.acquire(location(2121)))
+        {
+            ensureEqual(lease.session(), 1);
+            ensureEqual(pool.statistics().idle().asInt(), 0);
+        }
+
+        // and the most recently returned session is reused first.
+        var first = pool.acquire(location(2121));
+        var second = pool.acquire(location(2121));
+        first.close();
+        second.close();
+        try (var lease = pool.acquire(location(2121)))
+        {
+            ensureEqual(lease.session(), second.session());
+        }
+
+        var statistics = pool.statistics();
+        ensureEqual(statistics.opened().asInt(), 2);
+        ensureEqual(statistics.reused().asInt(), 3);
+        ensureEqual(statistics.idle().asInt(), 2);
+        ensure(factory.closed.isEmpty());
+    }
+
+    /**
+     * @return A location on a server that is identified by its port
+     */
+    private NetworkLocation location(int port)
+    {
+        return NetworkLocation.parseNetworkLocation(this, "ftp://localhost:" + port + "/file.txt");
+    }
+}
@@ -0,0 +1,346 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.network.http;
+
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.network.core.NetworkAccessConstraints;
+import com.telenav.kivakit.network.http.lexakai.DiagramHttp;
+import com.telenav.lexakai.annotations.LexakaiJavadoc;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+import org.apache.http.Header;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+
+/**
+ * Executes HTTP requests asynchronously with {@link HttpClient}, limiting the number of requests in flight to any one
+ * host. Callers are never blocked: requests beyond the limit wait in a queue for their host, and are sent as earlier
+ * requests to the host complete. This allows thousands of resources to be fetched without a thread per request, and
+ * without overwhelming any one server.
+ *
+ * <p><b>Shared Clients</b></p>
+ *
+ * <ul>
+ *     <li>{@link #shared()} - The client used by HTTP and HTTPS resources by default</li>
+ *     <li>{@link #invalidCertificateTrusting()} - The client used by secure resources that ignore invalid
+ *     certificates. Note that {@link HttpClient} still verifies host names.</li>
+ * </ul>
+ *
+ * <p><b>Configuration</b></p>
+ *
+ * <p>
+ * A client can be configured with the methods below until its first request is sent, after which it cannot be changed:
+ * </p>
+ *
+ * <ul>
+ *     <li>{@link #maximumRequestsPerHost(Count)} - The maximum number of requests in flight to any one host</li>
+ *     <li>{@link #trustInvalidCertificates(boolean)} - True to accept any server certificate</li>
+ * </ul>
+ *
+ * <p><b>Requests</b></p>
+ *
+ * <p>
+ * {@link #send(HttpUriRequest, NetworkAccessConstraints, HttpResponse.BodyHandler)} sends the method, headers and any
+ * entity of a request built for {@link HttpClientPool}, so that resources build their requests in the same way for both
+ * clients. The timeout and any credentials of the given constraints are applied to the request. A request is in flight
+ * until its response body has been handled.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+@UmlClassDiagram(diagram = DiagramHttp.class)
+@LexakaiJavadoc(complete = true)
+public class AsyncHttpClient
+{
+    /** Headers that {@link HttpClient} sets itself and does not allow to be set */
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    /** The client used by default */
+    private static AsyncHttpClient shared;
+
+    /** The client used by secure resources that ignore invalid certificates */
+    private static AsyncHttpClient trusting;
+
+    /**
+     * @return The client shared by secure resources that ignore invalid certificates
+     */
+    public static synchronized AsyncHttpClient invalidCertificateTrusting()
+    {
+        if (trusting == null)
+        {
+            trusting = new AsyncHttpClient().trustInvalidCertificates(true);
+        }
+        return trusting;
+    }
+
+    /**
+     * @return The client shared by HTTP and HTTPS resources
+     */
+    public static synchronized AsyncHttpClient shared()
+    {
+        if (shared == null)
+        {
+            shared = new AsyncHttpClient();
+        }
+        return shared;
+    }
+
+    /**
+     * The requests in flight to a host, and the requests waiting to be sent to it
+     */
+    private static final class Host
+    {
+        private int inFlight;
+
+        private final ArrayDeque<Runnable> waiting = new ArrayDeque<>();
+
+        /**
+         * @return True if the given request can be sent now, false if it has been queued
+         */
+        synchronized boolean acquire(Runnable send, int maximum)
+        {
+            if (inFlight < maximum)
+            {
+                inFlight++;
+                return true;
+            }
+            waiting.add(send);
+            return false;
+        }
+
+        /**
+         * Called when a request completes, to send the next waiting request, if any
+         */
+        void release()
+        {
+            Runnable next;
+            synchronized (this)
+            {
+                next = waiting.poll();
+                if (next == null)
+                {
+                    inFlight--;
+                }
+            }
+            if (next != null)
+            {
+                next.run();
+            }
+        }
+    }
+
+    /** The client, once built */
+    private HttpClient client;
+
+    /** Requests in flight to each host */
+    private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+
+    /** The maximum number of requests in flight to a host */
+    private Count maximumRequestsPerHost = Count._8;
+
+    /** True to trust any server certificate */
+    private boolean trustInvalidCertificates;
+
+    /**
+     * @return The number of requests in flight to the host of the given URI
+     */
+    public Count inFlight(URI uri)
+    {
+        var host = hosts.get(key(uri));
+        if (host == null)
+        {
+            return Count._0;
+        }
+        synchronized (host)
+        {
+            return Count.count(host.inFlight);
+        }
+    }
+
+    /**
+     * @param maximum The maximum number of requests in flight to any one host
+     */
+    public AsyncHttpClient maximumRequestsPerHost(Count maximum)
+    {
+        ensureConfigurable();
+        this.maximumRequestsPerHost = maximum;
+        return this;
+    }
+
+    /**
+     * Sends the given request once there are fewer than the maximum number of requests in flight to its host
+     *
+     * @param request The request
+     * @param constraints Timeout and any credentials for the request
+     * @param handler The handler for the response body
+     * @return The response, once its body has been handled
+     */
+    public <T> CompletableFuture<HttpResponse<T>> send(HttpUriRequest request,
+                                                       NetworkAccessConstraints constraints,
+                                                       HttpResponse.BodyHandler<T> handler)
+    {
+        var future = new CompletableFuture<HttpResponse<T>>();
+        try
+        {
+            var client = client();
+            var asyncRequest = asyncRequest(request, constraints);
+            var host = hosts.computeIfAbsent(key(asyncRequest.uri()), ignored -> new Host());
+
+            Runnable send = () ->
+            {
+                try
+                {
+                    client.sendAsync(asyncRequest, handler).whenComplete((response, error) ->
+                    {
+                        host.release();
+                        if (error != null)
+                        {
+                            future.completeExceptionally(error);
+                        }
+                        else
+                        {
+                            future.complete(response);
+                        }
+                    });
+                }
+                catch (Exception e)
+                {
+                    host.release();
+                    future.completeExceptionally(e);
+                }
+            };
+
+            if (host.acquire(send, maximumRequestsPerHost.asInt()))
+            {
+                send.run();
+            }
+        }
+        catch (Exception e)
+        {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * @param trust True to accept any server certificate, which should only be done for hosts with known invalid
+     * certificates
+     */
+    public AsyncHttpClient trustInvalidCertificates(boolean trust)
+    {
+        ensureConfigurable();
+        this.trustInvalidCertificates = trust;
+        return this;
+    }
+
+    /**
+     * @return The given request as an {@link HttpRequest} with the timeout and credentials of the given constraints
+     */
+    private HttpRequest asyncRequest(HttpUriRequest request, NetworkAccessConstraints constraints) throws IOException
+    {
+        var builder = HttpRequest.newBuilder(request.getURI())
+                .timeout(java.time.Duration.ofMillis((long) constraints.timeout().asMilliseconds()));
+
+        // Copy headers,
+        for (var header : request.getAllHeaders())
+        {
+            if (!RESTRICTED_HEADERS.contains(header.getName().toLowerCase()))
+            {
+                builder.header(header.getName(), header.getValue());
+            }
+        }
+
+        // add any credentials,
+        if (constraints instanceof HttpAccessConstraints)
+        {
+            var credentials = ((HttpAccessConstraints) constraints).httpBasicCredentials();
+            if (credentials != null)
+            {
+                var token = credentials.userName() + ":" + credentials.password();
+                builder.header("Authorization", "Basic "
+                        + Base64.getEncoder().encodeToString(token.getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+
+        // and set the method and any body.
+        var body = HttpRequest.BodyPublishers.noBody();
+        if (request instanceof HttpEntityEnclosingRequest)
+        {
+            var entity = ((HttpEntityEnclosingRequest) request).getEntity();
+            if (entity != null)
+            {
+                // (Apache sends the content type and encoding of the entity as headers, unless the request has them)
+                for (var header : new Header[] { entity.getContentType(), entity.getContentEncoding() })
+                {
+                    if (header != null && !request.containsHeader(header.getName()))
+                    {
+                        builder.header(header.getName(), header.getValue());
+                    }
+                }
+                body = HttpRequest.BodyPublishers.ofByteArray(EntityUtils.toByteArray(entity));
+            }
+        }
+        return builder.method(request.getMethod(), body).build();
+    }
+
+    /**
+     * @return The client, built the first time it is needed
+     */
+    private synchronized HttpClient client()
+    {
+        if (client == null)
+        {
+            var builder = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NORMAL);
+            if (trustInvalidCertificates)
+            {
+                builder.sslContext(HttpClientPool.trustingSslContext());
+            }
+            client = builder.build();
+        }
+        return client;
+    }
+
+    private synchronized void ensureConfigurable()
+    {
+        ensure(client == null, "Asynchronous HTTP client cannot be configured after it has been used");
+    }
+
+    /**
+     * @return The key for the host of the given URI
+     */
+    private String key(URI uri)
+    {
+        return uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+    }
+}
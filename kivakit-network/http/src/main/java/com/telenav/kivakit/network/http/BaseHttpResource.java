@@ -20,26 +20,28 @@ package com.telenav.kivakit.network.http;
 
 import com.telenav.kivakit.core.collections.map.VariableMap;
 import com.telenav.kivakit.core.messaging.messages.status.Problem;
+import com.telenav.kivakit.core.value.count.Bytes;
 import com.telenav.kivakit.network.core.BaseNetworkResource;
 import com.telenav.kivakit.network.core.NetworkAccessConstraints;
 import com.telenav.kivakit.network.core.NetworkLocation;
 import com.telenav.kivakit.network.http.lexakai.DiagramHttp;
+import com.telenav.kivakit.resource.writing.WritableResource;
 import com.telenav.lexakai.annotations.LexakaiJavadoc;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 import com.telenav.lexakai.annotations.associations.UmlAggregation;
 import com.telenav.lexakai.annotations.associations.UmlRelation;
 import org.apache.http.HttpResponse;
-import org.apache.http.auth.AuthScope;
-import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.methods.HttpHead;
 import org.apache.http.client.methods.HttpUriRequest;
-import org.apache.http.impl.client.DefaultHttpClient;
-import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.entity.BufferedHttpEntity;
 import org.apache.http.util.EntityUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.net.http.HttpResponse.BodySubscribers;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A network resource accessible via HTTP.
@@ -59,21 +61,69 @@ import java.util.Objects;
  *     <li>{@link #status()} - A status code once the resource has been accessed</li>
  * </ul>
  *
+ * <p><b>Connections</b></p>
+ *
+ * <p>
+ * Requests are executed on the keep-alive connections of an {@link HttpClientPool}, by default the
+ * {@link HttpClientPool#shared()} pool, so that requests to the same host don't each pay for a new TCP and TLS
+ * connection. A different pool can be given to {@link #clientPool(HttpClientPool)}. The timeout and any credentials
+ * of the resource's {@link NetworkAccessConstraints} are applied to each request.
+ * </p>
+ *
+ * <p>
+ * The request for a resource is executed once, when its status, header or content is first needed. If the status or
+ * header is needed before the content, a body of up to {@link #MAXIMUM_BUFFERED_BODY} bytes is read into memory right
+ * away, so that its connection returns to the pool. The connection for a larger body, or a body of unknown length, is
+ * released right away for GET and HEAD requests, and the request is sent again when the content is read. For other
+ * requests, like POST, the connection is held until the body is read. Reading the content again sends a new request
+ * only for GET and HEAD requests, so that other requests are never sent twice.
+ * </p>
+ *
+ * <p><b>Asynchronous Access</b></p>
+ *
+ * <p>
+ * The methods below send the request for this resource without blocking the caller, using an {@link AsyncHttpClient},
+ * by default the {@link AsyncHttpClient#shared()} client, which limits the number of requests in flight to each host.
+ * A different client can be given to {@link #asyncClient(AsyncHttpClient)}. The futures returned complete
+ * exceptionally if the request fails or the response status is not okay.
+ * </p>
+ *
+ * <ul>
+ *     <li>{@link #readAsync()} - The body of this resource</li>
+ *     <li>{@link #copyToAsync(WritableResource)} - Streams the body of this resource to a resource as it arrives</li>
+ * </ul>
+ *
  * @author jonathanl (shibo)
  */
-@SuppressWarnings("deprecation")
 @UmlClassDiagram(diagram = DiagramHttp.class)
 @LexakaiJavadoc(complete = true)
 public abstract class BaseHttpResource extends BaseNetworkResource
 {
+    /** The largest response body that is read into memory when only the status or header is needed */
+    public static final Bytes MAXIMUM_BUFFERED_BODY = Bytes.kilobytes(64);
+
+    /** The client to send asynchronous requests with, if not the default */
+    @UmlAggregation
+    private AsyncHttpClient asyncClient;
+
+    /** The pool to execute requests with, if not the default */
+    @UmlAggregation
+    private HttpClientPool clientPool;
+
     @UmlAggregation
     private final NetworkAccessConstraints constraints;
 
+    /** True once the content of the response has been handed to a reader, or discarded */
+    private boolean contentRead;
+
     private String contentEncoding;
 
     @UmlAggregation
     private final NetworkLocation networkLocation;
 
+    /** The request that was executed */
+    private HttpUriRequest request;
+
     private HttpResponse response;
 
     private final VariableMap<String> responseHeader = new VariableMap<>();
@@ -108,6 +158,39 @@ public abstract class BaseHttpResource extends BaseNetworkResource
         return responseHeader().get("Content-Type");
     }
 
+    /**
+     * Sets the client that asynchronous requests for this resource are sent with
+     */
+    public void asyncClient(AsyncHttpClient asyncClient)
+    {
+        this.asyncClient = asyncClient;
+    }
+
+    /**
+     * Sets the pool that requests for this resource are executed with
+     */
+    public void clientPool(HttpClientPool clientPool)
+    {
+        this.clientPool = clientPool;
+    }
+
+    /**
+     * Streams the raw body of this resource to the given destination as it arrives, without blocking the caller
+     *
+     * @return The number of bytes written, once the body has been written
+     */
+    public CompletableFuture<Bytes> copyToAsync(WritableResource destination)
+    {
+        return asyncClient().send(newRequest(), constraints, info -> new HttpStatus(info.statusCode()).isOkay()
+                        ? new WritingBodySubscriber(destination)
+                        : BodySubscribers.replacing(null))
+                .thenApply(response ->
+                {
+                    ensureOkay(response.statusCode());
+                    return response.body();
+                });
+    }
+
     /**
      * @return The content encoding once the resource has been opened for reading
      */
@@ -146,18 +229,16 @@ public abstract class BaseHttpResource extends BaseNetworkResource
      */
     public String httpHeadRequestHeaderField(String fieldName)
     {
-        var client = newClient();
         var head = new HttpHead(asUri());
-        try
+        try (var response = clientPool().execute(head, constraints))
         {
-            HttpResponse response = client.execute(head);
-            var value = response.getFirstHeader(fieldName).getValue();
+            var header = response.getFirstHeader(fieldName);
             EntityUtils.consume(response.getEntity());
-            return value;
+            return header == null ? null : header.getValue();
         }
         catch (IOException e)
         {
-            e.printStackTrace();
+            problem(e, "Unable to execute HTTP HEAD request to: $", head);
         }
         return null;
     }
@@ -190,9 +271,21 @@ public abstract class BaseHttpResource extends BaseNetworkResource
     {
         try
         {
-            executeRequest(newRequest());
+            // If the content has already been read and can't be read again,
+            if (contentRead && !isRepeatable())
+            {
+                // and it is not safe to send the request again, fail,
+                if (!isIdempotent(request))
+                {
+                    throw new Problem("Cannot send $ request to $ twice", request.getMethod(), this).asException();
+                }
+
+                // otherwise, send a new request.
+                response = null;
+            }
+            executeRequest();
 
-            if (status().isOkay())
+            if (new HttpStatus(statusCode).isOkay())
             {
                 var entity = response.getEntity();
                 if (entity != null)
@@ -202,6 +295,7 @@ public abstract class BaseHttpResource extends BaseNetworkResource
                     {
                         this.contentEncoding = contentEncoding.getValue();
                     }
+                    contentRead = true;
                     return entity.getContent();
                 }
                 else
@@ -211,6 +305,10 @@ public abstract class BaseHttpResource extends BaseNetworkResource
             }
             else
             {
+                if (response != null)
+                {
+                    EntityUtils.consumeQuietly(response.getEntity());
+                }
                 throw new Problem("Request failed (HTTP status code $): $", status(), this).asException();
             }
         }
@@ -220,12 +318,28 @@ public abstract class BaseHttpResource extends BaseNetworkResource
         }
     }
 
+    /**
+     * Reads the raw body of this resource without blocking the caller
+     *
+     * @return The body of this resource, once it has been received
+     */
+    public CompletableFuture<byte[]> readAsync()
+    {
+        return asyncClient().send(newRequest(), constraints, BodyHandlers.ofByteArray())
+                .thenApply(response ->
+                {
+                    ensureOkay(response.statusCode());
+                    return response.body();
+                });
+    }
+
     /**
      * @return Response header variables
      */
     public VariableMap<String> responseHeader()
     {
-        executeRequest(newRequest());
+        executeRequest();
+        bufferSmallBody();
         return responseHeader;
     }
 
@@ -237,7 +351,8 @@ public abstract class BaseHttpResource extends BaseNetworkResource
     @UmlRelation(label = "yields")
     public HttpStatus status()
     {
-        executeRequest(newRequest());
+        executeRequest();
+        bufferSmallBody();
         return new HttpStatus(statusCode);
     }
 
@@ -248,64 +363,117 @@ public abstract class BaseHttpResource extends BaseNetworkResource
     }
 
     /**
-     * @return A configured HTTP client
+     * @return The client to send asynchronous requests with
      */
-    protected DefaultHttpClient newClient()
+    protected AsyncHttpClient asyncClient()
     {
-        var client = new DefaultHttpClient();
+        return asyncClient == null ? AsyncHttpClient.shared() : asyncClient;
+    }
 
-        // Set timeouts
-        var httpParameters = client.getParams();
-        HttpConnectionParams.setConnectionTimeout(httpParameters,
-                (int) constraints.timeout().asMilliseconds());
-        HttpConnectionParams.setSoTimeout(httpParameters, (int) constraints.timeout().asMilliseconds());
+    /**
+     * @return The pool to execute requests with
+     */
+    protected HttpClientPool clientPool()
+    {
+        return clientPool == null ? HttpClientPool.shared() : clientPool;
+    }
 
-        // add any credentials
-        if (constraints instanceof HttpAccessConstraints)
+    /**
+     * @return The subclass' request object
+     */
+    protected abstract HttpUriRequest newRequest();
+
+    /**
+     * Throws an exception if the given status code is not okay
+     */
+    private void ensureOkay(int statusCode)
+    {
+        var status = new HttpStatus(statusCode);
+        if (!status.isOkay())
         {
-            var httpConstraints = (HttpAccessConstraints) constraints;
-            var credentials = httpConstraints.httpBasicCredentials();
-            if (credentials != null)
-            {
-                client.getCredentialsProvider().setCredentials(
-                        new AuthScope(AuthScope.ANY_HOST, AuthScope.ANY_PORT), new UsernamePasswordCredentials(
-                                credentials.userName().toString(), credentials.password().toString()));
-            }
+            throw new Problem("Request failed (HTTP status code $): $", status, this).asException();
         }
-
-        return client;
     }
 
     /**
-     * @return The subclass' request object
+     * Reads the body of the response into memory if it is small enough and has not been read, so that its connection
+     * returns to the pool. If the body is too large or of unknown length, and the request can be sent again, the body
+     * is discarded instead, which also returns the connection to the pool.
      */
-    protected abstract HttpUriRequest newRequest();
+    private void bufferSmallBody()
+    {
+        if (response != null && !contentRead)
+        {
+            var entity = response.getEntity();
+            if (entity != null && !entity.isRepeatable())
+            {
+                // If the body is small enough,
+                if (entity.getContentLength() >= 0 && entity.getContentLength() <= MAXIMUM_BUFFERED_BODY.asBytes())
+                {
+                    try
+                    {
+                        // read it into memory,
+                        response.setEntity(new BufferedHttpEntity(entity));
+                    }
+                    catch (IOException e)
+                    {
+                        problem(e, "Unable to read response from: $", this);
+                    }
+                }
+                else if (isIdempotent(request))
+                {
+                    // otherwise, abort the request, so the connection is released without reading the body,
+                    // and the request is sent again if the content is read.
+                    request.abort();
+                    contentRead = true;
+                }
+            }
+        }
+    }
 
     /**
-     * Executes the given request, reads the status code and header map
-     *
-     * @param httpRequest The HTTP request to execute
+     * Executes the request for this resource, if it has not already been executed, and reads the status code and header
+     * map
      */
-    private void executeRequest(HttpUriRequest httpRequest)
+    private void executeRequest()
     {
         if (response == null)
         {
+            request = newRequest();
             try
             {
-                response = newClient().execute(httpRequest);
+                response = clientPool().execute(request, constraints);
+                contentRead = false;
                 statusCode = response.getStatusLine().getStatusCode();
-                if (responseHeader != null)
+                responseHeader.clear();
+                for (var header : response.getAllHeaders())
                 {
-                    for (var header : response.getAllHeaders())
-                    {
-                        responseHeader.put(header.getName(), header.getValue());
-                    }
+                    responseHeader.put(header.getName(), header.getValue());
                 }
             }
             catch (Exception e)
             {
-                problem(e, "Unable to execute HTTP request to: $", httpRequest);
+                response = null;
+                problem(e, "Unable to execute HTTP request to: $", request);
             }
         }
     }
+
+    /**
+     * @return True if the given request can be sent more than once without changing anything on the server
+     */
+    private boolean isIdempotent(HttpUriRequest request)
+    {
+        var method = request.getMethod();
+        return method.equals("GET") || method.equals("HEAD");
+    }
+
+    /**
+     * @return True if the content of the response can be read more than once
+     */
+    private boolean isRepeatable()
+    {
+        var entity = response == null ? null : response.getEntity();
+        return entity != null && entity.isRepeatable();
+    }
 }
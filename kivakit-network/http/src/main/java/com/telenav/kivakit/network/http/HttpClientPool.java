@@ -0,0 +1,424 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.network.http;
+
+import com.telenav.kivakit.core.messaging.messages.status.Problem;
+import com.telenav.kivakit.core.time.Duration;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.network.core.NetworkAccessConstraints;
+import com.telenav.kivakit.network.http.lexakai.DiagramHttp;
+import com.telenav.lexakai.annotations.LexakaiJavadoc;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+import org.apache.http.HttpHost;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+
+/**
+ * A pool of keep-alive HTTP connections shared by {@link BaseHttpResource}s. Reusing connections saves the TCP and TLS
+ * handshakes that a new client would otherwise make for every request.
+ *
+ * <p><b>Shared Pools</b></p>
+ *
+ * <ul>
+ *     <li>{@link #shared()} - The pool used by HTTP and HTTPS resources by default</li>
+ *     <li>{@link #invalidCertificateTrusting()} - The pool used by secure resources that ignore invalid certificates</li>
+ * </ul>
+ *
+ * <p><b>Configuration</b></p>
+ *
+ * <p>
+ * A pool can be configured with the methods below until its first request is executed, after which it cannot be
+ * changed:
+ * </p>
+ *
+ * <ul>
+ *     <li>{@link #maximumConnections(Count)} - The maximum number of connections to all hosts</li>
+ *     <li>{@link #maximumConnectionsPerRoute(Count)} - The maximum number of connections to any one host</li>
+ *     <li>{@link #keepAlive(Duration)} - How long to keep a connection open when the server does not say</li>
+ *     <li>{@link #idleTimeout(Duration)} - How long a connection can be idle before it is closed in the background</li>
+ *     <li>{@link #trustInvalidCertificates(boolean)} - True to accept any server certificate</li>
+ * </ul>
+ *
+ * <p><b>Requests</b></p>
+ *
+ * <p>
+ * {@link #execute(HttpUriRequest, NetworkAccessConstraints)} executes a request with the connect, read and pool
+ * timeouts of the given constraints, and with any credentials of {@link HttpAccessConstraints}. The connection of the
+ * response returns to the pool once its entity has been consumed or its content stream closed.
+ * </p>
+ *
+ * <p><b>Statistics</b></p>
+ *
+ * <ul>
+ *     <li>{@link #statistics()} - A snapshot of the requests, connections opened and state of the pool</li>
+ * </ul>
+ *
+ * @author jonathanl (shibo)
+ */
+@UmlClassDiagram(diagram = DiagramHttp.class)
+@LexakaiJavadoc(complete = true)
+public class HttpClientPool
+{
+    /** The pool used by default */
+    private static HttpClientPool shared;
+
+    /** The pool used by secure resources that ignore invalid certificates */
+    private static HttpClientPool trusting;
+
+    /**
+     * @return The pool shared by secure resources that ignore invalid certificates
+     */
+    public static synchronized HttpClientPool invalidCertificateTrusting()
+    {
+        if (trusting == null)
+        {
+            trusting = new HttpClientPool().trustInvalidCertificates(true);
+        }
+        return trusting;
+    }
+
+    /**
+     * @return The pool shared by HTTP and HTTPS resources
+     */
+    public static synchronized HttpClientPool shared()
+    {
+        if (shared == null)
+        {
+            shared = new HttpClientPool();
+        }
+        return shared;
+    }
+
+    /** The client, once built */
+    private CloseableHttpClient client;
+
+    /** The connection manager of the client */
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    /** The number of connections opened */
+    private final LongAdder connectionsOpened = new LongAdder();
+
+    /** How long an idle connection is kept before being evicted */
+    private Duration idleTimeout = Duration.seconds(30);
+
+    /** How long a connection is kept alive when the server doesn't send a Keep-Alive timeout */
+    private Duration keepAlive = Duration.seconds(30);
+
+    /** The maximum number of connections */
+    private Count maximumConnections = Count.count(64);
+
+    /** The maximum number of connections per route */
+    private Count maximumConnectionsPerRoute = Count.count(16);
+
+    /** The number of requests executed */
+    private final LongAdder requests = new LongAdder();
+
+    /** True to trust any server certificate */
+    private boolean trustInvalidCertificates;
+
+    /**
+     * Closes all connections in this pool. A closed pool cannot be used again.
+     */
+    public synchronized void close()
+    {
+        if (client != null)
+        {
+            try
+            {
+                client.close();
+            }
+            catch (IOException e)
+            {
+                throw new Problem(e, "Unable to close HTTP client").asException();
+            }
+        }
+    }
+
+    /**
+     * Executes the given request on a pooled connection
+     *
+     * @param request The request
+     * @param constraints Timeout and any credentials for the request
+     * @return The response, which must be consumed or closed to return its connection to the pool
+     */
+    public CloseableHttpResponse execute(HttpUriRequest request, NetworkAccessConstraints constraints) throws IOException
+    {
+        requests.increment();
+        return client().execute(request, context(constraints));
+    }
+
+    /**
+     * @param idleTimeout The time after which idle connections are closed
+     */
+    public HttpClientPool idleTimeout(Duration idleTimeout)
+    {
+        ensureConfigurable();
+        this.idleTimeout = idleTimeout;
+        return this;
+    }
+
+    /**
+     * @param keepAlive The time to keep a connection alive when the server doesn't specify it
+     */
+    public HttpClientPool keepAlive(Duration keepAlive)
+    {
+        ensureConfigurable();
+        this.keepAlive = keepAlive;
+        return this;
+    }
+
+    /**
+     * @param maximum The maximum number of connections to all hosts
+     */
+    public HttpClientPool maximumConnections(Count maximum)
+    {
+        ensureConfigurable();
+        this.maximumConnections = maximum;
+        return this;
+    }
+
+    /**
+     * @param maximum The maximum number of connections to any one host
+     */
+    public HttpClientPool maximumConnectionsPerRoute(Count maximum)
+    {
+        ensureConfigurable();
+        this.maximumConnectionsPerRoute = maximum;
+        return this;
+    }
+
+    /**
+     * @return A snapshot of the statistics of this pool
+     */
+    public synchronized HttpClientPoolStatistics statistics()
+    {
+        var total = connectionManager == null ? null : connectionManager.getTotalStats();
+        return new HttpClientPoolStatistics(
+                requests.sum(),
+                connectionsOpened.sum(),
+                total == null ? 0 : total.getLeased(),
+                total == null ? 0 : total.getAvailable(),
+                total == null ? 0 : total.getPending(),
+                maximumConnections.asInt());
+    }
+
+    /**
+     * @param trust True to accept any server certificate and host name, which should only be done for hosts with
+     * known invalid certificates
+     */
+    public HttpClientPool trustInvalidCertificates(boolean trust)
+    {
+        ensureConfigurable();
+        this.trustInvalidCertificates = trust;
+        return this;
+    }
+
+    /**
+     * @return The client, built the first time it is needed
+     */
+    private synchronized CloseableHttpClient client()
+    {
+        if (client == null)
+        {
+            var registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                    .register("http", counting(PlainConnectionSocketFactory.getSocketFactory()))
+                    .register("https", counting(sslSocketFactory()))
+                    .build();
+
+            connectionManager = new PoolingHttpClientConnectionManager(registry);
+            connectionManager.setMaxTotal(maximumConnections.asInt());
+            connectionManager.setDefaultMaxPerRoute(maximumConnectionsPerRoute.asInt());
+            connectionManager.setValidateAfterInactivity((int) Duration.seconds(2).asMilliseconds());
+
+            client = HttpClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .setKeepAliveStrategy((response, context) ->
+                    {
+                        var duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                        return duration > 0 ? duration : (long) keepAlive.asMilliseconds();
+                    })
+                    .evictExpiredConnections()
+                    .evictIdleConnections((long) idleTimeout.asMilliseconds(), TimeUnit.MILLISECONDS)
+                    .build();
+        }
+        return client;
+    }
+
+    /**
+     * @return The context for a request with the timeouts and credentials of the given constraints
+     */
+    private HttpClientContext context(NetworkAccessConstraints constraints)
+    {
+        var context = HttpClientContext.create();
+
+        // Set timeouts,
+        var timeout = (int) constraints.timeout().asMilliseconds();
+        context.setRequestConfig(RequestConfig.custom()
+                .setConnectTimeout(timeout)
+                .setSocketTimeout(timeout)
+                .setConnectionRequestTimeout(timeout)
+                .build());
+
+        // and add any credentials.
+        if (constraints instanceof HttpAccessConstraints)
+        {
+            var credentials = ((HttpAccessConstraints) constraints).httpBasicCredentials();
+            if (credentials != null)
+            {
+                var provider = new BasicCredentialsProvider();
+                provider.setCredentials(new AuthScope(AuthScope.ANY_HOST, AuthScope.ANY_PORT),
+                        new UsernamePasswordCredentials(credentials.userName().toString(), credentials.password().toString()));
+                context.setCredentialsProvider(provider);
+            }
+        }
+
+        return context;
+    }
+
+    /**
+     * @return The given socket factory, counting the connections it opens
+     */
+    private ConnectionSocketFactory counting(ConnectionSocketFactory factory)
+    {
+        return new ConnectionSocketFactory()
+        {
+            @Override
+            public Socket connectSocket(int timeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                                        InetSocketAddress localAddress, HttpContext context) throws IOException
+            {
+                connectionsOpened.increment();
+                return factory.connectSocket(timeout, socket, host, remoteAddress, localAddress, context);
+            }
+
+            @Override
+            public Socket createSocket(HttpContext context) throws IOException
+            {
+                return factory.createSocket(context);
+            }
+        };
+    }
+
+    /**
+     * @return The given layered socket factory, counting the connections it opens. The factory returned is layered
+     * too, so that TLS connections can still be tunneled through a proxy.
+     */
+    private LayeredConnectionSocketFactory counting(LayeredConnectionSocketFactory factory)
+    {
+        var counting = counting((ConnectionSocketFactory) factory);
+        return new LayeredConnectionSocketFactory()
+        {
+            @Override
+            public Socket connectSocket(int timeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                                        InetSocketAddress localAddress, HttpContext context) throws IOException
+            {
+                return counting.connectSocket(timeout, socket, host, remoteAddress, localAddress, context);
+            }
+
+            @Override
+            public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context) throws IOException
+            {
+                return factory.createLayeredSocket(socket, target, port, context);
+            }
+
+            @Override
+            public Socket createSocket(HttpContext context) throws IOException
+            {
+                return factory.createSocket(context);
+            }
+        };
+    }
+
+    private synchronized void ensureConfigurable()
+    {
+        ensure(client == null, "HTTP client pool cannot be configured after it has been used");
+    }
+
+    /**
+     * @return The factory for TLS connections
+     */
+    private LayeredConnectionSocketFactory sslSocketFactory()
+    {
+        return trustInvalidCertificates
+                ? new SSLConnectionSocketFactory(trustingSslContext(), NoopHostnameVerifier.INSTANCE)
+                : SSLConnectionSocketFactory.getSocketFactory();
+    }
+
+    /**
+     * @return An SSL context that trusts any server certificate
+     */
+    static SSLContext trustingSslContext()
+    {
+        try
+        {
+            var context = SSLContext.getInstance("TLS");
+            var trustManager = new X509TrustManager()
+            {
+                @Override
+                public void checkClientTrusted(X509Certificate[] xcs, String string)
+                {
+                }
+
+                @Override
+                public void checkServerTrusted(X509Certificate[] xcs, String string)
+                {
+                }
+
+                @Override
+                public X509Certificate[] getAcceptedIssuers()
+                {
+                    return null;
+                }
+            };
+            context.init(null, new TrustManager[] { trustManager }, null);
+            return context;
+        }
+        catch (Exception e)
+        {
+            throw new Problem(e, "Unable to create trusting certificate").asException();
+        }
+    }
+}
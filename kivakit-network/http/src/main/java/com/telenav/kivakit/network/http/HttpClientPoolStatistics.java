@@ -0,0 +1,111 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.network.http;
+
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.core.value.level.Percent;
+import com.telenav.kivakit.network.http.lexakai.DiagramHttp;
+import com.telenav.lexakai.annotations.LexakaiJavadoc;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import static com.telenav.kivakit.core.string.Formatter.format;
+
+/**
+ * A snapshot of the statistics of an {@link HttpClientPool}:
+ *
+ * <ul>
+ *     <li>{@link #requests()} - The number of requests executed</li>
+ *     <li>{@link #connectionsOpened()} - The number of connections opened to servers</li>
+ *     <li>{@link #reuseRate()} - The percentage of requests that were made on an already open connection</li>
+ *     <li>{@link #leased()} - The number of connections in use</li>
+ *     <li>{@link #available()} - The number of idle connections being kept alive</li>
+ *     <li>{@link #pending()} - The number of requests waiting for a connection</li>
+ *     <li>{@link #maximum()} - The maximum number of connections</li>
+ * </ul>
+ *
+ * @author jonathanl (shibo)
+ */
+@UmlClassDiagram(diagram = DiagramHttp.class)
+@LexakaiJavadoc(complete = true)
+public class HttpClientPoolStatistics
+{
+    private final long requests;
+
+    private final long connectionsOpened;
+
+    private final int leased;
+
+    private final int available;
+
+    private final int pending;
+
+    private final int maximum;
+
+    HttpClientPoolStatistics(long requests, long connectionsOpened, int leased, int available, int pending, int maximum)
+    {
+        this.requests = requests;
+        this.connectionsOpened = connectionsOpened;
+        this.leased = leased;
+        this.available = available;
+        this.pending = pending;
+        this.maximum = maximum;
+    }
+
+    public Count available()
+    {
+        return Count.count(available);
+    }
+
+    public Count connectionsOpened()
+    {
+        return Count.count(connectionsOpened);
+    }
+
+    public Count leased()
+    {
+        return Count.count(leased);
+    }
+
+    public Count maximum()
+    {
+        return Count.count(maximum);
+    }
+
+    public Count pending()
+    {
+        return Count.count(pending);
+    }
+
+    public Count requests()
+    {
+        return Count.count(requests);
+    }
+
+    public Percent reuseRate()
+    {
+        return Percent.of(requests == 0 ? 0 : Math.max(0, requests - connectionsOpened) * 100.0 / requests);
+    }
+
+    @Override
+    public String toString()
+    {
+        return format("requests = $, connections opened = $, reuse rate = $, leased = $, available = $, pending = $, maximum = $",
+                requests, connectionsOpened, reuseRate(), leased, available, pending, maximum);
+    }
+}
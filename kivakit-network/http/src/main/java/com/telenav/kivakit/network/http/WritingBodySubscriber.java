@@ -0,0 +1,161 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.network.http;
+
+import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.resource.writing.WritableResource;
+import com.telenav.lexakai.annotations.LexakaiJavadoc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * <b>Not public API</b>
+ *
+ * <p>
+ * Writes a response body to a {@link WritableResource} as it arrives, requesting the next part of the body only once
+ * the previous part has been written. The body is completed with the number of bytes written, or exceptionally if the
+ * body cannot be received or written. The raw bytes of the body are written, without applying the codec of the
+ * resource.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+@LexakaiJavadoc(complete = true)
+class WritingBodySubscriber implements HttpResponse.BodySubscriber<Bytes>
+{
+    /** The resource to write to */
+    private final WritableResource destination;
+
+    /** The stream to the destination, once opened */
+    private OutputStream out;
+
+    /** Completed when the body has been written */
+    private final CompletableFuture<Bytes> result = new CompletableFuture<>();
+
+    /** The subscription supplying the body */
+    private Flow.Subscription subscription;
+
+    /** The number of bytes written */
+    private long written;
+
+    WritingBodySubscriber(WritableResource destination)
+    {
+        this.destination = destination;
+    }
+
+    @Override
+    public CompletionStage<Bytes> getBody()
+    {
+        return result;
+    }
+
+    @Override
+    public void onComplete()
+    {
+        if (close(null))
+        {
+            result.complete(Bytes.bytes(written));
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable)
+    {
+        close(throwable);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> buffers)
+    {
+        try
+        {
+            for (var buffer : buffers)
+            {
+                var size = buffer.remaining();
+                if (buffer.hasArray())
+                {
+                    out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), size);
+                }
+                else
+                {
+                    var bytes = new byte[size];
+                    buffer.get(bytes);
+                    out.write(bytes);
+                }
+                written += size;
+            }
+            subscription.request(1);
+        }
+        catch (IOException e)
+        {
+            subscription.cancel();
+            close(e);
+        }
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription)
+    {
+        this.subscription = subscription;
+        try
+        {
+            out = destination.onOpenForWriting();
+            subscription.request(1);
+        }
+        catch (Exception e)
+        {
+            subscription.cancel();
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Closes the output stream, completing the result exceptionally if there is an error
+     *
+     * @return True if the stream closed without any error
+     */
+    private boolean close(Throwable error)
+    {
+        if (out != null)
+        {
+            try
+            {
+                out.close();
+            }
+            catch (IOException e)
+            {
+                error = error == null ? e : error;
+            }
+            out = null;
+        }
+        if (error != null)
+        {
+            result.completeExceptionally(error);
+            return false;
+        }
+        return true;
+    }
+}
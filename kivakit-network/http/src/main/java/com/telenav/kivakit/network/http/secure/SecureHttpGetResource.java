@@ -19,11 +19,12 @@
 package com.telenav.kivakit.network.http.secure;
 
 import com.telenav.kivakit.network.core.NetworkAccessConstraints;
+import com.telenav.kivakit.network.http.AsyncHttpClient;
+import com.telenav.kivakit.network.http.HttpClientPool;
 import com.telenav.kivakit.network.http.HttpGetResource;
 import com.telenav.kivakit.network.http.lexakai.DiagramHttps;
 import com.telenav.lexakai.annotations.LexakaiJavadoc;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
-import org.apache.http.impl.client.DefaultHttpClient;
 
 import static com.telenav.kivakit.network.core.NetworkAccessConstraints.DEFAULT;
 
@@ -32,7 +33,6 @@ import static com.telenav.kivakit.network.core.NetworkAccessConstraints.DEFAULT;
  *
  * @author jonathanl (shibo)
  */
-@SuppressWarnings("deprecation")
 @UmlClassDiagram(diagram = DiagramHttps.class)
 @LexakaiJavadoc(complete = true)
 public class SecureHttpGetResource extends HttpGetResource
@@ -55,8 +55,14 @@ public class SecureHttpGetResource extends HttpGetResource
     }
 
     @Override
-    protected DefaultHttpClient newClient()
+    protected AsyncHttpClient asyncClient()
     {
-        return ignoreInvalidCertificates ? new InvalidCertificateTrustingHttpClient() : new DefaultHttpClient();
+        return ignoreInvalidCertificates ? AsyncHttpClient.invalidCertificateTrusting() : super.asyncClient();
+    }
+
+    @Override
+    protected HttpClientPool clientPool()
+    {
+        return ignoreInvalidCertificates ? HttpClientPool.invalidCertificateTrusting() : super.clientPool();
     }
 }
@@ -20,18 +20,18 @@ package com.telenav.kivakit.network.http.secure;
 
 import com.telenav.kivakit.network.core.NetworkAccessConstraints;
 import com.telenav.kivakit.network.core.NetworkLocation;
+import com.telenav.kivakit.network.http.AsyncHttpClient;
+import com.telenav.kivakit.network.http.HttpClientPool;
 import com.telenav.kivakit.network.http.HttpPostResource;
 import com.telenav.kivakit.network.http.lexakai.DiagramHttps;
 import com.telenav.lexakai.annotations.LexakaiJavadoc;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
-import org.apache.http.impl.client.DefaultHttpClient;
 
 /**
  * A resource accessed by HTTPS POST at the given network location using the given access constraints.
  *
  * @author jonathanl (shibo)
  */
-@SuppressWarnings("deprecation")
 @UmlClassDiagram(diagram = DiagramHttps.class)
 @LexakaiJavadoc(complete = true)
 public class SecureHttpPostResource extends HttpPostResource
@@ -54,8 +54,14 @@ public class SecureHttpPostResource extends HttpPostResource
     }
 
     @Override
-    protected DefaultHttpClient newClient()
+    protected AsyncHttpClient asyncClient()
     {
-        return ignoreInvalidCertificates ? new InvalidCertificateTrustingHttpClient() : new DefaultHttpClient();
+        return ignoreInvalidCertificates ? AsyncHttpClient.invalidCertificateTrusting() : super.asyncClient();
+    }
+
+    @Override
+    protected HttpClientPool clientPool()
+    {
+        return ignoreInvalidCertificates ? HttpClientPool.invalidCertificateTrusting() : super.clientPool();
     }
 }
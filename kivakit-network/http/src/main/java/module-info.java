@@ -10,6 +10,7 @@ open module kivakit.network.http
     // HTTP
     requires org.apache.httpcomponents.httpclient;
     requires org.apache.httpcomponents.httpcore;
+    requires transitive java.net.http;
 
     // Module exports
     exports com.telenav.kivakit.network.http;
@@ -0,0 +1,197 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.network.http;
+
+import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.filesystem.Folder;
+import com.telenav.kivakit.network.core.NetworkAccessConstraints;
+import com.telenav.kivakit.network.core.NetworkLocation;
+import com.telenav.kivakit.network.core.test.LocalServer;
+import com.telenav.kivakit.test.UnitTest;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AsyncHttpResourceTest extends UnitTest
+{
+    private static final byte[] DATA = data();
+
+    private static final AtomicInteger active = new AtomicInteger();
+
+    private static final AtomicInteger peak = new AtomicInteger();
+
+    private static LocalServer server;
+
+    @BeforeClass
+    public static void start()
+    {
+        server = new LocalServer(AsyncHttpResourceTest::respond);
+    }
+
+    @AfterClass
+    public static void stop()
+    {
+        server.close();
+    }
+
+    @Test
+    public void testBoundedConcurrency()
+    {
+        var client = new AsyncHttpClient().maximumRequestsPerHost(Count._2);
+        peak.set(0);
+
+        var futures = new ArrayList<CompletableFuture<byte[]>>();
+        for (int i = 0; i < 12; i++)
+        {
+            var resource = resource("/slow");
+            resource.asyncClient(client);
+            futures.add(resource.readAsync());
+        }
+        for (var future : futures)
+        {
+            ensureEqualArray(DATA, future.join());
+        }
+        ensure(peak.get() <= 2);
+        ensureEqual(Count._0, client.inFlight(resource("/slow").asUri()));
+    }
+
+    @Test
+    public void testCopyToAsync() throws IOException
+    {
+        var file = Folder.kivakitTest(getClass()).file("async-copy.bin");
+        var written = resource("/data").copyToAsync(file).join();
+        ensureEqual(Bytes.bytes(DATA.length), written);
+        ensureEqualArray(DATA, Files.readAllBytes(file.asJavaFile().toPath()));
+    }
+
+    @Test
+    public void testNotFound()
+    {
+        ensureThrows(() -> resource("/missing").readAsync().join());
+    }
+
+    @Test
+    public void testPostAsync()
+    {
+        var location = NetworkLocation.parseNetworkLocation(this, "http://localhost:" + server.port() + "/echo");
+        var resource = new HttpPostResource(location, NetworkAccessConstraints.DEFAULT)
+        {
+            @Override
+            protected void onInitialize(HttpPost post)
+            {
+                post.setEntity(new StringEntity("{}", ContentType.APPLICATION_JSON));
+            }
+        };
+
+        // The server receives the body along with the content type of the entity.
+        var echo = new String(resource.readAsync().join(), StandardCharsets.ISO_8859_1);
+        ensureEqual(echo, "application/json; charset=UTF-8 {}");
+    }
+
+    @Test
+    public void testReadAsync()
+    {
+        ensureEqualArray(DATA, resource("/data").readAsync().join());
+    }
+
+    private static byte[] data()
+    {
+        var bytes = new byte[256 * 1024];
+        for (int i = 0; i < bytes.length; i++)
+        {
+            bytes[i] = (byte) (i * 31);
+        }
+        return bytes;
+    }
+
+    private static void respond(Socket socket)
+    {
+        try (socket)
+        {
+            var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+            var path = in.readLine().split(" ")[1];
+            var length = 0;
+            String contentType = null;
+            String line;
+            while ((line = in.readLine()) != null && !line.isEmpty())
+            {
+                var lower = line.toLowerCase();
+                if (lower.startsWith("content-length:"))
+                {
+                    length = Integer.parseInt(line.substring("content-length:".length()).trim());
+                }
+                if (lower.startsWith("content-type:"))
+                {
+                    contentType = line.substring("content-type:".length()).trim();
+                }
+            }
+
+            var out = socket.getOutputStream();
+            if (path.startsWith("/echo"))
+            {
+                var body = new char[length];
+                var read = 0;
+                while (read < length)
+                {
+                    read += in.read(body, read, length - read);
+                }
+                var echo = (contentType + " " + new String(body)).getBytes(StandardCharsets.ISO_8859_1);
+                out.write(("HTTP/1.1 200 OK\r\nContent-Length: " + echo.length + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+                out.write(echo);
+                return;
+            }
+            if (path.equals("/missing"))
+            {
+                out.write("HTTP/1.1 404 Not Found\r\nContent-Length: 0\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+                return;
+            }
+            if (path.equals("/slow"))
+            {
+                peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+                Thread.sleep(50);
+                active.decrementAndGet();
+            }
+            out.write(("HTTP/1.1 200 OK\r\nContent-Length: " + DATA.length + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            out.write(DATA);
+        }
+        catch (Exception ignored)
+        {
+        }
+    }
+
+    private HttpGetResource resource(String path)
+    {
+        var location = NetworkLocation.parseNetworkLocation(this, "http://localhost:" + server.port() + path);
+        return new HttpGetResource(location, NetworkAccessConstraints.DEFAULT);
+    }
+}
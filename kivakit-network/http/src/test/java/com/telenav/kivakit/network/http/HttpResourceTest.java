@@ -0,0 +1,249 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.network.http;
+
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.network.core.NetworkAccessConstraints;
+import com.telenav.kivakit.network.core.NetworkLocation;
+import com.telenav.kivakit.network.core.test.LocalServer;
+import com.telenav.kivakit.test.UnitTest;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.StringEntity;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests {@link BaseHttpResource} and {@link HttpClientPool} against a minimal keep-alive HTTP server
+ */
+public class HttpResourceTest extends UnitTest
+{
+    /** A body small enough to be buffered when only the status is needed */
+    private static final String SMALL = "Hello, World!";
+
+    /** A body too large to be buffered */
+    private static final String LARGE = "x".repeat(256 * 1024);
+
+    private static final AtomicInteger connections = new AtomicInteger();
+
+    /** The method, path and body of each request received */
+    private static final List<String> requests = new CopyOnWriteArrayList<>();
+
+    private static LocalServer server;
+
+    @BeforeClass
+    public static void start()
+    {
+        server = new LocalServer(socket ->
+        {
+            connections.incrementAndGet();
+            converse(socket);
+        });
+    }
+
+    @AfterClass
+    public static void stop()
+    {
+        server.close();
+    }
+
+    @Before
+    public void reset()
+    {
+        connections.set(0);
+        requests.clear();
+    }
+
+    @Test
+    public void testGetIsSentAgain()
+    {
+        var resource = get("/large", new HttpClientPool());
+
+        // A large body is read once per request,
+        ensureEqual(resource.asString(), LARGE);
+        ensureEqual(resource.asString(), LARGE);
+
+        // so a GET request is sent again to read it again.
+        ensureEqual(requests.size(), 2);
+    }
+
+    @Test
+    public void testLargeGetReleasesConnection()
+    {
+        var pool = new HttpClientPool().maximumConnectionsPerRoute(Count._1);
+
+        // Checking the status of a large body does not hold its connection,
+        HttpGetResource resource = null;
+        for (int i = 0; i < 3; i++)
+        {
+            resource = get("/large", pool);
+            ensure(resource.status().isOkay());
+            ensureEqual(resource.contentType(), "text/plain");
+            ensureEqual(pool.statistics().leased(), Count._0);
+        }
+
+        // and the body is still read by sending the request again.
+        ensureEqual(resource.asString(), LARGE);
+        ensureEqual(requests.size(), 4);
+    }
+
+    @Test
+    public void testLargePostIsNotSentTwice()
+    {
+        var resource = post("/large", "data");
+
+        // Checking the status and then reading the body sends one request,
+        ensure(resource.status().isOkay());
+        ensureEqual(resource.asString(), LARGE);
+        ensureEqual(requests, List.of("POST /large data"));
+
+        // and reading the body again fails instead of sending it again.
+        ensureThrows(resource::asString);
+        ensureEqual(requests.size(), 1);
+    }
+
+    @Test
+    public void testPoolReusesConnections()
+    {
+        var pool = new HttpClientPool().maximumConnectionsPerRoute(Count._1);
+        for (int i = 0; i < 5; i++)
+        {
+            var resource = get("/small", pool);
+            ensure(resource.status().isOkay());
+            ensureEqual(resource.contentType(), "text/plain");
+            ensureEqual(resource.asString(), SMALL);
+        }
+
+        // Each request is executed once, on one kept-alive connection.
+        ensureEqual(requests.size(), 5);
+        ensureEqual(connections.get(), 1);
+        ensureEqual(pool.statistics().requests(), Count._5);
+        ensureEqual(pool.statistics().connectionsOpened(), Count._1);
+        ensureEqual(pool.statistics().leased(), Count._0);
+    }
+
+    @Test
+    public void testSmallPostIsSentOnce()
+    {
+        var resource = post("/small", "data");
+
+        // Checking the status and header and reading the body twice sends one request.
+        ensure(resource.status().isOkay());
+        ensureEqual(resource.responseHeader().get("Content-Type"), "text/plain");
+        ensureEqual(resource.asString(), SMALL);
+        ensureEqual(resource.asString(), SMALL);
+        ensureEqual(requests, List.of("POST /small data"));
+    }
+
+    /**
+     * Responds to each request on the given connection, until the client closes it
+     */
+    private static void converse(Socket socket)
+    {
+        try (socket)
+        {
+            var in = new BufferedInputStream(socket.getInputStream());
+            var out = socket.getOutputStream();
+            String requestLine;
+            while ((requestLine = readLine(in)) != null)
+            {
+                // Read the headers,
+                var length = 0;
+                String line;
+                while ((line = readLine(in)) != null && !line.isEmpty())
+                {
+                    if (line.toLowerCase().startsWith("content-length:"))
+                    {
+                        length = Integer.parseInt(line.substring("content-length:".length()).trim());
+                    }
+                }
+
+                // record the method, path and body of the request,
+                var method = requestLine.split(" ")[0];
+                var path = requestLine.split(" ")[1].replaceAll("\\?.*", "");
+                var body = new String(in.readNBytes(length), StandardCharsets.UTF_8);
+                requests.add(body.isEmpty() ? method + " " + path : method + " " + path + " " + body);
+
+                // and send the response.
+                var content = (path.equals("/large") ? LARGE : SMALL).getBytes(StandardCharsets.UTF_8);
+                out.write(("HTTP/1.1 200 OK\r\nContent-Type: text/plain\r\nContent-Length: " + content.length + "\r\n\r\n")
+                        .getBytes(StandardCharsets.ISO_8859_1));
+                out.write(content);
+                out.flush();
+            }
+        }
+        catch (IOException ignored)
+        {
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException
+    {
+        var line = new StringBuilder();
+        int next;
+        while ((next = in.read()) != '\n')
+        {
+            if (next < 0)
+            {
+                return line.length() == 0 ? null : line.toString();
+            }
+            if (next != '\r')
+            {
+                line.append((char) next);
+            }
+        }
+        return line.toString();
+    }
+
+    private HttpGetResource get(String path, HttpClientPool pool)
+    {
+        var resource = new HttpGetResource(location(path), NetworkAccessConstraints.DEFAULT);
+        resource.clientPool(pool);
+        return resource;
+    }
+
+    private NetworkLocation location(String path)
+    {
+        return NetworkLocation.parseNetworkLocation(this, "http://localhost:" + server.port() + path);
+    }
+
+    private HttpPostResource post(String path, String body)
+    {
+        var resource = new HttpPostResource(location(path), NetworkAccessConstraints.DEFAULT)
+        {
+            @Override
+            protected void onInitialize(HttpPost post)
+            {
+                post.setEntity(new StringEntity(body, StandardCharsets.UTF_8));
+            }
+        };
+        resource.clientPool(new HttpClientPool());
+        return resource;
+    }
+}
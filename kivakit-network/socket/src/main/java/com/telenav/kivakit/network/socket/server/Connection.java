@@ -0,0 +1,257 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.network.socket.server;
+
+import com.telenav.kivakit.core.time.Duration;
+import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.network.socket.lexakai.DiagramSocketServer;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.telenav.kivakit.core.string.Formatter.format;
+
+/**
+ * A client connection accepted by a {@link ConnectionListener}. The streams returned by {@link #input()} and
+ * {@link #output()} count the bytes read and written, and the connection records how long it waited for a thread and
+ * how long it has been open:
+ *
+ * <ul>
+ *     <li>{@link #bytesRead()} - The number of bytes read from {@link #input()}</li>
+ *     <li>{@link #bytesWritten()} - The number of bytes written to {@link #output()}</li>
+ *     <li>{@link #queueTime()} - The time between accepting the connection and starting to handle it</li>
+ *     <li>{@link #duration()} - The time the connection has been handled for</li>
+ *     <li>{@link #isTimedOut()} - True if a read timed out because the client was idle</li>
+ * </ul>
+ *
+ * @author jonathanl (shibo)
+ */
+@UmlClassDiagram(diagram = DiagramSocketServer.class)
+public class Connection implements Closeable
+{
+    /** The time the connection was accepted */
+    private final long acceptedNanoseconds = System.nanoTime();
+
+    /** The number of bytes read */
+    private final AtomicLong bytesRead = new AtomicLong();
+
+    /** The number of bytes written */
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    /** The time handling the connection ended */
+    private volatile long closedNanoseconds;
+
+    /** The metered input stream, once requested */
+    private InputStream input;
+
+    /** The metered output stream, once requested */
+    private OutputStream output;
+
+    /** The socket */
+    private final Socket socket;
+
+    /** The time handling the connection started */
+    private volatile long startedNanoseconds;
+
+    /** True if a read timed out */
+    private volatile boolean timedOut;
+
+    Connection(Socket socket)
+    {
+        this.socket = socket;
+    }
+
+    public Bytes bytesRead()
+    {
+        return Bytes.bytes(bytesRead.get());
+    }
+
+    public Bytes bytesWritten()
+    {
+        return Bytes.bytes(bytesWritten.get());
+    }
+
+    @Override
+    public void close()
+    {
+        try
+        {
+            socket.close();
+        }
+        catch (IOException ignored)
+        {
+        }
+    }
+
+    /**
+     * @return The time this connection has been handled for, or was handled for if handling has ended
+     */
+    public Duration duration()
+    {
+        if (startedNanoseconds == 0)
+        {
+            return Duration.NONE;
+        }
+        var end = closedNanoseconds == 0 ? System.nanoTime() : closedNanoseconds;
+        return Duration.nanoseconds(end - startedNanoseconds);
+    }
+
+    /**
+     * @return A stream that reads from the socket, counting the bytes read
+     */
+    public synchronized InputStream input() throws IOException
+    {
+        if (input == null)
+        {
+            input = new FilterInputStream(socket.getInputStream())
+            {
+                @Override
+                public int read() throws IOException
+                {
+                    try
+                    {
+                        var value = in.read();
+                        if (value >= 0)
+                        {
+                            bytesRead.incrementAndGet();
+                        }
+                        return value;
+                    }
+                    catch (SocketTimeoutException e)
+                    {
+                        timedOut = true;
+                        throw e;
+                    }
+                }
+
+                @Override
+                public int read(byte[] bytes, int offset, int length) throws IOException
+                {
+                    try
+                    {
+                        var read = in.read(bytes, offset, length);
+                        if (read > 0)
+                        {
+                            bytesRead.addAndGet(read);
+                        }
+                        return read;
+                    }
+                    catch (SocketTimeoutException e)
+                    {
+                        timedOut = true;
+                        throw e;
+                    }
+                }
+            };
+        }
+        return input;
+    }
+
+    /**
+     * @return True if a read from {@link #input()} timed out because the client was idle for longer than the idle
+     * timeout of the listener
+     */
+    public boolean isTimedOut()
+    {
+        return timedOut;
+    }
+
+    /**
+     * @return A stream that writes to the socket, counting the bytes written
+     */
+    public synchronized OutputStream output() throws IOException
+    {
+        if (output == null)
+        {
+            output = new FilterOutputStream(socket.getOutputStream())
+            {
+                @Override
+                public void write(int value) throws IOException
+                {
+                    out.write(value);
+                    bytesWritten.incrementAndGet();
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException
+                {
+                    out.write(bytes, offset, length);
+                    bytesWritten.addAndGet(length);
+                }
+            };
+        }
+        return output;
+    }
+
+    /**
+     * @return The time this connection waited between being accepted and being handled
+     */
+    public Duration queueTime()
+    {
+        return Duration.nanoseconds(queueNanoseconds());
+    }
+
+    /**
+     * @return The socket for this connection
+     */
+    public Socket socket()
+    {
+        return socket;
+    }
+
+    @Override
+    public String toString()
+    {
+        return format("$ (read $, wrote $, queued $, handled $)", socket.getRemoteSocketAddress(),
+                bytesRead(), bytesWritten(), queueTime(), duration()) + (timedOut ? " timed out" : "");
+    }
+
+    /**
+     * Records that handling of this connection has ended
+     */
+    void ended()
+    {
+        closedNanoseconds = System.nanoTime();
+    }
+
+    /**
+     * @return The time in nanoseconds between accepting this connection and starting to handle it
+     */
+    long queueNanoseconds()
+    {
+        var start = startedNanoseconds == 0 ? System.nanoTime() : startedNanoseconds;
+        return start - acceptedNanoseconds;
+    }
+
+    /**
+     * Records that handling of this connection has started
+     */
+    void started()
+    {
+        startedNanoseconds = System.nanoTime();
+    }
+}
@@ -22,19 +22,53 @@ import com.telenav.kivakit.core.messaging.repeaters.BaseRepeater;
 import com.telenav.kivakit.core.thread.KivaKitThread;
 import com.telenav.kivakit.core.thread.Threads;
 import com.telenav.kivakit.core.time.Duration;
+import com.telenav.kivakit.core.value.count.Count;
 import com.telenav.kivakit.core.value.count.Maximum;
 import com.telenav.kivakit.network.socket.lexakai.DiagramSocketServer;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
+import java.io.IOException;
 import java.net.BindException;
-import java.net.ServerSocket;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
 /**
  * Listens for client connections on a given port. Each new connection is passed to the socket {@link Consumer} passed
- * to {@link #listen(Consumer)} on an {@link ExecutorService}.
+ * to {@link #listen(Consumer)}, or the connection {@link Consumer} passed to {@link #serve(Consumer)}, on an
+ * {@link ExecutorService}.
+ *
+ * <p><b>Threads</b></p>
+ *
+ * <p>
+ * By default, each connection is handled on its own thread, so a slow client only holds up its own connection. A
+ * virtual thread is used when the Java runtime supports virtual threads, and otherwise a platform thread (see
+ * {@link Threads#threadPerTask(String)}). A different executor can be given to {@link #executor(ExecutorService)}.
+ * </p>
+ *
+ * <p><b>Configuration</b></p>
+ *
+ * <ul>
+ *     <li>{@link #backlog(Count)} - The number of connections the operating system will queue before they are accepted</li>
+ *     <li>{@link #maximumConnections(Maximum)} - The maximum number of connections handled at once. When this many
+ *     connections are open, new connections wait in the backlog until a connection closes.</li>
+ *     <li>{@link #idleTimeout(Duration)} - How long a read can wait for an idle client before timing out</li>
+ * </ul>
+ *
+ * <p><b>Metrics</b></p>
+ *
+ * <p>
+ * Connections passed to {@link #serve(Consumer)} count the bytes read and written through their streams, and record
+ * how long they waited to be handled and how long they were handled for (see {@link Connection}). Totals for all
+ * connections are available from {@link #statistics()}.
+ * </p>
  *
  * @author jonathanl (shibo)
  */
@@ -45,7 +79,46 @@ public class ConnectionListener extends BaseRepeater
 
     private final int retries;
 
-    private final ExecutorService executor = Threads.threadPool("Listener");
+    /** The number of connections accepted */
+    private final LongAdder accepted = new LongAdder();
+
+    /** The number of connections being handled */
+    private final AtomicInteger active = new AtomicInteger();
+
+    /** The number of connections the operating system queues before they are accepted */
+    private Count backlog = Count.count(50);
+
+    /** The number of bytes read by closed connections */
+    private final LongAdder bytesRead = new LongAdder();
+
+    /** The number of bytes written by closed connections */
+    private final LongAdder bytesWritten = new LongAdder();
+
+    /** The server channel, while listening */
+    private volatile ServerSocketChannel channel;
+
+    /** The number of closed connections */
+    private final LongAdder closed = new LongAdder();
+
+    private ExecutorService executor = Threads.threadPerTask("Listener");
+
+    /** The time a read waits for an idle client */
+    private Duration idleTimeout = Duration.MAXIMUM;
+
+    /** The maximum number of connections handled at once */
+    private Maximum maximumConnections = Maximum.MAXIMUM;
+
+    /** The largest number of connections handled at once */
+    private final AtomicInteger peakActive = new AtomicInteger();
+
+    /** The total time closed connections waited to be handled */
+    private final LongAdder queueNanoseconds = new LongAdder();
+
+    /** True once stopped */
+    private volatile boolean stopped;
+
+    /** The number of closed connections that timed out */
+    private final LongAdder timedOut = new LongAdder();
 
     public ConnectionListener(int port)
     {
@@ -58,35 +131,200 @@ public class ConnectionListener extends BaseRepeater
         this.retries = retries.asInt();
     }
 
+    /**
+     * @param backlog The number of connections the operating system will queue before they are accepted
+     */
+    public ConnectionListener backlog(Count backlog)
+    {
+        this.backlog = backlog;
+        return this;
+    }
+
+    /**
+     * @param executor The executor to handle connections on
+     */
+    public ConnectionListener executor(ExecutorService executor)
+    {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * @param idleTimeout The time a read can wait for data from an idle client before it throws a
+     * {@link java.net.SocketTimeoutException}
+     */
+    public ConnectionListener idleTimeout(Duration idleTimeout)
+    {
+        this.idleTimeout = idleTimeout;
+        return this;
+    }
+
+    /**
+     * Listens for connections, passing each socket to the given listener. The listener is responsible for closing the
+     * socket. If the listener returns before the socket is closed, the connection no longer counts towards the
+     * {@link #maximumConnections(Maximum)}.
+     */
     public void listen(Consumer<Socket> listener)
     {
-        var outer = this;
+        listen(connection -> listener.accept(connection.socket()), false);
+    }
+
+    /**
+     * @param maximum The maximum number of connections handled at once
+     */
+    public ConnectionListener maximumConnections(Maximum maximum)
+    {
+        this.maximumConnections = maximum;
+        return this;
+    }
+
+    /**
+     * Listens for connections, passing each connection to the given handler. The connection is closed when the
+     * handler returns.
+     */
+    public void serve(Consumer<Connection> handler)
+    {
+        listen(handler, true);
+    }
+
+    /**
+     * @return A snapshot of the statistics of this listener
+     */
+    public ConnectionListenerStatistics statistics()
+    {
+        return new ConnectionListenerStatistics(
+                accepted.sum(),
+                active.get(),
+                peakActive.get(),
+                closed.sum(),
+                timedOut.sum(),
+                bytesRead.sum(),
+                bytesWritten.sum(),
+                queueNanoseconds.sum());
+    }
+
+    /**
+     * Stops listening for connections. Connections that are being handled are not interrupted.
+     */
+    public void stop()
+    {
+        stopped = true;
+        var channel = this.channel;
+        if (channel != null)
+        {
+            try
+            {
+                channel.close();
+            }
+            catch (IOException e)
+            {
+                warning(e, "Unable to close server socket on port $", port());
+            }
+        }
+    }
+
+    /**
+     * Handles the given accepted connection on the executor
+     */
+    private void handle(SocketChannel socketChannel, Semaphore permits, Consumer<Connection> handler, boolean close)
+            throws IOException
+    {
+        var socket = socketChannel.socket();
+        trace("Accepted connection on $", socket);
+        socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, idleTimeout.milliseconds()));
+        socket.setKeepAlive(true);
+
+        var connection = new Connection(socket);
+        accepted.increment();
+        peakActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+
+        try
+        {
+            executor.execute(() ->
+            {
+                connection.started();
+                try
+                {
+                    handler.accept(connection);
+                }
+                catch (Exception e)
+                {
+                    warning(e, "Unable to handle connection $", connection);
+                }
+                finally
+                {
+                    connection.ended();
+                    if (close)
+                    {
+                        connection.close();
+                    }
+                    ended(connection, permits);
+                }
+            });
+        }
+        catch (Exception e)
+        {
+            connection.close();
+            ended(connection, permits);
+            throw e;
+        }
+    }
+
+    /**
+     * Records the metrics of the given connection once it has been handled
+     */
+    private void ended(Connection connection, Semaphore permits)
+    {
+        active.decrementAndGet();
+        closed.increment();
+        bytesRead.add(connection.bytesRead().asBytes());
+        bytesWritten.add(connection.bytesWritten().asBytes());
+        queueNanoseconds.add(connection.queueNanoseconds());
+        if (connection.isTimedOut())
+        {
+            timedOut.increment();
+        }
+        permits.release();
+        trace("Closed connection $", connection);
+    }
+
+    private void listen(Consumer<Connection> handler, boolean close)
+    {
         KivaKitThread.run(this, "ConnectionListener", () ->
         {
+            var permits = new Semaphore(maximumConnections.asInt());
             int bindFailures = 0;
-            while (bindFailures < retries)
+            while (!stopped && bindFailures < retries)
             {
                 trace("Creating server socket on port $", port());
-                try (var serverSocket = new ServerSocket(port()))
+                try (var serverChannel = ServerSocketChannel.open())
                 {
-                    //noinspection InfiniteLoopStatement
-                    while (true)
+                    serverChannel.bind(new InetSocketAddress(port()), backlog.asInt());
+                    channel = serverChannel;
+                    announce("Waiting for connections");
+                    while (!stopped)
                     {
                         try
                         {
-                            announce("Waiting for connections");
-                            var socket = serverSocket.accept();
-                            if (socket != null)
+                            // Wait until there are fewer than the maximum number of connections,
+                            permits.acquire();
+
+                            // then accept the next one and handle it.
+                            SocketChannel socketChannel;
+                            try
                             {
-                                trace("Accepted connection on $", socket);
-                                socket.setSoTimeout(Integer.MAX_VALUE);
-                                socket.setKeepAlive(true);
-                                outer.executor.execute(() -> listener.accept(socket));
+                                socketChannel = serverChannel.accept();
                             }
-                            else
+                            catch (Exception e)
                             {
-                                warning("Connection failed");
+                                permits.release();
+                                throw e;
                             }
+                            handle(socketChannel, permits, handler, close);
+                        }
+                        catch (ClosedChannelException e)
+                        {
+                            break;
                         }
                         catch (Exception e)
                         {
@@ -103,7 +341,10 @@ public class ConnectionListener extends BaseRepeater
                     }
                     warning(e, "Connection failed");
                 }
-                Duration.seconds(1).sleep();
+                if (!stopped)
+                {
+                    Duration.seconds(1).sleep();
+                }
             }
         });
     }
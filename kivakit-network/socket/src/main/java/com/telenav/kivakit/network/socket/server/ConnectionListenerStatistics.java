@@ -0,0 +1,123 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.network.socket.server;
+
+import com.telenav.kivakit.core.time.Duration;
+import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.network.socket.lexakai.DiagramSocketServer;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import static com.telenav.kivakit.core.string.Formatter.format;
+
+/**
+ * A snapshot of the statistics of a {@link ConnectionListener}:
+ *
+ * <ul>
+ *     <li>{@link #accepted()} - The number of connections accepted</li>
+ *     <li>{@link #active()} - The number of connections being handled</li>
+ *     <li>{@link #peakActive()} - The largest number of connections that have been handled at once</li>
+ *     <li>{@link #timedOut()} - The number of closed connections that timed out because the client was idle</li>
+ *     <li>{@link #bytesRead()} - The number of bytes read by closed connections</li>
+ *     <li>{@link #bytesWritten()} - The number of bytes written by closed connections</li>
+ *     <li>{@link #averageQueueTime()} - The average time closed connections waited to be handled</li>
+ * </ul>
+ *
+ * @author jonathanl (shibo)
+ */
+@UmlClassDiagram(diagram = DiagramSocketServer.class)
+public class ConnectionListenerStatistics
+{
+    private final long accepted;
+
+    private final int active;
+
+    private final int peakActive;
+
+    private final long closed;
+
+    private final long timedOut;
+
+    private final long bytesRead;
+
+    private final long bytesWritten;
+
+    private final long queueNanoseconds;
+
+    ConnectionListenerStatistics(long accepted,
+                                 int active,
+                                 int peakActive,
+                                 long closed,
+                                 long timedOut,
+                                 long bytesRead,
+                                 long bytesWritten,
+                                 long queueNanoseconds)
+    {
+        this.accepted = accepted;
+        this.active = active;
+        this.peakActive = peakActive;
+        this.closed = closed;
+        this.timedOut = timedOut;
+        this.bytesRead = bytesRead;
+        this.bytesWritten = bytesWritten;
+        this.queueNanoseconds = queueNanoseconds;
+    }
+
+    public Count accepted()
+    {
+        return Count.count(accepted);
+    }
+
+    public Count active()
+    {
+        return Count.count(active);
+    }
+
+    public Duration averageQueueTime()
+    {
+        return Duration.nanoseconds(closed == 0 ? 0 : queueNanoseconds / closed);
+    }
+
+    public Bytes bytesRead()
+    {
+        return Bytes.bytes(bytesRead);
+    }
+
+    public Bytes bytesWritten()
+    {
+        return Bytes.bytes(bytesWritten);
+    }
+
+    public Count peakActive()
+    {
+        return Count.count(peakActive);
+    }
+
+    public Count timedOut()
+    {
+        return Count.count(timedOut);
+    }
+
+    @Override
+    public String toString()
+    {
+        return format("accepted = $, active = $, peak active = $, timed out = $, bytes read = $, bytes written = $, average queue time = $",
+                accepted, active, peakActive, timedOut, bytesRead(), bytesWritten(), averageQueueTime());
+    }
+}
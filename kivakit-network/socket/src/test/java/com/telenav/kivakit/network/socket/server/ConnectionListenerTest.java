@@ -0,0 +1,254 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.network.socket.server;
+
+import com.telenav.kivakit.core.time.Duration;
+import com.telenav.kivakit.core.value.count.Maximum;
+import com.telenav.kivakit.test.UnitTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Tests {@link ConnectionListener} with local clients
+ */
+public class ConnectionListenerTest extends UnitTest
+{
+    private ConnectionListener listener;
+
+    private int port;
+
+    @Before
+    public void setup() throws IOException
+    {
+        // Find a free port to listen on
+        try (var socket = new ServerSocket(0))
+        {
+            port = socket.getLocalPort();
+        }
+    }
+
+    @After
+    public void stopListening()
+    {
+        if (listener != null)
+        {
+            listener.stop();
+        }
+    }
+
+    @Test
+    public void testBytes() throws IOException
+    {
+        // Serve connections by echoing a line, reading one byte at a time,
+        var handled = new AtomicReference<Connection>();
+        listener = listenTo(new ConnectionListener(port));
+        listener.serve(connection ->
+        {
+            try
+            {
+                var input = connection.input();
+                var output = connection.output();
+                for (int value; (value = input.read()) >= 0; )
+                {
+                    output.write(value);
+                    if (value == '\n')
+                    {
+                        break;
+                    }
+                }
+                output.flush();
+                handled.set(connection);
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        // send a line and read it back,
+        try (var client = connect())
+        {
+            client.getOutputStream().write("hello\n".getBytes());
+            ensureEqual(new String(client.getInputStream().readNBytes(6)), "hello\n");
+        }
+
+        // then check the bytes counted by the connection and by the listener.
+        waitFor(() -> listener.statistics().active().asInt() == 0 && handled.get() != null);
+        ensureEqual(handled.get().bytesRead().asBytes(), 6L);
+        ensureEqual(handled.get().bytesWritten().asBytes(), 6L);
+
+        var statistics = listener.statistics();
+        ensureEqual(statistics.accepted().asInt(), 1);
+        ensureEqual(statistics.bytesRead().asBytes(), 6L);
+        ensureEqual(statistics.bytesWritten().asBytes(), 6L);
+        ensureEqual(statistics.timedOut().asInt(), 0);
+    }
+
+    @Test
+    public void testIdleTimeout() throws IOException
+    {
+        // Serve connections by reading from clients that may go idle,
+        var timedOut = new CountDownLatch(1);
+        listener = listenTo(new ConnectionListener(port).idleTimeout(Duration.milliseconds(200)));
+        listener.serve(connection ->
+        {
+            try
+            {
+                connection.input().read();
+            }
+            catch (SocketTimeoutException e)
+            {
+                timedOut.countDown();
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        // connect a client that sends nothing,
+        try (var ignored = connect())
+        {
+            // and the read times out and is counted.
+            ensure(await(timedOut));
+            waitFor(() -> listener.statistics().timedOut().asInt() == 1);
+            ensureEqual(listener.statistics().bytesRead().asBytes(), 0L);
+        }
+    }
+
+    @Test
+    public void testMaximumConnections() throws IOException
+    {
+        // Serve at most one connection at a time, holding each connection open until released,
+        var release = new CountDownLatch(1);
+        listener = listenTo(new ConnectionListener(port).maximumConnections(Maximum.maximum(1)));
+        listener.serve(connection -> await(release));
+
+        try (var ignored1 = connect())
+        {
+            waitFor(() -> listener.statistics().active().asInt() == 1);
+
+            // so a second client waits in the backlog without being accepted,
+            try (var ignored2 = connect())
+            {
+                Duration.milliseconds(250).sleep();
+                ensureEqual(listener.statistics().accepted().asInt(), 1);
+
+                // until the first connection ends.
+                release.countDown();
+                waitFor(() -> listener.statistics().accepted().asInt() == 2);
+                waitFor(() -> listener.statistics().active().asInt() == 0);
+                ensureEqual(listener.statistics().peakActive().asInt(), 1);
+            }
+        }
+    }
+
+    @Test
+    public void testStop() throws IOException
+    {
+        // Listen for connections,
+        listener = listenTo(new ConnectionListener(port));
+        listener.listen(socket ->
+        {
+            try
+            {
+                socket.close();
+            }
+            catch (IOException ignored)
+            {
+            }
+        });
+        connect().close();
+
+        // stop listening,
+        listener.stop();
+
+        // and the port is released, and not bound again.
+        waitFor(this::isPortFree);
+        Duration.milliseconds(1_500).sleep();
+        ensure(isPortFree());
+    }
+
+    private boolean await(CountDownLatch latch)
+    {
+        try
+        {
+            return latch.await(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * @return A client connected to the listener, once it is listening
+     */
+    private Socket connect() throws IOException
+    {
+        for (var attempt = 0; ; attempt++)
+        {
+            try
+            {
+                return new Socket(InetAddress.getLoopbackAddress(), port);
+            }
+            catch (IOException e)
+            {
+                if (attempt == 100)
+                {
+                    throw e;
+                }
+                Duration.milliseconds(50).sleep();
+            }
+        }
+    }
+
+    private boolean isPortFree()
+    {
+        try (var ignored = new ServerSocket(port))
+        {
+            return true;
+        }
+        catch (IOException e)
+        {
+            return false;
+        }
+    }
+
+    private void waitFor(BooleanSupplier condition)
+    {
+        for (var i = 0; i < 200 && !condition.getAsBoolean(); i++)
+        {
+            Duration.milliseconds(50).sleep();
+        }
+        ensure(condition.getAsBoolean());
+    }
+}
@@ -40,6 +40,7 @@ import com.telenav.kivakit.resource.Resource;
 import com.telenav.kivakit.resource.ResourceIdentifier;
 import com.telenav.kivakit.resource.ResourcePath;
 import com.telenav.kivakit.resource.compression.Codec;
+import com.telenav.kivakit.resource.compression.codecs.NullCodec;
 import com.telenav.kivakit.resource.lexakai.DiagramFileSystemFile;
 import com.telenav.kivakit.resource.lexakai.DiagramResourceService;
 import com.telenav.kivakit.resource.spi.ResourceResolver;
@@ -105,6 +106,7 @@ import static com.telenav.kivakit.filesystem.loader.FileSystemServiceLoader.file
  *     <li>{@link #ensureWritable()}</li>
  *     <li>{@link #isFile()}</li>
  *     <li>{@link #isFolder()}</li>
+ *     <li>{@link #isMemoryMapped()}</li>
  *     <li>{@link #isNewerThan(File)}</li>
  *     <li>{@link #isOlderThan(File)}</li>
  * </ul>
@@ -123,6 +125,7 @@ import static com.telenav.kivakit.filesystem.loader.FileSystemServiceLoader.file
  *     <li>{@link #withCharset(Charset)}</li>
  *     <li>{@link #withCodec(Codec)}</li>
  *     <li>{@link #withExtension(Extension)}</li>
+ *     <li>{@link #withMemoryMapping()}</li>
  *     <li>{@link #withoutExtension()}</li>
  *     <li>{@link #withoutCompoundExtension()}</li>
  *     <li>{@link #withoutKnownExtensions()}</li>
@@ -329,6 +332,9 @@ public class File extends BaseWritableResource implements FileSystemObject
         }
     }
 
+    /** True if this file should be memory-mapped by readers and writers that support it */
+    private boolean memoryMapped;
+
     @UmlAggregation(label = "delegates to")
     private final FileService service;
 
@@ -349,6 +355,7 @@ public class File extends BaseWritableResource implements FileSystemObject
     {
         super(that);
         service = that.service;
+        memoryMapped = that.memoryMapped;
     }
 
     /**
@@ -490,6 +497,15 @@ public class File extends BaseWritableResource implements FileSystemObject
         return service.isFolder();
     }
 
+    /**
+     * @return True if this file was requested with {@link #withMemoryMapping()}, and it is an uncompressed file on the
+     * local filesystem, which can be mapped into memory
+     */
+    public boolean isMemoryMapped()
+    {
+        return memoryMapped && !isRemote() && asJavaFile() != null && codec() instanceof NullCodec;
+    }
+
     /**
      * @return True if this file is newer than the given file
      */
@@ -748,6 +764,18 @@ public class File extends BaseWritableResource implements FileSystemObject
         return File.parseFile(this, path().toString() + extension);
     }
 
+    /**
+     * @return This file, to be read and written by mapping it into memory, where the reader or writer supports it.
+     * Memory-mapped access avoids copying file data through buffers on the Java heap, which makes reading large files
+     * faster.
+     */
+    public File withMemoryMapping()
+    {
+        var file = new File(this);
+        file.memoryMapped = true;
+        return file;
+    }
+
     /**
      * @return This file without any extensions at all, taking into account compound extensions like ".tar.gz"
      */
@@ -166,6 +166,7 @@ import static com.telenav.kivakit.resource.ResourceList.resourceList;
  *     <li>{@link #clearAllAndDelete()} - Removes everything in this folder and then deletes it</li>
  *     <li>{@link #copyTo(Folder, CopyMode, ProgressReporter)} - Copies this folder to the given folder</li>
  *     <li>{@link #copyTo(Folder, CopyMode, Matcher, ProgressReporter)} - Copies the matching files in this folder to the given folder</li>
+ *     <li>{@link #copier(Folder)} - A {@link FolderCopier} that copies this folder to the given folder in parallel</li>
  *     <li>{@link #delete()} - Deletes this folder if it is empty</li>
  *     <li>{@link #mkdirs()} - Creates this folder and any required parent folders</li>
  *     <li>{@link #renameTo(Folder)} - Renames this folder to the given folder</li>
@@ -631,6 +632,14 @@ public class Folder extends BaseRepeater implements
         return name().compareTo(that.name());
     }
 
+    /**
+     * @return A {@link FolderCopier} that copies the nested files of this folder to the given folder in parallel
+     */
+    public FolderCopier copier(Folder destination)
+    {
+        return listenTo(new FolderCopier(this, destination));
+    }
+
     /**
      * Copies all nested files matching the given matcher from this folder to the destination folder.
      */
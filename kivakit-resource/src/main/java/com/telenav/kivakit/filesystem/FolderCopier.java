@@ -0,0 +1,329 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.filesystem;
+
+import com.telenav.kivakit.core.messaging.repeaters.BaseRepeater;
+import com.telenav.kivakit.core.progress.ProgressReporter;
+import com.telenav.kivakit.core.progress.reporters.BroadcastingProgressReporter;
+import com.telenav.kivakit.core.progress.reporters.ConcurrentBroadcastingProgressReporter;
+import com.telenav.kivakit.core.thread.Threads;
+import com.telenav.kivakit.core.time.Time;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.core.vm.JavaVirtualMachine;
+import com.telenav.kivakit.interfaces.comparison.Filter;
+import com.telenav.kivakit.interfaces.comparison.Matcher;
+import com.telenav.kivakit.resource.CopyMode;
+import com.telenav.kivakit.resource.lexakai.DiagramFileSystemFolder;
+import com.telenav.lexakai.annotations.LexakaiJavadoc;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+import com.telenav.lexakai.annotations.associations.UmlRelation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Copies the nested files of a folder to another folder in parallel. This is faster than {@link Folder#copyTo(Folder,
+ * CopyMode, Matcher, ProgressReporter)} for folders holding many files.
+ *
+ * <p><b>Copying</b></p>
+ *
+ * <p>
+ * The source folder is walked by a work-stealing pool of {@link #threads(Count)} workers, with each sub-folder and each
+ * file being a separate task. Files on the local filesystem are copied byte for byte with
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}, which lets the operating system
+ * copy without passing the data through the JVM. Other files are copied with {@link File#copyTo}. The
+ * {@link CopyMode} given to {@link #mode(CopyMode)} decides whether an existing file is overwritten, and copied files
+ * are given the last modified time of their source.
+ * </p>
+ *
+ * <p><b>Skipping Identical Files</b></p>
+ *
+ * <p>
+ * If {@link #skipIdentical(boolean)} is true, a file is not copied if the destination already has a file of the same
+ * size and content. This makes mirroring a folder that has changed little much faster than copying it, without relying
+ * on last modified times.
+ * </p>
+ *
+ * <p><b>Progress</b></p>
+ *
+ * <p>
+ * Progress is reported in files by the {@link ConcurrentBroadcastingProgressReporter} returned by {@link #progress()},
+ * and any problems copying files are broadcast to listeners of this copier. Files that cannot be copied do not stop
+ * the copying of other files.
+ * </p>
+ *
+ * <p><b>Example</b></p>
+ *
+ * <pre>
+ * var copier = listenTo(new FolderCopier(source, destination)
+ *     .threads(Count._16)
+ *     .mode(CopyMode.UPDATE)
+ *     .skipIdentical(true));
+ *
+ * if (!copier.copy())
+ * {
+ *     problem("Unable to copy $ to $", source, destination);
+ * }
+ * </pre>
+ *
+ * @author jonathanl (shibo)
+ */
+@UmlClassDiagram(diagram = DiagramFileSystemFolder.class)
+@UmlRelation(label = "copies", referent = Folder.class)
+@LexakaiJavadoc(complete = true)
+public class FolderCopier extends BaseRepeater
+{
+    /** Size of the buffers used to compare files */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** The folder to copy to */
+    private final Folder destination;
+
+    /** The number of files that could not be copied */
+    private final AtomicLong failed = new AtomicLong();
+
+    /** Matcher to restrict the files that are copied */
+    private Matcher<File> matcher = Filter.all();
+
+    /** Determines when existing files are overwritten */
+    private CopyMode mode = CopyMode.OVERWRITE;
+
+    /** Progress in files */
+    private final BroadcastingProgressReporter progress = BroadcastingProgressReporter.createConcurrent(this, "files");
+
+    /** True to skip files that are identical to the destination file */
+    private boolean skipIdentical;
+
+    /** The folder to copy from */
+    private final Folder source;
+
+    /** The number of worker threads */
+    private Count threads = JavaVirtualMachine.local().processors();
+
+    public FolderCopier(Folder source, Folder destination)
+    {
+        this.source = source;
+        this.destination = destination;
+    }
+
+    /**
+     * Copies all matching nested files in the source folder to the destination folder, waiting until copying is
+     * complete
+     *
+     * @return True if all files were copied or skipped, false if any file could not be copied
+     */
+    public boolean copy()
+    {
+        var start = Time.now();
+
+        // Ensure the destination folder exists,
+        information("Copying $ to $ with $ threads", source, destination, threads);
+        destination.ensureExists();
+
+        // then walk the source folder on a pool of workers,
+        failed.set(0);
+        progress.start("Copying");
+        var pool = Threads.workStealingPool("FolderCopier", threads);
+        pool.execute(() -> copyFolder(pool, source));
+
+        // and wait until every task they have started is done.
+        pool.awaitQuiescence(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        pool.shutdown();
+        progress.end("Copied");
+
+        information("Copy completed in $", start.elapsedSince());
+        return failed.get() == 0;
+    }
+
+    /**
+     * @param matcher Matcher to restrict the files that are copied
+     */
+    public FolderCopier matcher(Matcher<File> matcher)
+    {
+        this.matcher = matcher;
+        return this;
+    }
+
+    /**
+     * @param mode The mode that determines when an existing destination file is overwritten
+     */
+    public FolderCopier mode(CopyMode mode)
+    {
+        this.mode = mode;
+        return this;
+    }
+
+    /**
+     * @return The concurrent progress reporter for this copier, which counts files
+     */
+    public BroadcastingProgressReporter progress()
+    {
+        return progress;
+    }
+
+    /**
+     * @param skipIdentical True to skip files that have the same size and content as an existing destination file
+     */
+    public FolderCopier skipIdentical(boolean skipIdentical)
+    {
+        this.skipIdentical = skipIdentical;
+        return this;
+    }
+
+    /**
+     * @param threads The number of worker threads to copy with
+     */
+    public FolderCopier threads(Count threads)
+    {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Copies the given file to the destination folder
+     */
+    private void copyFile(File file)
+    {
+        try
+        {
+            // Get the relative target file,
+            var target = destination.file(file.relativeTo(source));
+
+            // and if we can copy to it,
+            if (mode.canCopy(file, target))
+            {
+                // and it isn't identical to the source already,
+                if (!(skipIdentical && isIdentical(file, target)))
+                {
+                    // copy the file,
+                    var from = file.asJavaFile();
+                    var to = target.ensureWritable().asJavaFile();
+                    if (from != null && to != null)
+                    {
+                        transfer(from, to);
+                    }
+                    else
+                    {
+                        file.copyTo(target, CopyMode.OVERWRITE, ProgressReporter.none());
+                    }
+                }
+
+                // then update its last modified timestamp to the source timestamp.
+                target.lastModified(file.lastModified());
+            }
+        }
+        catch (Exception e)
+        {
+            failed.incrementAndGet();
+            problem(e, "Unable to copy $", file);
+        }
+        progress.next();
+    }
+
+    /**
+     * Starts tasks to copy the matching files and the sub-folders of the given folder
+     */
+    private void copyFolder(ForkJoinPool pool, Folder folder)
+    {
+        try
+        {
+            for (var child : folder.folders())
+            {
+                pool.execute(() -> copyFolder(pool, child));
+            }
+            for (var file : folder.files(matcher))
+            {
+                pool.execute(() -> copyFile(file));
+            }
+        }
+        catch (Exception e)
+        {
+            failed.incrementAndGet();
+            problem(e, "Unable to list $", folder);
+        }
+    }
+
+    /**
+     * @return True if the given files both exist and have the same size and content
+     */
+    private boolean isIdentical(File file, File target) throws IOException
+    {
+        if (!target.exists() || !file.sizeInBytes().equals(target.sizeInBytes()))
+        {
+            return false;
+        }
+
+        try (var in = open(file); var that = open(target))
+        {
+            var buffer = new byte[BUFFER_SIZE];
+            var thatBuffer = new byte[BUFFER_SIZE];
+            while (true)
+            {
+                var read = in.readNBytes(buffer, 0, BUFFER_SIZE);
+                var thatRead = that.readNBytes(thatBuffer, 0, BUFFER_SIZE);
+                if (read != thatRead || Arrays.mismatch(buffer, 0, read, thatBuffer, 0, thatRead) >= 0)
+                {
+                    return false;
+                }
+                if (read < BUFFER_SIZE)
+                {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The raw bytes of the given file, without decompression if it is a local file
+     */
+    private InputStream open(File file) throws IOException
+    {
+        var javaFile = file.asJavaFile();
+        return javaFile != null
+                ? java.nio.file.Files.newInputStream(javaFile.toPath())
+                : file.openForReading();
+    }
+
+    /**
+     * Copies the bytes of one local file to another
+     */
+    private void transfer(java.io.File from, java.io.File to) throws IOException
+    {
+        try (var in = FileChannel.open(from.toPath(), READ);
+             var out = FileChannel.open(to.toPath(), WRITE, CREATE, TRUNCATE_EXISTING))
+        {
+            var size = in.size();
+            var position = 0L;
+            while (position < size)
+            {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+    }
+}
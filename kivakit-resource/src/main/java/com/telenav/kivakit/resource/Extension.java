@@ -26,8 +26,11 @@ import com.telenav.kivakit.interfaces.comparison.Matcher;
 import com.telenav.kivakit.interfaces.naming.Named;
 import com.telenav.kivakit.resource.compression.Codec;
 import com.telenav.kivakit.resource.compression.codecs.GzipCodec;
+import com.telenav.kivakit.resource.compression.codecs.Lz4Codec;
 import com.telenav.kivakit.resource.compression.codecs.NullCodec;
+import com.telenav.kivakit.resource.compression.codecs.SnappyCodec;
 import com.telenav.kivakit.resource.compression.codecs.ZipCodec;
+import com.telenav.kivakit.resource.compression.codecs.ZstdCodec;
 import com.telenav.kivakit.resource.lexakai.DiagramResourcePath;
 import com.telenav.lexakai.annotations.LexakaiJavadoc;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
@@ -53,7 +56,7 @@ import java.util.List;
  *
  * <ul>
  *     <li>{@link #name()} - The extension as a string</li>
- *     <li>{@link #codec()} - The codec normally used for files with this extension, or the {@link NullCodec} if the file is not compressed</li>
+ *     <li>{@link #codec()} - The codec normally used for files with this extension (gzip, zip, LZ4, Zstandard or Snappy), or the {@link NullCodec} if the file is not compressed</li>
  * </ul>
  *
  * <p><b>Matching</b></p>
@@ -106,6 +109,8 @@ public class Extension implements
 
     public static final Extension KRYO = parseExtension(".kryo");
 
+    public static final Extension LZ4 = parseExtension(".lz4");
+
     public static final Extension MARKDOWN = parseExtension(".md");
 
     public static final Extension MD5 = parseExtension(".md5");
@@ -132,6 +137,8 @@ public class Extension implements
 
     public static final Extension SHELL = parseExtension(".sh");
 
+    public static final Extension SNAPPY = parseExtension(".sz");
+
     public static final Extension TMP = parseExtension(".tmp");
 
     public static final Extension TXD = parseExtension(".txd");
@@ -150,12 +157,17 @@ public class Extension implements
 
     public static final Extension ZIP = parseExtension(".zip");
 
+    public static final Extension ZSTD = parseExtension(".zst");
+
     public static List<Extension> archive()
     {
         List<Extension> executable = new ArrayList<>();
         executable.add(JAR);
         executable.add(ZIP);
         executable.add(GZIP);
+        executable.add(LZ4);
+        executable.add(SNAPPY);
+        executable.add(ZSTD);
         return executable;
     }
 
@@ -177,6 +189,7 @@ public class Extension implements
         known.add(GRAPH_GZIP);
         known.add(GZIP);
         known.add(JAR);
+        known.add(LZ4);
         known.add(OSM);
         known.add(OSMPP);
         known.add(OSM_PBF);
@@ -185,6 +198,7 @@ public class Extension implements
         known.add(POLY);
         known.add(PROPERTIES);
         known.add(SHELL);
+        known.add(SNAPPY);
         known.add(TXD);
         known.add(TXD_GZIP);
         known.add(TXT);
@@ -192,6 +206,7 @@ public class Extension implements
         known.add(XML);
         known.add(YAML);
         known.add(ZIP);
+        known.add(ZSTD);
         known.sort((a, b) ->
         {
             if (a.length().isLessThan(b.length()))
@@ -249,6 +264,18 @@ public class Extension implements
         {
             return new ZipCodec();
         }
+        if (endsWith(LZ4))
+        {
+            return new Lz4Codec();
+        }
+        if (endsWith(ZSTD))
+        {
+            return new ZstdCodec();
+        }
+        if (endsWith(SNAPPY))
+        {
+            return new SnappyCodec();
+        }
         return new NullCodec();
     }
 
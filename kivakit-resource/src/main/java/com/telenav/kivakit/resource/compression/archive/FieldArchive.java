@@ -27,6 +27,8 @@ import com.telenav.kivakit.core.messaging.Repeater;
 import com.telenav.kivakit.core.messaging.repeaters.BaseRepeater;
 import com.telenav.kivakit.core.progress.ProgressReporter;
 import com.telenav.kivakit.core.string.CaseFormat;
+import com.telenav.kivakit.core.thread.Threads;
+import com.telenav.kivakit.core.value.count.Count;
 import com.telenav.kivakit.core.version.Version;
 import com.telenav.kivakit.core.version.VersionedObject;
 import com.telenav.kivakit.filesystem.File;
@@ -42,6 +44,11 @@ import com.telenav.lexakai.annotations.UmlClassDiagram;
 import com.telenav.lexakai.annotations.associations.UmlAggregation;
 import com.telenav.lexakai.annotations.associations.UmlRelation;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
 import static com.telenav.kivakit.core.ensure.Ensure.ensure;
 
 /**
@@ -73,6 +80,14 @@ import static com.telenav.kivakit.core.ensure.Ensure.ensure;
  *      <li>{@link #loadVersion(ObjectReader)} - The version of data in this archive</li>
  * </ul>
  * <p>
+ * <b>Parallel Loading and Saving</b>
+ * <p>
+ * By default, fields are loaded and saved one at a time. If {@link #threads(Count)} is given more than one thread,
+ * {@link #loadFieldsOf(ObjectReader, NamedObject...)} decompresses and deserializes fields in parallel, and
+ * {@link #saveFieldsOf(ObjectWriter, NamedObject, Version)} serializes and compresses fields in parallel, with the zip
+ * archive writing the compressed fields into the zip file one after another. The {@link ObjectReader} or
+ * {@link ObjectWriter} must be safe to use from multiple threads.
+ * <p>
  * When objects have been saved or loaded from the archive, {@link #close()} ensures that output (if any) is flushed and
  * streams are closed.
  *
@@ -95,11 +110,11 @@ public class FieldArchive extends BaseRepeater implements Closeable
     @LexakaiJavadoc(complete = true)
     private class ObjectField
     {
-        private final Object object;
+        private final NamedObject object;
 
         private final Property field;
 
-        public ObjectField(Object object, Property field)
+        public ObjectField(NamedObject object, Property field)
         {
             this.object = object;
             this.field = field;
@@ -147,6 +162,9 @@ public class FieldArchive extends BaseRepeater implements Closeable
     /** The mode for accessing the zip file */
     private final ZipArchive.Mode mode;
 
+    /** The number of threads to load and save fields with */
+    private Count threads = Count._1;
+
     /**
      * @param file A field archive resource
      * @param mode The mode of access to this archive
@@ -207,34 +225,9 @@ public class FieldArchive extends BaseRepeater implements Closeable
 
         // and to load object with object scoped name "[object-name].[field-name]"
         var versionedObject = load(reader, object, fieldName);
-        Object value = null;
-        if (versionedObject != null)
-        {
-            value = versionedObject.object();
-        }
-
-        // If we loaded the object
-        if (value != null)
-        {
-            try
-            {
-                // set the field to that value
-                var message = field.setter().set(object, value);
-                if (message != null && message.status().failed())
-                {
-                    transmit(message);
-                }
-
-                // and return it.
-                return (T) value;
-            }
-            catch (Exception e)
-            {
-                throw new RuntimeException("Unable to set field " + entryName(object, fieldName), e);
-            }
-        }
 
-        return null;
+        // then set the field to its value.
+        return (T) set(object, field, fieldName, versionedObject);
     }
 
     /**
@@ -249,27 +242,37 @@ public class FieldArchive extends BaseRepeater implements Closeable
         ensure(objects != null);
         ensure(objects.length > 0);
 
-        var success = true;
-
         // Go through the objects,
+        var fields = new LinkedHashMap<String, ObjectField>();
         for (var object : objects)
         {
             // and for each archived field
             Type<?> type = Type.of(object);
             for (var field : type.properties(new ArchivedFields(PropertyNamingConvention.KIVAKIT)).sorted())
             {
-                // if it is not lazy,
+                // that is not lazy,
                 if (!field.getter().annotation(KivaKitArchivedField.class).lazy())
                 {
-                    // then load the field into the object.
-                    if (loadFieldOf(reader, object, field.name()) == null)
-                    {
-                        success = false;
-                    }
+                    // add the field to the fields to load.
+                    fields.put(entryName(object, field.name()), new ObjectField(object, field));
                 }
             }
         }
 
+        // Load the fields from their entries, in parallel if there is more than one thread,
+        var loaded = zip().load(reader, fields.keySet(), threads);
+
+        // and set the loaded values into the fields.
+        var success = true;
+        for (var entry : fields.entrySet())
+        {
+            var field = entry.getValue();
+            if (set(field.object, field.field, field.name(), loaded.get(entry.getKey())) == null)
+            {
+                success = false;
+            }
+        }
+
         return success;
     }
 
@@ -318,20 +321,52 @@ public class FieldArchive extends BaseRepeater implements Closeable
 
         this.version = version;
 
-        for (var field : Type.of(object).properties(new ArchivedFields(PropertyNamingConvention.KIVAKIT)).sorted())
+        // Open the zip archive before any worker threads use it,
+        var fields = Type.of(object).properties(new ArchivedFields(PropertyNamingConvention.KIVAKIT)).sorted();
+        zip();
+
+        // and if there is only one thread,
+        if (threads.asInt() <= 1)
         {
-            try
+            // save the fields one at a time.
+            for (var field : fields)
             {
-                if (new ObjectField(object, field).saveObject(writer, entryName(object, field.name())))
+                saveField(writer, object, field);
+            }
+            return;
+        }
+
+        // Otherwise, serialize and compress each field on a pool of workers.
+        var pool = Threads.workStealingPool("FieldArchive", threads);
+        try
+        {
+            var tasks = new ArrayList<Callable<Void>>();
+            for (var field : fields)
+            {
+                tasks.add(() ->
                 {
-                    trace("Saved field $", field.name());
-                }
+                    saveField(writer, object, field);
+                    return null;
+                });
             }
-            catch (Exception e)
+            for (var future : pool.invokeAll(tasks))
             {
-                warning(e, "Unable to save field $", field.name());
+                future.get();
             }
         }
+        catch (ExecutionException e)
+        {
+            warning(e.getCause(), "Unable to save fields of $", object.objectName());
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            warning(e, "Interrupted saving fields of $", object.objectName());
+        }
+        finally
+        {
+            pool.shutdown();
+        }
     }
 
     /**
@@ -342,6 +377,23 @@ public class FieldArchive extends BaseRepeater implements Closeable
         save(writer, "version", new SerializableObject<>(version, version));
     }
 
+    /**
+     * @return The number of threads to load and save fields with
+     */
+    public Count threads()
+    {
+        return threads;
+    }
+
+    /**
+     * @param threads The number of threads to load and save fields with
+     */
+    public FieldArchive threads(Count threads)
+    {
+        this.threads = threads;
+        return this;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -378,4 +430,54 @@ public class FieldArchive extends BaseRepeater implements Closeable
     {
         return object.objectName() + "." + CaseFormat.camelCaseToHyphenated(fieldName);
     }
+
+    /**
+     * Saves the given field of the given object to its entry, broadcasting a warning if it cannot be saved
+     */
+    private void saveField(ObjectWriter writer, NamedObject object, Property field)
+    {
+        try
+        {
+            if (new ObjectField(object, field).saveObject(writer, entryName(object, field.name())))
+            {
+                trace("Saved field $", field.name());
+            }
+        }
+        catch (Exception e)
+        {
+            warning(e, "Unable to save field $", field.name());
+        }
+    }
+
+    /**
+     * Sets the given field of the given object to the loaded value, if any
+     *
+     * @return The value, or null if there was none
+     */
+    private Object set(NamedObject object, Property field, String fieldName, VersionedObject<?> loaded)
+    {
+        // If we loaded the object
+        var value = loaded == null ? null : loaded.object();
+        if (value != null)
+        {
+            try
+            {
+                // set the field to that value
+                var message = field.setter().set(object, value);
+                if (message != null && message.status().failed())
+                {
+                    transmit(message);
+                }
+
+                // and return it.
+                return value;
+            }
+            catch (Exception e)
+            {
+                throw new RuntimeException("Unable to set field " + entryName(object, fieldName), e);
+            }
+        }
+
+        return null;
+    }
 }
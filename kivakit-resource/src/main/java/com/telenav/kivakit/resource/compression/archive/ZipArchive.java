@@ -29,8 +29,10 @@ import com.telenav.kivakit.core.progress.ProgressReporter;
 import com.telenav.kivakit.core.progress.reporters.BroadcastingProgressReporter;
 import com.telenav.kivakit.core.progress.reporters.ProgressiveInputStream;
 import com.telenav.kivakit.core.progress.reporters.ProgressiveOutputStream;
+import com.telenav.kivakit.core.thread.Threads;
 import com.telenav.kivakit.core.value.count.ByteSized;
 import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.core.value.count.Count;
 import com.telenav.kivakit.core.value.count.MutableCount;
 import com.telenav.kivakit.core.version.VersionedObject;
 import com.telenav.kivakit.filesystem.File;
@@ -51,10 +53,19 @@ import java.net.URI;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import java.util.zip.ZipFile;
 
 import static com.telenav.kivakit.core.ensure.Ensure.fail;
@@ -95,8 +106,20 @@ import static com.telenav.kivakit.resource.serialization.ObjectMetadata.VERSION;
  *
  * <ul>
  *     <li>{@link #load(ObjectReader, String)} - Loads the object from the named entry using the given serializer </li>
+ *     <li>{@link #load(ObjectReader, Collection, Count)} - Loads the named entries in parallel</li>
  * </ul>
  *
+ * <p><b>Concurrency</b></p>
+ *
+ * <p>
+ * An archive opened in {@link Mode#READ} cannot change, so the first time its entries are needed, they are listed once
+ * into an in-memory index that is used from then on to look up and enumerate entries. Entries can be read by multiple
+ * threads at once, each decompressing and deserializing its own entry, and {@link #load(ObjectReader, Collection,
+ * Count)} does this on a pool of worker threads. In {@link Mode#WRITE}, separate entries can be saved by separate
+ * threads, each compressing its entry as it writes it. The compressed entries are written into the zip file one after
+ * another when the archive is closed.
+ * </p>
+ *
  * @author jonathanl (shibo)
  * @see ZipEntry
  * @see ProgressReporter
@@ -149,7 +172,7 @@ public final class ZipArchive extends BaseRepeater implements
             var filesystem = filesystem(listener, file, mode);
             if (filesystem != null)
             {
-                return new ZipArchive(filesystem, file);
+                return new ZipArchive(filesystem, file, mode);
             }
         }
         return null;
@@ -172,13 +195,25 @@ public final class ZipArchive extends BaseRepeater implements
 
     private FileSystem filesystem;
 
+    /** Map from entry name to path, built once for archives opened in READ mode */
+    private volatile Map<String, Path> index;
+
+    /** The mode this archive was opened in, or null if it is not known */
+    private final Mode mode;
+
     public ZipArchive(FileSystem filesystem, File file)
+    {
+        this(filesystem, file, null);
+    }
+
+    public ZipArchive(FileSystem filesystem, File file, Mode mode)
     {
         assert file != null;
         assert filesystem != null;
 
         this.file = file.materialized(BroadcastingProgressReporter.create(this));
         this.filesystem = filesystem;
+        this.mode = mode;
     }
 
     public void add(List<File> files)
@@ -204,6 +239,7 @@ public final class ZipArchive extends BaseRepeater implements
         Nio.close(filesystem);
         IO.close(filesystem);
         filesystem = null;
+        index = null;
     }
 
     /**
@@ -228,9 +264,12 @@ public final class ZipArchive extends BaseRepeater implements
      *
      * @return The entry, if any, for the given name
      */
-    public synchronized ZipEntry entry(String pathname)
+    public ZipEntry entry(String pathname)
     {
-        var path = UncheckedCode.of(() -> filesystem.getPath(pathname)).orNull();
+        var index = index();
+        var path = index != null
+                ? index.get(entryName(pathname))
+                : UncheckedCode.of(() -> filesystem.getPath(pathname)).orNull();
         if (path != null)
         {
             return new ZipEntry(filesystem, path);
@@ -254,9 +293,19 @@ public final class ZipArchive extends BaseRepeater implements
     @Override
     public Iterator<ZipEntry> iterator()
     {
-        var files = UncheckedCode.of(() -> Files.walk(filesystem.getPath("/"))).orNull();
-        return files == null ? null : files
-                .filter(path -> !Files.isDirectory(path))
+        var index = index();
+        if (index != null)
+        {
+            var filesystem = this.filesystem;
+            return index.values()
+                    .stream()
+                    .map(path -> new ZipEntry(filesystem, path))
+                    .iterator();
+        }
+
+        var paths = paths();
+        return paths == null ? null : paths
+                .stream()
                 .map(path -> new ZipEntry(filesystem, path))
                 .iterator();
     }
@@ -264,7 +313,7 @@ public final class ZipArchive extends BaseRepeater implements
     /**
      * @return The versioned object loaded from the given archive entry using the given serialization
      */
-    public synchronized <T> VersionedObject<T> load(ObjectReader reader, String entryName)
+    public <T> VersionedObject<T> load(ObjectReader reader, String entryName)
     {
         try
         {
@@ -284,6 +333,73 @@ public final class ZipArchive extends BaseRepeater implements
         return null;
     }
 
+    /**
+     * Loads the given entries, decompressing and deserializing them in parallel on the given number of threads. The
+     * reader must be safe to use from multiple threads.
+     *
+     * @param reader The reader to deserialize entries with
+     * @param entryNames The entries to load
+     * @param threads The number of threads to load with
+     * @return Map from entry name to the object loaded from it. Entries that do not exist are not in the map.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Map<String, VersionedObject<T>> load(ObjectReader reader, Collection<String> entryNames, Count threads)
+    {
+        var loaded = new HashMap<String, VersionedObject<T>>();
+
+        // If we're loading on only one thread,
+        if (threads.asInt() <= 1 || entryNames.size() <= 1)
+        {
+            // load each entry in turn,
+            for (var entryName : entryNames)
+            {
+                VersionedObject<T> object = load(reader, entryName);
+                if (object != null)
+                {
+                    loaded.put(entryName, object);
+                }
+            }
+            return loaded;
+        }
+
+        // otherwise, load each entry on a pool of workers,
+        var pool = Threads.workStealingPool("ZipArchive", threads);
+        try
+        {
+            var tasks = new ArrayList<Callable<VersionedObject<T>>>();
+            for (var entryName : entryNames)
+            {
+                tasks.add(() -> load(reader, entryName));
+            }
+
+            // and collect the objects they load.
+            var futures = pool.invokeAll(tasks);
+            var names = new ArrayList<>(entryNames);
+            for (var i = 0; i < futures.size(); i++)
+            {
+                var object = futures.get(i).get();
+                if (object != null)
+                {
+                    loaded.put(names.get(i), object);
+                }
+            }
+        }
+        catch (ExecutionException e)
+        {
+            fail(e.getCause(), "Unable to load entries from $", this);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            fail(e, "Interrupted loading entries from $", this);
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        return loaded;
+    }
+
     /**
      * @return The archive resource
      */
@@ -368,6 +484,14 @@ public final class ZipArchive extends BaseRepeater implements
         return file.path().toString();
     }
 
+    /**
+     * @return The name of the entry at the given path, without any leading slash
+     */
+    private static String entryName(String pathname)
+    {
+        return pathname.startsWith("/") ? pathname.substring(1) : pathname;
+    }
+
     private static FileSystem filesystem(Listener listener, File file, Mode mode)
     {
         var fileUri = file.asJavaFile().toURI();
@@ -399,4 +523,56 @@ public final class ZipArchive extends BaseRepeater implements
                 return null;
         }
     }
+
+    /**
+     * @return The index of entries in this archive if it is open for reading, building it the first time it is
+     * needed, or null if this archive can change
+     */
+    private Map<String, Path> index()
+    {
+        if (mode != READ)
+        {
+            return null;
+        }
+
+        var index = this.index;
+        if (index == null)
+        {
+            synchronized (this)
+            {
+                index = this.index;
+                if (index == null)
+                {
+                    var paths = paths();
+                    var map = new LinkedHashMap<String, Path>();
+                    if (paths != null)
+                    {
+                        for (var path : paths)
+                        {
+                            map.put(entryName(path.toString()), path);
+                        }
+                    }
+                    this.index = index = Collections.unmodifiableMap(map);
+                    trace("Indexed $ entries in $", map.size(), this);
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @return The paths of all files in this archive, found by walking the zip filesystem
+     */
+    private List<Path> paths()
+    {
+        return UncheckedCode.of(() ->
+        {
+            try (var files = Files.walk(filesystem.getPath("/")))
+            {
+                return files
+                        .filter(path -> !Files.isDirectory(path))
+                        .collect(Collectors.toList());
+            }
+        }).orNull();
+    }
 }
@@ -19,6 +19,7 @@
 package com.telenav.kivakit.resource.compression.codecs;
 
 import com.telenav.kivakit.core.messaging.messages.status.Problem;
+import com.telenav.kivakit.core.value.count.Bytes;
 import com.telenav.kivakit.resource.compression.Codec;
 import com.telenav.kivakit.resource.lexakai.DiagramResourceCompression;
 import com.telenav.lexakai.annotations.LexakaiJavadoc;
@@ -27,11 +28,16 @@ import com.telenav.lexakai.annotations.UmlClassDiagram;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+
 /**
- * Codec for gzip compression.
+ * Codec for gzip compression. The compression level (from 0 to 9, or -1 for the default level) can be set with
+ * {@link #withLevel(int)}, and the size of the buffer used by the compressing and decompressing streams with
+ * {@link #withBufferSize(Bytes)}.
  *
  * @author jonathanl (shibo)
  */
@@ -39,12 +45,42 @@ import java.util.zip.GZIPOutputStream;
 @LexakaiJavadoc(complete = true)
 public class GzipCodec implements Codec
 {
+    /** The size of stream buffers */
+    private final Bytes bufferSize;
+
+    /** The compression level */
+    private final int level;
+
+    public GzipCodec()
+    {
+        this(Deflater.DEFAULT_COMPRESSION, Bytes.bytes(512));
+    }
+
+    private GzipCodec(int level, Bytes bufferSize)
+    {
+        this.level = level;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * @return The size of the buffer used by compressing and decompressing streams
+     */
+    public Bytes bufferSize()
+    {
+        return bufferSize;
+    }
+
     @Override
     public OutputStream compressed(OutputStream out)
     {
         try
         {
-            return new GZIPOutputStream(out);
+            return new GZIPOutputStream(out, (int) bufferSize.asBytes())
+            {
+                {
+                    def.setLevel(level);
+                }
+            };
         }
         catch (IOException e)
         {
@@ -57,11 +93,37 @@ public class GzipCodec implements Codec
     {
         try
         {
-            return new GZIPInputStream(in);
+            return new GZIPInputStream(in, (int) bufferSize.asBytes());
         }
         catch (IOException e)
         {
             throw new Problem(e, "Cannot open GZIP input stream").asException();
         }
     }
+
+    /**
+     * @return The compression level
+     */
+    public int level()
+    {
+        return level;
+    }
+
+    /**
+     * @return This codec with the given stream buffer size
+     */
+    public GzipCodec withBufferSize(Bytes bufferSize)
+    {
+        return new GzipCodec(level, bufferSize);
+    }
+
+    /**
+     * @return This codec with the given compression level, from 0 (no compression) to 9 (best compression), or -1 for
+     * the default level
+     */
+    public GzipCodec withLevel(int level)
+    {
+        ensure(level == Deflater.DEFAULT_COMPRESSION || (level >= 0 && level <= 9), "Invalid gzip compression level: $", level);
+        return new GzipCodec(level, bufferSize);
+    }
 }
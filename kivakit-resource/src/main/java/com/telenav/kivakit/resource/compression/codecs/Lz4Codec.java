@@ -0,0 +1,155 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.resource.compression.codecs;
+
+import com.telenav.kivakit.core.messaging.messages.status.Problem;
+import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.resource.compression.Codec;
+import com.telenav.kivakit.resource.lexakai.DiagramResourceCompression;
+import com.telenav.lexakai.annotations.LexakaiJavadoc;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import net.jpountz.xxhash.XXHashFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+
+/**
+ * Codec for the LZ4 frame format, which is compatible with the lz4 command line tool. LZ4 decompresses many times faster
+ * than gzip, at the cost of a lower compression ratio, which makes it a good choice for data that is read much more
+ * often than it is written.
+ *
+ * <ul>
+ *     <li>{@link #withLevel(int)} - Level 0 (the default) uses the fast compressor, while levels 1 to 17 use the high
+ *     compression compressor, which compresses more slowly but decompresses just as quickly</li>
+ *     <li>{@link #withBufferSize(Bytes)} - The block size, which is rounded up to one of the sizes the LZ4 frame format
+ *     supports: 64K (the default), 256K, 1M or 4M</li>
+ * </ul>
+ *
+ * @author jonathanl (shibo)
+ */
+@UmlClassDiagram(diagram = DiagramResourceCompression.class)
+@LexakaiJavadoc(complete = true)
+public class Lz4Codec implements Codec
+{
+    /** The block size */
+    private final Bytes bufferSize;
+
+    /** The compression level */
+    private final int level;
+
+    public Lz4Codec()
+    {
+        this(0, Bytes.kilobytes(64));
+    }
+
+    private Lz4Codec(int level, Bytes bufferSize)
+    {
+        this.level = level;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * @return The block size
+     */
+    public Bytes bufferSize()
+    {
+        return bufferSize;
+    }
+
+    @Override
+    public OutputStream compressed(OutputStream out)
+    {
+        try
+        {
+            var factory = LZ4Factory.fastestInstance();
+            var compressor = level == 0 ? factory.fastCompressor() : factory.highCompressor(level);
+            return new LZ4FrameOutputStream(out, blockSize(), -1L, compressor,
+                    XXHashFactory.fastestInstance().hash32(), LZ4FrameOutputStream.FLG.Bits.BLOCK_INDEPENDENCE);
+        }
+        catch (IOException e)
+        {
+            throw new Problem(e, "Cannot open LZ4 output stream").asException();
+        }
+    }
+
+    @Override
+    public InputStream decompressed(InputStream in)
+    {
+        try
+        {
+            return new LZ4FrameInputStream(in);
+        }
+        catch (IOException e)
+        {
+            throw new Problem(e, "Cannot open LZ4 input stream").asException();
+        }
+    }
+
+    /**
+     * @return The compression level
+     */
+    public int level()
+    {
+        return level;
+    }
+
+    /**
+     * @return This codec with the given block size
+     */
+    public Lz4Codec withBufferSize(Bytes bufferSize)
+    {
+        return new Lz4Codec(level, bufferSize);
+    }
+
+    /**
+     * @return This codec with the given compression level, from 0 (fastest) to 17 (best compression)
+     */
+    public Lz4Codec withLevel(int level)
+    {
+        ensure(level >= 0 && level <= 17, "Invalid LZ4 compression level: $", level);
+        return new Lz4Codec(level, bufferSize);
+    }
+
+    /**
+     * @return The smallest LZ4 frame block size that is at least the buffer size
+     */
+    private LZ4FrameOutputStream.BLOCKSIZE blockSize()
+    {
+        var size = bufferSize.asBytes();
+        if (size <= 64 * 1024)
+        {
+            return LZ4FrameOutputStream.BLOCKSIZE.SIZE_64KB;
+        }
+        if (size <= 256 * 1024)
+        {
+            return LZ4FrameOutputStream.BLOCKSIZE.SIZE_256KB;
+        }
+        if (size <= 1024 * 1024)
+        {
+            return LZ4FrameOutputStream.BLOCKSIZE.SIZE_1MB;
+        }
+        return LZ4FrameOutputStream.BLOCKSIZE.SIZE_4MB;
+    }
+}
@@ -0,0 +1,103 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.resource.compression.codecs;
+
+import com.telenav.kivakit.core.messaging.messages.status.Problem;
+import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.resource.compression.Codec;
+import com.telenav.kivakit.resource.lexakai.DiagramResourceCompression;
+import com.telenav.lexakai.annotations.LexakaiJavadoc;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+import org.xerial.snappy.SnappyFramedInputStream;
+import org.xerial.snappy.SnappyFramedOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+
+/**
+ * Codec for the Snappy framing format. Snappy has no compression levels, and is tuned for speed rather than ratio. The
+ * block size can be set with {@link #withBufferSize(Bytes)}, up to the format's maximum of 64K (the default).
+ *
+ * @author jonathanl (shibo)
+ */
+@UmlClassDiagram(diagram = DiagramResourceCompression.class)
+@LexakaiJavadoc(complete = true)
+public class SnappyCodec implements Codec
+{
+    /** The block size */
+    private final Bytes bufferSize;
+
+    public SnappyCodec()
+    {
+        this(Bytes.bytes(SnappyFramedOutputStream.DEFAULT_BLOCK_SIZE));
+    }
+
+    private SnappyCodec(Bytes bufferSize)
+    {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * @return The block size
+     */
+    public Bytes bufferSize()
+    {
+        return bufferSize;
+    }
+
+    @Override
+    public OutputStream compressed(OutputStream out)
+    {
+        try
+        {
+            return new SnappyFramedOutputStream(out, (int) bufferSize.asBytes(),
+                    SnappyFramedOutputStream.DEFAULT_MIN_COMPRESSION_RATIO);
+        }
+        catch (IOException e)
+        {
+            throw new Problem(e, "Cannot open Snappy output stream").asException();
+        }
+    }
+
+    @Override
+    public InputStream decompressed(InputStream in)
+    {
+        try
+        {
+            return new SnappyFramedInputStream(in);
+        }
+        catch (IOException e)
+        {
+            throw new Problem(e, "Cannot open Snappy input stream").asException();
+        }
+    }
+
+    /**
+     * @return This codec with the given block size, which can be no more than 64K
+     */
+    public SnappyCodec withBufferSize(Bytes bufferSize)
+    {
+        ensure(bufferSize.asBytes() > 0 && bufferSize.asBytes() <= SnappyFramedOutputStream.MAX_BLOCK_SIZE,
+                "Invalid Snappy block size: $", bufferSize);
+        return new SnappyCodec(bufferSize);
+    }
+}
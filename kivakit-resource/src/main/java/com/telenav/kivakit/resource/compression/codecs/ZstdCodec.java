@@ -0,0 +1,133 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.resource.compression.codecs;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import com.telenav.kivakit.core.messaging.messages.status.Problem;
+import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.resource.compression.Codec;
+import com.telenav.kivakit.resource.lexakai.DiagramResourceCompression;
+import com.telenav.lexakai.annotations.LexakaiJavadoc;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+
+/**
+ * Codec for Zstandard compression, which is compatible with the zstd command line tool. Zstandard compresses about as
+ * well as gzip at its default level, and decompresses several times faster.
+ *
+ * <ul>
+ *     <li>{@link #withLevel(int)} - The compression level, where negative levels trade compression ratio for speed,
+ *     and the default is 3</li>
+ *     <li>{@link #withBufferSize(Bytes)} - The size of the buffers between callers and the native compressor and
+ *     decompressor, which reduce the number of native calls made for small reads and writes</li>
+ * </ul>
+ *
+ * @author jonathanl (shibo)
+ */
+@UmlClassDiagram(diagram = DiagramResourceCompression.class)
+@LexakaiJavadoc(complete = true)
+public class ZstdCodec implements Codec
+{
+    /** The size of stream buffers */
+    private final Bytes bufferSize;
+
+    /** The compression level */
+    private final int level;
+
+    public ZstdCodec()
+    {
+        this(3, Bytes.kilobytes(64));
+    }
+
+    private ZstdCodec(int level, Bytes bufferSize)
+    {
+        this.level = level;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * @return The size of stream buffers
+     */
+    public Bytes bufferSize()
+    {
+        return bufferSize;
+    }
+
+    @Override
+    public OutputStream compressed(OutputStream out)
+    {
+        try
+        {
+            return new BufferedOutputStream(new ZstdOutputStream(out, level), (int) bufferSize.asBytes());
+        }
+        catch (IOException e)
+        {
+            throw new Problem(e, "Cannot open Zstandard output stream").asException();
+        }
+    }
+
+    @Override
+    public InputStream decompressed(InputStream in)
+    {
+        try
+        {
+            return new BufferedInputStream(new ZstdInputStream(in), (int) bufferSize.asBytes());
+        }
+        catch (IOException e)
+        {
+            throw new Problem(e, "Cannot open Zstandard input stream").asException();
+        }
+    }
+
+    /**
+     * @return The compression level
+     */
+    public int level()
+    {
+        return level;
+    }
+
+    /**
+     * @return This codec with the given stream buffer size
+     */
+    public ZstdCodec withBufferSize(Bytes bufferSize)
+    {
+        return new ZstdCodec(level, bufferSize);
+    }
+
+    /**
+     * @return This codec with the given compression level, from {@link Zstd#minCompressionLevel()} (fastest) to
+     * {@link Zstd#maxCompressionLevel()} (best compression)
+     */
+    public ZstdCodec withLevel(int level)
+    {
+        ensure(level >= Zstd.minCompressionLevel() && level <= Zstd.maxCompressionLevel(),
+                "Invalid Zstandard compression level: $", level);
+        return new ZstdCodec(level, bufferSize);
+    }
+}
@@ -19,6 +19,7 @@
 package com.telenav.kivakit.resource.packages;
 
 import com.telenav.kivakit.core.language.Classes;
+import com.telenav.kivakit.core.language.module.PackageIndex;
 import com.telenav.kivakit.core.language.module.PackageReference;
 import com.telenav.kivakit.core.locale.Locale;
 import com.telenav.kivakit.core.logging.Logger;
@@ -51,8 +52,6 @@ import java.util.List;
 import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 
 import static com.telenav.kivakit.core.ensure.Ensure.fail;
 import static com.telenav.kivakit.core.language.module.PackageReference.packageReference;
@@ -88,6 +87,12 @@ import static com.telenav.kivakit.resource.packages.PackageResource.packageResou
  * ProgressReporter)}.
  * </p>
  *
+ * <p>
+ * Resources and sub-packages in jars are found with a {@link PackageIndex}, which is built once for each jar in the
+ * process. Calling {@link #cacheIndexes()} at startup saves these indexes in the KivaKit cache folder, so that later
+ * processes don't need to read the jars at all.
+ * </p>
+ *
  * @author jonathanl (shibo)
  * @see PackageReference
  * @see PackageResource
@@ -99,6 +104,18 @@ public class Package extends BaseRepeater implements ResourceFolder<Package>
 {
     private static final Logger LOGGER = LoggerFactory.newLogger();
 
+    /**
+     * Saves the package indexes of jars in the KivaKit cache folder, so that later processes can find package resources
+     * without reading the jars on the classpath
+     *
+     * @see PackageIndex
+     */
+    public static void cacheIndexes()
+    {
+        var folder = Folder.kivakitCache().folder("package-indexes").mkdirs();
+        PackageIndex.cacheFolder(folder.asJavaFile().toPath());
+    }
+
     public static Package packageContaining(Listener listener, Class<?> packageType)
     {
         return new Package(listener, packagePath(packageType));
@@ -359,6 +376,7 @@ public class Package extends BaseRepeater implements ResourceFolder<Package>
      * List of resources loaded from this package folder in any jar that might contain this class.
      *
      * @return Any package resources that can be found in the jar (if any) containing this class
+     * @see PackageIndex
      */
     private List<PackageResource> jarResources(Matcher<? super PackageResource> matcher)
     {
@@ -367,56 +385,24 @@ public class Package extends BaseRepeater implements ResourceFolder<Package>
         var source = packagePath.hasPackageType() ? packagePath.packageType().getProtectionDomain().getCodeSource() : null;
         if (source != null)
         {
-            try
+            // and if the location URL ends in ".jar",
+            URL location = source.getLocation();
+            if (location != null && location.toString().endsWith(".jar"))
             {
-                // and if the location URL ends in ".jar",
-                URL location = source.getLocation();
-                if (location != null && location.toString().endsWith(".jar"))
+                // then look up the resources in the jar's index.
+                var index = PackageIndex.packageIndex(location);
+                if (index != null)
                 {
-                    // then open the jar as a zip input stream,
-                    var urlConnection = location.openConnection();
-                    ZipInputStream zip = new ZipInputStream(urlConnection.getInputStream());
-
-                    // form a file path from the package path,
-                    var filepath = packagePath.join("/") + "/";
-
-                    // and loop,
-                    while (true)
+                    for (var name : index.resources(packagePath.join("/")))
                     {
-                        // reading the next entry,
-                        ZipEntry e = zip.getNextEntry();
-
-                        // until we are out.
-                        if (e == null)
+                        var resource = packageResource(LOGGER, packagePath, name);
+                        if (matcher.matches(resource))
                         {
-                            break;
-                        }
-
-                        // Get the entry's name
-                        String name = e.getName();
-                        // and if it is not a folder, and it starts with the file path for the package,
-                        if (!name.endsWith("/") && name.startsWith(filepath))
-                        {
-                            // then strip off the leading filepath,
-                            var suffix = Strip.leading(name, filepath);
-                            // and if we have only a filename left,
-                            if (!suffix.contains("/"))
-                            {
-                                // then the entry is in the package, so add it to the resources list
-                                var resource = packageResource(LOGGER, packagePath, name.substring(filepath.length()));
-                                if (matcher.matches(resource))
-                                {
-                                    resources.add(resource);
-                                }
-                            }
+                            resources.add(resource);
                         }
                     }
                 }
             }
-            catch (Exception ignored)
-            {
-                LOGGER.warning("Exception thrown while loading jar resources from $", packagePath);
-            }
         }
         return resources;
     }
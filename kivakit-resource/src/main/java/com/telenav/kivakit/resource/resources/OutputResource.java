@@ -18,7 +18,9 @@
 
 package com.telenav.kivakit.resource.resources;
 
+import com.telenav.kivakit.core.messaging.Listener;
 import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.resource.ResourcePath;
 import com.telenav.kivakit.resource.writing.WritableResource;
 import com.telenav.kivakit.resource.lexakai.DiagramResourceType;
 import com.telenav.kivakit.resource.writing.BaseWritableResource;
@@ -43,6 +45,7 @@ public class OutputResource extends BaseWritableResource
 
     public OutputResource(OutputStream out)
     {
+        super(ResourcePath.parseUnixResourcePath(Listener.console(), "/objects/OutputResource/" + Integer.toHexString(out.hashCode())));
         this.out = out;
     }
 
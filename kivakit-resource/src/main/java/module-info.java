@@ -40,6 +40,11 @@ open module kivakit.resource
     // Lexakai
     requires lexakai.annotations;
 
+    // Compression
+    requires org.lz4.java;
+    requires snappy.java;
+    requires com.github.luben.zstd_jni;
+
     // Java
     requires java.prefs;
 
@@ -20,6 +20,7 @@ package com.telenav.kivakit.filesystem;
 
 import com.telenav.kivakit.test.UnitTest;
 import com.telenav.kivakit.core.time.Duration;
+import com.telenav.kivakit.core.value.count.Count;
 import com.telenav.kivakit.resource.FileName;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -55,6 +56,38 @@ public class FolderTest extends UnitTest
         ensure(folder.isEmpty());
     }
 
+    @Test
+    public void testCopier()
+    {
+        var root = Folder.kivakitTest(getClass()).folder("copier-test");
+        root.mkdirs();
+        root.clearAllAndDelete();
+
+        var source = root.folder("source");
+        source.folder("a/b").mkdirs();
+        source.file("one.txt").print("one");
+        source.file("a/two.txt").print("two");
+        source.file("a/b/three.txt").print("three");
+        source.file("a/b/skip.log").print("skip");
+
+        var destination = root.folder("destination");
+        var copier = source.copier(destination)
+                .threads(Count._4)
+                .matcher(file -> !file.fileName().endsWith(".log"));
+        ensure(copier.copy());
+        ensureEqual(3, destination.nestedFiles().size());
+        ensureEqual("three", destination.file("a/b/three.txt").reader().asString().trim());
+        ensureEqual(source.file("a/two.txt").lastModified(), destination.file("a/two.txt").lastModified());
+        ensureFalse(destination.file("a/b/skip.log").exists());
+
+        // A file whose content differs is copied, even with the same size and timestamp
+        var two = destination.file("a/two.txt");
+        two.print("TWO");
+        two.lastModified(source.file("a/two.txt").lastModified());
+        ensure(source.copier(destination).skipIdentical(true).copy());
+        ensureEqual("two", two.reader().asString().trim());
+    }
+
     @Test
     public void testDelete()
     {
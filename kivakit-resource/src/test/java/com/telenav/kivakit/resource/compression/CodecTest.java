@@ -0,0 +1,93 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.resource.compression;
+
+import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.resource.Extension;
+import com.telenav.kivakit.resource.compression.codecs.GzipCodec;
+import com.telenav.kivakit.resource.compression.codecs.Lz4Codec;
+import com.telenav.kivakit.resource.compression.codecs.SnappyCodec;
+import com.telenav.kivakit.resource.compression.codecs.ZstdCodec;
+import com.telenav.kivakit.test.UnitTest;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class CodecTest extends UnitTest
+{
+    @Test
+    public void testExtensions()
+    {
+        ensure(Extension.GZIP.codec() instanceof GzipCodec);
+        ensure(Extension.LZ4.codec() instanceof Lz4Codec);
+        ensure(Extension.ZSTD.codec() instanceof ZstdCodec);
+        ensure(Extension.SNAPPY.codec() instanceof SnappyCodec);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException
+    {
+        var data = data();
+        for (var codec : new Codec[] {
+                new GzipCodec(),
+                new GzipCodec().withLevel(1).withBufferSize(Bytes.kilobytes(64)),
+                new Lz4Codec(),
+                new Lz4Codec().withLevel(9).withBufferSize(Bytes.megabytes(1)),
+                new ZstdCodec(),
+                new ZstdCodec().withLevel(19).withBufferSize(Bytes.kilobytes(8)),
+                new SnappyCodec(),
+                new SnappyCodec().withBufferSize(Bytes.kilobytes(16)) })
+        {
+            var compressed = compress(codec, data);
+            ensure(compressed.length < data.length);
+            ensure(Arrays.equals(data, decompress(codec, compressed)));
+        }
+    }
+
+    private byte[] compress(Codec codec, byte[] data) throws IOException
+    {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = codec.compressed(bytes))
+        {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    private byte[] data()
+    {
+        var builder = new StringBuilder();
+        for (int i = 0; i < 100_000; i++)
+        {
+            builder.append("record ").append(i).append(" value ").append(i % 97).append('\n');
+        }
+        return builder.toString().getBytes();
+    }
+
+    private byte[] decompress(Codec codec, byte[] compressed) throws IOException
+    {
+        try (var in = codec.decompressed(new ByteArrayInputStream(compressed)))
+        {
+            return in.readAllBytes();
+        }
+    }
+}
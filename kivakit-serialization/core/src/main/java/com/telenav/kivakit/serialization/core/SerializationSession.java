@@ -61,6 +61,11 @@ import static com.telenav.kivakit.serialization.core.SerializationSession.Sessio
  * implementation instance.
  * </p>
  *
+ * <p>
+ * A session obtained from a factory should be released with {@link #release()} when the caller is done with it, so
+ * that factories that pool sessions can reuse it. A released session must not be used again.
+ * </p>
+ *
  * <p><b>Opening a Session</b></p>
  *
  * <p>
@@ -257,6 +262,16 @@ public interface SerializationSession extends
         return illegalState("Expected object of type $, not $", type, object.getClass());
     }
 
+    /**
+     * Closes this session and ends its use by the caller. A {@link SerializationSessionFactory} that pools sessions
+     * may then lease this session to another caller, so it must not be used again. By default, the session is only
+     * closed.
+     */
+    default void release()
+    {
+        close();
+    }
+
     /**
      * Reads a list of elements written by the {@link #writeList(Collection)} method
      *
@@ -21,14 +21,16 @@ package com.telenav.kivakit.serialization.core;
 import com.telenav.kivakit.core.messaging.Listener;
 
 /**
- * Creates new {@link SerializationSession}. The session will be thread-safe.
+ * Creates new {@link SerializationSession}. The session will be thread-safe. Callers should call
+ * {@link SerializationSession#release()} when they are done with a session, so that factories that pool sessions can
+ * reuse it.
  *
  * @author jonathanl (shibo)
  */
 public interface SerializationSessionFactory
 {
     /**
-     * Creates a new {@link SerializationSession}
+     * Creates a new {@link SerializationSession}, or leases one that was released
      *
      * @param listener The listener to report problems to
      * @return The session
@@ -1,5 +1,7 @@
 package com.telenav.kivakit.serialization.gson;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.telenav.kivakit.core.io.IO;
 import com.telenav.kivakit.core.language.Arrays;
 import com.telenav.kivakit.core.language.Classes;
@@ -17,9 +19,18 @@ import com.telenav.kivakit.serialization.gson.factory.GsonFactory;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.util.regex.Pattern;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static com.telenav.kivakit.core.ensure.Ensure.ensureNotNull;
 import static com.telenav.kivakit.resource.serialization.ObjectMetadata.INSTANCE;
@@ -29,6 +40,23 @@ import static com.telenav.kivakit.resource.serialization.ObjectMetadata.VERSION;
 /**
  * JSON {@link ObjectSerializer} using Google Gson library.
  *
+ * <p><b>Reading</b></p>
+ *
+ * <p>
+ * Objects are read incrementally from the input stream with a {@link JsonReader}, so a document is never held in
+ * memory as a whole. The <i>type</i> (or <i>class</i>), <i>version</i> and <i>instance</i> metadata written by
+ * {@link #write(OutputStream, StringPath, SerializableObject, ObjectMetadata...)} are found by peeking at the members
+ * of the top-level object, before the object itself is deserialized. The characters read while peeking are replayed
+ * when the object is deserialized. Since metadata is written ahead of the object's own members, peeking usually reads
+ * only the first few members. If requested metadata is not among the leading members, peeking goes on through the
+ * object until it is found, so in the worst case the whole document is held in memory.
+ * </p>
+ *
+ * <p>
+ * A document whose top level is a JSON array can be read one element at a time with
+ * {@link #readArray(InputStream, StringPath, Class)}.
+ * </p>
+ *
  * @author jonathanl (shibo)
  */
 public class GsonObjectSerializer implements
@@ -36,11 +64,93 @@ public class GsonObjectSerializer implements
         RegistryTrait,
         TryTrait
 {
-    private static final Pattern TYPE_PATTERN = Pattern.compile("\"(class|type)\"\\s*:\\s*\"(?<type>.+)\"");
+    /**
+     * The metadata members of a JSON object
+     */
+    private static class Metadata
+    {
+        String type;
+
+        String version;
 
-    private static final Pattern INSTANCE_PATTERN = Pattern.compile("\"(instance)\"\\s*:\\s*\"(?<instance>.+)\"");
+        String instance;
 
-    private static final Pattern VERSION_PATTERN = Pattern.compile("\"(version)\"\\s*:\\s*\"(?<version>.+)\"");
+        /**
+         * @return True if all the given metadata has been found
+         */
+        boolean isComplete(boolean needsType, ObjectMetadata[] metadata)
+        {
+            return (!needsType || !TYPE.containedIn(metadata) || type != null)
+                    && (!VERSION.containedIn(metadata) || version != null)
+                    && (!INSTANCE.containedIn(metadata) || instance != null);
+        }
+    }
+
+    /**
+     * A reader that records the characters read through it, so that they can be read again after peeking
+     */
+    private static class ReplayingReader extends Reader
+    {
+        private final Reader in;
+
+        /** The characters read while recording, or null once they have all been replayed */
+        private StringBuilder recorded = new StringBuilder();
+
+        /** True while characters are being recorded */
+        private boolean recording = true;
+
+        /** The number of recorded characters that have been replayed */
+        private int replayed;
+
+        ReplayingReader(Reader in)
+        {
+            this.in = in;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            in.close();
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException
+        {
+            // If we are replaying and there are recorded characters left,
+            if (!recording && recorded != null)
+            {
+                // read them,
+                var count = Math.min(length, recorded.length() - replayed);
+                recorded.getChars(replayed, replayed + count, buffer, offset);
+                replayed += count;
+                if (replayed == recorded.length())
+                {
+                    recorded = null;
+                }
+                return count;
+            }
+
+            // otherwise read from the input, recording what is read if we are still recording.
+            var count = in.read(buffer, offset, length);
+            if (recording && count > 0)
+            {
+                recorded.append(buffer, offset, count);
+            }
+            return count;
+        }
+
+        /**
+         * Stops recording, and starts reading again from the first recorded character
+         */
+        void replay()
+        {
+            recording = false;
+            if (recorded.length() == 0)
+            {
+                recorded = null;
+            }
+        }
+    }
 
     private final ProgressReporter reporter;
 
@@ -67,20 +177,84 @@ public class GsonObjectSerializer implements
     {
         return tryCatchThrow(() ->
         {
-            // Read JSON from input,
-            var json = IO.string(input);
+            // Peek at the metadata of the JSON object,
+            var in = new ReplayingReader(reader(input));
+            var found = metadata(new JsonReader(in), typeToRead == null, metadata);
+            in.replay();
 
             // get the type to read,
             var type = Arrays.contains(metadata, TYPE)
-                    ? ensureNotNull(type(json, metadata, typeToRead))
+                    ? ensureNotNull(type(found, metadata, typeToRead))
                     : typeToRead;
 
-            // and return the deserialized object.
-            return new SerializableObject<>(factory.gson().fromJson(json, type),
-                    version(json), instance(json, metadata));
+            // and return the object, deserialized from the stream.
+            var object = factory.gson().<T>fromJson(new JsonReader(in), type);
+            return new SerializableObject<>(object, version(found), instance(found, metadata));
         }, "Unable to read from $", path);
     }
 
+    /**
+     * Reads the elements of a top-level JSON array from the given input, one at a time as the returned stream is
+     * consumed. The input is closed when the stream is closed or when the last element has been read.
+     *
+     * @param input The input to read
+     * @param path The path of the input, for error messages
+     * @param type The type of the array elements
+     * @return A lazy stream of the array elements
+     */
+    public <T> Stream<T> readArray(InputStream input, StringPath path, Class<T> type)
+    {
+        var json = new JsonReader(reader(input));
+        try
+        {
+            json.beginArray();
+        }
+        catch (Exception e)
+        {
+            IO.close(json);
+            problem(e, "Unable to read array from $", path).throwAsIllegalStateException();
+        }
+
+        var elements = new Iterator<T>()
+        {
+            private boolean closed;
+
+            @Override
+            public boolean hasNext()
+            {
+                return !closed && tryCatchThrow(() ->
+                {
+                    if (json.hasNext())
+                    {
+                        return true;
+                    }
+                    json.endArray();
+                    close();
+                    return false;
+                }, "Unable to read array from $", path);
+            }
+
+            @Override
+            public T next()
+            {
+                if (!hasNext())
+                {
+                    throw new NoSuchElementException();
+                }
+                return tryCatchThrow(() -> factory.gson().<T>fromJson(json, type), "Unable to read array element from $", path);
+            }
+
+            void close()
+            {
+                closed = true;
+                IO.close(json);
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(elements, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(elements::close);
+    }
+
     @Override
     public ProgressReporter reporter()
     {
@@ -120,42 +294,78 @@ public class GsonObjectSerializer implements
     }
 
     @NotNull
-    private InstanceIdentifier instance(final String json, final ObjectMetadata[] metadata)
+    private InstanceIdentifier instance(Metadata found, ObjectMetadata[] metadata)
     {
         var instance = InstanceIdentifier.SINGLETON;
-        var instanceMatcher = INSTANCE_PATTERN.matcher(json);
-        if (INSTANCE.containedIn(metadata) && instanceMatcher.find())
+        if (INSTANCE.containedIn(metadata) && found.instance != null)
         {
-            instance = InstanceIdentifier.of(instanceMatcher.group("instance"));
+            instance = InstanceIdentifier.of(found.instance);
         }
         return instance;
     }
 
-    @Nullable
-    private <T> Class<T> type(final String json, final ObjectMetadata[] metadata, final Class<T> typeToRead)
+    /**
+     * @return The type, version and instance members of the JSON object in the given reader. All the leading metadata
+     * members are read, and peeking stops at the first other member once the given metadata has been found.
+     */
+    private Metadata metadata(JsonReader json, boolean needsType, ObjectMetadata[] wanted) throws IOException
     {
-        Class<T> type = typeToRead;
-        if (type == null && TYPE.containedIn(metadata))
+        var metadata = new Metadata();
+        if (json.peek() == JsonToken.BEGIN_OBJECT)
         {
-            var typeMatcher = TYPE_PATTERN.matcher(json);
-            if (typeMatcher.find())
+            json.beginObject();
+            var leading = true;
+            while (json.hasNext() && (leading || !metadata.isComplete(needsType, wanted)))
             {
-                type = Classes.forName(typeMatcher.group("type"));
+                var name = json.nextName();
+                if (json.peek() == JsonToken.STRING)
+                {
+                    switch (name)
+                    {
+                        case "class":
+                        case "type":
+                            metadata.type = json.nextString();
+                            continue;
+
+                        case "version":
+                            metadata.version = json.nextString();
+                            continue;
+
+                        case "instance":
+                            metadata.instance = json.nextString();
+                            continue;
+                    }
+                }
+                leading = false;
+                if (metadata.isComplete(needsType, wanted))
+                {
+                    break;
+                }
+                json.skipValue();
             }
         }
+        return metadata;
+    }
 
-        return type;
+    private Reader reader(InputStream input)
+    {
+        return new InputStreamReader(input, StandardCharsets.UTF_8);
     }
 
     @Nullable
-    private Version version(final String json)
+    private <T> Class<T> type(Metadata found, ObjectMetadata[] metadata, Class<T> typeToRead)
     {
-        Version version = null;
-        var versionMatcher = VERSION_PATTERN.matcher(json);
-        if (versionMatcher.find())
+        Class<T> type = typeToRead;
+        if (type == null && TYPE.containedIn(metadata) && found.type != null)
         {
-            version = Version.parseVersion(versionMatcher.group("version"));
+            type = Classes.forName(found.type);
         }
-        return version;
+        return type;
+    }
+
+    @Nullable
+    private Version version(Metadata found)
+    {
+        return found.version == null ? null : Version.parseVersion(found.version);
     }
 }
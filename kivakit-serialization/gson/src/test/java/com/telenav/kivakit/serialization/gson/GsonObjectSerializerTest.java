@@ -0,0 +1,163 @@
+package com.telenav.kivakit.serialization.gson;
+
+import com.telenav.kivakit.core.registry.InstanceIdentifier;
+import com.telenav.kivakit.core.version.Version;
+import com.telenav.kivakit.serialization.gson.factory.CoreGsonFactory;
+import com.telenav.kivakit.test.UnitTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+
+import static com.telenav.kivakit.core.path.StringPath.stringPath;
+import static com.telenav.kivakit.resource.serialization.ObjectMetadata.INSTANCE;
+import static com.telenav.kivakit.resource.serialization.ObjectMetadata.TYPE;
+import static com.telenav.kivakit.resource.serialization.ObjectMetadata.VERSION;
+
+public class GsonObjectSerializerTest extends UnitTest
+{
+    public static class Point
+    {
+        int x;
+
+        int y;
+
+        String label;
+    }
+
+    /**
+     * An input stream that counts the bytes read from it, and remembers whether it was closed
+     */
+    private static class TrackingInput extends ByteArrayInputStream
+    {
+        boolean closed;
+
+        TrackingInput(String text)
+        {
+            super(text.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            closed = true;
+            super.close();
+        }
+
+        int consumed()
+        {
+            return pos;
+        }
+    }
+
+    private GsonObjectSerializer serializer;
+
+    @Before
+    public void setup()
+    {
+        register(new CoreGsonFactory(this));
+        serializer = listenTo(new GsonObjectSerializer());
+    }
+
+    @Test
+    public void testMalformed()
+    {
+        ensureThrows(() -> serializer.read(input("{ \"x\": 1, "), stringPath("test"), Point.class));
+        ensureThrows(() -> serializer.read(input("{ \"x\": \"one\" }"), stringPath("test"), Point.class));
+        ensureThrows(() -> serializer.read(input("{ \"type\": \"com.telenav.Missing\", \"x\": 1 }"), stringPath("test"), TYPE));
+    }
+
+    @Test
+    public void testMalformedArray()
+    {
+        // An input that is not an array is closed,
+        var notArray = new TrackingInput("{ \"x\": 1 }");
+        ensureThrows(() -> serializer.readArray(notArray, stringPath("test"), Point.class));
+        ensure(notArray.closed);
+
+        // and a bad element is reported when it is reached.
+        var badElement = new TrackingInput("[ { \"x\": 1 }, { \"x\": \"two\" } ]");
+        var points = serializer.readArray(badElement, stringPath("test"), Point.class).iterator();
+        ensureEqual(points.next().x, 1);
+        ensureThrows(points::next);
+    }
+
+    @Test
+    public void testMetadataAfterLargeMember()
+    {
+        // Metadata that follows a member larger than any read-ahead buffer is still found,
+        var large = "a".repeat(256 * 1024);
+        var json = "{ \"label\": \"" + large + "\", \"x\": 3, \"version\": \"2.0\", \"type\": \""
+                + Point.class.getName() + "\", \"y\": 4 }";
+        var object = serializer.<Point>read(input(json), stringPath("test"), TYPE, VERSION);
+
+        // and the whole object is still deserialized.
+        ensureEqual(object.version(), Version.version("2.0"));
+        ensureEqual(object.object().label, large);
+        ensureEqual(object.object().x, 3);
+        ensureEqual(object.object().y, 4);
+    }
+
+    @Test
+    public void testReadArray()
+    {
+        var text = new StringBuilder("[");
+        for (var i = 0; i < 10_000; i++)
+        {
+            text.append(i == 0 ? "" : ",").append("{ \"x\": ").append(i).append(" }");
+        }
+        text.append("]");
+
+        // Reading the first element of a large array reads only the start of the input,
+        var input = new TrackingInput(text.toString());
+        try (var points = serializer.readArray(input, stringPath("test"), Point.class))
+        {
+            ensureEqual(points.findFirst().orElseThrow().x, 0);
+            ensure(input.consumed() < text.length() / 2);
+            ensure(!input.closed);
+        }
+
+        // closing the stream closes the input,
+        ensure(input.closed);
+
+        // and reading every element closes the input too.
+        var all = new TrackingInput(text.toString());
+        var xs = serializer.readArray(all, stringPath("test"), Point.class)
+                .map(point -> point.x)
+                .collect(Collectors.toList());
+        ensureEqual(xs.size(), 10_000);
+        ensureEqual(xs.get(9_999), 9_999);
+        ensure(all.closed);
+    }
+
+    @Test
+    public void testReadLeadingMetadata()
+    {
+        var json = "{ \"instance\": \"SERVER1\", \"version\": \"1.5\", \"type\": \""
+                + Point.class.getName() + "\", \"x\": 1, \"y\": 2, \"label\": \"origin\" }";
+        var object = serializer.<Point>read(input(json), stringPath("test"), TYPE, VERSION, INSTANCE);
+
+        ensureEqual(object.instance(), InstanceIdentifier.of("SERVER1"));
+        ensureEqual(object.version(), Version.version("1.5"));
+        ensureEqual(object.object().x, 1);
+        ensureEqual(object.object().y, 2);
+        ensureEqual(object.object().label, "origin");
+    }
+
+    @Test
+    public void testReadWithoutMetadata()
+    {
+        var object = serializer.read(input("{ \"x\": 5, \"y\": 6 }"), stringPath("test"), Point.class);
+        ensureEqual(object.object().x, 5);
+        ensureEqual(object.object().y, 6);
+        ensureEqual(object.version(), null);
+    }
+
+    private TrackingInput input(String text)
+    {
+        return new TrackingInput(text);
+    }
+}
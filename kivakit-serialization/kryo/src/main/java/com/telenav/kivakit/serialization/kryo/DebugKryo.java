@@ -61,6 +61,14 @@ class DebugKryo extends Kryo
         DEBUG = new Debug(listener);
     }
 
+    /**
+     * @return The listener that receives trace messages from this kryo instance
+     */
+    Listener listener()
+    {
+        return listener;
+    }
+
     @Override
     public Registration readClass(Input input)
     {
@@ -1,27 +1,51 @@
 package com.telenav.kivakit.serialization.kryo;
 
 import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.ByteBufferInput;
+import com.esotericsoftware.kryo.io.ByteBufferOutput;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import com.telenav.kivakit.core.language.trait.TryTrait;
 import com.telenav.kivakit.core.path.StringPath;
 import com.telenav.kivakit.core.progress.ProgressReporter;
 import com.telenav.kivakit.core.version.Version;
+import com.telenav.kivakit.filesystem.File;
+import com.telenav.kivakit.resource.Resource;
 import com.telenav.kivakit.resource.serialization.ObjectMetadata;
 import com.telenav.kivakit.resource.serialization.ObjectSerializer;
 import com.telenav.kivakit.resource.serialization.SerializableObject;
+import com.telenav.kivakit.resource.writing.WritableResource;
 import com.telenav.kivakit.serialization.kryo.types.KryoTypes;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 
 import static com.telenav.kivakit.core.ensure.Ensure.ensureNotNull;
 import static com.telenav.kivakit.core.ensure.Ensure.fail;
 import static com.telenav.kivakit.resource.serialization.ObjectMetadata.TYPE;
 import static com.telenav.kivakit.resource.serialization.ObjectMetadata.VERSION;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
 
 /**
- * {@link Kryo} {@link ObjectSerializer} provider.
+ * {@link Kryo} {@link ObjectSerializer} provider. Kryo instances and their buffers are leased from a {@link KryoPool},
+ * which can be shared by serializers that use the same {@link KryoTypes}.
+ *
+ * <p><b>Memory-Mapped Files</b></p>
+ *
+ * <p>
+ * A {@link File} obtained with {@link File#withMemoryMapping()} is read and written by mapping it into memory with
+ * {@link FileChannel#map(FileChannel.MapMode, long, long)}, instead of through streams. Kryo then reads from and writes
+ * to the mapping directly, without copying file data through the heap, which makes loading large files much faster.
+ * Objects can also be read from and written to any {@link ByteBuffer}, including direct buffers, with
+ * {@link #read(ByteBuffer, StringPath, Class, ObjectMetadata...)} and
+ * {@link #write(ByteBuffer, StringPath, SerializableObject, ObjectMetadata...)}.
+ * </p>
  *
  * @author jonathanl (shibo)
  */
@@ -29,11 +53,12 @@ public class KryoObjectSerializer implements
         ObjectSerializer,
         TryTrait
 {
-    private final ProgressReporter reporter;
+    /** The largest region of a file to map into memory at once */
+    private static final long MAXIMUM_MAPPING = 1L << 30;
 
-    private final KryoTypes types;
+    private final KryoPool pool;
 
-    private final ThreadLocal<Kryo> kryo = ThreadLocal.withInitial(this::newKryo);
+    private final ProgressReporter reporter;
 
     public KryoObjectSerializer(KryoTypes types)
     {
@@ -42,42 +67,59 @@ public class KryoObjectSerializer implements
 
     public KryoObjectSerializer(KryoTypes types, ProgressReporter reporter)
     {
-        this.types = types;
+        this(new KryoPool(types), reporter);
+    }
+
+    public KryoObjectSerializer(KryoPool pool, ProgressReporter reporter)
+    {
+        this.pool = pool;
         this.reporter = reporter;
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * @return The pool of kryo instances used by this serializer
+     */
+    public KryoPool pool()
+    {
+        return pool;
+    }
+
     @Override
     public <T> SerializableObject<T> read(InputStream inputStream,
                                           StringPath path,
                                           Class<T> type,
                                           ObjectMetadata... metadata)
     {
-        try
+        try (var pooled = pool.acquire())
         {
-            // Wrap input stream in Kryo wrapper,
-            var input = new Input(inputStream);
-
-            // read any type from the input,
-            if (type == null && TYPE.containedIn(metadata))
-            {
-                type = (Class<T>) kryo.get().readObject(input, Class.class);
-            }
-
-            ensureNotNull(type, "Must specify type explicitly or specify ObjectMetadata.TYPE to read it from input");
-
-            // read any version,
-            Version version = null;
-            if (VERSION.containedIn(metadata))
-            {
-                version = kryo.get().readObject(input, Version.class);
-            }
-
-            // then read the object,
-            var object = kryo.get().readObject(input, type);
+            // Attach the input stream to a pooled Kryo buffer and read from it.
+            return read(pooled.kryo(), pooled.input(inputStream), type, metadata);
+        }
+        catch (Exception e)
+        {
+            return fail(e, "Unable to read $ from: $", type, path);
+        }
+    }
 
-            // and return it.
-            return new SerializableObject<>(object, version);
+    /**
+     * Reads an object from the given {@link ByteBuffer}, starting at its position. When this method returns, the
+     * position of the buffer is just after the object that was read. The buffer must not be read-only, because Kryo
+     * temporarily modifies its input when reading strings.
+     *
+     * @param buffer The buffer to read from, which may be a direct or memory-mapped buffer
+     * @param path Path associated with the buffer, for diagnostic purposes
+     * @param type The type to read (if {@link ObjectMetadata#TYPE} is not supplied)
+     * @param metadata The metadata to read
+     * @return The deserialized object
+     */
+    public <T> SerializableObject<T> read(ByteBuffer buffer,
+                                          StringPath path,
+                                          Class<T> type,
+                                          ObjectMetadata... metadata)
+    {
+        try (var pooled = pool.acquire())
+        {
+            return read(pooled.kryo(), new ByteBufferInput(buffer), type, metadata);
         }
         catch (Exception e)
         {
@@ -85,6 +127,38 @@ public class KryoObjectSerializer implements
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * If the resource is a {@link File} for which {@link File#isMemoryMapped()} is true, it is read by mapping it into
+     * memory.
+     * </p>
+     */
+    @Override
+    public <T> SerializableObject<T> read(Resource resource,
+                                          Class<T> type,
+                                          ObjectMetadata... metadata)
+    {
+        if (resource instanceof File && ((File) resource).isMemoryMapped())
+        {
+            var file = (File) resource;
+            var path = file.asJavaFile().toPath();
+            try (var channel = Files.isWritable(path) ? FileChannel.open(path, READ, WRITE) : FileChannel.open(path, READ);
+                 var pooled = pool.acquire())
+            {
+                var input = new MappedInput(channel, (int) pool.bufferSize().asBytes(), MAXIMUM_MAPPING);
+                return read(pooled.kryo(), input, type, metadata);
+            }
+            catch (Exception e)
+            {
+                return fail(e, "Unable to read $ from: $", type, file);
+            }
+        }
+
+        return ObjectSerializer.super.read(resource, type, metadata);
+    }
+
     @Override
     public ProgressReporter reporter()
     {
@@ -99,31 +173,127 @@ public class KryoObjectSerializer implements
     {
         tryCatchThrow(() ->
         {
-            // Wrap output stream in Kryo wrapper,
-            var output = new Output(outputStream);
-
-            // write any type,
-            if (TYPE.containedIn(metadata))
+            try (var pooled = pool.acquire())
             {
-                kryo.get().writeObject(output, object.object().getClass());
+                // Attach the output stream to a pooled Kryo buffer, write to it
+                var output = pooled.output(outputStream);
+                write(pooled.kryo(), output, object, metadata);
+
+                // and flush the buffer.
+                output.flush();
             }
+        }, "Unable to write object to $", path);
+    }
 
-            // write any version,
-            if (VERSION.containedIn(metadata))
+    /**
+     * Writes the given object to the given {@link ByteBuffer}, starting at its position. When this method returns, the
+     * position of the buffer is just after the object that was written. If the buffer is too small to hold the object,
+     * the write fails.
+     *
+     * @param buffer The buffer to write to, which may be a direct or memory-mapped buffer
+     * @param path Path associated with the buffer, for diagnostic purposes
+     * @param object The object to write
+     * @param metadata The metadata to write
+     */
+    public <T> void write(ByteBuffer buffer,
+                          StringPath path,
+                          SerializableObject<T> object,
+                          ObjectMetadata... metadata)
+    {
+        tryCatchThrow(() ->
+        {
+            try (var pooled = pool.acquire())
             {
-                kryo.get().writeObject(output, object.version());
+                write(pooled.kryo(), new ByteBufferOutput(buffer), object, metadata);
             }
-
-            // and write the object.
-            kryo.get().writeObject(output, object.object());
-            output.flush();
         }, "Unable to write object to $", path);
     }
 
-    private Kryo newKryo()
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * If the resource is a {@link File} for which {@link File#isMemoryMapped()} is true, it is written by mapping it
+     * into memory.
+     * </p>
+     */
+    @Override
+    public <T> void write(WritableResource resource,
+                          SerializableObject<T> object,
+                          ObjectMetadata... metadata)
     {
-        var kryo = new Kryo();
-        types.registerWith(kryo);
-        return kryo;
+        if (resource instanceof File && ((File) resource).isMemoryMapped())
+        {
+            var file = (File) resource;
+            tryCatchThrow(() ->
+            {
+                file.parent().ensureExists();
+                try (var channel = FileChannel.open(file.asJavaFile().toPath(), READ, WRITE, CREATE, TRUNCATE_EXISTING);
+                     var pooled = pool.acquire())
+                {
+                    var output = new MappedOutput(channel, (int) pool.bufferSize().asBytes(), MAXIMUM_MAPPING);
+                    write(pooled.kryo(), output, object, metadata);
+                    output.finish();
+                }
+            }, "Unable to write object to $", file);
+            return;
+        }
+
+        ObjectSerializer.super.write(resource, object, metadata);
+    }
+
+    /**
+     * Reads an object with the given metadata from the given Kryo input
+     */
+    @SuppressWarnings("unchecked")
+    private <T> SerializableObject<T> read(Kryo kryo,
+                                           Input input,
+                                           Class<T> type,
+                                           ObjectMetadata[] metadata)
+    {
+        // Read any type from the input,
+        if (type == null && TYPE.containedIn(metadata))
+        {
+            type = (Class<T>) kryo.readObject(input, Class.class);
+        }
+
+        ensureNotNull(type, "Must specify type explicitly or specify ObjectMetadata.TYPE to read it from input");
+
+        // read any version,
+        Version version = null;
+        if (VERSION.containedIn(metadata))
+        {
+            version = kryo.readObject(input, Version.class);
+        }
+
+        // then read the object,
+        var object = kryo.readObject(input, type);
+
+        // and return it.
+        return new SerializableObject<>(object, version);
+    }
+
+    /**
+     * Writes the given object and metadata to the given Kryo output
+     */
+    private <T> void write(Kryo kryo,
+                           Output output,
+                           SerializableObject<T> object,
+                           ObjectMetadata[] metadata)
+    {
+        // Write any type,
+        if (TYPE.containedIn(metadata))
+        {
+            kryo.writeObject(output, object.object().getClass());
+        }
+
+        // write any version,
+        if (VERSION.containedIn(metadata))
+        {
+            kryo.writeObject(output, object.version());
+        }
+
+        // and write the object.
+        kryo.writeObject(output, object.object());
     }
 }
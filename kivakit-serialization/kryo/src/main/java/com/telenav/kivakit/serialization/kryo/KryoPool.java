@@ -0,0 +1,246 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.serialization.kryo;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.core.value.count.Maximum;
+import com.telenav.kivakit.core.vm.JavaVirtualMachine;
+import com.telenav.kivakit.serialization.kryo.lexakai.DiagramKryo;
+import com.telenav.kivakit.serialization.kryo.types.KryoTypes;
+import com.telenav.lexakai.annotations.LexakaiJavadoc;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A bounded, thread-safe pool of {@link Kryo} instances that have already had their {@link KryoTypes} registered.
+ * Registering types is expensive, and keeping a {@link Kryo} per thread retains one instance for every thread that has
+ * ever serialized anything, which adds up quickly with large thread pools. A pool instead keeps at most
+ * {@link #maximumSize()} idle instances, no matter how many threads use it.
+ *
+ * <p><b>Leasing</b></p>
+ *
+ * <p>
+ * {@link #acquire()} leases a {@link PooledKryo}, creating a new one if the pool is empty. Each {@link PooledKryo} owns
+ * an {@link Input} and an {@link Output} buffer of {@link #bufferSize()} bytes, which are attached to a stream with
+ * {@link PooledKryo#input(InputStream)} and {@link PooledKryo#output(OutputStream)}, so buffers are reused along with
+ * the {@link Kryo} instance. Closing a lease detaches its buffers and returns it to the pool, or discards it if the
+ * pool is already full:
+ * </p>
+ *
+ * <pre>
+ * try (var kryo = pool.acquire())
+ * {
+ *     var output = kryo.output(out);
+ *     kryo.kryo().writeObject(output, object);
+ *     output.flush();
+ * }
+ * </pre>
+ *
+ * <p><b>Statistics</b></p>
+ *
+ * <p>
+ * The number of leases that were satisfied from the pool (hits), that required a new instance (misses) and that were
+ * discarded on return are available from {@link #statistics()}.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+@UmlClassDiagram(diagram = DiagramKryo.class)
+@LexakaiJavadoc(complete = true)
+public class KryoPool
+{
+    /**
+     * A {@link Kryo} instance leased from a {@link KryoPool}, along with its reusable input and output buffers
+     */
+    public static final class PooledKryo implements AutoCloseable
+    {
+        private final Input input;
+
+        private final Kryo kryo;
+
+        private final Output output;
+
+        private final KryoPool pool;
+
+        private PooledKryo(KryoPool pool, Kryo kryo, int bufferSize)
+        {
+            this.pool = pool;
+            this.kryo = kryo;
+            this.input = new Input(bufferSize);
+            this.output = new Output(bufferSize, -1);
+        }
+
+        /**
+         * Returns this instance to its pool
+         */
+        @Override
+        public void close()
+        {
+            kryo.reset();
+            input.setInputStream(null);
+            output.setOutputStream(null);
+            pool.release(this);
+        }
+
+        /**
+         * @return The pooled input buffer, reading from the given stream
+         */
+        public Input input(InputStream in)
+        {
+            input.setInputStream(in);
+            return input;
+        }
+
+        /**
+         * @return The pooled kryo instance
+         */
+        public Kryo kryo()
+        {
+            return kryo;
+        }
+
+        /**
+         * @return The pooled output buffer, writing to the given stream. The buffer must be flushed before this
+         * instance is closed.
+         */
+        public Output output(OutputStream out)
+        {
+            output.setOutputStream(out);
+            return output;
+        }
+    }
+
+    /** The size of pooled input and output buffers */
+    private final Bytes bufferSize;
+
+    /** The number of leases returned to a full pool */
+    private final LongAdder discards = new LongAdder();
+
+    /** Factory for registered kryo instances */
+    private final Supplier<Kryo> factory;
+
+    /** The number of leases satisfied by an idle instance */
+    private final LongAdder hits = new LongAdder();
+
+    /** Idle instances */
+    private final ArrayBlockingQueue<PooledKryo> idle;
+
+    /** The largest number of idle instances */
+    private final Maximum maximumSize;
+
+    /** The number of leases that needed a new instance */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a pool holding up to twice as many idle instances as there are processors, with 64K buffers
+     *
+     * @param types The types to register with each {@link Kryo} instance
+     */
+    public KryoPool(KryoTypes types)
+    {
+        this(types,
+                Maximum.maximum(JavaVirtualMachine.local().processors().asInt() * 2L),
+                Bytes.kilobytes(64));
+    }
+
+    /**
+     * @param types The types to register with each {@link Kryo} instance
+     * @param maximumSize The largest number of idle instances to keep
+     * @param bufferSize The size of pooled input and output buffers
+     */
+    public KryoPool(KryoTypes types, Maximum maximumSize, Bytes bufferSize)
+    {
+        this(() ->
+        {
+            var kryo = new Kryo();
+            types.registerWith(kryo);
+            return kryo;
+        }, maximumSize, bufferSize);
+    }
+
+    /**
+     * @param factory Factory for {@link Kryo} instances with all required types registered
+     * @param maximumSize The largest number of idle instances to keep
+     * @param bufferSize The size of pooled input and output buffers
+     */
+    public KryoPool(Supplier<Kryo> factory, Maximum maximumSize, Bytes bufferSize)
+    {
+        this.factory = factory;
+        this.maximumSize = maximumSize;
+        this.bufferSize = bufferSize;
+        this.idle = new ArrayBlockingQueue<>(maximumSize.asInt());
+    }
+
+    /**
+     * @return An idle {@link Kryo} instance from this pool, or a new one if there are none. The instance must be
+     * closed to return it to the pool.
+     */
+    public PooledKryo acquire()
+    {
+        var pooled = idle.poll();
+        if (pooled != null)
+        {
+            hits.increment();
+            return pooled;
+        }
+
+        misses.increment();
+        return new PooledKryo(this, factory.get(), (int) bufferSize.asBytes());
+    }
+
+    /**
+     * @return The size of pooled input and output buffers
+     */
+    public Bytes bufferSize()
+    {
+        return bufferSize;
+    }
+
+    /**
+     * @return The largest number of idle instances this pool keeps
+     */
+    public Maximum maximumSize()
+    {
+        return maximumSize;
+    }
+
+    /**
+     * @return A snapshot of the statistics for this pool
+     */
+    public KryoPoolStatistics statistics()
+    {
+        return new KryoPoolStatistics(hits.sum(), misses.sum(), discards.sum(), idle.size());
+    }
+
+    private void release(PooledKryo pooled)
+    {
+        if (!idle.offer(pooled))
+        {
+            discards.increment();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.serialization.kryo;
+
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.core.value.level.Percent;
+import com.telenav.kivakit.serialization.kryo.lexakai.DiagramKryo;
+import com.telenav.lexakai.annotations.LexakaiJavadoc;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import static com.telenav.kivakit.core.string.Formatter.format;
+
+/**
+ * A snapshot of the statistics of a {@link KryoPool}:
+ *
+ * <ul>
+ *     <li>{@link #hits()} - The number of leases satisfied by an idle instance</li>
+ *     <li>{@link #misses()} - The number of leases that required a new instance</li>
+ *     <li>{@link #hitRate()} - The percentage of leases satisfied by an idle instance</li>
+ *     <li>{@link #discards()} - The number of instances discarded because the pool was full when they were returned</li>
+ *     <li>{@link #idle()} - The number of idle instances in the pool</li>
+ * </ul>
+ *
+ * @author jonathanl (shibo)
+ */
+@UmlClassDiagram(diagram = DiagramKryo.class)
+@LexakaiJavadoc(complete = true)
+public class KryoPoolStatistics
+{
+    private final long hits;
+
+    private final long misses;
+
+    private final long discards;
+
+    private final int idle;
+
+    KryoPoolStatistics(long hits, long misses, long discards, int idle)
+    {
+        this.hits = hits;
+        this.misses = misses;
+        this.discards = discards;
+        this.idle = idle;
+    }
+
+    public Count discards()
+    {
+        return Count.count(discards);
+    }
+
+    public Percent hitRate()
+    {
+        var leases = hits + misses;
+        return Percent.of(leases == 0 ? 0 : hits * 100.0 / leases);
+    }
+
+    public Count hits()
+    {
+        return Count.count(hits);
+    }
+
+    public Count idle()
+    {
+        return Count.count(idle);
+    }
+
+    public Count misses()
+    {
+        return Count.count(misses);
+    }
+
+    @Override
+    public String toString()
+    {
+        return format("hits = $, misses = $, hit rate = $, discards = $, idle = $",
+                hits, misses, hitRate(), discards, idle);
+    }
+}
@@ -37,9 +37,9 @@ import com.telenav.lexakai.annotations.associations.UmlRelation;
 
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
 import static com.telenav.kivakit.core.ensure.Ensure.fail;
 
 /**
@@ -60,18 +60,26 @@ public final class KryoSerializationSession extends BaseRepeater implements
         SerializationSession
 {
     /**
-     * Map from Kryo object back to serialization session
-     */
-    private static final Map<Kryo, KryoSerializationSession> kryoToSession = new HashMap<>();
-
-    /**
-     * @return The {@link KryoSerializationSession} for the given kryo object
+     * @return The {@link KryoSerializationSession} for the given kryo object, or null if it does not belong to a
+     * session
      */
     public static KryoSerializationSession session(Kryo kryo)
     {
-        return kryoToSession.get(kryo);
+        // Each session's kryo object refers back to the session, so no (leak-prone) global map is required
+        if (kryo instanceof DebugKryo)
+        {
+            var listener = ((DebugKryo) kryo).listener();
+            if (listener instanceof KryoSerializationSession)
+            {
+                return (KryoSerializationSession) listener;
+            }
+        }
+        return null;
     }
 
+    /** The factory that pools this session, or null if it is not pooled */
+    private final KryoSerializationSessionFactory factory;
+
     /** Kryo input when reading */
     private Input input;
 
@@ -81,6 +89,9 @@ public final class KryoSerializationSession extends BaseRepeater implements
     /** Kryo output when writing */
     private Output output;
 
+    /** True once this session's lease has ended and it has been returned to its factory */
+    private final AtomicBoolean released = new AtomicBoolean();
+
     /** The Kryo types that have been registered for this session */
     private final KryoTypes types;
 
@@ -92,12 +103,19 @@ public final class KryoSerializationSession extends BaseRepeater implements
      */
     public KryoSerializationSession(KryoTypes types)
     {
-        this.types = types;
+        this(types, null);
+    }
 
-        // Associate this session with the given kryo object so that BaseSerializer can look it up,
-        kryoToSession.put(kryo, this);
+    /**
+     * @param types The kryo types to register for this session
+     * @param factory The factory to return this session to when it is released, or null if it is not pooled
+     */
+    KryoSerializationSession(KryoTypes types, KryoSerializationSessionFactory factory)
+    {
+        this.types = types;
+        this.factory = factory;
 
-        // turn on reference tracking by default to avoid hard-to-diagnose errors,
+        // Turn on reference tracking by default to avoid hard-to-diagnose errors,
         trackReferences(true);
 
         // and register the given types with kryo.
@@ -159,6 +177,8 @@ public final class KryoSerializationSession extends BaseRepeater implements
     {
         trace("Opening serialization session: type = $, version = $, kryoTypes = $", type, version, kryoTypes().name());
 
+        ensure(!released.get(), "Cannot open a session that has been released");
+
         try
         {
             // If the session type is,
@@ -249,6 +269,29 @@ public final class KryoSerializationSession extends BaseRepeater implements
         return null;
     }
 
+    /**
+     * Called by the factory when this session is leased from its pool
+     */
+    void leased()
+    {
+        released.set(false);
+    }
+
+    /**
+     * Closes this session and ends its lease, returning it to the factory that created it. A released session may be
+     * leased by another caller at any time, so it must not be used again. Sessions that were not created by a
+     * {@link KryoSerializationSessionFactory} are only closed.
+     */
+    @Override
+    public void release()
+    {
+        close();
+        if (factory != null && released.compareAndSet(false, true))
+        {
+            factory.release(this);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     public <T> Serializer<? extends T> serializer(Class<T> type)
     {
@@ -1,34 +1,94 @@
 package com.telenav.kivakit.serialization.kryo;
 
 import com.telenav.kivakit.core.messaging.Listener;
+import com.telenav.kivakit.core.value.count.Maximum;
+import com.telenav.kivakit.core.vm.JavaVirtualMachine;
 import com.telenav.kivakit.serialization.core.SerializationSessionFactory;
 import com.telenav.kivakit.serialization.kryo.types.KryoTypes;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
- * A factory that creates {@link KryoSerializationSession}s. Kryo sessions are thread-local, and therefore thread-safe.
+ * A factory that creates {@link KryoSerializationSession}s. Sessions are not thread-safe, so each call to
+ * {@link #newSession(Listener)} leases a session that is not in use by any other caller. A leased session can be
+ * closed and opened again any number of times, as when writing and then reading a resource. When the caller is done
+ * with it, {@link KryoSerializationSession#release()} returns the session to a bounded pool of idle sessions held by
+ * this factory, so that the cost of registering types with Kryo is paid only once per pooled session, no matter how
+ * many threads use the factory. Sessions that are closed but never released are simply not reused.
  *
  * @author jonathanl (shibo)
  */
 public class KryoSerializationSessionFactory implements SerializationSessionFactory
 {
-    /** Kryo type registration information */
-    private KryoTypes types;
+    /** The number of released sessions discarded because the pool was full */
+    private final LongAdder discards = new LongAdder();
+
+    /** The number of sessions leased from the pool */
+    private final LongAdder hits = new LongAdder();
 
-    /** Thread-local sessions */
-    private final ThreadLocal<KryoSerializationSession> threadSession =
-            ThreadLocal.withInitial(() -> new KryoSerializationSession(types));
+    /** Idle sessions */
+    private final ArrayBlockingQueue<KryoSerializationSession> idle;
 
+    /** The number of sessions that had to be created */
+    private final LongAdder misses = new LongAdder();
+
+    /** Kryo type registration information */
+    private final KryoTypes types;
+
+    /**
+     * Creates a factory that keeps up to twice as many idle sessions as there are processors
+     */
     public KryoSerializationSessionFactory(KryoTypes types)
+    {
+        this(types, Maximum.maximum(JavaVirtualMachine.local().processors().asInt() * 2L));
+    }
+
+    /**
+     * @param types Kryo type registration information
+     * @param maximumIdle The largest number of idle sessions to keep
+     */
+    public KryoSerializationSessionFactory(KryoTypes types, Maximum maximumIdle)
     {
         this.types = types;
+        this.idle = new ArrayBlockingQueue<>(maximumIdle.asInt());
     }
 
     @Override
     public KryoSerializationSession newSession(Listener listener)
     {
-        var session = threadSession.get();
-        session.clearListeners();
+        var session = idle.poll();
+        if (session != null)
+        {
+            hits.increment();
+            session.leased();
+        }
+        else
+        {
+            misses.increment();
+            session = new KryoSerializationSession(types, this);
+        }
         listener.listenTo(session);
         return session;
     }
+
+    /**
+     * @return A snapshot of the statistics for this factory's session pool
+     */
+    public KryoPoolStatistics statistics()
+    {
+        return new KryoPoolStatistics(hits.sum(), misses.sum(), discards.sum(), idle.size());
+    }
+
+    /**
+     * Returns the given released session to the pool
+     */
+    void release(KryoSerializationSession session)
+    {
+        session.clearListeners();
+        if (!idle.offer(session))
+        {
+            discards.increment();
+        }
+    }
 }
@@ -62,6 +62,10 @@ public class KryoUnitTest extends UnitTest
         return new CoreKryoTypes().mergedWith(new ResourceKryoTypes());
     }
 
+    /**
+     * @return A session from this test's session factory, which should be released with
+     * {@link SerializationSession#release()} when it is no longer needed
+     */
     protected SerializationSession session()
     {
         return sessionFactory().newSession(this);
@@ -112,15 +116,15 @@ public class KryoUnitTest extends UnitTest
 
         // Write the object n times to the session
         {
-            var session = new KryoSerializationSession(kryoTypes());
+            var session = session();
             session.open(output, RESOURCE, version);
             n.loop(() -> session.write(new SerializableObject<>(object, version)));
-            session.close();
+            session.release();
         }
 
         // Read the object n times from the written data
         {
-            var session = new KryoSerializationSession(kryoTypes());
+            var session = session();
             var input = new ByteArrayInputStream(output.toByteArray());
             var streamVersion = session.open(input, RESOURCE);
             ensureEqual(version, streamVersion);
@@ -132,7 +136,7 @@ public class KryoUnitTest extends UnitTest
                 ensureEqual(deserialized.object(), object);
                 ensureEqual(deserialized.version(), version);
             });
-            session.close();
+            session.release();
         }
     }
 }
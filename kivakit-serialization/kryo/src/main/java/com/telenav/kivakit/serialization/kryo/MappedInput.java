@@ -0,0 +1,137 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.serialization.kryo;
+
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.ByteBufferInput;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+
+import static java.nio.channels.FileChannel.MapMode.PRIVATE;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+
+/**
+ * <b>Not public API</b>
+ *
+ * <p>
+ * Kryo input from a memory-mapped file. A file no larger than the window size is mapped in its entirety, and Kryo reads
+ * directly from the mapping. The mapping is private (copy-on-write), because Kryo temporarily modifies its input buffer
+ * when reading ASCII strings, which requires the channel to be open for writing as well as reading. A larger file (a
+ * single mapping cannot exceed 2GB), or a file whose channel is read-only, is mapped one read-only window at a time,
+ * and is read through a direct buffer that is filled from the current window. No data passes through the heap in
+ * either case.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+class MappedInput extends ByteBufferInput
+{
+    /** The channel to map */
+    private final FileChannel channel;
+
+    /** The offset in the file of the first byte that has not been mapped */
+    private long next;
+
+    /** The size of the file */
+    private final long size;
+
+    /** The current window, when the file is mapped a window at a time */
+    private MappedByteBuffer window;
+
+    /** The largest region of the file to map at once */
+    private final long windowSize;
+
+    /**
+     * @param channel The file channel to read
+     * @param bufferSize The size of the buffer to read through if the file is larger than the window size
+     * @param windowSize The largest region of the file to map at once
+     */
+    MappedInput(FileChannel channel, int bufferSize, long windowSize) throws IOException
+    {
+        this.channel = channel;
+        this.size = channel.size();
+        this.windowSize = windowSize;
+
+        if (size <= windowSize)
+        {
+            try
+            {
+                setBuffer(channel.map(PRIVATE, 0, size));
+                next = size;
+                return;
+            }
+            catch (NonWritableChannelException ignored)
+            {
+                // The channel is read-only, so read through windows below
+            }
+        }
+
+        var buffer = ByteBuffer.allocateDirect(bufferSize);
+        buffer.limit(0);
+        setBuffer(buffer);
+    }
+
+    /**
+     * Copies the next bytes of the file from the current window into the given buffer, mapping windows as needed
+     */
+    @Override
+    protected int fill(ByteBuffer buffer, int offset, int count)
+    {
+        try
+        {
+            buffer.position(offset);
+            var filled = 0;
+            while (filled < count)
+            {
+                // If the window is used up,
+                if (window == null || !window.hasRemaining())
+                {
+                    // and there is nothing left to map, we're done,
+                    if (next >= size)
+                    {
+                        break;
+                    }
+
+                    // otherwise, map the next window.
+                    var length = Math.min(windowSize, size - next);
+                    window = channel.map(READ_ONLY, next, length);
+                    next += length;
+                }
+
+                // Copy as much of the window as we can into the buffer.
+                var copy = Math.min(count - filled, window.remaining());
+                var slice = window.slice();
+                slice.limit(copy);
+                buffer.put(slice);
+                window.position(window.position() + copy);
+                filled += copy;
+            }
+            buffer.position(offset);
+            return filled == 0 ? -1 : filled;
+        }
+        catch (IOException e)
+        {
+            throw new KryoException(e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.serialization.kryo;
+
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.ByteBufferOutput;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+
+/**
+ * <b>Not public API</b>
+ *
+ * <p>
+ * Kryo output to a memory-mapped file. Kryo writes directly into a mapped window of the file. When the window is full,
+ * the file is mapped again, starting where the last window was filled to, with a window twice as large (up to the
+ * maximum window size). When writing is complete, {@link #finish()} truncates the file to the number of bytes written.
+ * </p>
+ *
+ * @author jonathanl (shibo)
+ */
+class MappedOutput extends ByteBufferOutput
+{
+    /** The channel to map */
+    private final FileChannel channel;
+
+    /** The largest region of the file to map at once */
+    private final long maximumWindowSize;
+
+    /** The offset in the file of the current window */
+    private long windowStart;
+
+    /** The size of the current window */
+    private long windowSize;
+
+    /**
+     * @param channel The file channel to write
+     * @param initialWindowSize The size of the first region of the file to map
+     * @param maximumWindowSize The largest region of the file to map at once
+     */
+    MappedOutput(FileChannel channel, int initialWindowSize, long maximumWindowSize)
+    {
+        this.channel = channel;
+        this.maximumWindowSize = maximumWindowSize;
+        map(0, initialWindowSize);
+    }
+
+    /**
+     * Truncates the file to the number of bytes written
+     */
+    void finish() throws IOException
+    {
+        channel.truncate(total());
+    }
+
+    /**
+     * Maps the next window of the file if there are fewer than the required number of bytes left in the current window
+     *
+     * @return True if a new window was mapped
+     */
+    @Override
+    protected boolean require(int required)
+    {
+        if (capacity - position >= required)
+        {
+            return false;
+        }
+
+        map(windowStart + position, Math.max(required, Math.min(windowSize * 2, maximumWindowSize)));
+        return true;
+    }
+
+    private void map(long start, long size)
+    {
+        try
+        {
+            setBuffer(channel.map(READ_WRITE, start, size), (int) size);
+
+            // Setting the buffer resets the total, so restore it.
+            total = start;
+            windowStart = start;
+            windowSize = size;
+        }
+        catch (IOException e)
+        {
+            throw new KryoException(e);
+        }
+    }
+}
@@ -18,6 +18,7 @@
 
 package com.telenav.kivakit.serialization.kryo;
 
+import com.telenav.kivakit.core.value.count.Count;
 import com.telenav.kivakit.core.version.Version;
 import com.telenav.kivakit.filesystem.Folder;
 import com.telenav.kivakit.interfaces.naming.NamedObject;
@@ -26,12 +27,35 @@ import com.telenav.kivakit.resource.compression.archive.KivaKitArchivedField;
 import org.junit.Test;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 import static com.telenav.kivakit.resource.compression.archive.ZipArchive.Mode.READ;
 import static com.telenav.kivakit.resource.compression.archive.ZipArchive.Mode.WRITE;
 
 public class KryoFieldArchiveTest extends KryoUnitTest
 {
+    public static class ParallelTestClass implements NamedObject
+    {
+        @KivaKitArchivedField
+        private ArrayList<String> a;
+
+        @KivaKitArchivedField
+        private ArrayList<String> b;
+
+        @KivaKitArchivedField
+        private ArrayList<String> c;
+
+        @KivaKitArchivedField
+        private ArrayList<String> d;
+
+        @Override
+        public String objectName()
+        {
+            return "parallel";
+        }
+    }
+
     public static class TestClass implements NamedObject, Serializable
     {
         private static final long serialVersionUID = 6038256860472601994L;
@@ -91,4 +115,55 @@ public class KryoFieldArchiveTest extends KryoUnitTest
             ensureEqual(test.y, 5);
         }
     }
+
+    @Test
+    public void testParallel()
+    {
+        var file = Folder.kivakitTest(getClass()).file("parallel-field-archive-test.zip");
+        var serializer = new KryoObjectSerializer(kryoTypes());
+
+        // Save the fields of an object on four threads,
+        var saved = new ParallelTestClass();
+        saved.a = list("a", 1_000);
+        saved.b = list("b", 2_000);
+        saved.c = list("c", 3_000);
+        saved.d = list("d", 4_000);
+        file.delete();
+        try (var archive = listenTo(new FieldArchive(file, WRITE).threads(Count._4)))
+        {
+            archive.saveFieldsOf(serializer, saved, Version.parseVersion(this, "1.0"));
+        }
+
+        // check that the indexed archive has all of them,
+        try (var archive = listenTo(new FieldArchive(file, READ)))
+        {
+            var entries = new ArrayList<String>();
+            archive.zip().forEach(entry -> entries.add(entry.path().fileName().name()));
+            entries.sort(String::compareTo);
+            ensureEqual(entries, List.of("parallel.a", "parallel.b", "parallel.c", "parallel.d"));
+            ensure(archive.zip().entry("parallel.c") != null);
+            ensure(archive.zip().entry("/parallel.d") != null);
+        }
+
+        // and load them back on four threads.
+        try (var archive = listenTo(new FieldArchive(file, READ).threads(Count._4)))
+        {
+            var loaded = new ParallelTestClass();
+            ensure(archive.loadFieldsOf(serializer, loaded));
+            ensureEqual(loaded.a, saved.a);
+            ensureEqual(loaded.b, saved.b);
+            ensureEqual(loaded.c, saved.c);
+            ensureEqual(loaded.d, saved.d);
+        }
+    }
+
+    private ArrayList<String> list(String prefix, int size)
+    {
+        var list = new ArrayList<String>();
+        for (var i = 0; i < size; i++)
+        {
+            list.add(prefix + i);
+        }
+        return list;
+    }
 }
@@ -1,13 +1,28 @@
 package com.telenav.kivakit.serialization.kryo;
 
 import com.telenav.kivakit.core.messaging.messages.status.Problem;
+import com.telenav.kivakit.core.path.StringPath;
+import com.telenav.kivakit.core.progress.ProgressReporter;
 import com.telenav.kivakit.core.time.Duration;
 import com.telenav.kivakit.core.time.Time;
 import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.core.value.count.Maximum;
 import com.telenav.kivakit.core.version.Version;
+import com.telenav.kivakit.filesystem.File;
+import com.telenav.kivakit.resource.Extension;
+import com.telenav.kivakit.resource.serialization.SerializableObject;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
+
+import static com.telenav.kivakit.resource.serialization.ObjectMetadata.VERSION;
+import static java.nio.file.StandardOpenOption.READ;
 
 public class KryoObjectSerializerTest extends KryoUnitTest
 {
@@ -31,4 +46,86 @@ public class KryoObjectSerializerTest extends KryoUnitTest
         list.add(3);
         testSerialization(list);
     }
+
+    @Test
+    public void testPool()
+    {
+        // Use a pool with buffers smaller than the objects being serialized
+        var pool = new KryoPool(kryoTypes(), Maximum.maximum(2), Bytes.bytes(16));
+        var serializer = new KryoObjectSerializer(pool, ProgressReporter.none());
+        var path = StringPath.stringPath("/a/b/c");
+        var text = "this is a test of the emergency broadcasting system";
+
+        for (var i = 0; i < 10; i++)
+        {
+            var output = new ByteArrayOutputStream();
+            serializer.write(output, path, new SerializableObject<>(text + i, Version.parseVersion("1.0")), VERSION);
+            var read = serializer.read(new ByteArrayInputStream(output.toByteArray()), path, String.class, VERSION);
+            ensureEqual(read.object(), text + i);
+        }
+
+        // One kryo instance should have been created and then reused for every other read and write
+        var statistics = pool.statistics();
+        ensureEqual(statistics.misses().asInt(), 1);
+        ensureEqual(statistics.hits().asInt(), 19);
+        ensureEqual(statistics.idle().asInt(), 1);
+    }
+
+    @Test
+    public void testByteBuffer()
+    {
+        var serializer = new KryoObjectSerializer(kryoTypes());
+        var path = StringPath.stringPath("/a/b/c");
+        var version = Version.parseVersion("1.0");
+
+        // Write two objects one after the other into a direct buffer,
+        var buffer = ByteBuffer.allocateDirect(1_024);
+        serializer.write(buffer, path, new SerializableObject<>("first", version), VERSION);
+        serializer.write(buffer, path, new SerializableObject<>(Duration.days(17), version), VERSION);
+
+        // then read them back.
+        buffer.flip();
+        ensureEqual(serializer.read(buffer, path, String.class, VERSION).object(), "first");
+        ensureEqual(serializer.read(buffer, path, Duration.class, VERSION).object(), Duration.days(17));
+        ensure(!buffer.hasRemaining());
+    }
+
+    @Test
+    public void testMemoryMapped() throws Exception
+    {
+        // Use a pool with a small buffer size, so the file is mapped with many windows while writing
+        var pool = new KryoPool(kryoTypes(), Maximum.maximum(2), Bytes.bytes(16));
+        var serializer = new KryoObjectSerializer(pool, ProgressReporter.none());
+        var file = File.temporary(Extension.KRYO).withMemoryMapping();
+        ensure(file.isMemoryMapped());
+
+        var list = new ArrayList<>();
+        for (var i = 0; i < 1_000; i++)
+        {
+            list.add("element " + i);
+        }
+        var object = new SerializableObject<>(list, Version.parseVersion("1.0"));
+
+        // Write the list to the memory-mapped file and read it back,
+        serializer.write(file, object, VERSION);
+        ensureEqual(serializer.read(file, ArrayList.class, VERSION), object);
+
+        // check that the file holds exactly what is written to a stream,
+        var output = new ByteArrayOutputStream();
+        serializer.write(output, file.path(), object, VERSION);
+        var bytes = Files.readAllBytes(file.asJavaFile().toPath());
+        ensure(Arrays.equals(bytes, output.toByteArray()));
+
+        // and read it again through windows much smaller than the file.
+        try (var channel = FileChannel.open(file.asJavaFile().toPath(), READ);
+             var pooled = pool.acquire())
+        {
+            var input = new MappedInput(channel, 32, 64);
+            var kryo = pooled.kryo();
+            ensureEqual(kryo.readObject(input, Version.class), object.version());
+            ensureEqual(kryo.readObject(input, ArrayList.class), list);
+        }
+
+        file.delete();
+    }
 }
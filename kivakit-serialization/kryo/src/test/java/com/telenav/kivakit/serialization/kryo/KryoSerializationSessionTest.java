@@ -1,15 +1,23 @@
 package com.telenav.kivakit.serialization.kryo;
 
+import com.telenav.kivakit.core.messaging.Listener;
 import com.telenav.kivakit.core.messaging.messages.status.Problem;
 import com.telenav.kivakit.core.time.Duration;
 import com.telenav.kivakit.core.time.Time;
 import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.core.value.count.Maximum;
 import com.telenav.kivakit.core.version.Version;
 import com.telenav.kivakit.filesystem.File;
 import com.telenav.kivakit.resource.Extension;
+import com.telenav.kivakit.serialization.core.SerializationSession;
+import com.telenav.kivakit.serialization.core.SerializationSessionFactory;
 import com.telenav.kivakit.serialization.kryo.types.CoreKryoTypes;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static com.telenav.kivakit.core.version.Version.parseVersion;
 
 public class KryoSerializationSessionTest extends KryoUnitTest
@@ -49,4 +57,108 @@ public class KryoSerializationSessionTest extends KryoUnitTest
             ensureEqual(hello, "Hello, World!");
         });
     }
+
+    @Test
+    public void testPooledSession()
+    {
+        var factory = new KryoSerializationSessionFactory(new CoreKryoTypes());
+        var file = File.temporary(Extension.KRYO);
+        var version = Version.parseVersion("1.0");
+
+        // Write and then read a resource with a pooled session, closing it in between,
+        var session = factory.newSession(this);
+        session.writeResource(file, version, () -> session.write("Hello, World!"));
+        session.readResource(file, () -> ensureEqual(session.read(String.class), "Hello, World!"));
+
+        // then check that the released session is leased again by the next caller.
+        session.release();
+        ensure(factory.newSession(this) == session);
+        ensure(factory.newSession(this) != session);
+        ensureEqual(factory.statistics().hits().asInt(), 1);
+        ensureEqual(factory.statistics().misses().asInt(), 2);
+    }
+
+    @Test
+    public void testReleaseThroughInterfaces()
+    {
+        SerializationSessionFactory factory = new KryoSerializationSessionFactory(new CoreKryoTypes());
+        var file = File.temporary(Extension.KRYO);
+        var version = Version.parseVersion("1.0");
+
+        // A session released through the SerializationSession interface,
+        SerializationSession session = factory.newSession(this);
+        session.writeResource(file, version, () -> session.write("Hello, World!"));
+        session.release();
+
+        // is reused by the next caller of the SerializationSessionFactory interface.
+        var next = factory.newSession(this);
+        next.readResource(file, () -> ensureEqual(next.read(String.class), "Hello, World!"));
+        next.release();
+        var statistics = ((KryoSerializationSessionFactory) factory).statistics();
+        ensureEqual(statistics.hits().asInt(), 1);
+        ensureEqual(statistics.misses().asInt(), 1);
+    }
+
+    @Test
+    public void testReleaseByUnitTest()
+    {
+        // Each session serialization test releases the sessions it uses, so later tests reuse them
+        testSessionSerialization("first");
+        testSessionSerialization("second");
+        var statistics = ((KryoSerializationSessionFactory) sessionFactory()).statistics();
+        ensureEqual(statistics.misses().asInt(), 1);
+        ensureEqual(statistics.hits().asInt(), 3);
+    }
+
+    @Test
+    public void testReopenWhileLeasing() throws InterruptedException
+    {
+        var factory = new KryoSerializationSessionFactory(new CoreKryoTypes(), Maximum._4);
+        var file = File.temporary(Extension.KRYO);
+        var version = Version.parseVersion("1.0");
+        var messages = new AtomicInteger();
+        Listener listener = message -> messages.incrementAndGet();
+
+        // Write a resource with a leased session, which closes it,
+        var session = factory.newSession(listener);
+        session.writeResource(file, version, () -> session.write("Hello, World!"));
+
+        // and while other threads lease and release sessions,
+        var shared = new AtomicInteger();
+        var done = new AtomicBoolean();
+        var threads = new ArrayList<Thread>();
+        for (int i = 0; i < 4; i++)
+        {
+            var thread = new Thread(() ->
+            {
+                while (!done.get())
+                {
+                    var leased = factory.newSession(this);
+                    if (leased == session)
+                    {
+                        shared.incrementAndGet();
+                    }
+                    leased.release();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        // reopen the closed session a number of times,
+        for (int i = 0; i < 100; i++)
+        {
+            session.readResource(file, () -> ensureEqual(session.read(String.class), "Hello, World!"));
+        }
+        done.set(true);
+        for (var thread : threads)
+        {
+            thread.join();
+        }
+
+        // then check that no other thread leased it, and that it still broadcasts to its listener.
+        ensureEqual(shared.get(), 0);
+        session.warning("Reopened");
+        ensureEqual(messages.get(), 1);
+    }
 }
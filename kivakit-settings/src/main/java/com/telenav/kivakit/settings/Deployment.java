@@ -26,11 +26,18 @@ import com.telenav.kivakit.interfaces.naming.Named;
 import com.telenav.kivakit.resource.ResourceFolder;
 import com.telenav.kivakit.settings.lexakai.DiagramSettings;
 import com.telenav.kivakit.settings.stores.MemorySettingsStore;
+import com.telenav.kivakit.settings.stores.ResourceFolderSettingsStore;
 import com.telenav.lexakai.annotations.LexakaiJavadoc;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
 import java.io.Serializable;
 import java.util.Objects;
+import java.util.Set;
+
+import static com.telenav.kivakit.settings.SettingsStore.AccessMode.DELETE;
+import static com.telenav.kivakit.settings.SettingsStore.AccessMode.INDEX;
+import static com.telenav.kivakit.settings.SettingsStore.AccessMode.LOAD;
+import static com.telenav.kivakit.settings.SettingsStore.AccessMode.UNLOAD;
 
 /**
  * <p>
@@ -65,6 +72,15 @@ import java.util.Objects;
  * the <i>kivakit-component</i> project.
  * </p>
  *
+ * <p><b>Loading</b></p>
+ *
+ * <p>
+ * A deployment created with {@link #Deployment(Listener, String, String, ResourceFolder)} reads its settings from the
+ * given folder only when it is first loaded, which normally happens when it is selected and registered with {@link
+ * SettingsTrait#registerSettingsIn(SettingsStore)}. An application with many deployments therefore only reads the
+ * settings of the deployment it runs with.
+ * </p>
+ *
  * <p><b>Example</b></p>
  *
  * <p>
@@ -204,6 +220,9 @@ public class Deployment extends MemorySettingsStore implements Serializable
     /** The name of this deployment */
     private final String name;
 
+    /** Store of the settings in the folder of this deployment, or null if the deployment has no folder */
+    private transient SettingsStore store;
+
     /**
      * @param name The name of the deployment, like "osm-team"
      * @param description A description of the deployment
@@ -216,6 +235,27 @@ public class Deployment extends MemorySettingsStore implements Serializable
         this.description = description;
     }
 
+    /**
+     * @param name The name of the deployment, like "osm-team"
+     * @param description A description of the deployment
+     * @param folder The folder of settings resources to load when the deployment is first loaded
+     */
+    public Deployment(Listener listener, String name, String description, ResourceFolder<?> folder)
+    {
+        this(listener, name, description);
+
+        store = new ResourceFolderSettingsStore(this, folder);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<AccessMode> accessModes()
+    {
+        return store == null ? super.accessModes() : Set.of(INDEX, DELETE, UNLOAD, LOAD);
+    }
+
     /**
      * @return A description of the purpose of this deployment
      */
@@ -252,4 +292,13 @@ public class Deployment extends MemorySettingsStore implements Serializable
     {
         return name() + " - " + description();
     }
+
+    /**
+     * Loads the settings in this deployment's folder
+     */
+    @Override
+    protected Set<SettingsObject> onLoad()
+    {
+        return store == null ? super.onLoad() : store.load();
+    }
 }
@@ -28,7 +28,6 @@ import com.telenav.kivakit.resource.Resource;
 import com.telenav.kivakit.resource.ResourceFolder;
 import com.telenav.kivakit.resource.packages.Package;
 import com.telenav.kivakit.settings.lexakai.DiagramSettings;
-import com.telenav.kivakit.settings.stores.ResourceFolderSettingsStore;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 import com.telenav.lexakai.annotations.associations.UmlAggregation;
 
@@ -41,6 +40,10 @@ import java.util.Set;
  * A set of {@link Deployment} objects, each being a set of settings objects. Deployments can be added to the set from a
  * folder with {@link #addDeploymentsIn(ResourceFolder)}. A switch parser to select a deployment from the command line
  * can be retrieved with SwitchParser.deployment(DeploymentSet).
+ * <p>
+ * Adding deployments from a folder only reads the <i>Deployment.metadata</i> resource of each deployment. The settings
+ * of a deployment are read when it is loaded, which normally happens only for the deployment that is selected.
+ * </p>
  *
  * @author jonathanl (shibo)
  * @see Deployment
@@ -112,7 +115,8 @@ public class DeploymentSet extends BaseRepeater implements RegistryTrait
     }
 
     /**
-     * Adds all the deployments from the sub-packages found in the given package.
+     * Adds all the deployments from the sub-packages found in the given package. The settings in each deployment are
+     * not read until the deployment is loaded.
      */
     public DeploymentSet addDeploymentsIn(ResourceFolder<?> folder)
     {
@@ -122,13 +126,10 @@ public class DeploymentSet extends BaseRepeater implements RegistryTrait
             // get description from deployment metadata,
             String description = description(child.resource("Deployment.metadata"));
 
-            // create a deployment,
-            var deployment = new Deployment(this, child.path().last(), description);
+            // create a deployment that will load its settings from the sub-folder when it is selected,
+            var deployment = new Deployment(this, child.path().last(), description, child);
 
-            // and add the configuration information from the sub-folder,
-            deployment.indexAll(new ResourceFolderSettingsStore(this, child));
-
-            // add it to this set of deployments.
+            // and add it to this set of deployments.
             deployments.add(deployment);
         }
         return this;
@@ -21,7 +21,11 @@ package com.telenav.kivakit.settings.stores;
 import com.telenav.kivakit.core.collections.set.ObjectSet;
 import com.telenav.kivakit.core.messaging.Listener;
 import com.telenav.kivakit.core.registry.Registry;
+import com.telenav.kivakit.core.thread.Threads;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.core.vm.JavaVirtualMachine;
 import com.telenav.kivakit.filesystem.Folder;
+import com.telenav.kivakit.resource.Resource;
 import com.telenav.kivakit.resource.ResourceFolder;
 import com.telenav.kivakit.resource.serialization.ObjectSerializer;
 import com.telenav.kivakit.resource.serialization.ObjectSerializers;
@@ -32,7 +36,10 @@ import com.telenav.kivakit.settings.lexakai.DiagramSettings;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 import com.telenav.lexakai.annotations.visibility.UmlExcludeMember;
 
+import java.util.ArrayList;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import static com.telenav.kivakit.core.ensure.Ensure.unsupported;
 import static com.telenav.kivakit.settings.SettingsStore.AccessMode.DELETE;
@@ -49,7 +56,8 @@ import static com.telenav.kivakit.settings.SettingsStore.AccessMode.UNLOAD;
  * A {@link ResourceFolderSettingsStore} can be created with {@link ResourceFolderSettingsStore(Listener,
  * ResourceFolder)}. The specified package should contain a set of settings files, each of which can be passed to the
  * {@link ObjectSerializer} for the file's extension to deserialize the object. Object serializers are located with the
- * {@link ObjectSerializers} object found in the global {@link Registry}.
+ * {@link ObjectSerializers} object found in the global {@link Registry}. Since each file holds an independent settings
+ * object, the files are deserialized in parallel.
  * </p>
  *
  * @author jonathanl (shibo)
@@ -95,20 +103,50 @@ public class ResourceFolderSettingsStore extends BaseResourceSettingsStore
     @UmlExcludeMember
     public Set<SettingsObject> onLoad()
     {
-        var objects = new ObjectSet<SettingsObject>();
-
-        // Go through files in the folder
+        // Go through files in the folder,
+        var resources = new ArrayList<Resource>();
         for (var resource : folder.resources())
         {
-            // get any serializer for the file extension,
+            // and if there is a serializer for the file extension,
             var serializer = require(ObjectSerializers.class, ObjectSerializers::new)
                     .serializer(resource.extension());
             if (serializer != null)
             {
-                objects.addIfNotNull(read(resource));
+                // add the file to the list to read.
+                resources.add(resource);
             }
         }
 
+        // If there is only one file, read it on this thread,
+        var objects = new ObjectSet<SettingsObject>();
+        if (resources.size() <= 1)
+        {
+            resources.forEach(resource -> objects.addIfNotNull(read(resource)));
+            return objects;
+        }
+
+        // otherwise, read the files in parallel,
+        var threads = Math.min(resources.size(), JavaVirtualMachine.local().processors().asInt());
+        var executor = Threads.threadPool("SettingsLoader", Count.count(threads));
+        var reads = new ArrayList<Future<SettingsObject>>();
+        for (var resource : resources)
+        {
+            reads.add(executor.submit(() -> read(resource)));
+        }
+        executor.shutdown();
+
+        // and collect the settings objects that were read.
+        for (var read : reads)
+        {
+            try
+            {
+                objects.addIfNotNull(read.get());
+            }
+            catch (InterruptedException | ExecutionException e)
+            {
+                problem(e, "Unable to read settings from $", folder);
+            }
+        }
         return objects;
     }
 
@@ -0,0 +1,52 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.settings.deployment;
+
+import com.telenav.kivakit.conversion.core.language.object.KivaKitConverted;
+import com.telenav.kivakit.conversion.core.language.primitive.IntegerConverter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Settings that count how many times they have been created, to test when deployments are loaded
+ *
+ * @author jonathanl (shibo)
+ */
+public class CountingSettings
+{
+    static final AtomicInteger created = new AtomicInteger();
+
+    private int value;
+
+    public CountingSettings()
+    {
+        created.incrementAndGet();
+    }
+
+    public int value()
+    {
+        return value;
+    }
+
+    @KivaKitConverted(IntegerConverter.class)
+    public void value(int value)
+    {
+        this.value = value;
+    }
+}
@@ -0,0 +1,55 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.settings.deployment;
+
+import com.telenav.kivakit.serialization.properties.PropertiesSerializationProject;
+import com.telenav.kivakit.settings.DeploymentSet;
+import com.telenav.kivakit.settings.ServerSettings;
+import com.telenav.kivakit.settings.Settings;
+import com.telenav.kivakit.settings.SettingsTrait;
+import com.telenav.kivakit.test.UnitTest;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DeploymentSetTest extends UnitTest implements SettingsTrait
+{
+    @Before
+    public void setup()
+    {
+        initializeProject(PropertiesSerializationProject.class);
+    }
+
+    @Test
+    public void testLazyLoading()
+    {
+        CountingSettings.created.set(0);
+
+        // Loading the deployment set reads only the metadata of each deployment,
+        var deployments = DeploymentSet.load(this, getClass());
+        ensureEqual(deployments.size(), 2);
+        ensureEqual(deployments.deployment("alpha").description(), "alpha test deployment");
+        ensureEqual(CountingSettings.created.get(), 0);
+
+        // and registering a deployment reads the settings of just that deployment.
+        registerSettingsIn(deployments.deployment("beta"));
+        ensureEqual(CountingSettings.created.get(), 1);
+        ensureEqual(Settings.of(this).requireSettings(CountingSettings.class).value(), 2);
+        ensureEqual(Settings.of(this).requireSettings(ServerSettings.class).port(), 2000);
+    }
+}